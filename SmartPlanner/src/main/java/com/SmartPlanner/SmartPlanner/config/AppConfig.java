@@ -1,16 +1,103 @@
 package com.SmartPlanner.SmartPlanner.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Shared outbound HTTP client (Open-Meteo, Nominatim, OSRM, Overpass).
+ *
+ * Pooled keep-alive connections with a per-host cap, per-host connect/read/pool-wait
+ * timeouts from HttpClientProperties, transparent gzip/deflate, and per-host metrics
+ * (see OutboundHttpMetrics, GET /api/v1/admin/http-clients).
+ */
+@Slf4j
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(HttpClientProperties.class)
 public class AppConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public PoolingHttpClientConnectionManager httpConnectionManager(HttpClientProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotalConnections())
+                .setMaxConnPerRoute(properties.getDefaults().getMaxConnections())
+                .setConnectionConfigResolver(route -> {
+                    HttpClientProperties.Upstream upstream = properties.forHost(route.getTargetHost().getHostName());
+                    return ConnectionConfig.custom()
+                            .setConnectTimeout(Timeout.of(upstream.getConnectTimeout()))
+                            .setSocketTimeout(Timeout.of(upstream.getReadTimeout()))
+                            .setTimeToLive(TimeValue.ofMinutes(5))
+                            .build();
+                })
+                .build();
+
+        // Routes are created lazily by the pool, so per-host caps are set for the configured hosts up front
+        for (HttpClientProperties.Upstream upstream : properties.getUpstreams().values()) {
+            if (upstream.getHost() == null) {
+                continue;
+            }
+            connectionManager.setMaxPerRoute(new HttpRoute(new HttpHost("https", upstream.getHost(), 443), null, true),
+                    upstream.getMaxConnections());
+            connectionManager.setMaxPerRoute(new HttpRoute(new HttpHost("http", upstream.getHost(), 80), null, false),
+                    upstream.getMaxConnections());
+            log.info("Outbound HTTP {}: connect={}, read={}, poolWait={}, maxConnections={}",
+                    upstream.getHost(), upstream.getConnectTimeout(), upstream.getReadTimeout(),
+                    upstream.getPoolWaitTimeout(), upstream.getMaxConnections());
+        }
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager,
+                                          HttpClientProperties properties) {
+        // Content compression is on by default: Accept-Encoding gzip/deflate, bodies decoded transparently
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleEvictAfter()))
+                .build();
+    }
+
+    @Bean
+    public OutboundHttpMetrics outboundHttpMetrics(HttpClientProperties properties,
+                                                   PoolingHttpClientConnectionManager httpConnectionManager) {
+        return new OutboundHttpMetrics(properties, httpConnectionManager);
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient httpClient,
+                                     HttpClientProperties properties,
+                                     OutboundHttpMetrics outboundHttpMetrics) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        // Read and pool-wait timeouts are chosen per request from the target host
+        requestFactory.setHttpContextFactory((method, uri) -> {
+            HttpClientProperties.Upstream upstream = properties.forHost(uri.getHost());
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(RequestConfig.custom()
+                    .setConnectionRequestTimeout(Timeout.of(upstream.getPoolWaitTimeout()))
+                    .setResponseTimeout(Timeout.of(upstream.getReadTimeout()))
+                    .build());
+            return context;
+        });
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(outboundHttpMetrics);
+        return restTemplate;
     }
 }
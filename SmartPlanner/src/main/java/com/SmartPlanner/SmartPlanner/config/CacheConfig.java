@@ -1,22 +1,78 @@
 package com.SmartPlanner.SmartPlanner.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
+    public static final List<String> CACHE_NAMES = List.of(
+            "geocoding",
+            "reverseGeocoding",
+            "directions",
+            "nearbyPlaces",
+            "forecasts",
+            "cityMaps",
+            "vectorTiles"
+    );
+
+    // Rough per-entry overhead (key, wrapper, map node) on top of the serialized value
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final ThreadPoolExecutor refreshExecutor = createRefreshExecutor();
+
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
-                "geocoding",
-                "reverseGeocoding",
-                "directions",
-                "nearbyPlaces"
-        );
+    public CacheManager cacheManager(CacheProperties cacheProperties, ObjectMapper objectMapper) {
+        List<PolicyCache> caches = new ArrayList<>();
+        for (String name : CACHE_NAMES) {
+            CacheProperties.Policy policy = cacheProperties.policyFor(name);
+            caches.add(new PolicyCache(name, policy, value -> estimateBytes(objectMapper, value), refreshExecutor));
+            log.info("Cache {}: maxEntries={}, maxWeightBytes={}, ttl={}, alignedExpiry={}, refreshAfterWrite={}",
+                    name, policy.getMaxEntries(), policy.getMaxWeightBytes(), policy.getTtl(),
+                    policy.isAlignedExpiry(), policy.getRefreshAfterWrite());
+        }
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        return cacheManager;
+    }
+
+    @PreDestroy
+    public void shutdownRefreshExecutor() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private static int estimateBytes(ObjectMapper objectMapper, Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value).length + ENTRY_OVERHEAD_BYTES;
+        } catch (Exception e) {
+            return 1024 + ENTRY_OVERHEAD_BYTES;
+        }
+    }
+
+    private static ThreadPoolExecutor createRefreshExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(500), runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
     }
-}
\ No newline at end of file
+}
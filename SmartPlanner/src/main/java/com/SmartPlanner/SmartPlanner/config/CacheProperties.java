@@ -0,0 +1,41 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache policies, bound from "cache.policies.<cacheName>.*" in application.properties.
+ * Caches without an entry fall back to "cache.defaults.*".
+ */
+@Data
+@ConfigurationProperties(prefix = "cache")
+public class CacheProperties {
+
+    private Policy defaults = new Policy();
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    public Policy policyFor(String cacheName) {
+        for (Map.Entry<String, Policy> entry : policies.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(cacheName)) {
+                return entry.getValue();
+            }
+        }
+        return defaults;
+    }
+
+    @Data
+    public static class Policy {
+        // Either a count bound or a byte bound; max-weight-bytes wins when both are set
+        private Long maxEntries = 10_000L;
+        private Long maxWeightBytes;
+        private Duration ttl = Duration.ofHours(1);
+        // Expire at the next wall-clock multiple of ttl instead of ttl after the write
+        private boolean alignedExpiry = false;
+        // Entries older than this are served stale once while a background reload runs
+        private Duration refreshAfterWrite;
+    }
+}
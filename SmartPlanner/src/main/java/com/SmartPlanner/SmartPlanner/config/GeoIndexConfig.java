@@ -0,0 +1,81 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+
+import java.util.List;
+
+/**
+ * Keeps the GeoJSON "location" of cities and activities in step with latitude/longitude.
+ *
+ * - Every save derives location from latitude/longitude (null when either is missing)
+ * - On startup, in the background: backfill location on documents written before it existed.
+ *   Failures are logged. The 2dsphere indexes on it are declared on the models
+ *   (@GeoSpatialIndexed) and created with the others by MongoIndexConfig
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class GeoIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    // Static: the mapping infrastructure looks these up while MongoTemplate is still being created
+    @Bean
+    public static BeforeConvertCallback<City> cityLocationCallback() {
+        return (city, collection) -> {
+            city.setLocation(point(city.getLatitude(), city.getLongitude()));
+            return city;
+        };
+    }
+
+    @Bean
+    public static BeforeConvertCallback<Category> categoryLocationCallback() {
+        return (category, collection) -> {
+            category.setLocation(point(category.getLatitude(), category.getLongitude()));
+            return category;
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillGeoLocations() {
+        Thread thread = new Thread(() -> {
+            for (Class<?> type : List.of(City.class, Category.class)) {
+                try {
+                    long backfilled = backfillLocations(mongoTemplate.getCollectionName(type));
+                    log.info("{} documents in {} backfilled with a location",
+                            backfilled, mongoTemplate.getCollectionName(type));
+                } catch (Exception e) {
+                    log.warn("Could not backfill locations for {}: {}", type.getSimpleName(), e.getMessage());
+                }
+            }
+        }, "geo-location-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private long backfillLocations(String collection) {
+        Document missing = new Document("location", null)
+                .append("latitude", new Document("$type", "number"))
+                .append("longitude", new Document("$type", "number"));
+        Document setLocation = new Document("$set", new Document("location", new Document("type", "Point")
+                .append("coordinates", List.of("$longitude", "$latitude"))));
+        return mongoTemplate.getCollection(collection)
+                .updateMany(missing, List.of(setLocation))
+                .getModifiedCount();
+    }
+
+    static GeoJsonPoint point(Double latitude, Double longitude) {
+        return latitude != null && longitude != null ? new GeoJsonPoint(longitude, latitude) : null;
+    }
+}
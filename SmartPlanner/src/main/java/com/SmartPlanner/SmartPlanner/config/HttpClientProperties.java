@@ -0,0 +1,50 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outbound HTTP settings, bound from "http.client.*" in application.properties.
+ * Each entry under "http.client.upstreams.<name>" applies to one host; other hosts use
+ * "http.client.defaults.*".
+ */
+@Data
+@ConfigurationProperties(prefix = "http.client")
+public class HttpClientProperties {
+
+    // Pooled connections across all hosts
+    private int maxTotalConnections = 100;
+    private Duration idleEvictAfter = Duration.ofSeconds(30);
+
+    private Upstream defaults = new Upstream();
+    private Map<String, Upstream> upstreams = new LinkedHashMap<>();
+
+    public Upstream forHost(String host) {
+        for (Upstream upstream : upstreams.values()) {
+            if (upstream.getHost() != null && upstream.getHost().equalsIgnoreCase(host)) {
+                return upstream;
+            }
+        }
+        return defaults;
+    }
+
+    @Data
+    public static class Upstream {
+        private String host;
+        private Duration connectTimeout = Duration.ofSeconds(3);
+        // Max time waiting for response data; a slow upstream fails after this instead of pinning the caller
+        private Duration readTimeout = Duration.ofSeconds(10);
+        // Max time waiting for a free pooled connection to this host
+        private Duration poolWaitTimeout = Duration.ofSeconds(2);
+        private int maxConnections = 20;
+        // Request rate limit (see UpstreamRateLimiter); null = unlimited
+        private Double ratePerSecond;
+        private int burst = 1;
+        // Callers allowed to wait for a token before new ones are rejected
+        private int maxQueued = 10;
+    }
+}
@@ -0,0 +1,108 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.model.Country;
+import com.SmartPlanner.SmartPlanner.model.JobLease;
+import com.SmartPlanner.SmartPlanner.model.Trip;
+import com.SmartPlanner.SmartPlanner.model.TripNotification;
+import com.SmartPlanner.SmartPlanner.model.User;
+import com.SmartPlanner.SmartPlanner.model.UserProfile;
+import com.SmartPlanner.SmartPlanner.model.WeatherRefreshJob;
+import com.SmartPlanner.SmartPlanner.service.IndexHealthService;
+import com.SmartPlanner.SmartPlanner.service.IndexMigrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The index plan: every model declares the indexes its queries need (@Indexed, @CompoundIndex,
+ * partial and unique where it fits, 2dsphere on City and Category), and this creates them on
+ * startup, in the background. Automatic index creation is off in Spring Data, so a model listed here is the
+ * only way its declared indexes reach the database.
+ *
+ * Each index is created on its own, so one failure (e.g. a unique index over existing
+ * duplicates) is logged without blocking the rest. A unique index not created yet is preceded
+ * by IndexMigrationService moving existing duplicates aside, for models that say which one
+ * stays, and indexes a model no longer declares are dropped. Indexes that could not be created
+ * are reported by IndexHealthService, which afterwards also explains the hot queries and
+ * reports any that would still scan a whole collection.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+
+    static final List<Class<?>> INDEXED_TYPES = List.of(
+            Trip.class, TripNotification.class, City.class, Category.class, Country.class, User.class, UserProfile.class,
+            JobLease.class, WeatherRefreshJob.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final IndexHealthService indexHealthService;
+    private final IndexMigrationService indexMigrationService;
+
+    @Value("${mongo.indexes.verify-on-startup:true}")
+    private boolean verifyOnStartup = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        Thread thread = new Thread(() -> {
+            IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+            for (Class<?> type : INDEXED_TYPES) {
+                IndexOperations indexOps = mongoTemplate.indexOps(type);
+                Set<String> existing = new HashSet<>();
+                int created = 0;
+                for (IndexDefinition index : resolver.resolveIndexFor(type)) {
+                    try {
+                        if (existing.isEmpty()) {
+                            indexOps.getIndexInfo().forEach(info -> existing.add(info.getName()));
+                        }
+                        if (Boolean.TRUE.equals(index.getIndexOptions().get("unique"))
+                                && !existing.contains(index.getIndexOptions().getString("name"))
+                                && indexMigrationService.handles(type)) {
+                            indexMigrationService.removeDuplicates(type, index.getIndexKeys());
+                        }
+                        indexOps.ensureIndex(index);
+                        indexHealthService.indexCreated(mongoTemplate.getCollectionName(type),
+                                index.getIndexOptions().getString("name"));
+                        created++;
+                    } catch (Exception e) {
+                        log.warn("Could not create index {} on {}: {}", index.getIndexKeys().toJson(),
+                                mongoTemplate.getCollectionName(type), e.getMessage());
+                        indexHealthService.indexFailed(mongoTemplate.getCollectionName(type),
+                                index.getIndexOptions().getString("name"), e.getMessage());
+                    }
+                }
+                for (String retired : indexMigrationService.retiredIndexes(type)) {
+                    try {
+                        if (indexOps.getIndexInfo().stream().anyMatch(info -> info.getName().equals(retired))) {
+                            indexOps.dropIndex(retired);
+                            log.info("Dropped retired index {} on {}", retired, mongoTemplate.getCollectionName(type));
+                        }
+                    } catch (Exception e) {
+                        log.warn("Could not drop retired index {} on {}: {}", retired,
+                                mongoTemplate.getCollectionName(type), e.getMessage());
+                    }
+                }
+                log.info("{} indexes ready on {}", created, mongoTemplate.getCollectionName(type));
+            }
+            if (verifyOnStartup) {
+                indexHealthService.verify();
+            }
+        }, "mongo-index-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
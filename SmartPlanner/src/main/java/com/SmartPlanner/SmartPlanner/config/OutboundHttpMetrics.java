@@ -0,0 +1,142 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import com.SmartPlanner.SmartPlanner.dto.HttpHostStatsResponse;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-host request count, errors, timeouts and latency for every call made through the shared
+ * RestTemplate, reported together with the host's pool state and configured limits.
+ * Percentiles are computed over the last RECENT_SAMPLES requests of each host.
+ */
+public class OutboundHttpMetrics implements ClientHttpRequestInterceptor {
+
+    private static final int RECENT_SAMPLES = 512;
+
+    private final HttpClientProperties properties;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final Map<String, HostMetrics> hosts = new ConcurrentHashMap<>();
+
+    public OutboundHttpMetrics(HttpClientProperties properties, PoolingHttpClientConnectionManager connectionManager) {
+        this.properties = properties;
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        HostMetrics metrics = hosts.computeIfAbsent(String.valueOf(request.getURI().getHost()), host -> new HostMetrics());
+        long start = System.nanoTime();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            metrics.record(System.nanoTime() - start, response.getStatusCode().is5xxServerError(), false);
+            return response;
+        } catch (IOException e) {
+            // Connect, read and pool-lease timeouts are all InterruptedIOExceptions
+            metrics.record(System.nanoTime() - start, true, e instanceof InterruptedIOException);
+            throw e;
+        }
+    }
+
+    public List<HttpHostStatsResponse> getStats() {
+        Map<String, PoolStats> pools = new TreeMap<>();
+        if (connectionManager != null) {
+            for (HttpRoute route : connectionManager.getRoutes()) {
+                pools.merge(route.getTargetHost().getHostName(), connectionManager.getStats(route), (a, b) ->
+                        new PoolStats(a.getLeased() + b.getLeased(), a.getPending() + b.getPending(),
+                                a.getAvailable() + b.getAvailable(), a.getMax() + b.getMax()));
+            }
+        }
+
+        Set<String> names = new TreeSet<>(hosts.keySet());
+        names.addAll(pools.keySet());
+
+        List<HttpHostStatsResponse> stats = new ArrayList<>();
+        for (String host : names) {
+            HttpClientProperties.Upstream upstream = properties.forHost(host);
+            PoolStats pool = pools.get(host);
+            HttpHostStatsResponse.HttpHostStatsResponseBuilder builder = HttpHostStatsResponse.builder()
+                    .host(host)
+                    .connectTimeoutMs(upstream.getConnectTimeout().toMillis())
+                    .readTimeoutMs(upstream.getReadTimeout().toMillis())
+                    .maxConnections(upstream.getMaxConnections())
+                    .leasedConnections(pool != null ? pool.getLeased() : 0)
+                    .availableConnections(pool != null ? pool.getAvailable() : 0)
+                    .pendingRequests(pool != null ? pool.getPending() : 0);
+            HostMetrics metrics = hosts.get(host);
+            if (metrics != null) {
+                metrics.fill(builder);
+            }
+            stats.add(builder.build());
+        }
+        return stats;
+    }
+
+    private static class HostMetrics {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray recent = new AtomicLongArray(RECENT_SAMPLES);
+        private final AtomicInteger next = new AtomicInteger();
+
+        private void record(long nanos, boolean error, boolean timeout) {
+            requests.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            recent.set(Math.floorMod(next.getAndIncrement(), RECENT_SAMPLES), nanos);
+            if (error) {
+                errors.increment();
+            }
+            if (timeout) {
+                timeouts.increment();
+            }
+        }
+
+        private void fill(HttpHostStatsResponse.HttpHostStatsResponseBuilder builder) {
+            long count = requests.sum();
+            long[] sorted = new long[(int) Math.min(count, RECENT_SAMPLES)];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = recent.get(i);
+            }
+            Arrays.sort(sorted);
+
+            builder.requestCount(count)
+                    .errorCount(errors.sum())
+                    .timeoutCount(timeouts.sum())
+                    .avgLatencyMs(count == 0 ? 0 : totalNanos.sum() / (double) count / 1_000_000)
+                    .p50LatencyMs(percentileMs(sorted, 0.50))
+                    .p95LatencyMs(percentileMs(sorted, 0.95))
+                    .maxLatencyMs(maxNanos.get() / 1_000_000);
+        }
+
+        private static long percentileMs(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import com.SmartPlanner.SmartPlanner.dto.CacheStatsResponse;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Spring Cache backed by a bounded Caffeine store.
+ *
+ * - size bound by entry count or by estimated bytes (see CacheProperties.Policy)
+ * - hard expiry after ttl, or at the next wall-clock multiple of ttl when alignedExpiry is set
+ * - refresh-after-write: with @Cacheable(sync = true) an entry older than refreshAfterWrite is
+ *   returned as-is while one background reload replaces it
+ * - concurrent misses for the same key share a single load
+ * - null results (failed upstream calls) are never stored
+ */
+@Slf4j
+public class PolicyCache implements Cache {
+
+    private final String name;
+    private final CacheProperties.Policy policy;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Entry> store;
+    private final ToIntFunction<Object> sizeEstimator;
+    private final Executor refreshExecutor;
+    private final Ticker ticker;
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder refreshCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    public PolicyCache(String name, CacheProperties.Policy policy,
+                       ToIntFunction<Object> sizeEstimator, Executor refreshExecutor) {
+        this(name, policy, sizeEstimator, refreshExecutor, Ticker.systemTicker());
+    }
+
+    PolicyCache(String name, CacheProperties.Policy policy,
+                ToIntFunction<Object> sizeEstimator, Executor refreshExecutor, Ticker ticker) {
+        this.name = name;
+        this.policy = policy;
+        this.sizeEstimator = sizeEstimator;
+        this.refreshExecutor = refreshExecutor;
+        this.ticker = ticker;
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .recordStats()
+                .ticker(ticker);
+
+        if (policy.getTtl() != null && policy.isAlignedExpiry()) {
+            builder.expireAfter(alignedExpiry(policy.getTtl().toNanos()));
+        } else if (policy.getTtl() != null) {
+            builder.expireAfterWrite(policy.getTtl());
+        }
+
+        if (policy.getMaxWeightBytes() != null) {
+            builder.maximumWeight(policy.getMaxWeightBytes())
+                    .weigher((Weigher<Object, Object>) (key, entry) -> ((Entry) entry).weight());
+        } else if (policy.getMaxEntries() != null) {
+            builder.maximumSize(policy.getMaxEntries());
+        }
+
+        this.store = builder.build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return store;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Entry entry = store.getIfPresent(key);
+        return entry != null ? new SimpleValueWrapper(entry.value()) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        Entry entry = store.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (type != null && !type.isInstance(entry.value())) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + entry.value());
+        }
+        return (T) entry.value();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Entry entry = store.getIfPresent(key);
+        if (entry != null) {
+            if (isRefreshDue(entry)) {
+                refreshAsync(key, valueLoader);
+            }
+            return (T) entry.value();
+        }
+        return (T) loadOnce(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        int weight = policy.getMaxWeightBytes() != null ? sizeEstimator.applyAsInt(value) : 1;
+        store.put(key, new Entry(value, ticker.read(), weight));
+    }
+
+    @Override
+    public void evict(Object key) {
+        store.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        store.invalidateAll();
+    }
+
+    /**
+     * Drops every entry whose key matches, e.g. all cached views of one city. A load already in
+     * flight for a matching key still stores its (possibly stale) result.
+     */
+    public void evictIf(Predicate<Object> keyPredicate) {
+        store.asMap().keySet().removeIf(keyPredicate);
+    }
+
+    public CacheStatsResponse getStats() {
+        CacheStats stats = store.stats();
+        Long weightBytes = policy.getMaxWeightBytes() == null ? null : store.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+
+        return CacheStatsResponse.builder()
+                .name(name)
+                .maxEntries(policy.getMaxWeightBytes() == null ? policy.getMaxEntries() : null)
+                .maxWeightBytes(policy.getMaxWeightBytes())
+                .ttl(policy.getTtl() != null ? policy.getTtl().toString() : null)
+                .alignedExpiry(policy.isAlignedExpiry())
+                .refreshAfterWrite(policy.getRefreshAfterWrite() != null ? policy.getRefreshAfterWrite().toString() : null)
+                .size(store.estimatedSize())
+                .weightBytes(weightBytes)
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .refreshCount(refreshCount.sum())
+                .loadFailureCount(loadFailureCount.sum())
+                .build();
+    }
+
+    // Expires every entry at the next wall-clock boundary of the ttl (e.g. the top of the hour for 1h)
+    private Expiry<Object, Object> alignedExpiry(long ttlNanos) {
+        long wallClockOffset = System.currentTimeMillis() * 1_000_000L - ticker.read();
+
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, Object value, long currentTime) {
+                return ttlNanos - Math.floorMod(currentTime + wallClockOffset, ttlNanos);
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                return ttlNanos - Math.floorMod(currentTime + wallClockOffset, ttlNanos);
+            }
+
+            @Override
+            public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    private boolean isRefreshDue(Entry entry) {
+        return policy.getRefreshAfterWrite() != null
+                && ticker.read() - entry.writtenAt() >= policy.getRefreshAfterWrite().toNanos();
+    }
+
+    // Single-flight: the first caller loads, concurrent callers for the same key wait for its result
+    private Object loadOnce(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+
+        try {
+            // Through the map view: a second getIfPresent would count this lookup as another miss
+            Entry loadedMeanwhile = store.asMap().get(key);
+            if (loadedMeanwhile != null) {
+                mine.complete(loadedMeanwhile.value());
+                return loadedMeanwhile.value();
+            }
+
+            Object value = valueLoader.call();
+            put(key, value);
+            mine.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            loadFailureCount.increment();
+            mine.completeExceptionally(ex);
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private void refreshAsync(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, mine) != null) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    Object value = valueLoader.call();
+                    put(key, value);
+                    refreshCount.increment();
+                    mine.complete(value);
+                } catch (Throwable ex) {
+                    loadFailureCount.increment();
+                    log.warn("Refresh failed for cache {} key {}: {}", name, key, ex.getMessage());
+                    mine.completeExceptionally(ex);
+                } finally {
+                    inFlight.remove(key, mine);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, mine);
+            mine.complete(null);
+        }
+    }
+
+    private record Entry(Object value, long writtenAt, int weight) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket with reservations: a caller that finds no token takes a slot in line and is told
+ * how long to wait, so the bucket's monitor is only held for the bookkeeping, never while waiting.
+ * At most maxQueued callers can be in line; further callers are turned away immediately.
+ */
+public class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private final int maxQueued;
+    private final LongSupplier nanoClock;
+
+    // Goes negative while callers are queued: -tokens is the number of reserved future tokens
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double tokensPerSecond, int burst, int maxQueued) {
+        this(tokensPerSecond, burst, maxQueued, System::nanoTime);
+    }
+
+    TokenBucket(double tokensPerSecond, int burst, int maxQueued, LongSupplier nanoClock) {
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        this.maxQueued = Math.max(0, maxQueued);
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes a token, or a place in line for the next free one.
+     *
+     * @return nanoseconds to wait before using the token (0 = now), or -1 if the line is full
+     */
+    public synchronized long reserve() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        if (queued() >= maxQueued) {
+            return -1;
+        }
+        long waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+        tokens -= 1;
+        return waitNanos;
+    }
+
+    /**
+     * Reserves a token and waits for it on the calling thread.
+     *
+     * @return false if the line was full or the wait was interrupted (the token is given back)
+     */
+    public boolean acquire() {
+        long waitNanos = reserve();
+        if (waitNanos < 0) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gives back a token reserved but not used, so the callers behind it move up.
+     */
+    public synchronized void cancel() {
+        refill();
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    public synchronized int queued() {
+        refill();
+        return tokens >= 0 ? 0 : (int) Math.ceil(-tokens);
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
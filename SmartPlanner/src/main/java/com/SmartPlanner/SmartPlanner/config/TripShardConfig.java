@@ -0,0 +1,55 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import com.SmartPlanner.SmartPlanner.model.Trip;
+import com.SmartPlanner.SmartPlanner.service.TripShardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+
+/**
+ * Keeps the reminder shard of trips (Trip.shardOf) set:
+ *
+ * - Every save sets it; new trips get their ObjectId here rather than from the driver, so the
+ *   shard can be derived from the id in the same insert
+ * - On startup, in the background: backfill it on trips written before it existed. Failures are
+ *   logged; the reminder run backfills the trips it needs again before it starts
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class TripShardConfig {
+
+    private final TripShardService tripShardService;
+
+    // Static: the mapping infrastructure looks these up while MongoTemplate is still being created
+    @Bean
+    public static BeforeConvertCallback<Trip> tripShardCallback() {
+        return (trip, collection) -> {
+            if (trip.getId() == null) {
+                trip.setId(new ObjectId().toHexString());
+            }
+            if (trip.getShard() == null) {
+                trip.setShard(Trip.shardOf(trip.getId()));
+            }
+            return trip;
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillShards() {
+        Thread thread = new Thread(() -> {
+            try {
+                tripShardService.backfill();
+            } catch (Exception e) {
+                log.warn("Could not backfill trip shards: {}", e.getMessage());
+            }
+        }, "trip-shard-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,128 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs controller work that waits on slow upstreams (Nominatim, OSRM, Overpass, Open-Meteo)
+ * off the servlet threads, so a burst of map lookups cannot tie up the threads that serve
+ * catalog reads.
+ *
+ * Controllers return the CompletableFuture and Spring MVC completes the response when it is
+ * done (spring.mvc.async.request-timeout bounds the wait). upstream.execution.mode:
+ * - sync:    run on the request thread, as before (future is already complete)
+ * - async:   bounded pool per lane (maps, weather); a full queue answers 503 right away
+ * - virtual: one virtual thread per call on Java 21+, falls back to async on older runtimes
+ */
+@Slf4j
+@Component
+public class UpstreamExecutor {
+
+    public static final String MAPS = "maps";
+    public static final String WEATHER = "weather";
+
+    @Value("${upstream.execution.mode:sync}")
+    private String mode = "sync";
+
+    @Value("${upstream.execution.maps.pool-size:32}")
+    private int mapsPoolSize = 32;
+
+    @Value("${upstream.execution.weather.pool-size:32}")
+    private int weatherPoolSize = 32;
+
+    @Value("${upstream.execution.queue-capacity:200}")
+    private int queueCapacity = 200;
+
+    private final Map<String, ExecutorService> lanes = new ConcurrentHashMap<>();
+    private ExecutorService virtualThreads;
+
+    @PostConstruct
+    public void init() {
+        mode = mode.trim().toLowerCase(Locale.ROOT);
+        if ("virtual".equals(mode)) {
+            virtualThreads = newVirtualThreadExecutor();
+            if (virtualThreads == null) {
+                log.warn("Virtual threads need Java 21+, running upstream calls on bounded pools instead");
+                mode = "async";
+            }
+        }
+        if ("async".equals(mode)) {
+            lanes.put(MAPS, newLane(MAPS, mapsPoolSize));
+            lanes.put(WEATHER, newLane(WEATHER, weatherPoolSize));
+        }
+        log.info("Upstream execution mode: {}", mode);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.values().forEach(ExecutorService::shutdownNow);
+        if (virtualThreads != null) {
+            virtualThreads.shutdownNow();
+        }
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    /**
+     * Runs the call in the given lane. Exceptions thrown by the call complete the future
+     * exceptionally; Spring MVC then handles them as if the controller had thrown.
+     */
+    public <T> CompletableFuture<T> submit(String lane, Supplier<T> call) {
+        ExecutorService executor = virtualThreads != null ? virtualThreads : lanes.get(lane);
+        if (executor == null) {
+            return CompletableFuture.completedFuture(call.get());
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(call, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Upstream lane '{}' is saturated, rejecting request", lane);
+            return CompletableFuture.failedFuture(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many pending " + lane + " requests"));
+        }
+    }
+
+    private ExecutorService newLane(String lane, int poolSize) {
+        AtomicInteger counter = new AtomicInteger();
+        int threads = Math.max(1, poolSize);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "upstream-" + lane + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() is looked up reflectively so the build stays on Java 17
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-upstream request rate limits (Nominatim, OSRM, Overpass), one TokenBucket each, configured
+ * by http.client.upstreams.<name>.rate-per-second / burst / max-queued. Upstreams without a rate
+ * are not limited.
+ *
+ * Callers acquire right before the upstream call, after the cache lookup, so cached keys never
+ * wait for a token. When an upstream's line is full the request fails fast with 503 instead of
+ * piling up behind it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UpstreamRateLimiter {
+
+    private final HttpClientProperties properties;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public void acquire(String upstream) {
+        TokenBucket bucket = bucket(upstream);
+        if (bucket != null && !bucket.acquire()) {
+            log.warn("Rate limit queue for {} is full, rejecting request", upstream);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many pending " + upstream + " requests, please retry shortly");
+        }
+    }
+
+    public int queued(String upstream) {
+        TokenBucket bucket = bucket(upstream);
+        return bucket != null ? bucket.queued() : 0;
+    }
+
+    private TokenBucket bucket(String upstream) {
+        HttpClientProperties.Upstream config = properties.getUpstreams().get(upstream);
+        if (config == null || config.getRatePerSecond() == null || config.getRatePerSecond() <= 0) {
+            return null;
+        }
+        return buckets.computeIfAbsent(upstream, name ->
+                new TokenBucket(config.getRatePerSecond(), config.getBurst(), config.getMaxQueued()));
+    }
+}
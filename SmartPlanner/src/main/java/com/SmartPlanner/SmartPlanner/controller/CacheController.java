@@ -0,0 +1,60 @@
+package com.SmartPlanner.SmartPlanner.controller;
+
+import com.SmartPlanner.SmartPlanner.config.PolicyCache;
+import com.SmartPlanner.SmartPlanner.dto.CacheStatsResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Cache Administration", description = "Cache policies and hit/miss/eviction statistics")
+public class CacheController {
+
+    private final CacheManager cacheManager;
+
+    @GetMapping("/api/v1/admin/caches")
+    @Operation(summary = "Get statistics for every cache")
+    public ResponseEntity<List<CacheStatsResponse>> getAllCacheStats() {
+        List<CacheStatsResponse> stats = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof PolicyCache cache) {
+                stats.add(cache.getStats());
+            }
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/api/v1/admin/caches/{name}")
+    @Operation(summary = "Get statistics for one cache")
+    public ResponseEntity<?> getCacheStats(@PathVariable String name) {
+        if (cacheManager.getCache(name) instanceof PolicyCache cache) {
+            return ResponseEntity.ok(cache.getStats());
+        }
+        return ResponseEntity.badRequest().body(new ErrorResponse("Cache not found: " + name));
+    }
+
+    @DeleteMapping("/api/v1/admin/caches/{name}")
+    @Operation(summary = "Clear all entries of one cache")
+    public ResponseEntity<?> clearCache(@PathVariable String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("Cache not found: " + name));
+        }
+        cache.clear();
+        return ResponseEntity.ok(new SuccessResponse("Cache cleared: " + name));
+    }
+
+    record ErrorResponse(String message) {}
+    record SuccessResponse(String message) {}
+}
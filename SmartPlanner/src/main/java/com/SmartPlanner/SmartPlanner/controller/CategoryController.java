@@ -3,13 +3,14 @@ package com.SmartPlanner.SmartPlanner.controller;
 import com.SmartPlanner.SmartPlanner.dto.CategoryRequest;
 import com.SmartPlanner.SmartPlanner.model.Category;
 import com.SmartPlanner.SmartPlanner.service.CategoryService;
+import com.SmartPlanner.SmartPlanner.service.CursorPageService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequiredArgsConstructor
@@ -18,9 +19,22 @@ public class CategoryController {
 
     private final CategoryService categoryService;
 
+    // Whole list without paging parameters; keyset pages with ?limit= and/or ?after=
     @GetMapping("/api/v1/categories")
-    public ResponseEntity<List<Category>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<?> getAllCategories(@RequestParam(required = false) String after,
+                                              @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(categoryService.getAllCategories());
+        }
+        return ResponseEntity.ok(categoryService.getCategoriesPage(after, limit));
+    }
+
+    // NDJSON, one document per line, straight off the Mongo cursor
+    @GetMapping(value = "/api/v1/categories", produces = CursorPageService.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamCategories(@RequestParam(required = false) String after) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(CursorPageService.NDJSON))
+                .body(out -> categoryService.streamCategories(after, out));
     }
 
     @GetMapping("/api/v1/categories/{id}")
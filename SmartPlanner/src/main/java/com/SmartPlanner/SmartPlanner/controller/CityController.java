@@ -1,15 +1,17 @@
 package com.SmartPlanner.SmartPlanner.controller;
 
 import com.SmartPlanner.SmartPlanner.dto.CityRequest;
+import com.SmartPlanner.SmartPlanner.dto.WeatherRefreshJobResponse;
 import com.SmartPlanner.SmartPlanner.model.City;
 import com.SmartPlanner.SmartPlanner.service.CityService;
+import com.SmartPlanner.SmartPlanner.service.CursorPageService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequiredArgsConstructor
@@ -18,9 +20,22 @@ public class CityController {
 
     private final CityService cityService;
 
+    // Whole list without paging parameters; keyset pages with ?limit= and/or ?after=
     @GetMapping("/api/v1/cities")
-    public ResponseEntity<List<City>> getAllCities() {
-        return ResponseEntity.ok(cityService.getAllCities());
+    public ResponseEntity<?> getAllCities(@RequestParam(required = false) String after,
+                                          @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(cityService.getAllCities());
+        }
+        return ResponseEntity.ok(cityService.getCitiesPage(after, limit));
+    }
+
+    // NDJSON, one document per line, straight off the Mongo cursor
+    @GetMapping(value = "/api/v1/cities", produces = CursorPageService.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamCities(@RequestParam(required = false) String after) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(CursorPageService.NDJSON))
+                .body(out -> cityService.streamCities(after, out));
     }
 
     @GetMapping("/api/v1/cities/{id}")
@@ -92,8 +107,17 @@ public class CityController {
     }
 
     @PostMapping("/api/v1/admin/cities/refresh-all-weather")
-    public ResponseEntity<List<City>> refreshAllWeather() {
-        return ResponseEntity.ok(cityService.refreshAllWeather());
+    public ResponseEntity<WeatherRefreshJobResponse> refreshAllWeather() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(cityService.refreshAllWeather());
+    }
+
+    @GetMapping("/api/v1/admin/cities/refresh-all-weather/{jobId}")
+    public ResponseEntity<?> getWeatherRefreshJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(cityService.getWeatherRefreshJob(jobId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(e.getMessage()));
+        }
     }
 
     @PostMapping("/api/v1/admin/countries/{countryId}/cities/seed")
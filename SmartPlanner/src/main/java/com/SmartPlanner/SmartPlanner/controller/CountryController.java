@@ -4,14 +4,19 @@ import com.SmartPlanner.SmartPlanner.dto.CountryRequest;
 import com.SmartPlanner.SmartPlanner.dto.FullCountryRequest;
 import com.SmartPlanner.SmartPlanner.dto.FullCountryResponse;
 import com.SmartPlanner.SmartPlanner.model.Country;
+import com.SmartPlanner.SmartPlanner.service.CatalogSnapshotService;
 import com.SmartPlanner.SmartPlanner.service.CountryService;
+import com.SmartPlanner.SmartPlanner.service.CursorPageService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequiredArgsConstructor
@@ -21,8 +26,31 @@ public class CountryController {
     private final CountryService countryService;
 
     @GetMapping("/api/v1/countries/full")
-    public ResponseEntity<List<FullCountryResponse>> getAllCountriesWithCitiesAndActivities() {
-        return ResponseEntity.ok(countryService.getAllCountriesWithCitiesAndActivities());
+    public ResponseEntity<byte[]> getAllCountriesWithCitiesAndActivities(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CatalogSnapshotService.Snapshot catalog = countryService.getFullCatalog();
+
+        if (notModified(ifNoneMatch, catalog.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(catalog.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(catalog.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(catalog.json());
+    }
+
+    // If-None-Match may list several ETags, send weak W/ ETags (compared weakly, as for GET) or be "*"
+    private static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        ETag current = ETag.create(etag);
+        return ETag.parse(ifNoneMatch).stream().anyMatch(tag -> tag.isWildcard() || tag.compare(current, false));
     }
 
     @GetMapping("/api/v1/countries/{id}/full")
@@ -34,9 +62,22 @@ public class CountryController {
         }
     }
 
+    // Whole list without paging parameters; keyset pages with ?limit= and/or ?after=
     @GetMapping("/api/v1/countries")
-    public ResponseEntity<List<Country>> getAllCountries() {
-        return ResponseEntity.ok(countryService.getActiveCountries());
+    public ResponseEntity<?> getAllCountries(@RequestParam(required = false) String after,
+                                             @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(countryService.getActiveCountries());
+        }
+        return ResponseEntity.ok(countryService.getActiveCountriesPage(after, limit));
+    }
+
+    // NDJSON, one document per line, straight off the Mongo cursor
+    @GetMapping(value = "/api/v1/countries", produces = CursorPageService.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamActiveCountries(@RequestParam(required = false) String after) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(CursorPageService.NDJSON))
+                .body(out -> countryService.streamActiveCountries(after, out));
     }
 
     @GetMapping("/api/v1/countries/{id}")
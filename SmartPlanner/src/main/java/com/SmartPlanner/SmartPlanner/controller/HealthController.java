@@ -0,0 +1,58 @@
+package com.SmartPlanner.SmartPlanner.controller;
+
+import com.SmartPlanner.SmartPlanner.dto.IndexHealthResponse;
+import com.SmartPlanner.SmartPlanner.service.IndexHealthService;
+import com.SmartPlanner.SmartPlanner.service.IndexMigrationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.OptionalLong;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Health", description = "Index health of the hot Mongo queries")
+public class HealthController {
+
+    private final IndexHealthService indexHealthService;
+    private final IndexMigrationService indexMigrationService;
+
+    @GetMapping("/api/v1/health")
+    @Operation(summary = "503 when a hot query would scan a whole collection")
+    public ResponseEntity<IndexHealthResponse> getHealth() {
+        return respond(indexHealthService.getHealth());
+    }
+
+    @PostMapping("/api/v1/admin/indexes/verify")
+    @Operation(summary = "Explain the hot queries again, e.g. after creating indexes by hand")
+    public ResponseEntity<IndexHealthResponse> verifyIndexes() {
+        return respond(indexHealthService.verify());
+    }
+
+    @PostMapping("/api/v1/admin/indexes/{collection}/duplicates")
+    @Operation(summary = "Move duplicate users or profiles aside and create their unique index")
+    public ResponseEntity<?> removeDuplicates(@PathVariable String collection) {
+        OptionalLong moved = indexMigrationService.removeDuplicatesOnRequest(collection);
+        if (moved.isEmpty()) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("Duplicates are not removed on request for: " + collection));
+        }
+        IndexHealthResponse health = indexHealthService.verify();
+        return ResponseEntity.ok(new DuplicatesResponse(collection, moved.getAsLong(), collection + "_duplicates", health));
+    }
+
+    private static ResponseEntity<IndexHealthResponse> respond(IndexHealthResponse health) {
+        HttpStatus status = IndexHealthService.DOWN.equals(health.getStatus())
+                ? HttpStatus.SERVICE_UNAVAILABLE
+                : HttpStatus.OK;
+        return ResponseEntity.status(status).body(health);
+    }
+
+    record ErrorResponse(String message) {}
+    record DuplicatesResponse(String collection, long moved, String movedTo, IndexHealthResponse health) {}
+}
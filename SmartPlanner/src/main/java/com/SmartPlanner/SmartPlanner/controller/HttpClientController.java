@@ -0,0 +1,26 @@
+package com.SmartPlanner.SmartPlanner.controller;
+
+import com.SmartPlanner.SmartPlanner.config.OutboundHttpMetrics;
+import com.SmartPlanner.SmartPlanner.dto.HttpHostStatsResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Outbound HTTP Administration", description = "Per-host pool state, timeouts, latency and errors of upstream calls")
+public class HttpClientController {
+
+    private final OutboundHttpMetrics outboundHttpMetrics;
+
+    @GetMapping("/api/v1/admin/http-clients")
+    @Operation(summary = "Get latency, error and pool statistics for every upstream host")
+    public ResponseEntity<List<HttpHostStatsResponse>> getHttpClientStats() {
+        return ResponseEntity.ok(outboundHttpMetrics.getStats());
+    }
+}
@@ -1,15 +1,23 @@
 package com.SmartPlanner.SmartPlanner.controller;
 
+import com.SmartPlanner.SmartPlanner.config.UpstreamExecutor;
 import com.SmartPlanner.SmartPlanner.dto.DirectionsRequest;
 import com.SmartPlanner.SmartPlanner.dto.DirectionsResponse;
 import com.SmartPlanner.SmartPlanner.dto.DistanceResponse;
 import com.SmartPlanner.SmartPlanner.dto.GeocodingResponse;
 import com.SmartPlanner.SmartPlanner.dto.MapCityResponse;
+import com.SmartPlanner.SmartPlanner.dto.NearbyCatalogResponse;
 import com.SmartPlanner.SmartPlanner.dto.NearbyPlacesResponse;
+import com.SmartPlanner.SmartPlanner.service.CityMapService;
+import com.SmartPlanner.SmartPlanner.service.GeoSearchService;
 import com.SmartPlanner.SmartPlanner.service.MapService;
+import com.SmartPlanner.SmartPlanner.service.SpatialIndexService;
+import com.SmartPlanner.SmartPlanner.service.VectorTileService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -19,8 +27,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/maps")
@@ -29,52 +39,65 @@ import java.util.List;
 public class MapController {
 
     private final MapService mapService;
+    private final GeoSearchService geoSearchService;
+    private final CityMapService cityMapService;
+    private final SpatialIndexService spatialIndexService;
+    private final VectorTileService vectorTileService;
+    private final UpstreamExecutor upstreamExecutor;
 
     @GetMapping("/city/{cityId}")
-    @Operation(summary = "Get city map data with activity markers")
-    public ResponseEntity<MapCityResponse> getCityMapData(@PathVariable String cityId) {
-        // TODO: Integrate with CityRepository and CategoryRepository
-        // For now, returning sample data structure
-        MapCityResponse response = new MapCityResponse();
-        response.setCityId(cityId);
-        response.setCityName("Sample City");
-        response.setCenter(new MapCityResponse.Coordinates(24.8607, 67.0011));
-        response.setBoundingBox(new MapCityResponse.BoundingBox(25.0, 24.7, 67.3, 66.7));
-        response.setMarkers(new ArrayList<>());
-
-        // Add sample marker
-        MapCityResponse.MapMarker marker = new MapCityResponse.MapMarker();
-        marker.setId("cat1");
-        marker.setName("Clifton Beach");
-        marker.setType("activity");
-        marker.setLatitude(24.7937);
-        marker.setLongitude(66.9629);
-        marker.setDescription("Famous beach");
-        response.getMarkers().add(marker);
+    @Operation(summary = "Get city map data with activity markers clustered for the zoom level")
+    public ResponseEntity<MapCityResponse> getCityMapData(
+            @PathVariable String cityId,
+            @RequestParam(required = false) Integer zoom,
+            @RequestParam(required = false) Integer x,
+            @RequestParam(required = false) Integer y) {
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic())
+                .body(cityMapService.getCityMap(cityId, zoom, x, y));
+    }
 
-        return ResponseEntity.ok(response);
+    @GetMapping("/tiles/{z}/{x}/{y}.mvt")
+    @Operation(summary = "Mapbox Vector Tile of active cities and activities")
+    public ResponseEntity<byte[]> getVectorTile(
+            @PathVariable int z,
+            @PathVariable int x,
+            @PathVariable int y) {
+
+        byte[] tile = vectorTileService.getTile(z, x, y);
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+        if (tile.length == 0) {
+            return ResponseEntity.noContent().cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType(VectorTileService.CONTENT_TYPE))
+                .body(tile);
     }
 
     @GetMapping("/directions")
     @Operation(summary = "Get route between two points")
-    public ResponseEntity<DirectionsResponse> getDirections(
+    public CompletableFuture<ResponseEntity<DirectionsResponse>> getDirections(
             @RequestParam double originLat,
             @RequestParam double originLon,
             @RequestParam double destLat,
             @RequestParam double destLon,
             @RequestParam(defaultValue = "driving") String mode) {
 
-        DirectionsResponse response = mapService.getDirections(
-                originLat, originLon, destLat, destLon, mode);
+        return upstreamExecutor.submit(UpstreamExecutor.MAPS, () -> {
+            DirectionsResponse response = mapService.getDirections(
+                    originLat, originLon, destLat, destLon, mode);
 
-        return response != null ?
-                ResponseEntity.ok(response) :
-                ResponseEntity.badRequest().build();
+            return response != null ?
+                    ResponseEntity.ok(response) :
+                    ResponseEntity.badRequest().build();
+        });
     }
 
     @PostMapping("/route")
     @Operation(summary = "Get multi-stop route for trip")
-    public ResponseEntity<DirectionsResponse> getMultiStopRoute(
+    public CompletableFuture<ResponseEntity<DirectionsResponse>> getMultiStopRoute(
             @RequestBody DirectionsRequest request) {
 
         List<double[]> coordinates = new ArrayList<>();
@@ -88,28 +111,83 @@ public class MapController {
 
         coordinates.add(new double[]{request.getDestLat(), request.getDestLon()});
 
-        DirectionsResponse response = mapService.getMultiStopRoute(
-                coordinates, request.getMode());
+        return upstreamExecutor.submit(UpstreamExecutor.MAPS, () -> {
+            DirectionsResponse response = mapService.getMultiStopRoute(
+                    coordinates, request.getMode());
 
-        return response != null ?
-                ResponseEntity.ok(response) :
-                ResponseEntity.badRequest().build();
+            return response != null ?
+                    ResponseEntity.ok(response) :
+                    ResponseEntity.badRequest().build();
+        });
     }
 
     @GetMapping("/nearby")
     @Operation(summary = "Get nearby POIs")
-    public ResponseEntity<NearbyPlacesResponse> getNearbyPlaces(
+    public CompletableFuture<ResponseEntity<NearbyPlacesResponse>> getNearbyPlaces(
             @RequestParam double lat,
             @RequestParam double lon,
             @RequestParam(defaultValue = "5000") int radius,
             @RequestParam(defaultValue = "tourism") String type) {
 
-        NearbyPlacesResponse response = mapService.getNearbyPlaces(
-                lat, lon, radius, type);
+        return upstreamExecutor.submit(UpstreamExecutor.MAPS, () -> {
+            NearbyPlacesResponse response = mapService.getNearbyPlaces(
+                    lat, lon, radius, type);
+
+            return response != null ?
+                    ResponseEntity.ok(response) :
+                    ResponseEntity.badRequest().build();
+        });
+    }
+
+    @GetMapping("/catalog/nearby")
+    @Operation(summary = "Our activities and cities within a radius or bounding box, nearest first")
+    public ResponseEntity<NearbyCatalogResponse> getNearbyCatalog(
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Integer radius,
+            @RequestParam(required = false) Double north,
+            @RequestParam(required = false) Double south,
+            @RequestParam(required = false) Double east,
+            @RequestParam(required = false) Double west,
+            @RequestParam(required = false) List<String> types,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        NearbyCatalogResponse.BoundingBox boundingBox = null;
+        if (north != null || south != null || east != null || west != null) {
+            if (north == null || south == null || east == null || west == null) {
+                throw new IllegalArgumentException("A bounding box needs north, south, east and west");
+            }
+            boundingBox = new NearbyCatalogResponse.BoundingBox(north, south, east, west);
+        }
+
+        return ResponseEntity.ok(geoSearchService.findNearby(
+                lat, lon, radius, boundingBox, types, page, size));
+    }
+
+    @GetMapping("/viewport")
+    @Operation(summary = "Activities and cities inside the visible map area (in-memory index)")
+    public ResponseEntity<NearbyCatalogResponse> getViewport(
+            @RequestParam double north,
+            @RequestParam double south,
+            @RequestParam double east,
+            @RequestParam double west,
+            @RequestParam(required = false) List<String> types,
+            @RequestParam(defaultValue = "200") int limit) {
+
+        return ResponseEntity.ok(spatialIndexService.within(
+                new NearbyCatalogResponse.BoundingBox(north, south, east, west), types, limit));
+    }
+
+    @GetMapping("/nearest")
+    @Operation(summary = "The k activities and cities nearest to a point (in-memory index)")
+    public ResponseEntity<NearbyCatalogResponse> getNearest(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) List<String> types) {
 
-        return response != null ?
-                ResponseEntity.ok(response) :
-                ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(spatialIndexService.nearest(lat, lon, types, k));
     }
 
     @GetMapping("/distance")
@@ -128,35 +206,41 @@ public class MapController {
 
     @GetMapping("/geocode")
     @Operation(summary = "Convert address to coordinates")
-    public ResponseEntity<GeocodingResponse> geocodeAddress(
+    public CompletableFuture<ResponseEntity<GeocodingResponse>> geocodeAddress(
             @RequestParam String address) {
 
-        GeocodingResponse response = mapService.geocodeAddress(address);
+        return upstreamExecutor.submit(UpstreamExecutor.MAPS, () -> {
+            GeocodingResponse response = mapService.geocodeAddress(address);
 
-        return response != null ?
-                ResponseEntity.ok(response) :
-                ResponseEntity.notFound().build();
+            return response != null ?
+                    ResponseEntity.ok(response) :
+                    ResponseEntity.notFound().build();
+        });
     }
 
     @GetMapping("/reverse-geocode")
     @Operation(summary = "Convert coordinates to address")
-    public ResponseEntity<GeocodingResponse> reverseGeocode(
+    public CompletableFuture<ResponseEntity<GeocodingResponse>> reverseGeocode(
             @RequestParam double lat,
             @RequestParam double lon) {
 
-        GeocodingResponse response = mapService.reverseGeocode(lat, lon);
+        return upstreamExecutor.submit(UpstreamExecutor.MAPS, () -> {
+            GeocodingResponse response = mapService.reverseGeocode(lat, lon);
 
-        return response != null ?
-                ResponseEntity.ok(response) :
-                ResponseEntity.notFound().build();
+            return response != null ?
+                    ResponseEntity.ok(response) :
+                    ResponseEntity.notFound().build();
+        });
     }
 
     @GetMapping("/trip/{tripId}/route")
     @Operation(summary = "Get complete trip route with all activities")
-    public ResponseEntity<DirectionsResponse> getTripRoute(@PathVariable String tripId) {
-        DirectionsResponse response = mapService.getTripRoute(tripId);
-        return response != null ?
-                ResponseEntity.ok(response) :
-                ResponseEntity.notFound().build();
+    public CompletableFuture<ResponseEntity<DirectionsResponse>> getTripRoute(@PathVariable String tripId) {
+        return upstreamExecutor.submit(UpstreamExecutor.MAPS, () -> {
+            DirectionsResponse response = mapService.getTripRoute(tripId);
+            return response != null ?
+                    ResponseEntity.ok(response) :
+                    ResponseEntity.notFound().build();
+        });
     }
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package com.SmartPlanner.SmartPlanner.controller;
 
 import com.SmartPlanner.SmartPlanner.dto.SearchResponse;
+import com.SmartPlanner.SmartPlanner.dto.SuggestResponse;
 import com.SmartPlanner.SmartPlanner.service.SearchService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/search")
 @RequiredArgsConstructor
@@ -15,25 +18,48 @@ public class SearchController {
     private final SearchService searchService;
 
     @GetMapping
-    public ResponseEntity<?> search(@RequestParam("q") String query) {
+    public ResponseEntity<?> search(@RequestParam("q") String query,
+                                    @RequestParam(required = false) List<String> types,
+                                    @RequestParam(defaultValue = "0") int page,
+                                    @RequestParam(defaultValue = "20") int size,
+                                    @RequestParam(defaultValue = "full") String view) {
         if (query == null || query.trim().isEmpty()) {
             return ResponseEntity.badRequest().body(new ErrorResponse("Search query is required"));
         }
 
-        SearchResponse response = searchService.search(query.trim());
+        SearchResponse response = searchService.search(query.trim(), types, page, size, SearchService.View.parse(view));
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<SuggestResponse> suggest(@RequestParam("q") String query,
+                                                   @RequestParam(required = false) List<String> types,
+                                                   @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(searchService.suggest(query.trim(), types, limit));
+    }
+
     @GetMapping("/cities")
-    public ResponseEntity<?> searchCities(@RequestParam("q") String query) {
+    public ResponseEntity<?> searchCities(@RequestParam("q") String query,
+                                          @RequestParam(defaultValue = "full") String view) {
         if (query == null || query.trim().isEmpty()) {
             return ResponseEntity.badRequest().body(new ErrorResponse("Search query is required"));
         }
 
-        SearchResponse response = searchService.searchCities(query.trim());
+        SearchResponse response = searchService.searchCities(query.trim(), SearchService.View.parse(view));
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cities/{cityId}/activities")
+    public ResponseEntity<?> getCityActivities(@PathVariable String cityId,
+                                               @RequestParam(defaultValue = "0") int page,
+                                               @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(searchService.getCityActivities(cityId, page, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
     @GetMapping("/city/{name}")
     public ResponseEntity<?> getCityWithWeather(@PathVariable String name) {
         try {
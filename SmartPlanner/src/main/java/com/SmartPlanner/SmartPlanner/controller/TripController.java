@@ -2,6 +2,7 @@ package com.SmartPlanner.SmartPlanner.controller;
 
 import com.SmartPlanner.SmartPlanner.dto.TripRequest;
 import com.SmartPlanner.SmartPlanner.model.Trip;
+import com.SmartPlanner.SmartPlanner.service.CursorPageService;
 import com.SmartPlanner.SmartPlanner.service.TripService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +11,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -51,8 +53,20 @@ public class TripController {
 
     // ✅ ADMIN: GET ALL TRIPS
     @GetMapping("/admin/all")
-    public ResponseEntity<List<Trip>> getAllTrips() {
-        return ResponseEntity.ok(tripService.getAllTrips());
+    public ResponseEntity<?> getAllTrips(@RequestParam(required = false) String after,
+                                         @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(tripService.getAllTrips());
+        }
+        return ResponseEntity.ok(tripService.getTripsPage(after, limit));
+    }
+
+    // ✅ ADMIN: STREAM ALL TRIPS (NDJSON)
+    @GetMapping(value = "/admin/all", produces = CursorPageService.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllTrips(@RequestParam(required = false) String after) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(CursorPageService.NDJSON))
+                .body(out -> tripService.streamTrips(after, out));
     }
 
     // ✅ GET BY ID
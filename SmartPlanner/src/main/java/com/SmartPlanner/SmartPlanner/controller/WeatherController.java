@@ -1,5 +1,6 @@
 package com.SmartPlanner.SmartPlanner.controller;
 
+import com.SmartPlanner.SmartPlanner.config.UpstreamExecutor;
 import com.SmartPlanner.SmartPlanner.dto.PackingSuggestionsResponse;
 import com.SmartPlanner.SmartPlanner.dto.WeatherAlertsResponse;
 import com.SmartPlanner.SmartPlanner.dto.WeatherResponse;
@@ -10,6 +11,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/weather")
 @RequiredArgsConstructor
@@ -19,59 +22,60 @@ public class WeatherController {
     private final WeatherService weatherService;
     private final WeatherAlertService weatherAlertService;
     private final PackingSuggestionService packingSuggestionService;
+    private final UpstreamExecutor upstreamExecutor;
 
     @GetMapping("/city/{cityId}")
-    public ResponseEntity<WeatherResponse> getWeatherByCityId(@PathVariable String cityId) {
-        WeatherResponse response = weatherService.getWeatherByCityId(cityId);
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<WeatherResponse>> getWeatherByCityId(@PathVariable String cityId) {
+        return upstreamExecutor.submit(UpstreamExecutor.WEATHER, () ->
+                ResponseEntity.ok(weatherService.getWeatherByCityId(cityId)));
     }
 
     @GetMapping("/city/name/{cityName}")
-    public ResponseEntity<WeatherResponse> getWeatherByCityName(@PathVariable String cityName) {
-        WeatherResponse response = weatherService.getWeatherByCityName(cityName);
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<WeatherResponse>> getWeatherByCityName(@PathVariable String cityName) {
+        return upstreamExecutor.submit(UpstreamExecutor.WEATHER, () ->
+                ResponseEntity.ok(weatherService.getWeatherByCityName(cityName)));
     }
 
     @GetMapping("/coordinates")
-    public ResponseEntity<WeatherResponse> getWeatherByCoordinates(
+    public CompletableFuture<ResponseEntity<WeatherResponse>> getWeatherByCoordinates(
             @RequestParam Double lat,
             @RequestParam Double lon,
             @RequestParam(required = false) String cityName) {
-        WeatherResponse response = weatherService.getWeatherByCoordinates(lat, lon,
-                cityName != null ? cityName : "Unknown");
-        return ResponseEntity.ok(response);
+        return upstreamExecutor.submit(UpstreamExecutor.WEATHER, () ->
+                ResponseEntity.ok(weatherService.getWeatherByCoordinates(lat, lon,
+                        cityName != null ? cityName : "Unknown")));
     }
 
     @GetMapping("/alerts/city/{cityId}")
-    public ResponseEntity<WeatherAlertsResponse> getWeatherAlertsByCityId(@PathVariable String cityId) {
-        WeatherAlertsResponse response = weatherAlertService.getAlertsByCityId(cityId);
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<WeatherAlertsResponse>> getWeatherAlertsByCityId(@PathVariable String cityId) {
+        return upstreamExecutor.submit(UpstreamExecutor.WEATHER, () ->
+                ResponseEntity.ok(weatherAlertService.getAlertsByCityId(cityId)));
     }
 
     @GetMapping("/alerts/coordinates")
-    public ResponseEntity<WeatherAlertsResponse> getWeatherAlertsByCoordinates(
+    public CompletableFuture<ResponseEntity<WeatherAlertsResponse>> getWeatherAlertsByCoordinates(
             @RequestParam Double lat,
             @RequestParam Double lon,
             @RequestParam String cityName) {
-        WeatherAlertsResponse response = weatherAlertService.getAlertsByCoordinates(lat, lon, cityName);
-        return ResponseEntity.ok(response);
+        return upstreamExecutor.submit(UpstreamExecutor.WEATHER, () ->
+                ResponseEntity.ok(weatherAlertService.getAlertsByCoordinates(lat, lon, cityName)));
     }
 
     @GetMapping("/packing/city/{cityId}")
-    public ResponseEntity<PackingSuggestionsResponse> getPackingSuggestionsByCityId(@PathVariable String cityId) {
-        PackingSuggestionsResponse response = packingSuggestionService.getPackingSuggestionsByCityId(cityId);
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<PackingSuggestionsResponse>> getPackingSuggestionsByCityId(@PathVariable String cityId) {
+        return upstreamExecutor.submit(UpstreamExecutor.WEATHER, () ->
+                ResponseEntity.ok(packingSuggestionService.getPackingSuggestionsByCityId(cityId)));
     }
 
     @GetMapping("/packing/coordinates")
-    public ResponseEntity<PackingSuggestionsResponse> getPackingSuggestionsByCoordinates(
+    public CompletableFuture<ResponseEntity<PackingSuggestionsResponse>> getPackingSuggestionsByCoordinates(
             @RequestParam Double lat,
             @RequestParam Double lon,
             @RequestParam String cityName,
             @RequestParam(required = false) String country) {
-        PackingSuggestionsResponse response = packingSuggestionService
-                .getPackingSuggestionsByCoordinates(lat, lon, cityName,
-                        country != null ? country : "");
-        return ResponseEntity.ok(response);
+        return upstreamExecutor.submit(UpstreamExecutor.WEATHER, () ->
+                ResponseEntity.ok(packingSuggestionService
+                        .getPackingSuggestionsByCoordinates(lat, lon, cityName,
+                                country != null ? country : "")));
     }
 }
@@ -0,0 +1,22 @@
+package com.SmartPlanner.SmartPlanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityPageResponse {
+
+    private String cityId;
+    private int page;
+    private int size;
+    private long totalActivities;
+    private boolean hasMore;
+    private List<SearchResponse.ActivityInfo> activities;
+}
@@ -0,0 +1,34 @@
+package com.SmartPlanner.SmartPlanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsResponse {
+
+    private String name;
+
+    // Policy
+    private Long maxEntries;
+    private Long maxWeightBytes;
+    private String ttl;
+    private boolean alignedExpiry;
+    private String refreshAfterWrite;
+
+    // Current state
+    private long size;
+    private Long weightBytes;
+
+    // Counters since startup
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+    private long refreshCount;
+    private long loadFailureCount;
+}
@@ -0,0 +1,22 @@
+package com.SmartPlanner.SmartPlanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+    private int limit;
+    private boolean hasMore;
+
+    // Pass as ?after= for the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,36 @@
+package com.SmartPlanner.SmartPlanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HttpHostStatsResponse {
+
+    private String host;
+
+    // Configured limits
+    private long connectTimeoutMs;
+    private long readTimeoutMs;
+    private int maxConnections;
+
+    // Pool state
+    private int leasedConnections;
+    private int availableConnections;
+    private int pendingRequests;
+
+    // Counters since startup
+    private long requestCount;
+    private long errorCount;   // I/O failures and 5xx responses
+    private long timeoutCount;
+
+    // Latency in ms; percentiles over the most recent requests
+    private double avgLatencyMs;
+    private long p50LatencyMs;
+    private long p95LatencyMs;
+    private long maxLatencyMs;
+}
@@ -0,0 +1,47 @@
+package com.SmartPlanner.SmartPlanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexHealthResponse {
+
+    // UP, DOWN (a hot query scans a whole collection, or a declared index is missing) or UNKNOWN (not verified yet, or Mongo unreachable)
+    private String status;
+    private LocalDateTime checkedAt;
+    private String error;
+    private List<QueryPlan> queries;
+    // Declared indexes whose creation failed, e.g. a unique index over duplicates
+    private List<MissingIndex> missingIndexes;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QueryPlan {
+        private String name;
+        private String collection;
+        // Stages of the winning plan, outermost first, e.g. [FETCH, IXSCAN]
+        private List<String> stages;
+        private String indexName;
+        private boolean collectionScan;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MissingIndex {
+        private String collection;
+        private String name;
+        private String error;
+    }
+}
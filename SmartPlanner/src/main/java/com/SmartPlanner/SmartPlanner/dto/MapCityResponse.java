@@ -14,6 +14,11 @@ public class MapCityResponse {
     private String cityName;
     private Coordinates center;
     private BoundingBox boundingBox;
+    // Zoom the markers were clustered for, and the tile they were limited to (null for the whole city)
+    private Integer zoom;
+    private String tile;
+    // Activities represented by markers (a cluster counts all of its members)
+    private int totalActivities;
     private List<MapMarker> markers;
 
     @Data
@@ -45,5 +50,7 @@ public class MapCityResponse {
         private double longitude;
         private String description;
         private String categoryId;
+        // 1 for a single activity; for type "cluster" the number of activities merged into it
+        private int count = 1;
     }
 }
\ No newline at end of file
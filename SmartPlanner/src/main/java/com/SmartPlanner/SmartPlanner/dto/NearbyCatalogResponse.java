@@ -0,0 +1,51 @@
+package com.SmartPlanner.SmartPlanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyCatalogResponse {
+
+    // Distances are measured from here (the bounding box centre when only a box was given)
+    private Coordinates center;
+    private Integer radiusMeters;
+    private BoundingBox boundingBox;
+
+    private int page;
+    private int size;
+    private boolean hasMore;
+
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BoundingBox {
+        private double north;
+        private double south;
+        private double east;
+        private double west;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String id;
+        private String type; // "activity" or "city"
+        private String name;
+        private String cityId;
+        private double latitude;
+        private double longitude;
+        private double distanceMeters;
+        private String imageUrl;
+    }
+}
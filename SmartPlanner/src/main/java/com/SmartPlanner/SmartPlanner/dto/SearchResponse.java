@@ -17,6 +17,9 @@ public class SearchResponse {
 
     private String query;
     private int totalResults;
+    private int page;
+    private int size;
+    private boolean hasMore;
     private List<SearchResult> results;
 
     @Data
@@ -30,13 +33,22 @@ public class SearchResponse {
         private String description;
         private String imageUrl;
 
+        // For activities: the city they belong to
+        private String cityId;
+        private String cityName;
+
         private String countryId;
         private String countryName;
         private Double latitude;
         private Double longitude;
         private City.CityWeather weather;
 
+        // Cities: embedded in the full view only; the count is set in both views
         private List<ActivityInfo> activities;
+        private Integer activityCount;
+
+        // Relevance, higher is better; only comparable within one response
+        private Double score;
     }
 
     @Data
@@ -0,0 +1,41 @@
+package com.SmartPlanner.SmartPlanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WeatherRefreshJobResponse {
+
+    private String jobId;
+    private String status; // RUNNING, COMPLETED, FAILED
+    private int concurrency;
+
+    // Progress
+    private int totalCities;
+    private int processed;
+    private int updated;
+    private int failed;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    private List<CityFailure> failures;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CityFailure {
+        private String cityId;
+        private String cityName;
+        private String reason;
+    }
+}
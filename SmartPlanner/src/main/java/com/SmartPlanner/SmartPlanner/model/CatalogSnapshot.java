@@ -0,0 +1,31 @@
+package com.SmartPlanner.SmartPlanner.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "catalog_snapshots")
+public class CatalogSnapshot {
+
+    public static final String FULL_CATALOG_ID = "full";
+
+    @Id
+    private String id;
+
+    // Serialized List<FullCountryResponse>, exactly as served by /api/v1/countries/full
+    private String json;
+    private String etag;
+
+    // "snapshot" catalog version (catalog_versions) the copy was built at; a node loads it only
+    // while that is still the current version
+    private Long version;
+
+    private LocalDateTime updatedAt;
+}
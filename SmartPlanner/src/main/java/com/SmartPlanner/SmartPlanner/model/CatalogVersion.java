@@ -0,0 +1,27 @@
+package com.SmartPlanner.SmartPlanner.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Change counter of one in-memory view of the catalog (search index, spatial index, ...), shared
+ * by all nodes: a node that changed the catalog bumps it, the others rebuild when it moves.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "catalog_versions")
+public class CatalogVersion {
+
+    @Id
+    private String id; // the view, e.g. "search"
+
+    private long version;
+
+    private LocalDateTime updatedAt;
+}
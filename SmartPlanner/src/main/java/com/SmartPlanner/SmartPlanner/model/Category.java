@@ -1,9 +1,15 @@
 package com.SmartPlanner.SmartPlanner.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -12,6 +18,10 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "categories")
+@CompoundIndexes({
+        // Activities of a city (single, batched and paged by name); prefix serves findByCityId
+        @CompoundIndex(name = "cityId_isActive_name", def = "{'cityId': 1, 'isActive': 1, 'name': 1}")
+})
 public class Category {
 
     @Id
@@ -25,5 +35,10 @@ public class Category {
     private String imageUrl;
     private Double latitude;
     private Double longitude;
+
+    // GeoJSON copy of latitude/longitude for 2dsphere queries, kept in sync on save (GeoIndexConfig)
+    @JsonIgnore
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint location;
     private Boolean isActive = true;
 }
@@ -1,9 +1,15 @@
 package com.SmartPlanner.SmartPlanner.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -12,6 +18,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "cities")
+@CompoundIndexes({
+        // Cities of a country; prefix serves findByCountryId
+        @CompoundIndex(name = "countryId_isActive", def = "{'countryId': 1, 'isActive': 1}"),
+        // Weather refresh: stalest active cities first
+        @CompoundIndex(name = "isActive_weatherUpdatedAt", def = "{'isActive': 1, 'weatherUpdatedAt': 1}"),
+        @CompoundIndex(name = "name", def = "{'name': 1}")
+})
 public class City {
 
     @Id
@@ -23,6 +36,11 @@ public class City {
     private String name;
     private Double latitude;
     private Double longitude;
+
+    // GeoJSON copy of latitude/longitude for 2dsphere queries, kept in sync on save (GeoIndexConfig)
+    @JsonIgnore
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint location;
     private String imageUrl;
     private String description;
     private Boolean isActive = true;
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -12,6 +14,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "countries")
+@CompoundIndexes({
+        // Active countries, listed and paged in _id order
+        @CompoundIndex(name = "isActive_id", def = "{'isActive': 1, '_id': 1}"),
+        @CompoundIndex(name = "code", def = "{'code': 1}")
+})
 public class Country {
 
     @Id
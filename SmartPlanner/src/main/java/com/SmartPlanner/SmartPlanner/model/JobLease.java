@@ -0,0 +1,57 @@
+package com.SmartPlanner.SmartPlanner.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One partition of a distributed job run: which node holds it, until when, and how far it got.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "job_leases")
+// Claim: the run's partitions that are not done yet
+@CompoundIndex(name = "job_runDate_status", def = "{'job': 1, 'runDate': 1, 'status': 1}")
+public class JobLease {
+
+    @Id
+    private String id; // job:runDate:partition
+
+    private String job;
+    private LocalDate runDate;
+    private int partition;
+
+    private LeaseStatus status = LeaseStatus.PENDING;
+    private String owner;
+    private LocalDateTime leaseUntil;
+    private int attempts;
+
+    // Resume point: phase of the job and the last item id written in it
+    private String phase;
+    private String checkpoint;
+
+    // Progress
+    private int processed;
+    private int notificationsSent;
+    private int tripsStarted;
+    private int tripsCompleted;
+
+    // Old runs are dropped after a week
+    @Indexed(name = "createdAt_ttl", expireAfter = "7d")
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public enum LeaseStatus {
+        PENDING,
+        RUNNING,
+        DONE
+    }
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -15,11 +17,29 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "trips")
+@CompoundIndexes({
+        // Countdown: equality on user and status, range and sort on startDate; prefix serves findByUserEmail
+        @CompoundIndex(name = "userEmail_status_startDate", def = "{'userEmail': 1, 'status': 1, 'startDate': 1}"),
+        // A user's trips, newest first
+        @CompoundIndex(name = "userId_createdAt", def = "{'userId': 1, 'createdAt': -1}"),
+        // Scheduler: trips by status, reminder window on startDate
+        @CompoundIndex(name = "status_startDate", def = "{'status': 1, 'startDate': 1}"),
+        // Reminder job, per shard: reminder window on startDate, ongoing trips past their endDate
+        @CompoundIndex(name = "status_shard_startDate", def = "{'status': 1, 'shard': 1, 'startDate': 1}"),
+        @CompoundIndex(name = "status_shard_endDate", def = "{'status': 1, 'shard': 1, 'endDate': 1}"),
+        @CompoundIndex(name = "cityId", def = "{'cityId': 1}")
+})
 public class Trip {
 
+    // Fixed number of reminder job partitions; changing it reshuffles every stored shard
+    public static final int SHARDS = 64;
+
     @Id
     private String id;
 
+    // Hash of the id into [0, SHARDS), set on save and backfilled on older trips (TripShardService)
+    private Integer shard;
+
     private String userId;
     private String userEmail;
 
@@ -58,6 +78,10 @@ public class Trip {
         private Double longitude;
     }
 
+    public static int shardOf(String id) {
+        return Math.floorMod(id.hashCode(), SHARDS);
+    }
+
     public enum TripStatus {
         PLANNED,
         CONFIRMED,    // Legacy status
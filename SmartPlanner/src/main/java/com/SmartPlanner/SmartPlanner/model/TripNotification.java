@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -12,6 +14,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "trip_notifications")
+@CompoundIndexes({
+        // One notification per trip and type: the claim before sending relies on it (NotificationClaimService);
+        // prefix serves findByTripId / deleteByTripId
+        @CompoundIndex(name = "tripId_type", def = "{'tripId': 1, 'type': 1}", unique = true),
+        // A user's notifications, newest first; the unread list and badge count filter isRead on it
+        @CompoundIndex(name = "userEmail_createdAt", def = "{'userEmail': 1, 'createdAt': -1}")
+})
 public class TripNotification {
 
     @Id
@@ -2,6 +2,7 @@ package com.SmartPlanner.SmartPlanner.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import org.springframework.security.core.GrantedAuthority;
@@ -19,7 +20,9 @@ public class User implements UserDetails {
     @Id
     private String id;
 
+    @Indexed
     private String username;
+    @Indexed(unique = true)
     private String email;
     private String password;
     private String fullName;
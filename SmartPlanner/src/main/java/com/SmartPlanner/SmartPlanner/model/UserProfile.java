@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
@@ -19,10 +20,12 @@ public class UserProfile {
     @Id
     private String id;
 
+    @Indexed(unique = true)
     private String userId;
     private String username;
     private String email;
     private String fullName;
+    @Indexed(sparse = true)
     private String phoneNumber;
     private LocalDate dateOfBirth;
     private String gender;
@@ -0,0 +1,57 @@
+package com.SmartPlanner.SmartPlanner.model;
+
+import com.SmartPlanner.SmartPlanner.dto.WeatherRefreshJobResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One run of the refresh-all-weather job, shared by all nodes: the node running it saves its
+ * progress here and extends leaseUntil as it goes, so any node can answer the status endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "weather_refresh_jobs")
+// At most one running job across all nodes: a second insert while one runs fails
+@CompoundIndex(name = "status_running", def = "{'status': 1}", unique = true, partialFilter = "{'status': 'RUNNING'}")
+public class WeatherRefreshJob {
+
+    @Id
+    private String id;
+
+    private JobStatus status = JobStatus.RUNNING;
+    private String owner;
+    private int concurrency;
+
+    // Progress
+    private int totalCities;
+    private int processed;
+    private int updated;
+    private int failed;
+    private List<WeatherRefreshJobResponse.CityFailure> failures = new ArrayList<>();
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    // A running job whose owner stopped extending this is treated as failed
+    private LocalDateTime leaseUntil;
+    private String error;
+
+    // Old jobs are dropped after a week
+    @Indexed(name = "createdAt_ttl", expireAfter = "7d")
+    private LocalDateTime createdAt;
+
+    public enum JobStatus {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
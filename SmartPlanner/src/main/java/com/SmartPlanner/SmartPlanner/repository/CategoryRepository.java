@@ -1,9 +1,14 @@
 package com.SmartPlanner.SmartPlanner.repository;
 
 import com.SmartPlanner.SmartPlanner.model.Category;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,9 +16,29 @@ public interface CategoryRepository extends MongoRepository<Category, String> {
 
     List<Category> findByCityId(String cityId);
 
+    List<Category> findByCityIdIn(Collection<String> cityIds);
+
     List<Category> findByCityIdAndIsActiveTrue(String cityId);
 
+    List<Category> findByCityIdInAndIsActiveTrue(Collection<String> cityIds);
+
+    Page<Category> findByCityIdAndIsActiveTrue(String cityId, Pageable pageable);
+
+    // Search summary view: only the fields it renders
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ 'name': 1, 'imageUrl': 1, 'cityId': 1, 'latitude': 1, 'longitude': 1 }")
+    List<Category> findSummariesByIdIn(Collection<String> ids);
+
+    @Aggregation(pipeline = {
+            "{ $match: { 'cityId': { $in: ?0 }, 'isActive': true } }",
+            "{ $group: { '_id': '$cityId', 'count': { $sum: 1 } } }"
+    })
+    List<CityActivityCount> countActiveByCityIdIn(Collection<String> cityIds);
+
     List<Category> findByNameContainingIgnoreCase(String name);
 
     boolean existsByNameIgnoreCaseAndCityId(String name, String cityId);
+
+    // id is the city id
+    record CityActivityCount(String id, long count) {
+    }
 }
@@ -2,8 +2,10 @@ package com.SmartPlanner.SmartPlanner.repository;
 
 import com.SmartPlanner.SmartPlanner.model.City;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,9 +18,16 @@ public interface CityRepository extends MongoRepository<City, String> {
 
     List<City> findByCountryIdAndIsActiveTrue(String countryId);
 
+    List<City> findByCountryIdInAndIsActiveTrue(Collection<String> countryIds);
+
     boolean existsByNameIgnoreCase(String name);
 
     boolean existsByNameIgnoreCaseAndCountryId(String name, String countryId);
 
     List<City> findByNameContainingIgnoreCaseAndIsActiveTrue(String name);
+
+    // Search summary view: only the fields it renders
+    @Query(value = "{ '_id': { $in: ?0 } }",
+            fields = "{ 'name': 1, 'imageUrl': 1, 'countryId': 1, 'countryName': 1, 'latitude': 1, 'longitude': 1 }")
+    List<City> findSummariesByIdIn(Collection<String> ids);
 }
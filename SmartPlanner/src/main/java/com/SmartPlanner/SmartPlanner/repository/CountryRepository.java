@@ -2,8 +2,10 @@ package com.SmartPlanner.SmartPlanner.repository;
 
 import com.SmartPlanner.SmartPlanner.model.Country;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +23,8 @@ public interface CountryRepository extends MongoRepository<Country, String> {
     List<Country> findByIsActiveTrue();
 
     List<Country> findByNameContainingIgnoreCaseAndIsActiveTrue(String name);
+
+    // Search summary view: only the fields it renders
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ 'name': 1, 'imageUrl': 1 }")
+    List<Country> findSummariesByIdIn(Collection<String> ids);
 }
@@ -23,9 +23,6 @@ public interface TripNotificationRepository extends MongoRepository<TripNotifica
     // Check if a specific notification type already exists for a trip
     Optional<TripNotification> findByTripIdAndType(String tripId, NotificationType type);
 
-    // Check if notification already sent
-    boolean existsByTripIdAndTypeAndEmailSentTrue(String tripId, NotificationType type);
-
     // Count unread notifications by email
     long countByUserEmailAndIsReadFalse(String userEmail);
 
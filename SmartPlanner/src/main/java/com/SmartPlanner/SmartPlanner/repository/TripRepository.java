@@ -4,6 +4,7 @@ import com.SmartPlanner.SmartPlanner.model.Trip;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Repository
@@ -21,4 +22,10 @@ public interface TripRepository extends MongoRepository<Trip, String> {
 
     // For scheduler - find all trips by status
     List<Trip> findByStatus(Trip.TripStatus status);
+
+    List<Trip> findByStatusAndStartDateBetween(Trip.TripStatus status, LocalDate from, LocalDate to);
+
+    // Countdown - served by the (userEmail, status, startDate) index
+    List<Trip> findByUserEmailAndStatusAndStartDateGreaterThanEqualOrderByStartDateAsc(
+            String userEmail, Trip.TripStatus status, LocalDate from);
 }
@@ -0,0 +1,40 @@
+package com.SmartPlanner.SmartPlanner.scheduler;
+
+import com.SmartPlanner.SmartPlanner.service.CatalogSnapshotService;
+import com.SmartPlanner.SmartPlanner.service.SearchIndexService;
+import com.SmartPlanner.SmartPlanner.service.SpatialIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogRefreshScheduler {
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final SearchIndexService searchIndexService;
+    private final SpatialIndexService spatialIndexService;
+
+    // Publish this node's catalog changes and pick up those written on other nodes
+    @Scheduled(initialDelayString = "${catalog.refresh-interval-ms:30000}",
+            fixedDelayString = "${catalog.refresh-interval-ms:30000}")
+    public void refreshCatalogViews() {
+        try {
+            catalogSnapshotService.refresh();
+        } catch (Exception e) {
+            log.error("Catalog snapshot refresh failed: {}", e.getMessage());
+        }
+        try {
+            searchIndexService.refresh();
+        } catch (Exception e) {
+            log.error("Search index refresh failed: {}", e.getMessage());
+        }
+        try {
+            spatialIndexService.refresh();
+        } catch (Exception e) {
+            log.error("Spatial index refresh failed: {}", e.getMessage());
+        }
+    }
+}
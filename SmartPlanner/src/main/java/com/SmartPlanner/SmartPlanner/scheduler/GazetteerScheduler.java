@@ -0,0 +1,28 @@
+package com.SmartPlanner.SmartPlanner.scheduler;
+
+import com.SmartPlanner.SmartPlanner.service.GazetteerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "geocoding.gazetteer.enabled", havingValue = "true", matchIfMissing = true)
+public class GazetteerScheduler {
+
+    private final GazetteerService gazetteerService;
+
+    // Fold stored cities and newly resolved names into the on-disk gazetteer
+    @Scheduled(initialDelayString = "${geocoding.gazetteer.initial-delay-ms:120000}",
+            fixedDelayString = "${geocoding.gazetteer.rebuild-interval-ms:3600000}")
+    public void rebuildGazetteer() {
+        try {
+            gazetteerService.rebuild(true);
+        } catch (Exception e) {
+            log.error("Gazetteer rebuild failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.SmartPlanner.SmartPlanner.scheduler;
+
+import com.SmartPlanner.SmartPlanner.service.WeatherFreshnessService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "weather.freshness.enabled", havingValue = "true", matchIfMissing = true)
+public class WeatherFreshnessScheduler {
+
+    private final WeatherFreshnessService weatherFreshnessService;
+
+    // Refresh the stalest / most wanted cities, within the upstream budget
+    @Scheduled(initialDelayString = "${weather.freshness.initial-delay-ms:60000}",
+            fixedDelayString = "${weather.freshness.interval-ms:60000}")
+    public void refreshStaleWeather() {
+        try {
+            weatherFreshnessService.refreshDueCities();
+        } catch (Exception e) {
+            log.error("Weather freshness pass failed: {}", e.getMessage());
+        }
+    }
+}
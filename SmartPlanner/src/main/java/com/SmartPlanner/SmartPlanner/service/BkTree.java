@@ -0,0 +1,83 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Burkhard-Keller tree over strings by Levenshtein distance. Each child hangs off its parent by
+ * their distance, so a lookup within maxEdits only descends into children at distance
+ * d - maxEdits .. d + maxEdits of a node (triangle inequality) instead of scanning every term.
+ *
+ * Terms cannot be removed; callers skip terms they no longer hold and rebuild the tree to drop
+ * them. Not thread-safe; SearchIndexService guards it with its lock.
+ */
+final class BkTree {
+
+    private Node root;
+    private int size;
+
+    void add(String term) {
+        if (root == null) {
+            root = new Node(term);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(node.term, term);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(term));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Calls action with every term within maxEdits of term, and its distance.
+     */
+    void search(String term, int maxEdits, ObjIntConsumer<String> action) {
+        if (root == null) {
+            return;
+        }
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            int distance = distance(node.term, term);
+            if (distance <= maxEdits) {
+                action.accept(node.term, distance);
+            }
+            for (int d = Math.max(1, distance - maxEdits); d <= distance + maxEdits; d++) {
+                Node child = node.children.get(d);
+                if (child != null) {
+                    stack.push(child);
+                }
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static int distance(String a, String b) {
+        return SearchIndexService.editDistance(a, b, Integer.MAX_VALUE - 1);
+    }
+
+    private static final class Node {
+        private final String term;
+        private final Map<Integer, Node> children = new HashMap<>(4);
+
+        private Node(String term) {
+            this.term = term;
+        }
+    }
+}
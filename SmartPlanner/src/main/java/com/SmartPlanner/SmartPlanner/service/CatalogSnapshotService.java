@@ -0,0 +1,567 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.FullCountryResponse;
+import com.SmartPlanner.SmartPlanner.model.CatalogSnapshot;
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.model.Country;
+import com.SmartPlanner.SmartPlanner.repository.CategoryRepository;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import com.SmartPlanner.SmartPlanner.repository.CountryRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Materialized country -> city -> activity tree behind /api/v1/countries/full.
+ * Built once from Mongo on first read, then patched by the admin write paths in
+ * CountryService, CityService and CategoryService. Only the touched country is
+ * re-serialized on a write; reads just dereference the published Snapshot.
+ *
+ * Across nodes, refresh() publishes local writes as a bump of the "snapshot" catalog version
+ * and reloads - off the lock, then swapped in - when another node moved it: from the persisted
+ * copy when that was written at the current version, else from the collections. The persisted
+ * copy (catalog.snapshot.persist) is written there too, never while holding the lock.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogSnapshotService {
+
+    private final CountryRepository countryRepository;
+    private final CityRepository cityRepository;
+    private final CategoryRepository categoryRepository;
+    private final ObjectMapper objectMapper;
+    private final MongoTemplate mongoTemplate;
+    private final CatalogVersionService catalogVersionService;
+
+    static final String VERSION = "snapshot";
+
+    @Value("${catalog.snapshot.persist:false}")
+    private boolean persist;
+
+    // Guarded by "this"; null until the first read
+    private State state;
+    // Catalog version the state was built from, -1 to reload on the next refresh
+    private long builtVersion = -1;
+    // Version of the published snapshot not yet persisted, if any
+    private Long unsavedVersion;
+
+    // Local changes published, and how many of them refresh() has announced
+    private final AtomicLong localChanges = new AtomicLong();
+    private long announcedChanges;
+
+    private volatile Snapshot snapshot;
+
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (state == null) {
+                load();
+            }
+            return snapshot;
+        }
+    }
+
+    public Optional<FullCountryResponse> findCountry(String countryId) {
+        return getSnapshot().countries().stream()
+                .filter(country -> country.getId().equals(countryId))
+                .findFirst();
+    }
+
+    // ==================== INCREMENTAL UPDATES ====================
+
+    public synchronized void countryChanged(Country country) {
+        if (state == null) {
+            return;
+        }
+
+        if (!Boolean.TRUE.equals(country.getIsActive())) {
+            removeCountry(country.getId());
+        } else if (state.countries.containsKey(country.getId())) {
+            putCountry(toCountryResponse(country, state.countries.get(country.getId()).getCities()));
+        } else {
+            putCountry(buildFullCountryResponse(country));
+        }
+        changed();
+    }
+
+    public synchronized void countryRemoved(String countryId) {
+        if (state == null) {
+            return;
+        }
+        removeCountry(countryId);
+        changed();
+    }
+
+    public synchronized void cityChanged(City city) {
+        if (state == null) {
+            return;
+        }
+        applyCityChange(city);
+        changed();
+    }
+
+    // Bulk variant for jobs touching many cities: one re-publish at the end
+    public synchronized void citiesChanged(Collection<City> cities) {
+        if (state == null || cities.isEmpty()) {
+            return;
+        }
+        cities.forEach(this::applyCityChange);
+        changed();
+    }
+
+    private void applyCityChange(City city) {
+        String previousCountryId = state.cityCountry.get(city.getId());
+        FullCountryResponse source = previousCountryId != null ? state.countries.get(previousCountryId) : null;
+        FullCountryResponse.CityWithActivities previous = source != null ? findCity(source, city.getId()) : null;
+        boolean visible = Boolean.TRUE.equals(city.getIsActive()) && state.countries.containsKey(city.getCountryId());
+
+        if (source != null && (!visible || !previousCountryId.equals(city.getCountryId()))) {
+            putCountry(withCities(source, without(source.getCities(), city.getId(),
+                    FullCountryResponse.CityWithActivities::getId)));
+        }
+
+        if (visible) {
+            List<FullCountryResponse.ActivityInfo> activities = previous != null
+                    ? previous.getActivities()
+                    : toActivityInfos(categoryRepository.findByCityIdAndIsActiveTrue(city.getId()));
+            FullCountryResponse target = state.countries.get(city.getCountryId());
+            putCountry(withCities(target, upsert(target.getCities(), toCityEntry(city, activities),
+                    FullCountryResponse.CityWithActivities::getId)));
+        }
+    }
+
+    // Weather only, so the cities may be projections that carry nothing else
+    public synchronized void weatherChanged(Collection<City> cities) {
+        if (state == null) {
+            return;
+        }
+
+        boolean changed = false;
+        for (City city : cities) {
+            String countryId = state.cityCountry.get(city.getId());
+            if (countryId != null) {
+                FullCountryResponse country = state.countries.get(countryId);
+                FullCountryResponse.CityWithActivities updated = findCity(country, city.getId()).toBuilder()
+                        .weather(city.getWeather())
+                        .build();
+                putCountry(withCities(country, upsert(country.getCities(), updated,
+                        FullCountryResponse.CityWithActivities::getId)));
+                changed = true;
+            }
+        }
+        if (changed) {
+            changed();
+        }
+    }
+
+    public synchronized void cityRemoved(String cityId) {
+        if (state == null) {
+            return;
+        }
+
+        String countryId = state.cityCountry.get(cityId);
+        if (countryId != null) {
+            FullCountryResponse country = state.countries.get(countryId);
+            putCountry(withCities(country, without(country.getCities(), cityId,
+                    FullCountryResponse.CityWithActivities::getId)));
+            changed();
+        }
+    }
+
+    public synchronized void activityChanged(Category activity) {
+        if (state == null) {
+            return;
+        }
+
+        boolean active = Boolean.TRUE.equals(activity.getIsActive());
+        String previousCityId = state.activityCity.get(activity.getId());
+
+        if (previousCityId != null && (!active || !previousCityId.equals(activity.getCityId()))) {
+            updateCityActivities(previousCityId, activities -> without(activities, activity.getId(),
+                    FullCountryResponse.ActivityInfo::getId));
+        }
+        if (active) {
+            updateCityActivities(activity.getCityId(), activities -> upsert(activities, toActivityInfo(activity),
+                    FullCountryResponse.ActivityInfo::getId));
+        }
+        changed();
+    }
+
+    public synchronized void activityRemoved(String activityId) {
+        if (state == null) {
+            return;
+        }
+
+        String cityId = state.activityCity.get(activityId);
+        if (cityId != null) {
+            updateCityActivities(cityId, activities -> without(activities, activityId,
+                    FullCountryResponse.ActivityInfo::getId));
+            changed();
+        }
+    }
+
+    // ==================== BUILDING ====================
+
+    public FullCountryResponse buildFullCountryResponse(Country country) {
+        return buildFullCountryResponses(List.of(country)).get(0);
+    }
+
+    // Builds the whole country -> city -> activity tree with one batched $in query per level
+    public List<FullCountryResponse> buildFullCountryResponses(List<Country> countryList) {
+        if (countryList.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<String> countryIds = countryList.stream().map(Country::getId).toList();
+        List<City> cities = cityRepository.findByCountryIdInAndIsActiveTrue(countryIds);
+
+        Map<String, List<Category>> activitiesByCity = new HashMap<>();
+        if (!cities.isEmpty()) {
+            List<String> cityIds = cities.stream().map(City::getId).toList();
+            for (Category activity : categoryRepository.findByCityIdInAndIsActiveTrue(cityIds)) {
+                activitiesByCity.computeIfAbsent(activity.getCityId(), k -> new ArrayList<>()).add(activity);
+            }
+        }
+
+        Map<String, List<FullCountryResponse.CityWithActivities>> citiesByCountry = new HashMap<>();
+        for (City city : cities) {
+            citiesByCountry.computeIfAbsent(city.getCountryId(), k -> new ArrayList<>())
+                    .add(toCityEntry(city, toActivityInfos(activitiesByCity.getOrDefault(city.getId(), List.of()))));
+        }
+
+        List<FullCountryResponse> result = new ArrayList<>();
+        for (Country country : countryList) {
+            result.add(toCountryResponse(country, citiesByCountry.getOrDefault(country.getId(), new ArrayList<>())));
+        }
+
+        return result;
+    }
+
+    private void load() {
+        // Read the version first: a write landing during the load moves it past builtVersion
+        builtVersion = catalogVersionService.current(VERSION);
+        state = build(builtVersion);
+        publish();
+        if (!state.fromPersisted) {
+            unsavedVersion = builtVersion;
+        }
+
+        log.info("Catalog snapshot loaded: {} countries, {} cities, {} activities",
+                state.countries.size(), state.cityCountry.size(), state.activityCity.size());
+    }
+
+    /**
+     * Announces this node's changes since the last call as one version bump, then reloads when
+     * the stored version is not the one the snapshot was built from (another node wrote, or a
+     * reload raced with a local change), and persists the published snapshot if it is not yet.
+     * Run by CatalogRefreshScheduler; a no-op until the first read loaded the snapshot.
+     */
+    public void refresh() {
+        synchronized (this) {
+            if (state == null) {
+                return;
+            }
+        }
+
+        long changes = localChanges.get();
+        if (changes != announcedChanges) {
+            long version = catalogVersionService.bump(VERSION);
+            announcedChanges = changes;
+            synchronized (this) {
+                // Only our own bump since the build: the snapshot already holds the change
+                if (version == builtVersion + 1) {
+                    builtVersion = version;
+                    unsavedVersion = version;
+                }
+            }
+        }
+
+        long version = catalogVersionService.current(VERSION);
+        boolean current;
+        synchronized (this) {
+            current = version == builtVersion;
+        }
+        if (!current) {
+            // Build off the lock: reads keep getting the published snapshot meanwhile
+            long before = localChanges.get();
+            State rebuilt = build(version);
+            synchronized (this) {
+                state = rebuilt;
+                // A local change applied to the old state during the build may be missing: reload again
+                builtVersion = localChanges.get() == before ? version : -1;
+                unsavedVersion = rebuilt.fromPersisted ? null : version;
+                publish();
+            }
+            log.info("Catalog snapshot reloaded at catalog version {}: {} countries", version, rebuilt.countries.size());
+        }
+
+        if (persist) {
+            Snapshot unsaved;
+            long unsavedAt;
+            synchronized (this) {
+                if (unsavedVersion == null) {
+                    return;
+                }
+                unsaved = snapshot;
+                unsavedAt = unsavedVersion;
+                unsavedVersion = null;
+            }
+            save(unsaved, unsavedAt);
+        }
+    }
+
+    private State build(long version) {
+        List<FullCountryResponse> catalog = persist ? loadPersisted(version) : null;
+        State built = new State(catalog != null);
+        if (catalog == null) {
+            catalog = buildFullCountryResponses(countryRepository.findByIsActiveTrue());
+        }
+        catalog.forEach(built::put);
+        return built;
+    }
+
+    // The persisted copy, if it was written at this version
+    private List<FullCountryResponse> loadPersisted(long version) {
+        try {
+            CatalogSnapshot persisted = mongoTemplate.findById(CatalogSnapshot.FULL_CATALOG_ID, CatalogSnapshot.class);
+            if (persisted == null || persisted.getJson() == null
+                    || persisted.getVersion() == null || persisted.getVersion() != version) {
+                return null;
+            }
+            return objectMapper.readValue(persisted.getJson(), new TypeReference<List<FullCountryResponse>>() {});
+        } catch (Exception e) {
+            log.warn("Could not load persisted catalog snapshot, rebuilding: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Replaces the persisted copy unless one of a later version is already stored
+    private void save(Snapshot saved, long version) {
+        try {
+            mongoTemplate.upsert(
+                    Query.query(Criteria.where("_id").is(CatalogSnapshot.FULL_CATALOG_ID)
+                            .orOperator(Criteria.where("version").lt(version), Criteria.where("version").exists(false))),
+                    new Update()
+                            .set("json", new String(saved.json(), StandardCharsets.UTF_8))
+                            .set("etag", saved.etag())
+                            .set("version", version)
+                            .set("updatedAt", saved.builtAt()),
+                    CatalogSnapshot.class);
+        } catch (DuplicateKeyException e) {
+            log.debug("Catalog snapshot {} not persisted: a later version is stored", version);
+        } catch (Exception e) {
+            log.warn("Failed to persist catalog snapshot: {}", e.getMessage());
+        }
+    }
+
+    // ==================== SNAPSHOT STATE ====================
+
+    private void putCountry(FullCountryResponse country) {
+        state.put(country);
+    }
+
+    private void removeCountry(String countryId) {
+        state.remove(countryId);
+    }
+
+    private void updateCityActivities(String cityId,
+                                      UnaryOperator<List<FullCountryResponse.ActivityInfo>> update) {
+        String countryId = state.cityCountry.get(cityId);
+        if (countryId == null) {
+            return;
+        }
+
+        FullCountryResponse country = state.countries.get(countryId);
+        FullCountryResponse.CityWithActivities city = findCity(country, cityId);
+        FullCountryResponse.CityWithActivities updated = city.toBuilder()
+                .activities(update.apply(city.getActivities()))
+                .build();
+
+        putCountry(withCities(country, upsert(country.getCities(), updated,
+                FullCountryResponse.CityWithActivities::getId)));
+    }
+
+    private void publish() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        boolean first = true;
+        for (String countryId : state.countries.keySet()) {
+            if (!first) {
+                out.write(',');
+            }
+            out.writeBytes(state.countryJson.get(countryId));
+            first = false;
+        }
+        out.write(']');
+
+        byte[] json = out.toByteArray();
+        String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        snapshot = new Snapshot(List.copyOf(state.countries.values()), json, etag, LocalDateTime.now());
+    }
+
+    // Publish a local write, for refresh() to announce to the other nodes
+    private void changed() {
+        publish();
+        localChanges.incrementAndGet();
+    }
+
+    // ==================== MAPPING ====================
+
+    private FullCountryResponse toCountryResponse(Country country,
+                                                  List<FullCountryResponse.CityWithActivities> cities) {
+        return FullCountryResponse.builder()
+                .id(country.getId())
+                .name(country.getName())
+                .code(country.getCode())
+                .imageUrl(country.getImageUrl())
+                .description(country.getDescription())
+                .cities(cities)
+                .build();
+    }
+
+    private FullCountryResponse withCities(FullCountryResponse country,
+                                           List<FullCountryResponse.CityWithActivities> cities) {
+        return country.toBuilder().cities(cities).build();
+    }
+
+    private FullCountryResponse.CityWithActivities toCityEntry(City city,
+                                                               List<FullCountryResponse.ActivityInfo> activities) {
+        return FullCountryResponse.CityWithActivities.builder()
+                .id(city.getId())
+                .name(city.getName())
+                .latitude(city.getLatitude())
+                .longitude(city.getLongitude())
+                .imageUrl(city.getImageUrl())
+                .description(city.getDescription())
+                .weather(city.getWeather())
+                .activities(activities)
+                .build();
+    }
+
+    private List<FullCountryResponse.ActivityInfo> toActivityInfos(List<Category> activities) {
+        List<FullCountryResponse.ActivityInfo> activityList = new ArrayList<>();
+        for (Category activity : activities) {
+            activityList.add(toActivityInfo(activity));
+        }
+        return activityList;
+    }
+
+    private FullCountryResponse.ActivityInfo toActivityInfo(Category activity) {
+        return FullCountryResponse.ActivityInfo.builder()
+                .id(activity.getId())
+                .name(activity.getName())
+                .description(activity.getDescription())
+                .pricePerHour(activity.getPricePerHour())
+                .pricePerDay(activity.getPricePerDay())
+                .imageUrl(activity.getImageUrl())
+                .latitude(activity.getLatitude())
+                .longitude(activity.getLongitude())
+                .build();
+    }
+
+    private FullCountryResponse.CityWithActivities findCity(FullCountryResponse country, String cityId) {
+        return country.getCities().stream()
+                .filter(city -> city.getId().equals(cityId))
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Copy-on-write helpers: published lists are never mutated in place
+    private static <T> List<T> upsert(List<T> items, T item, Function<T, String> id) {
+        List<T> copy = new ArrayList<>(items);
+        for (int i = 0; i < copy.size(); i++) {
+            if (id.apply(copy.get(i)).equals(id.apply(item))) {
+                copy.set(i, item);
+                return copy;
+            }
+        }
+        copy.add(item);
+        return copy;
+    }
+
+    private static <T> List<T> without(List<T> items, String itemId, Function<T, String> id) {
+        List<T> copy = new ArrayList<>(items);
+        copy.removeIf(existing -> id.apply(existing).equals(itemId));
+        return copy;
+    }
+
+    // Countries by id in catalog order, their serialized entries, and reverse lookups
+    private final class State {
+        private final Map<String, FullCountryResponse> countries = new LinkedHashMap<>();
+        private final Map<String, byte[]> countryJson = new HashMap<>();
+        private final Map<String, String> cityCountry = new HashMap<>();
+        private final Map<String, String> activityCity = new HashMap<>();
+        // Read from the persisted copy rather than built from the collections
+        private final boolean fromPersisted;
+
+        private State(boolean fromPersisted) {
+            this.fromPersisted = fromPersisted;
+        }
+
+        void put(FullCountryResponse country) {
+            unindex(countries.get(country.getId()));
+
+            try {
+                countryJson.put(country.getId(), objectMapper.writeValueAsBytes(country));
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to serialize catalog entry for country " + country.getId(), e);
+            }
+            countries.put(country.getId(), country);
+
+            for (FullCountryResponse.CityWithActivities city : country.getCities()) {
+                cityCountry.put(city.getId(), country.getId());
+                for (FullCountryResponse.ActivityInfo activity : city.getActivities()) {
+                    activityCity.put(activity.getId(), city.getId());
+                }
+            }
+        }
+
+        void remove(String countryId) {
+            unindex(countries.remove(countryId));
+            countryJson.remove(countryId);
+        }
+
+        private void unindex(FullCountryResponse country) {
+            if (country == null) {
+                return;
+            }
+            for (FullCountryResponse.CityWithActivities city : country.getCities()) {
+                cityCountry.remove(city.getId());
+                for (FullCountryResponse.ActivityInfo activity : city.getActivities()) {
+                    activityCity.remove(activity.getId());
+                }
+            }
+        }
+    }
+
+    public record Snapshot(List<FullCountryResponse> countries, byte[] json, String etag, LocalDateTime builtAt) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.CatalogVersion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cross-node change counters of the in-memory catalog views (catalog_versions). Each node keeps
+ * the version its view was built from; a different stored version means another node wrote.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogVersionService {
+
+    private final MongoTemplate mongoTemplate;
+
+    // Version of the view, 0 before its first change
+    public long current(String view) {
+        CatalogVersion version = mongoTemplate.findById(view, CatalogVersion.class);
+        return version == null ? 0 : version.getVersion();
+    }
+
+    // Record a change of the view; returns the new version
+    public long bump(String view) {
+        CatalogVersion version = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(view)),
+                new Update().inc("version", 1).set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                CatalogVersion.class);
+        return version == null ? 0 : version.getVersion();
+    }
+}
@@ -1,12 +1,16 @@
 package com.SmartPlanner.SmartPlanner.service;
 
 import com.SmartPlanner.SmartPlanner.dto.CategoryRequest;
+import com.SmartPlanner.SmartPlanner.dto.CursorPage;
 import com.SmartPlanner.SmartPlanner.model.Category;
 import com.SmartPlanner.SmartPlanner.repository.CategoryRepository;
 import com.SmartPlanner.SmartPlanner.repository.CityRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -16,11 +20,24 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CityRepository cityRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final SpatialIndexService spatialIndexService;
+    private final CityMapService cityMapService;
+    private final SearchIndexService searchIndexService;
+    private final CursorPageService cursorPageService;
 
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
 
+    public CursorPage<Category> getCategoriesPage(String after, Integer limit) {
+        return cursorPageService.page(Category.class, new Query(), Category::getId, after, limit);
+    }
+
+    public void streamCategories(String after, OutputStream out) throws IOException {
+        cursorPageService.stream(Category.class, new Query(), after, out);
+    }
+
     public Category getCategoryById(String id) {
         return categoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
@@ -51,7 +68,12 @@ public class CategoryService {
         category.setImageUrl(request.getImageUrl());
         category.setIsActive(true);
 
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        catalogSnapshotService.activityChanged(savedCategory);
+        searchIndexService.activityChanged(savedCategory);
+        spatialIndexService.activityChanged(savedCategory);
+        cityMapService.activityChanged(savedCategory);
+        return savedCategory;
     }
 
     public Category updateCategory(String id, CategoryRequest request) {
@@ -60,6 +82,7 @@ public class CategoryService {
         if (!cityRepository.existsById(request.getCityId())) {
             throw new RuntimeException("City not found with id: " + request.getCityId());
         }
+        String previousCityId = category.getCityId();
 
         category.setName(request.getName());
         category.setDescription(request.getDescription());
@@ -68,20 +91,33 @@ public class CategoryService {
         category.setPricePerDay(request.getPricePerDay());
         category.setImageUrl(request.getImageUrl());
 
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        catalogSnapshotService.activityChanged(savedCategory);
+        searchIndexService.activityChanged(savedCategory);
+        spatialIndexService.activityChanged(savedCategory);
+        cityMapService.activityChanged(savedCategory);
+        cityMapService.cityChanged(previousCityId);
+        return savedCategory;
     }
 
     public void deleteCategory(String id) {
-        if (!categoryRepository.existsById(id)) {
-            throw new RuntimeException("Category not found with id: " + id);
-        }
+        Category category = getCategoryById(id);
         categoryRepository.deleteById(id);
+        catalogSnapshotService.activityRemoved(id);
+        searchIndexService.activityRemoved(id);
+        spatialIndexService.activityRemoved(id);
+        cityMapService.cityChanged(category.getCityId());
     }
 
     public Category toggleCategoryStatus(String id) {
         Category category = getCategoryById(id);
         category.setIsActive(!category.getIsActive());
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        catalogSnapshotService.activityChanged(savedCategory);
+        searchIndexService.activityChanged(savedCategory);
+        spatialIndexService.activityChanged(savedCategory);
+        cityMapService.activityChanged(savedCategory);
+        return savedCategory;
     }
 
     public List<Category> addSampleCategories(String cityId) {
@@ -90,16 +126,20 @@ public class CategoryService {
         }
 
         List<Category> sampleCategories = List.of(
-            new Category(null, "Fishing", "Deep sea fishing experience", cityId, new BigDecimal("40.00"), new BigDecimal("150.00"), "/images/fishing.jpg", null, null, true),
-            new Category(null, "Boating", "Boat ride and tour", cityId, new BigDecimal("50.00"), new BigDecimal("200.00"), "/images/boating.jpg", null, null, true),
-            new Category(null, "Sea Food", "Fresh seafood dining", cityId, new BigDecimal("25.00"), new BigDecimal("75.00"), "/images/seafood.jpg", null, null, true),
-            new Category(null, "Snorkeling", "Underwater adventure", cityId, new BigDecimal("35.00"), new BigDecimal("120.00"), "/images/snorkeling.jpg", null, null, true),
-            new Category(null, "Beach Resort", "Luxury beach stay", cityId, new BigDecimal("50.00"), new BigDecimal("300.00"), "/images/resort.jpg", null, null, true)
+            new Category(null, "Fishing", "Deep sea fishing experience", cityId, new BigDecimal("40.00"), new BigDecimal("150.00"), "/images/fishing.jpg", null, null, null, true),
+            new Category(null, "Boating", "Boat ride and tour", cityId, new BigDecimal("50.00"), new BigDecimal("200.00"), "/images/boating.jpg", null, null, null, true),
+            new Category(null, "Sea Food", "Fresh seafood dining", cityId, new BigDecimal("25.00"), new BigDecimal("75.00"), "/images/seafood.jpg", null, null, null, true),
+            new Category(null, "Snorkeling", "Underwater adventure", cityId, new BigDecimal("35.00"), new BigDecimal("120.00"), "/images/snorkeling.jpg", null, null, null, true),
+            new Category(null, "Beach Resort", "Luxury beach stay", cityId, new BigDecimal("50.00"), new BigDecimal("300.00"), "/images/resort.jpg", null, null, null, true)
         );
 
         for (Category category : sampleCategories) {
             if (!categoryRepository.existsByNameIgnoreCaseAndCityId(category.getName(), cityId)) {
-                categoryRepository.save(category);
+                Category savedCategory = categoryRepository.save(category);
+                catalogSnapshotService.activityChanged(savedCategory);
+                searchIndexService.activityChanged(savedCategory);
+                spatialIndexService.activityChanged(savedCategory);
+                cityMapService.activityChanged(savedCategory);
             }
         }
 
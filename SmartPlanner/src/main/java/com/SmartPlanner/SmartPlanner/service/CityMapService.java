@@ -0,0 +1,270 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.config.PolicyCache;
+import com.SmartPlanner.SmartPlanner.dto.MapCityResponse;
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.repository.CategoryRepository;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Map data for one city: its centre, a bounding box around the city and its activities, and the
+ * activity markers clustered for the requested zoom.
+ *
+ * Clustering is a grid in Web Mercator pixel space: at zoom z the world is 256 * 2^z pixels wide
+ * and activities falling into the same cell (maps.clustering.cell-pixels) become one "cluster"
+ * marker at their centroid. Cells are a power of two no larger than a tile, so a cluster never
+ * straddles two tiles and a tile request returns exactly the markers of the whole-city view that
+ * fall inside it. From maps.clustering.max-zoom up every activity is its own marker.
+ *
+ * Results are cached in "cityMaps" per (cityId, zoom, tile); the admin write paths evict a
+ * city's entries when the city or one of its activities changes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CityMapService {
+
+    public static final String CACHE_NAME = "cityMaps";
+    public static final String TYPE_ACTIVITY = "activity";
+    public static final String TYPE_CLUSTER = "cluster";
+
+    private static final int TILE_PIXELS = 256;
+    private static final int MAX_ZOOM = 22;
+    private static final int MAX_FIT_ZOOM = 18;
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+    private static final double MIN_PADDING_DEGREES = 0.01;
+
+    private final CityRepository cityRepository;
+    private final CategoryRepository categoryRepository;
+    private final CacheManager cacheManager;
+
+    @Value("${maps.clustering.cell-pixels:64}")
+    private int cellPixels = 64;
+
+    @Value("${maps.clustering.max-zoom:16}")
+    private int clusterMaxZoom = 16;
+
+    @Value("${maps.clustering.viewport-pixels:1024}")
+    private int viewportPixels = 1024;
+
+    /**
+     * @param zoom  zoom level to cluster for; null picks the zoom that fits the whole city
+     * @param tileX with tileY, limits markers to one XYZ tile at the given zoom (both or neither)
+     */
+    @Cacheable(value = CACHE_NAME, sync = true, key = "#cityId + ':' + #zoom + ':' + #tileX + ':' + #tileY")
+    public MapCityResponse getCityMap(String cityId, Integer zoom, Integer tileX, Integer tileY) {
+        validate(zoom, tileX, tileY);
+
+        City city = cityRepository.findById(cityId)
+                .orElseThrow(() -> new RuntimeException("City not found with id: " + cityId));
+        List<Category> activities = categoryRepository.findByCityIdAndIsActiveTrue(cityId).stream()
+                .filter(activity -> activity.getLatitude() != null && activity.getLongitude() != null)
+                .toList();
+
+        MapCityResponse.BoundingBox boundingBox = boundingBox(city, activities);
+        MapCityResponse.Coordinates center = null;
+        if (city.getLatitude() != null && city.getLongitude() != null) {
+            center = new MapCityResponse.Coordinates(city.getLatitude(), city.getLongitude());
+        } else if (boundingBox != null) {
+            center = new MapCityResponse.Coordinates(
+                    (boundingBox.getNorth() + boundingBox.getSouth()) / 2,
+                    (boundingBox.getEast() + boundingBox.getWest()) / 2);
+        }
+
+        int effectiveZoom = zoom != null ? zoom : fitZoom(boundingBox);
+        if (tileX != null) {
+            activities = activities.stream()
+                    .filter(activity -> tileOf(activity, effectiveZoom, tileX, tileY))
+                    .toList();
+        }
+
+        MapCityResponse response = new MapCityResponse();
+        response.setCityId(city.getId());
+        response.setCityName(city.getName());
+        response.setCenter(center);
+        response.setBoundingBox(boundingBox);
+        response.setZoom(effectiveZoom);
+        response.setTile(tileX != null ? effectiveZoom + "/" + tileX + "/" + tileY : null);
+        response.setTotalActivities(activities.size());
+        response.setMarkers(cluster(activities, effectiveZoom));
+        return response;
+    }
+
+    // ==================== INVALIDATION ====================
+
+    public void cityChanged(String cityId) {
+        if (cityId != null) {
+            String prefix = cityId + ":";
+            evict(key -> key.toString().startsWith(prefix));
+        }
+    }
+
+    public void activityChanged(Category activity) {
+        cityChanged(activity.getCityId());
+    }
+
+    private void evict(Predicate<Object> keys) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache instanceof PolicyCache policyCache) {
+            policyCache.evictIf(keys);
+        } else if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    // ==================== CLUSTERING ====================
+
+    private List<MapCityResponse.MapMarker> cluster(List<Category> activities, int zoom) {
+        List<MapCityResponse.MapMarker> markers = new ArrayList<>();
+        if (zoom >= clusterMaxZoom) {
+            activities.forEach(activity -> markers.add(marker(activity)));
+            return markers;
+        }
+
+        // A power of two between 8 and 256 pixels, so cells nest inside tiles
+        int cell = Integer.highestOneBit(Math.max(8, Math.min(TILE_PIXELS, cellPixels)));
+        double worldPixels = TILE_PIXELS * Math.pow(2, zoom);
+
+        // cell column in the high bits, row in the low bits: sorted map gives a stable marker order
+        Map<Long, List<Category>> cells = new TreeMap<>();
+        for (Category activity : activities) {
+            long column = (long) (mercatorX(activity.getLongitude()) * worldPixels / cell);
+            long row = (long) (mercatorY(activity.getLatitude()) * worldPixels / cell);
+            cells.computeIfAbsent((column << 32) | row, key -> new ArrayList<>()).add(activity);
+        }
+
+        for (Map.Entry<Long, List<Category>> entry : cells.entrySet()) {
+            List<Category> members = entry.getValue();
+            if (members.size() == 1) {
+                markers.add(marker(members.get(0)));
+                continue;
+            }
+            double latitude = 0;
+            double longitude = 0;
+            for (Category member : members) {
+                latitude += member.getLatitude();
+                longitude += member.getLongitude();
+            }
+
+            MapCityResponse.MapMarker cluster = new MapCityResponse.MapMarker();
+            cluster.setId(TYPE_CLUSTER + ":" + zoom + ":" + (entry.getKey() >>> 32) + ":" + (entry.getKey() & 0xFFFFFFFFL));
+            cluster.setName(members.size() + " activities");
+            cluster.setType(TYPE_CLUSTER);
+            cluster.setLatitude(latitude / members.size());
+            cluster.setLongitude(longitude / members.size());
+            cluster.setCount(members.size());
+            markers.add(cluster);
+        }
+        return markers;
+    }
+
+    private static MapCityResponse.MapMarker marker(Category activity) {
+        MapCityResponse.MapMarker marker = new MapCityResponse.MapMarker();
+        marker.setId(activity.getId());
+        marker.setName(activity.getName());
+        marker.setType(TYPE_ACTIVITY);
+        marker.setLatitude(activity.getLatitude());
+        marker.setLongitude(activity.getLongitude());
+        marker.setDescription(activity.getDescription());
+        marker.setCategoryId(activity.getId());
+        return marker;
+    }
+
+    // ==================== GEOMETRY ====================
+
+    private static MapCityResponse.BoundingBox boundingBox(City city, List<Category> activities) {
+        double north = -90;
+        double south = 90;
+        double east = -180;
+        double west = 180;
+        boolean any = false;
+
+        if (city.getLatitude() != null && city.getLongitude() != null) {
+            north = south = city.getLatitude();
+            east = west = city.getLongitude();
+            any = true;
+        }
+        for (Category activity : activities) {
+            north = Math.max(north, activity.getLatitude());
+            south = Math.min(south, activity.getLatitude());
+            east = Math.max(east, activity.getLongitude());
+            west = Math.min(west, activity.getLongitude());
+            any = true;
+        }
+        if (!any) {
+            return null;
+        }
+
+        double latPadding = Math.max(MIN_PADDING_DEGREES, (north - south) * 0.1);
+        double lonPadding = Math.max(MIN_PADDING_DEGREES, (east - west) * 0.1);
+        return new MapCityResponse.BoundingBox(
+                Math.min(90, north + latPadding),
+                Math.max(-90, south - latPadding),
+                Math.min(180, east + lonPadding),
+                Math.max(-180, west - lonPadding));
+    }
+
+    // Highest zoom at which the whole box fits the configured viewport
+    private int fitZoom(MapCityResponse.BoundingBox box) {
+        if (box == null) {
+            return 0;
+        }
+        double width = mercatorX(box.getEast()) - mercatorX(box.getWest());
+        double height = mercatorY(box.getSouth()) - mercatorY(box.getNorth());
+        for (int zoom = MAX_FIT_ZOOM; zoom > 0; zoom--) {
+            double worldPixels = TILE_PIXELS * Math.pow(2, zoom);
+            if (width * worldPixels <= viewportPixels && height * worldPixels <= viewportPixels) {
+                return zoom;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean tileOf(Category activity, int zoom, int tileX, int tileY) {
+        double tiles = Math.pow(2, zoom);
+        return (int) Math.min(tiles - 1, mercatorX(activity.getLongitude()) * tiles) == tileX
+                && (int) Math.min(tiles - 1, mercatorY(activity.getLatitude()) * tiles) == tileY;
+    }
+
+    private static void validate(Integer zoom, Integer tileX, Integer tileY) {
+        if (zoom != null && (zoom < 0 || zoom > MAX_ZOOM)) {
+            throw new IllegalArgumentException("zoom must be between 0 and " + MAX_ZOOM);
+        }
+        if ((tileX == null) != (tileY == null)) {
+            throw new IllegalArgumentException("A tile needs both x and y");
+        }
+        if (tileX != null) {
+            if (zoom == null) {
+                throw new IllegalArgumentException("A tile needs a zoom");
+            }
+            int tiles = 1 << zoom;
+            if (tileX < 0 || tileX >= tiles || tileY < 0 || tileY >= tiles) {
+                throw new IllegalArgumentException("Tile x and y must be between 0 and " + (tiles - 1) + " at zoom " + zoom);
+            }
+        }
+    }
+
+    // Web Mercator, normalised to [0, 1] with (0, 0) at the north-west corner
+    static double mercatorX(double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    static double mercatorY(double latitude) {
+        double radians = Math.toRadians(Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude)));
+        return (1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) / Math.PI) / 2;
+    }
+}
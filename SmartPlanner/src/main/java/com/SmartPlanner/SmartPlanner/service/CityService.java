@@ -1,15 +1,22 @@
 package com.SmartPlanner.SmartPlanner.service;
 
 import com.SmartPlanner.SmartPlanner.dto.CityRequest;
+import com.SmartPlanner.SmartPlanner.dto.Coordinates;
+import com.SmartPlanner.SmartPlanner.dto.CursorPage;
+import com.SmartPlanner.SmartPlanner.dto.WeatherRefreshJobResponse;
 import com.SmartPlanner.SmartPlanner.model.City;
 import com.SmartPlanner.SmartPlanner.model.Country;
 import com.SmartPlanner.SmartPlanner.repository.CityRepository;
 import com.SmartPlanner.SmartPlanner.repository.CountryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
@@ -21,11 +28,25 @@ public class CityService {
     private final CountryRepository countryRepository;
     private final GeocodingService geocodingService;
     private final WeatherService weatherService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final WeatherRefreshService weatherRefreshService;
+    private final SpatialIndexService spatialIndexService;
+    private final CityMapService cityMapService;
+    private final SearchIndexService searchIndexService;
+    private final CursorPageService cursorPageService;
 
     public List<City> getAllCities() {
         return cityRepository.findAll();
     }
 
+    public CursorPage<City> getCitiesPage(String after, Integer limit) {
+        return cursorPageService.page(City.class, new Query(), City::getId, after, limit);
+    }
+
+    public void streamCities(String after, OutputStream out) throws IOException {
+        cursorPageService.stream(City.class, new Query(), after, out);
+    }
+
     public List<City> getCitiesByCountry(String countryId) {
         if (!countryRepository.existsById(countryId)) {
             throw new RuntimeException("Country not found: " + countryId);
@@ -60,21 +81,13 @@ public class CityService {
                 location.getLongitude()
         );
 
-        City city = new City();
-        city.setCountryId(country.getId());
-        city.setCountryName(country.getName());
-        city.setName(location.getDisplayName());
-        city.setLatitude(location.getLatitude());
-        city.setLongitude(location.getLongitude());
-        city.setImageUrl(request.getImageUrl());
-        city.setDescription(request.getDescription());
-        city.setIsActive(true);
-        city.setWeather(weather);
-        city.setCreatedAt(LocalDateTime.now());
-        city.setUpdatedAt(LocalDateTime.now());
-        city.setWeatherUpdatedAt(LocalDateTime.now());
+        City city = newCity(country, location, request.getImageUrl(), request.getDescription(), weather);
 
         City savedCity = cityRepository.save(city);
+        catalogSnapshotService.cityChanged(savedCity);
+        spatialIndexService.cityChanged(savedCity);
+        searchIndexService.cityChanged(savedCity);
+        cityMapService.cityChanged(savedCity.getId());
         log.info("City added: {} in {} at ({}, {})",
                 savedCity.getName(), country.getName(),
                 savedCity.getLatitude(), savedCity.getLongitude());
@@ -104,15 +117,21 @@ public class CityService {
             city.setName(location.getDisplayName());
             city.setLatitude(location.getLatitude());
             city.setLongitude(location.getLongitude());
+            // Weather of the old place is no use; without new weather the freshness pass picks it up first
             city.setWeather(weather);
-            city.setWeatherUpdatedAt(LocalDateTime.now());
+            city.setWeatherUpdatedAt(weather != null ? LocalDateTime.now() : null);
         }
 
         city.setImageUrl(request.getImageUrl());
         city.setDescription(request.getDescription());
         city.setUpdatedAt(LocalDateTime.now());
 
-        return cityRepository.save(city);
+        City savedCity = cityRepository.save(city);
+        catalogSnapshotService.cityChanged(savedCity);
+        spatialIndexService.cityChanged(savedCity);
+        searchIndexService.cityChanged(savedCity);
+        cityMapService.cityChanged(savedCity.getId());
+        return savedCity;
     }
 
     public City refreshWeather(String cityId) {
@@ -123,37 +142,36 @@ public class CityService {
                 city.getLongitude()
         );
 
+        if (weather == null) {
+            return city;
+        }
         city.setWeather(weather);
         city.setWeatherUpdatedAt(LocalDateTime.now());
 
-        return cityRepository.save(city);
+        City savedCity = cityRepository.save(city);
+        catalogSnapshotService.cityChanged(savedCity);
+        return savedCity;
     }
 
-    public List<City> refreshAllWeather() {
-        List<City> cities = cityRepository.findAll();
-
-        for (City city : cities) {
-            try {
-                City.CityWeather weather = weatherService.fetchCityWeather(
-                        city.getLatitude(),
-                        city.getLongitude()
-                );
-                city.setWeather(weather);
-                city.setWeatherUpdatedAt(LocalDateTime.now());
-                cityRepository.save(city);
-            } catch (Exception e) {
-                log.error("Failed to refresh weather for {}: {}", city.getName(), e.getMessage());
-            }
-        }
+    public WeatherRefreshJobResponse refreshAllWeather() {
+        return weatherRefreshService.startRefreshAll();
+    }
 
-        return cityRepository.findAll();
+    public WeatherRefreshJobResponse getWeatherRefreshJob(String jobId) {
+        return weatherRefreshService.getJob(jobId)
+                .orElseThrow(() -> new RuntimeException("Weather refresh job not found with id: " + jobId));
     }
 
     public City toggleCityStatus(String id) {
         City city = getCityById(id);
         city.setIsActive(!city.getIsActive());
         city.setUpdatedAt(LocalDateTime.now());
-        return cityRepository.save(city);
+        City savedCity = cityRepository.save(city);
+        catalogSnapshotService.cityChanged(savedCity);
+        spatialIndexService.cityChanged(savedCity);
+        searchIndexService.cityChanged(savedCity);
+        cityMapService.cityChanged(savedCity.getId());
+        return savedCity;
     }
 
     public void deleteCity(String id) {
@@ -161,6 +179,10 @@ public class CityService {
             throw new RuntimeException("City not found with id: " + id);
         }
         cityRepository.deleteById(id);
+        catalogSnapshotService.cityRemoved(id);
+        spatialIndexService.cityRemoved(id);
+        searchIndexService.cityRemoved(id);
+        cityMapService.cityChanged(id);
     }
 
     public List<City> addSampleCities(String countryId) {
@@ -177,19 +199,51 @@ public class CityService {
             default -> sampleCities = new String[]{};
         }
 
+        List<GeocodingService.GeoLocation> locations = new ArrayList<>();
         for (String cityName : sampleCities) {
             try {
                 if (!cityRepository.existsByNameIgnoreCaseAndCountryId(cityName, countryId)) {
-                    CityRequest request = new CityRequest();
-                    request.setCountryId(countryId);
-                    request.setName(cityName);
-                    addCity(request);
+                    locations.add(geocodingService.getCoordinates(cityName));
                 }
             } catch (Exception e) {
                 log.error("Failed to add city {}: {}", cityName, e.getMessage());
             }
         }
 
+        // One batched weather call for all new cities instead of one per city
+        List<City.CityWeather> weather = weatherService.fetchCityWeather(locations.stream()
+                .map(location -> new Coordinates(location.getLatitude(), location.getLongitude()))
+                .toList());
+
+        List<City> cities = new ArrayList<>();
+        for (int i = 0; i < locations.size(); i++) {
+            cities.add(newCity(country, locations.get(i), null, null, weather.get(i)));
+        }
+        if (!cities.isEmpty()) {
+            List<City> savedCities = cityRepository.saveAll(cities);
+            catalogSnapshotService.citiesChanged(savedCities);
+            spatialIndexService.citiesChanged(savedCities);
+            searchIndexService.citiesChanged(savedCities);
+        }
+
         return cityRepository.findByCountryId(countryId);
     }
+
+    private City newCity(Country country, GeocodingService.GeoLocation location,
+                         String imageUrl, String description, City.CityWeather weather) {
+        City city = new City();
+        city.setCountryId(country.getId());
+        city.setCountryName(country.getName());
+        city.setName(location.getDisplayName());
+        city.setLatitude(location.getLatitude());
+        city.setLongitude(location.getLongitude());
+        city.setImageUrl(imageUrl);
+        city.setDescription(description);
+        city.setIsActive(true);
+        city.setWeather(weather);
+        city.setCreatedAt(LocalDateTime.now());
+        city.setUpdatedAt(LocalDateTime.now());
+        city.setWeatherUpdatedAt(weather != null ? LocalDateTime.now() : null);
+        return city;
+    }
 }
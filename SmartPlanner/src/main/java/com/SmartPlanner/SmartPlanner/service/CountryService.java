@@ -1,6 +1,8 @@
 package com.SmartPlanner.SmartPlanner.service;
 
+import com.SmartPlanner.SmartPlanner.dto.Coordinates;
 import com.SmartPlanner.SmartPlanner.dto.CountryRequest;
+import com.SmartPlanner.SmartPlanner.dto.CursorPage;
 import com.SmartPlanner.SmartPlanner.dto.FullCountryRequest;
 import com.SmartPlanner.SmartPlanner.dto.FullCountryResponse;
 import com.SmartPlanner.SmartPlanner.model.Category;
@@ -11,8 +13,12 @@ import com.SmartPlanner.SmartPlanner.repository.CityRepository;
 import com.SmartPlanner.SmartPlanner.repository.CountryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,6 +33,11 @@ public class CountryService {
     private final CategoryRepository categoryRepository;
     private final GeocodingService geocodingService;
     private final WeatherService weatherService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final SpatialIndexService spatialIndexService;
+    private final CityMapService cityMapService;
+    private final SearchIndexService searchIndexService;
+    private final CursorPageService cursorPageService;
 
     public List<Country> getAllCountries() {
         return countryRepository.findAll();
@@ -36,63 +47,29 @@ public class CountryService {
         return countryRepository.findByIsActiveTrue();
     }
 
-    public List<FullCountryResponse> getAllCountriesWithCitiesAndActivities() {
-        List<Country> countries = countryRepository.findByIsActiveTrue();
-        List<FullCountryResponse> result = new ArrayList<>();
-
-        for (Country country : countries) {
-            result.add(buildFullCountryResponse(country));
-        }
-
-        return result;
+    public CursorPage<Country> getActiveCountriesPage(String after, Integer limit) {
+        return cursorPageService.page(Country.class, activeOnly(), Country::getId, after, limit);
     }
 
-    public FullCountryResponse getCountryWithCitiesAndActivities(String countryId) {
-        Country country = getCountryById(countryId);
-        return buildFullCountryResponse(country);
+    public void streamActiveCountries(String after, OutputStream out) throws IOException {
+        cursorPageService.stream(Country.class, activeOnly(), after, out);
     }
 
-    private FullCountryResponse buildFullCountryResponse(Country country) {
-        List<City> cities = cityRepository.findByCountryIdAndIsActiveTrue(country.getId());
-        List<FullCountryResponse.CityWithActivities> cityList = new ArrayList<>();
+    private static Query activeOnly() {
+        return Query.query(Criteria.where("isActive").is(true));
+    }
 
-        for (City city : cities) {
-            List<Category> activities = categoryRepository.findByCityIdAndIsActiveTrue(city.getId());
-            List<FullCountryResponse.ActivityInfo> activityList = new ArrayList<>();
-
-            for (Category activity : activities) {
-                activityList.add(FullCountryResponse.ActivityInfo.builder()
-                        .id(activity.getId())
-                        .name(activity.getName())
-                        .description(activity.getDescription())
-                        .pricePerHour(activity.getPricePerHour())
-                        .pricePerDay(activity.getPricePerDay())
-                        .imageUrl(activity.getImageUrl())
-                        .latitude(activity.getLatitude())
-                        .longitude(activity.getLongitude())
-                        .build());
-            }
+    public List<FullCountryResponse> getAllCountriesWithCitiesAndActivities() {
+        return catalogSnapshotService.getSnapshot().countries();
+    }
 
-            cityList.add(FullCountryResponse.CityWithActivities.builder()
-                    .id(city.getId())
-                    .name(city.getName())
-                    .latitude(city.getLatitude())
-                    .longitude(city.getLongitude())
-                    .imageUrl(city.getImageUrl())
-                    .description(city.getDescription())
-                    .weather(city.getWeather())
-                    .activities(activityList)
-                    .build());
-        }
+    public CatalogSnapshotService.Snapshot getFullCatalog() {
+        return catalogSnapshotService.getSnapshot();
+    }
 
-        return FullCountryResponse.builder()
-                .id(country.getId())
-                .name(country.getName())
-                .code(country.getCode())
-                .imageUrl(country.getImageUrl())
-                .description(country.getDescription())
-                .cities(cityList)
-                .build();
+    public FullCountryResponse getCountryWithCitiesAndActivities(String countryId) {
+        return catalogSnapshotService.findCountry(countryId)
+                .orElseGet(() -> catalogSnapshotService.buildFullCountryResponse(getCountryById(countryId)));
     }
 
     public Country getCountryById(String id) {
@@ -114,7 +91,10 @@ public class CountryService {
         country.setCreatedAt(LocalDateTime.now());
         country.setUpdatedAt(LocalDateTime.now());
 
-        return countryRepository.save(country);
+        Country savedCountry = countryRepository.save(country);
+        catalogSnapshotService.countryChanged(savedCountry);
+        searchIndexService.countryChanged(savedCountry);
+        return savedCountry;
     }
 
     public FullCountryResponse addFullCountry(FullCountryRequest request) {
@@ -136,15 +116,26 @@ public class CountryService {
 
         log.info("Country created: {} ({})", country.getName(), country.getId());
 
+        List<FullCountryRequest.CityData> located = new ArrayList<>();
+        List<GeocodingService.GeoLocation> locations = new ArrayList<>();
         for (FullCountryRequest.CityData cityData : request.getCities()) {
             try {
-                GeocodingService.GeoLocation location = geocodingService.getCoordinates(cityData.getName());
+                locations.add(geocodingService.getCoordinates(cityData.getName()));
+                located.add(cityData);
+            } catch (Exception e) {
+                log.error("Failed to add city {}: {}", cityData.getName(), e.getMessage());
+            }
+        }
 
-                City.CityWeather weather = weatherService.fetchCityWeather(
-                        location.getLatitude(),
-                        location.getLongitude()
-                );
+        // One batched weather call for all cities instead of one per city
+        List<City.CityWeather> weather = weatherService.fetchCityWeather(locations.stream()
+                .map(location -> new Coordinates(location.getLatitude(), location.getLongitude()))
+                .toList());
 
+        for (int i = 0; i < located.size(); i++) {
+            FullCountryRequest.CityData cityData = located.get(i);
+            GeocodingService.GeoLocation location = locations.get(i);
+            try {
                 City city = new City();
                 city.setCountryId(country.getId());
                 city.setCountryName(country.getName());
@@ -154,11 +145,13 @@ public class CountryService {
                 city.setImageUrl(cityData.getImageUrl());
                 city.setDescription(cityData.getDescription());
                 city.setIsActive(true);
-                city.setWeather(weather);
+                city.setWeather(weather.get(i));
                 city.setCreatedAt(LocalDateTime.now());
                 city.setUpdatedAt(LocalDateTime.now());
-                city.setWeatherUpdatedAt(LocalDateTime.now());
+                city.setWeatherUpdatedAt(weather.get(i) != null ? LocalDateTime.now() : null);
                 city = cityRepository.save(city);
+                spatialIndexService.cityChanged(city);
+                searchIndexService.cityChanged(city);
 
                 log.info("City created: {} in {}", city.getName(), country.getName());
 
@@ -172,7 +165,9 @@ public class CountryService {
                         activity.setPricePerDay(actData.getPricePerDay());
                         activity.setImageUrl(actData.getImageUrl());
                         activity.setIsActive(true);
-                        categoryRepository.save(activity);
+                        activity = categoryRepository.save(activity);
+                        spatialIndexService.activityChanged(activity);
+                        searchIndexService.activityChanged(activity);
 
                         log.info("Activity created: {} in {}", actData.getName(), city.getName());
                     }
@@ -183,7 +178,9 @@ public class CountryService {
             }
         }
 
-        return buildFullCountryResponse(country);
+        catalogSnapshotService.countryChanged(country);
+        searchIndexService.countryChanged(country);
+        return catalogSnapshotService.buildFullCountryResponse(country);
     }
 
     public Country updateCountry(String id, CountryRequest request) {
@@ -197,7 +194,10 @@ public class CountryService {
         country.setDescription(request.getDescription());
         country.setUpdatedAt(LocalDateTime.now());
 
-        return countryRepository.save(country);
+        Country savedCountry = countryRepository.save(country);
+        catalogSnapshotService.countryChanged(savedCountry);
+        searchIndexService.countryChanged(savedCountry);
+        return savedCountry;
     }
 
     public void deleteCountry(String id) {
@@ -207,11 +207,22 @@ public class CountryService {
         for (City city : cities) {
             List<Category> activities = categoryRepository.findByCityId(city.getId());
             categoryRepository.deleteAll(activities);
+            activities.forEach(activity -> {
+                spatialIndexService.activityRemoved(activity.getId());
+                searchIndexService.activityRemoved(activity.getId());
+            });
         }
 
         cityRepository.deleteAll(cities);
+        cities.forEach(city -> {
+            spatialIndexService.cityRemoved(city.getId());
+            cityMapService.cityChanged(city.getId());
+            searchIndexService.cityRemoved(city.getId());
+        });
 
         countryRepository.deleteById(id);
+        catalogSnapshotService.countryRemoved(id);
+        searchIndexService.countryRemoved(id);
 
         log.info("Deleted country {} with {} cities", country.getName(), cities.size());
     }
@@ -220,7 +231,15 @@ public class CountryService {
         Country country = getCountryById(id);
         country.setIsActive(!country.getIsActive());
         country.setUpdatedAt(LocalDateTime.now());
-        return countryRepository.save(country);
+        Country savedCountry = countryRepository.save(country);
+        catalogSnapshotService.countryChanged(savedCountry);
+        searchIndexService.countryChanged(savedCountry);
+
+        List<City> cities = cityRepository.findByCountryId(id);
+        List<String> cityIds = cities.stream().map(City::getId).toList();
+        spatialIndexService.countryChanged(savedCountry, cities, categoryRepository.findByCityIdIn(cityIds));
+        cityIds.forEach(cityMapService::cityChanged);
+        return savedCountry;
     }
 
     private String generateCode(String name) {
@@ -0,0 +1,106 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.CursorPage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Keyset (cursor) pagination and NDJSON streaming for the list endpoints.
+ *
+ * Documents are always read in _id order. A page asks for _id > cursor with limit + 1, so the
+ * cost does not grow with the page number and inserts between requests never shift a page. The
+ * cursor handed back is the last _id of the page.
+ *
+ * Streaming writes one JSON document per line straight off the Mongo cursor (fetched in batches
+ * of pagination.stream-batch-size), so memory stays flat whatever the size of the collection.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CursorPageService {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${pagination.default-limit:50}")
+    private int defaultLimit = 50;
+
+    @Value("${pagination.max-limit:200}")
+    private int maxLimit = 200;
+
+    @Value("${pagination.stream-batch-size:500}")
+    private int streamBatchSize = 500;
+
+    /**
+     * One page of documents matching filter, after the given cursor.
+     *
+     * @param after cursor from the previous page; null for the first page
+     * @param limit page size, default pagination.default-limit, capped at pagination.max-limit
+     */
+    public <T> CursorPage<T> page(Class<T> type, Query filter, Function<T, String> idOf, String after, Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be >= 1");
+        }
+        int pageSize = Math.min(limit != null ? limit : defaultLimit, maxLimit);
+
+        Query query = after(filter, after).limit(pageSize + 1);
+        List<T> items = mongoTemplate.find(query, type);
+
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
+        }
+        return CursorPage.<T>builder()
+                .items(items)
+                .limit(pageSize)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? idOf.apply(items.get(items.size() - 1)) : null)
+                .build();
+    }
+
+    /**
+     * Writes every document matching filter (after the cursor, if any) to out as NDJSON.
+     */
+    public <T> void stream(Class<T> type, Query filter, String after, OutputStream out) throws IOException {
+        Query query = after(filter, after).cursorBatchSize(streamBatchSize);
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        long count = 0;
+        try (Stream<T> documents = mongoTemplate.stream(query, type)) {
+            for (T document : (Iterable<T>) documents::iterator) {
+                writer.writeValue(out, document);
+                out.write('\n');
+                if (++count % streamBatchSize == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        log.debug("Streamed {} {} documents", count, type.getSimpleName());
+    }
+
+    private static Query after(Query filter, String after) {
+        Query query = Query.of(filter).with(Sort.by(Sort.Direction.ASC, "_id"));
+        if (after != null && !after.isBlank()) {
+            query.addCriteria(Criteria.where("_id").gt(after));
+        }
+        return query;
+    }
+}
@@ -0,0 +1,382 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * Local gazetteer: place names we already know, resolved without calling Open-Meteo or Nominatim.
+ *
+ * Keys are normalized names (lower case, accents and punctuation stripped), e.g. "sao paulo" or
+ * "karachi pakistan". Entries come from City documents and from every successful upstream lookup.
+ * A name that stored cities place far apart ("Paris" in France and in Texas) is ambiguous: it is
+ * neither indexed nor learned, so it goes upstream every time; "paris france" still resolves.
+ * Names learned from upstream expire after geocoding.gazetteer.learned-ttl, and city names are
+ * re-derived from the cities on every rebuild that reads them, so deleted cities drop out.
+ *
+ * The index lives in a memory-mapped file (geocoding.gazetteer.path): records sorted by key bytes
+ * behind an offset table, searched in place with a binary search, so startup is a single mmap and
+ * a lookup touches ~log2(n) records. Names learned since the last rebuild sit in an in-memory
+ * overlay until the next rebuild writes a new file and swaps it in.
+ *
+ * File layout: int magic, int count, int[count] record offsets, then per record
+ * short keyLength, key, double latitude, double longitude, long learnedAt (epoch millis, 0 for a
+ * city), short+bytes name, short+bytes country.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GazetteerService {
+
+    private static final int MAGIC = 0x47415A32; // "GAZ2"
+    // Places of one name closer than this (degrees, ~25 km) are the same place
+    private static final double SAME_PLACE_DEGREES = 0.25;
+    // Longer "names" are free-text addresses not worth keeping
+    private static final int MAX_KEY_BYTES = 256;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final CityRepository cityRepository;
+
+    @Value("${geocoding.gazetteer.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${geocoding.gazetteer.path:data/gazetteer.idx}")
+    private String path = "data/gazetteer.idx";
+
+    @Value("${geocoding.gazetteer.learned-ttl:P30D}")
+    private Duration learnedTtl = Duration.ofDays(30);
+
+    // Names learned between rebuilds; further ones are not remembered until the next rebuild
+    @Value("${geocoding.gazetteer.max-pending:10000}")
+    private int maxPending = 10000;
+
+    private volatile MappedIndex index = MappedIndex.EMPTY;
+    private final Map<String, Entry> overlay = new ConcurrentHashMap<>();
+    // Names of several distinct stored cities, as of the last rebuild that read the cities
+    private volatile Set<String> ambiguous = Set.of();
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        Path file = Paths.get(path);
+        if (!Files.exists(file)) {
+            log.info("No gazetteer at {} yet, it will be built on the first rebuild", file);
+            return;
+        }
+        try {
+            index = MappedIndex.open(file);
+            log.info("Loaded gazetteer with {} names from {}", index.count, file);
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable gazetteer {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled && !overlay.isEmpty()) {
+            try {
+                rebuild(false);
+            } catch (Exception e) {
+                log.warn("Could not persist gazetteer on shutdown: {}", e.getMessage());
+            }
+        }
+    }
+
+    public Optional<Place> lookup(String name) {
+        if (!enabled || name == null) {
+            return Optional.empty();
+        }
+        String key = normalize(name);
+        if (key.isEmpty()) {
+            return Optional.empty();
+        }
+        Entry learned = overlay.get(key);
+        if (learned != null) {
+            return Optional.of(learned.place());
+        }
+        return Optional.ofNullable(index.find(key)).map(Entry::place);
+    }
+
+    /**
+     * Remembers an upstream result under the name it was looked up by, unless the name is
+     * ambiguous or the overlay is full.
+     */
+    public void remember(String name, Place place) {
+        if (!enabled || name == null || place == null) {
+            return;
+        }
+        String key = normalize(name);
+        if (isIndexable(key) && !ambiguous.contains(key) && overlay.size() < maxPending && index.find(key) == null) {
+            overlay.put(key, new Entry(place, System.currentTimeMillis()));
+        }
+    }
+
+    public int size() {
+        return index.count + overlay.size();
+    }
+
+    public int pending() {
+        return overlay.size();
+    }
+
+    /**
+     * Writes a new index file from the current file, the overlay and (optionally) all cities,
+     * then maps it in place of the old one. Returns the number of names in the new index.
+     */
+    public synchronized int rebuild(boolean includeCities) throws IOException {
+        if (!enabled) {
+            return 0;
+        }
+
+        MappedIndex current = index;
+        Map<String, Entry> learned = Map.copyOf(overlay);
+        long expiredBefore = System.currentTimeMillis() - learnedTtl.toMillis();
+        TreeMap<byte[], Entry> entries = new TreeMap<>(Arrays::compareUnsigned);
+        // Unexpired learned names; city names only when the cities are not read again
+        current.forEach((key, entry) -> {
+            if (entry.city() ? !includeCities : entry.learnedAt() >= expiredBefore) {
+                entries.put(key, entry);
+            }
+        });
+        learned.forEach((key, entry) -> entries.put(key.getBytes(StandardCharsets.UTF_8), entry));
+
+        Set<String> ambiguousNames = ambiguous;
+        if (includeCities) {
+            Map<String, List<Place>> byName = new HashMap<>();
+            for (City city : cityRepository.findAll()) {
+                if (city.getName() == null || city.getLatitude() == null || city.getLongitude() == null) {
+                    continue;
+                }
+                Place place = new Place(city.getLatitude(), city.getLongitude(), city.getName(), city.getCountryName());
+                addName(byName, city.getName(), place);
+                if (city.getCountryName() != null) {
+                    addName(byName, city.getName() + ", " + city.getCountryName(), place);
+                }
+            }
+
+            ambiguousNames = new HashSet<>();
+            for (Map.Entry<String, List<Place>> name : byName.entrySet()) {
+                if (samePlace(name.getValue())) {
+                    entries.put(name.getKey().getBytes(StandardCharsets.UTF_8), new Entry(name.getValue().get(0), 0));
+                } else {
+                    ambiguousNames.add(name.getKey());
+                }
+            }
+        }
+        for (String name : ambiguousNames) {
+            entries.remove(name.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Path file = Paths.get(path);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        write(temp, entries);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        index = MappedIndex.open(file);
+        ambiguous = Set.copyOf(ambiguousNames);
+        learned.forEach(overlay::remove);
+        log.info("Gazetteer rebuilt: {} names ({} learned since last rebuild, {} ambiguous left out)",
+                index.count, learned.size(), ambiguousNames.size());
+        return index.count;
+    }
+
+    static String normalize(String name) {
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFKD);
+        String stripped = MARKS.matcher(decomposed).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static boolean isIndexable(String key) {
+        return !key.isEmpty() && key.getBytes(StandardCharsets.UTF_8).length <= MAX_KEY_BYTES;
+    }
+
+    private static void addName(Map<String, List<Place>> byName, String name, Place place) {
+        String key = normalize(name);
+        if (isIndexable(key)) {
+            byName.computeIfAbsent(key, k -> new ArrayList<>(1)).add(place);
+        }
+    }
+
+    private static boolean samePlace(List<Place> places) {
+        Place first = places.get(0);
+        return places.stream().allMatch(place -> Math.abs(place.getLatitude() - first.getLatitude()) < SAME_PLACE_DEGREES
+                && Math.abs(place.getLongitude() - first.getLongitude()) < SAME_PLACE_DEGREES);
+    }
+
+    private static void write(Path file, TreeMap<byte[], Entry> entries) throws IOException {
+        List<byte[]> records = new ArrayList<>(entries.size());
+        for (Map.Entry<byte[], Entry> entry : entries.entrySet()) {
+            records.add(record(entry.getKey(), entry.getValue()));
+        }
+
+        try (OutputStream stream = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(records.size());
+            int offset = 8 + 4 * records.size();
+            for (byte[] record : records) {
+                out.writeInt(offset);
+                offset += record.length;
+            }
+            for (byte[] record : records) {
+                out.write(record);
+            }
+        }
+    }
+
+    private static byte[] record(byte[] key, Entry entry) {
+        Place place = entry.place();
+        byte[] name = truncate(place.getName());
+        byte[] country = truncate(place.getCountry());
+        ByteBuffer buffer = ByteBuffer.allocate(2 + key.length + 24 + 2 + name.length + 2 + country.length);
+        buffer.putShort((short) key.length).put(key);
+        buffer.putDouble(place.getLatitude()).putDouble(place.getLongitude()).putLong(entry.learnedAt());
+        buffer.putShort((short) name.length).put(name);
+        buffer.putShort((short) country.length).put(country);
+        return buffer.array();
+    }
+
+    private static byte[] truncate(String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        return bytes.length > Short.MAX_VALUE ? Arrays.copyOf(bytes, Short.MAX_VALUE) : bytes;
+    }
+
+    @Data
+    public static class Place {
+        private final double latitude;
+        private final double longitude;
+        private final String name;
+        private final String country;
+    }
+
+    // A place and when it was learned from upstream; 0 for a name taken from the cities
+    private record Entry(Place place, long learnedAt) {
+        boolean city() {
+            return learnedAt == 0;
+        }
+    }
+
+    // Read-only view over a mapped index file
+    private static final class MappedIndex {
+
+        private static final MappedIndex EMPTY = new MappedIndex(null, 0);
+
+        private final MappedByteBuffer buffer;
+        private final int count;
+
+        private MappedIndex(MappedByteBuffer buffer, int count) {
+            this.buffer = buffer;
+            this.count = count;
+        }
+
+        private static MappedIndex open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.capacity() < 8 || buffer.getInt(0) != MAGIC) {
+                    throw new IOException("not a gazetteer file");
+                }
+                return new MappedIndex(buffer, buffer.getInt(4));
+            }
+        }
+
+        private Entry find(String key) {
+            byte[] target = key.getBytes(StandardCharsets.UTF_8);
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int offset = buffer.getInt(8 + 4 * mid);
+                int cmp = compareKey(offset, target);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return entry(offset);
+                }
+            }
+            return null;
+        }
+
+        private void forEach(BiConsumer<byte[], Entry> consumer) {
+            for (int i = 0; i < count; i++) {
+                int offset = buffer.getInt(8 + 4 * i);
+                byte[] key = new byte[buffer.getShort(offset)];
+                buffer.get(offset + 2, key);
+                consumer.accept(key, entry(offset));
+            }
+        }
+
+        private int compareKey(int offset, byte[] target) {
+            int length = buffer.getShort(offset);
+            int common = Math.min(length, target.length);
+            for (int i = 0; i < common; i++) {
+                int cmp = Integer.compare(buffer.get(offset + 2 + i) & 0xFF, target[i] & 0xFF);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return Integer.compare(length, target.length);
+        }
+
+        private Entry entry(int offset) {
+            int position = offset + 2 + buffer.getShort(offset);
+            double latitude = buffer.getDouble(position);
+            double longitude = buffer.getDouble(position + 8);
+            long learnedAt = buffer.getLong(position + 16);
+            position += 24;
+            String name = string(position);
+            position += 2 + buffer.getShort(position);
+            String country = string(position);
+            return new Entry(new Place(latitude, longitude, name, country.isEmpty() ? null : country), learnedAt);
+        }
+
+        private String string(int position) {
+            byte[] bytes = new byte[buffer.getShort(position)];
+            buffer.get(position + 2, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
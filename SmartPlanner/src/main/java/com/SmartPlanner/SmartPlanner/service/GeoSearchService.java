@@ -0,0 +1,161 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.Coordinates;
+import com.SmartPlanner.SmartPlanner.dto.NearbyCatalogResponse;
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.NearQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Our own activities and cities near a point or inside a bounding box, nearest first, served by
+ * $geoNear on the 2dsphere "location" indexes of City and Category.
+ *
+ * Each requested collection is queried for the first (page + 1) * size + 1 matches and the two
+ * distance-ordered lists are merged, so deep pages cost more; maps.nearby.max-page-size, the
+ * radius cap and maps.nearby.max-results (pages starting past it are rejected) keep that bounded.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GeoSearchService {
+
+    public static final String TYPE_ACTIVITY = "activity";
+    public static final String TYPE_CITY = "city";
+
+    private static final String DISTANCE_FIELD = "distanceMeters";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${maps.nearby.max-radius-meters:100000}")
+    private int maxRadiusMeters = 100000;
+
+    @Value("${maps.nearby.max-page-size:100}")
+    private int maxPageSize = 100;
+
+    @Value("${maps.nearby.max-results:1000}")
+    private int maxResults = 1000;
+
+    /**
+     * @param lat         centre latitude; lat/lon may be null when a bounding box is given
+     * @param lon         centre longitude
+     * @param radius      meters from the centre, null for no limit (bounding box only)
+     * @param boundingBox restricts results to the box, may be null
+     * @param types       "activity", "city" or both
+     */
+    public NearbyCatalogResponse findNearby(Double lat, Double lon, Integer radius,
+                                            NearbyCatalogResponse.BoundingBox boundingBox,
+                                            List<String> types, int page, int size) {
+        if ((lat == null || lon == null) && boundingBox == null) {
+            throw new IllegalArgumentException("Either lat/lon or a bounding box is required");
+        }
+        if (boundingBox != null && (boundingBox.getSouth() > boundingBox.getNorth() || boundingBox.getWest() > boundingBox.getEast())) {
+            throw new IllegalArgumentException("Bounding box must have south <= north and west <= east");
+        }
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("page must be >= 0 and size >= 1");
+        }
+
+        int pageSize = Math.min(size, maxPageSize);
+        // In long: page * pageSize overflows int long before it reaches the limit
+        long offset = (long) page * pageSize;
+        if (offset >= maxResults) {
+            throw new IllegalArgumentException("page * size must be below " + maxResults);
+        }
+        Integer radiusMeters = radius != null ? Math.min(radius, maxRadiusMeters) : null;
+        if (radiusMeters == null && boundingBox == null) {
+            radiusMeters = maxRadiusMeters;
+        }
+        double centerLat = lat != null ? lat : (boundingBox.getNorth() + boundingBox.getSouth()) / 2;
+        double centerLon = lon != null ? lon : (boundingBox.getEast() + boundingBox.getWest()) / 2;
+
+        int window = (int) (offset + pageSize + 1);
+        List<NearbyCatalogResponse.Item> merged = new ArrayList<>();
+        if (types == null || types.isEmpty() || types.contains(TYPE_ACTIVITY)) {
+            merged.addAll(geoNear(Category.class, TYPE_ACTIVITY, centerLat, centerLon, radiusMeters, boundingBox, window));
+        }
+        if (types == null || types.isEmpty() || types.contains(TYPE_CITY)) {
+            merged.addAll(geoNear(City.class, TYPE_CITY, centerLat, centerLon, radiusMeters, boundingBox, window));
+        }
+        merged.sort(Comparator.comparingDouble(NearbyCatalogResponse.Item::getDistanceMeters));
+
+        int from = (int) Math.min(offset, merged.size());
+        int to = Math.min(from + pageSize, merged.size());
+
+        return NearbyCatalogResponse.builder()
+                .center(new Coordinates(centerLat, centerLon))
+                .radiusMeters(radiusMeters)
+                .boundingBox(boundingBox)
+                .page(page)
+                .size(pageSize)
+                .hasMore(merged.size() > to)
+                .items(new ArrayList<>(merged.subList(from, to)))
+                .build();
+    }
+
+    private List<NearbyCatalogResponse.Item> geoNear(Class<?> type, String itemType, double lat, double lon,
+                                                     Integer radiusMeters,
+                                                     NearbyCatalogResponse.BoundingBox boundingBox, int limit) {
+        Criteria criteria = Criteria.where("isActive").is(true);
+        if (boundingBox != null) {
+            criteria = criteria.and("location").within(polygon(boundingBox));
+        }
+
+        NearQuery near = NearQuery.near(new GeoJsonPoint(lon, lat))
+                .spherical(true)
+                .query(new Query(criteria));
+        if (radiusMeters != null) {
+            near.maxDistance(radiusMeters);
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.geoNear(near, DISTANCE_FIELD),
+                Aggregation.limit(limit));
+
+        List<NearbyCatalogResponse.Item> items = new ArrayList<>();
+        for (Document document : mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(type), Document.class)) {
+            items.add(toItem(document, itemType));
+        }
+        return items;
+    }
+
+    private static GeoJsonPolygon polygon(NearbyCatalogResponse.BoundingBox box) {
+        return new GeoJsonPolygon(
+                new Point(box.getWest(), box.getSouth()),
+                new Point(box.getEast(), box.getSouth()),
+                new Point(box.getEast(), box.getNorth()),
+                new Point(box.getWest(), box.getNorth()),
+                new Point(box.getWest(), box.getSouth()));
+    }
+
+    private static NearbyCatalogResponse.Item toItem(Document document, String type) {
+        Number latitude = document.get("latitude", Number.class);
+        Number longitude = document.get("longitude", Number.class);
+        Number distance = document.get(DISTANCE_FIELD, Number.class);
+        return NearbyCatalogResponse.Item.builder()
+                .id(String.valueOf(document.get("_id")))
+                .type(type)
+                .name(document.getString("name"))
+                .cityId(TYPE_ACTIVITY.equals(type) ? document.getString("cityId") : String.valueOf(document.get("_id")))
+                .latitude(latitude != null ? latitude.doubleValue() : 0)
+                .longitude(longitude != null ? longitude.doubleValue() : 0)
+                .distanceMeters(distance != null ? Math.round(distance.doubleValue() * 10) / 10.0 : 0)
+                .imageUrl(document.getString("imageUrl"))
+                .build();
+    }
+}
@@ -14,11 +14,19 @@ import java.util.List;
 public class GeocodingService {
 
     private final RestTemplate restTemplate;
+    private final GazetteerService gazetteerService;
 
     private static final String GEOCODING_API_URL =
             "https://geocoding-api.open-meteo.com/v1/search?name={cityName}&count=1&language=en&format=json";
 
     public GeoLocation getCoordinates(String cityName) {
+        // Names resolved before (or belonging to a stored city) never leave the process
+        GazetteerService.Place known = gazetteerService.lookup(cityName).orElse(null);
+        if (known != null) {
+            log.debug("Gazetteer hit for {}", cityName);
+            return new GeoLocation(known.getLatitude(), known.getLongitude(), known.getCountry(), known.getName());
+        }
+
         try {
             log.info("Fetching coordinates for city: {}", cityName);
 
@@ -38,6 +46,9 @@ public class GeocodingService {
                     result.getName(), result.getCountry(),
                     result.getLatitude(), result.getLongitude());
 
+            gazetteerService.remember(cityName, new GazetteerService.Place(
+                    result.getLatitude(), result.getLongitude(), result.getName(), result.getCountry()));
+
             return new GeoLocation(
                     result.getLatitude(),
                     result.getLongitude(),
@@ -0,0 +1,198 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.IndexHealthResponse;
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.model.Country;
+import com.SmartPlanner.SmartPlanner.model.JobLease;
+import com.SmartPlanner.SmartPlanner.model.Trip;
+import com.SmartPlanner.SmartPlanner.model.TripNotification;
+import com.SmartPlanner.SmartPlanner.model.User;
+import com.SmartPlanner.SmartPlanner.model.UserProfile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies with explain() that every hot query - the shapes issued on request paths and by the
+ * schedulers - is answered from an index. The winning plan of each is inspected for COLLSCAN;
+ * one collection scan turns the health status DOWN, and so does a declared index MongoIndexConfig
+ * could not create.
+ *
+ * Runs after MongoIndexConfig has created the declared indexes, and again on demand. Only the
+ * query planner runs (no documents are read), so the values in the sample filters do not matter,
+ * only their shape.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IndexHealthService {
+
+    public static final String UP = "UP";
+    public static final String DOWN = "DOWN";
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private static final Date SAMPLE_DATE = new Date(0);
+
+    static final List<HotQuery> HOT_QUERIES = List.of(
+            new HotQuery("trips.countdown", Trip.class,
+                    new Document("userEmail", "").append("status", "PLANNED").append("startDate", new Document("$gte", SAMPLE_DATE)),
+                    new Document("startDate", 1)),
+            new HotQuery("trips.byUser", Trip.class, new Document("userId", ""), new Document("createdAt", -1)),
+            new HotQuery("trips.byEmail", Trip.class, new Document("userEmail", ""), null),
+            new HotQuery("trips.reminderWindow", Trip.class,
+                    new Document("status", "PLANNED").append("startDate", new Document("$gte", SAMPLE_DATE).append("$lte", SAMPLE_DATE)),
+                    null),
+            new HotQuery("trips.byStatus", Trip.class, new Document("status", "ONGOING"), null),
+            new HotQuery("trips.reminderShard", Trip.class,
+                    new Document("status", "PLANNED").append("shard", 1)
+                            .append("startDate", new Document("$gte", SAMPLE_DATE).append("$lte", SAMPLE_DATE)),
+                    new Document("_id", 1)),
+            new HotQuery("trips.endedShard", Trip.class,
+                    new Document("status", "ONGOING").append("shard", 1).append("endDate", new Document("$lt", SAMPLE_DATE)),
+                    new Document("_id", 1)),
+            new HotQuery("notifications.claim", TripNotification.class,
+                    new Document("tripId", "").append("type", "REMINDER_7_DAYS"), null),
+            new HotQuery("trips.unsharded", Trip.class,
+                    new Document("status", new Document("$in", List.of("PLANNED", "ONGOING"))).append("shard", null), null),
+            new HotQuery("leases.claimable", JobLease.class,
+                    new Document("job", "").append("runDate", new Document("$gte", SAMPLE_DATE).append("$lte", SAMPLE_DATE))
+                            .append("status", new Document("$ne", "DONE")),
+                    new Document("runDate", 1).append("partition", 1)),
+            new HotQuery("notifications.byUser", TripNotification.class, new Document("userEmail", ""), new Document("createdAt", -1)),
+            new HotQuery("notifications.unread", TripNotification.class,
+                    new Document("userEmail", "").append("isRead", false), new Document("createdAt", -1)),
+            new HotQuery("cities.byCountry", City.class, new Document("countryId", "").append("isActive", true), null),
+            new HotQuery("categories.byCity", Category.class,
+                    new Document("cityId", "").append("isActive", true), new Document("name", 1)),
+            new HotQuery("categories.byCities", Category.class,
+                    new Document("cityId", new Document("$in", List.of("", " "))).append("isActive", true), null),
+            new HotQuery("countries.active", Country.class, new Document("isActive", true), new Document("_id", 1)),
+            new HotQuery("users.byEmail", User.class, new Document("email", ""), null),
+            new HotQuery("userProfiles.byUserId", UserProfile.class, new Document("userId", ""), null));
+
+    private final MongoTemplate mongoTemplate;
+
+    // Keyed by collection and index name; an index created later drops out
+    private final Map<String, IndexHealthResponse.MissingIndex> missingIndexes = new ConcurrentHashMap<>();
+
+    private volatile IndexHealthResponse health = IndexHealthResponse.builder()
+            .status(UNKNOWN)
+            .queries(List.of())
+            .missingIndexes(List.of())
+            .build();
+
+    public IndexHealthResponse getHealth() {
+        return health;
+    }
+
+    public void indexFailed(String collection, String name, String error) {
+        missingIndexes.put(collection + "." + name, IndexHealthResponse.MissingIndex.builder()
+                .collection(collection)
+                .name(name)
+                .error(error)
+                .build());
+    }
+
+    public void indexCreated(String collection, String name) {
+        missingIndexes.remove(collection + "." + name);
+    }
+
+    public IndexHealthResponse verify() {
+        List<IndexHealthResponse.QueryPlan> plans = new ArrayList<>();
+        try {
+            for (HotQuery query : HOT_QUERIES) {
+                plans.add(explain(query));
+            }
+        } catch (Exception e) {
+            log.warn("Index verification failed: {}", e.getMessage());
+            health = IndexHealthResponse.builder()
+                    .status(UNKNOWN)
+                    .checkedAt(LocalDateTime.now())
+                    .error(e.getMessage())
+                    .queries(plans)
+                    .missingIndexes(List.copyOf(missingIndexes.values()))
+                    .build();
+            return health;
+        }
+
+        List<String> scans = plans.stream()
+                .filter(IndexHealthResponse.QueryPlan::isCollectionScan)
+                .map(IndexHealthResponse.QueryPlan::getName)
+                .toList();
+        List<IndexHealthResponse.MissingIndex> missing = List.copyOf(missingIndexes.values());
+        if (scans.isEmpty() && missing.isEmpty()) {
+            log.info("Index verification passed for {} hot queries", plans.size());
+        }
+        if (!scans.isEmpty()) {
+            log.error("Hot queries scanning whole collections: {}", scans);
+        }
+        if (!missing.isEmpty()) {
+            log.error("Declared indexes missing: {}", missing.stream()
+                    .map(index -> index.getCollection() + "." + index.getName())
+                    .toList());
+        }
+        health = IndexHealthResponse.builder()
+                .status(scans.isEmpty() && missing.isEmpty() ? UP : DOWN)
+                .checkedAt(LocalDateTime.now())
+                .queries(plans)
+                .missingIndexes(missing)
+                .build();
+        return health;
+    }
+
+    private IndexHealthResponse.QueryPlan explain(HotQuery query) {
+        String collection = mongoTemplate.getCollectionName(query.type());
+        Document find = new Document("find", collection).append("filter", query.filter());
+        if (query.sort() != null) {
+            find.append("sort", query.sort());
+        }
+        Document result = mongoTemplate.executeCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+
+        Object winningPlan = result.get("queryPlanner", Document.class) != null
+                ? result.get("queryPlanner", Document.class).get("winningPlan")
+                : null;
+        List<String> stages = new ArrayList<>();
+        List<String> indexNames = new ArrayList<>();
+        collectStages(winningPlan, stages, indexNames);
+
+        return IndexHealthResponse.QueryPlan.builder()
+                .name(query.name())
+                .collection(collection)
+                .stages(stages)
+                .indexName(indexNames.isEmpty() ? null : indexNames.get(0))
+                .collectionScan(stages.contains("COLLSCAN"))
+                .build();
+    }
+
+    // Depth-first over the plan tree; also covers the slot-based (queryPlan) and sharded (shards) layouts
+    static void collectStages(Object node, List<String> stages, List<String> indexNames) {
+        if (node instanceof Map<?, ?> map) {
+            if (map.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            if (map.get("indexName") instanceof String indexName) {
+                indexNames.add(indexName);
+            }
+            for (Object value : map.values()) {
+                collectStages(value, stages, indexNames);
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) {
+                collectStages(value, stages, indexNames);
+            }
+        }
+    }
+
+    record HotQuery(String name, Class<?> type, Document filter, Document sort) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.TripNotification;
+import com.SmartPlanner.SmartPlanner.model.User;
+import com.SmartPlanner.SmartPlanner.model.UserProfile;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Clears existing duplicates out of the way of a unique index before MongoIndexConfig creates it,
+ * so the index does not fail over data written before it existed.
+ *
+ * Per model, KEEP_FIRST says which document of a group of duplicates stays: the first in that
+ * order (then the oldest _id). The others are moved to "<collection>_duplicates" rather than
+ * deleted. Models without an entry are not touched; their unique index keeps failing with a
+ * warning, reported by IndexHealthService, until the data is fixed by hand.
+ *
+ * Users and profiles are not deduplicated on startup: each duplicate may own trips, a login or
+ * a profile, so moving one aside is an operator's decision. ON_REQUEST says which one stays when
+ * an operator asks for it through the admin endpoint.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IndexMigrationService {
+
+    static final int CHUNK_SIZE = 500;
+
+    static final Map<Class<?>, Sort> KEEP_FIRST = Map.of(
+            // The notification whose email went out, so it is not sent again
+            TripNotification.class, Sort.by(Sort.Order.desc("emailSent"), Sort.Order.asc("createdAt")));
+
+    // Only run by removeDuplicatesOnRequest, never on startup
+    static final Map<Class<?>, Sort> ON_REQUEST = Map.of(
+            // The original account; trips and profiles found by email keep resolving to it
+            User.class, Sort.by(Sort.Order.asc("createdAt")),
+            // The profile edited last
+            UserProfile.class, Sort.by(Sort.Order.desc("updatedAt")));
+
+    // Indexes no model declares anymore, dropped where an earlier version created them
+    static final Map<Class<?>, List<String>> RETIRED = Map.of(
+            TripNotification.class, List.of("userEmail_createdAt_unread"));
+
+    private final MongoTemplate mongoTemplate;
+    private final IndexHealthService indexHealthService;
+
+    public boolean handles(Class<?> type) {
+        return KEEP_FIRST.containsKey(type);
+    }
+
+    public List<String> retiredIndexes(Class<?> type) {
+        return RETIRED.getOrDefault(type, List.of());
+    }
+
+    /**
+     * Moves all but one document of each group sharing the index keys to the duplicates
+     * collection. Returns the number moved.
+     */
+    public long removeDuplicates(Class<?> type, Document indexKeys) {
+        Sort keep = KEEP_FIRST.get(type);
+        if (keep == null) {
+            return 0;
+        }
+        return removeDuplicates(type, indexKeys, keep);
+    }
+
+    /**
+     * The admin step for the models left out of the startup migration: moves the duplicates of
+     * each unique index of the collection aside, then creates the index. Empty when the
+     * collection is not one of them.
+     */
+    public OptionalLong removeDuplicatesOnRequest(String collectionName) {
+        Class<?> type = ON_REQUEST.keySet().stream()
+                .filter(candidate -> mongoTemplate.getCollectionName(candidate).equals(collectionName))
+                .findFirst()
+                .orElse(null);
+        if (type == null) {
+            return OptionalLong.empty();
+        }
+        long moved = 0;
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (IndexDefinition index : resolver.resolveIndexFor(type)) {
+            if (!Boolean.TRUE.equals(index.getIndexOptions().get("unique"))) {
+                continue;
+            }
+            moved += removeDuplicates(type, index.getIndexKeys(), ON_REQUEST.get(type));
+            String indexName = index.getIndexOptions().getString("name");
+            try {
+                mongoTemplate.indexOps(type).ensureIndex(index);
+                indexHealthService.indexCreated(collectionName, indexName);
+            } catch (Exception e) {
+                // Duplicates written since the move; the operator runs this again
+                log.warn("Could not create index {} on {}: {}", indexName, collectionName, e.getMessage());
+                indexHealthService.indexFailed(collectionName, indexName, e.getMessage());
+            }
+        }
+        return OptionalLong.of(moved);
+    }
+
+    private long removeDuplicates(Class<?> type, Document indexKeys, Sort keep) {
+        String collectionName = mongoTemplate.getCollectionName(type);
+        MongoCollection<Document> collection = mongoTemplate.getCollection(collectionName);
+
+        Document sort = new Document();
+        keep.forEach(order -> sort.append(order.getProperty(), order.isAscending() ? 1 : -1));
+        sort.append("_id", 1);
+        Document group = new Document();
+        indexKeys.keySet().forEach(key -> group.append(key.replace('.', '_'), "$" + key));
+
+        List<Document> pipeline = List.of(
+                new Document("$sort", sort),
+                new Document("$group", new Document("_id", group)
+                        .append("ids", new Document("$push", "$_id"))
+                        .append("count", new Document("$sum", 1))),
+                new Document("$match", new Document("count", new Document("$gt", 1))));
+
+        List<Object> extra = new ArrayList<>(CHUNK_SIZE);
+        long moved = 0;
+        for (Document duplicates : collection.aggregate(pipeline).allowDiskUse(true)) {
+            List<?> ids = duplicates.getList("ids", Object.class);
+            extra.addAll(ids.subList(1, ids.size()));
+            if (extra.size() >= CHUNK_SIZE) {
+                moved += move(collection, collectionName, extra);
+                extra = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!extra.isEmpty()) {
+            moved += move(collection, collectionName, extra);
+        }
+
+        if (moved > 0) {
+            log.warn("Moved {} duplicate documents of {} on {} to {}_duplicates before creating its unique index",
+                    moved, collectionName, indexKeys.toJson(), collectionName);
+        }
+        return moved;
+    }
+
+    // Copy first, then delete: a failure in between leaves a copy, never a loss
+    private long move(MongoCollection<Document> collection, String collectionName, List<Object> ids) {
+        List<Document> documents = collection.find(Filters.in("_id", ids)).into(new ArrayList<>());
+        if (documents.isEmpty()) {
+            return 0;
+        }
+        // Upserts by _id, so a rerun after a failed delete does not trip over its earlier copies
+        mongoTemplate.getCollection(collectionName + "_duplicates").bulkWrite(documents.stream()
+                .map(document -> new ReplaceOneModel<>(Filters.eq("_id", document.get("_id")), document,
+                        new ReplaceOptions().upsert(true)))
+                .toList());
+        return collection.deleteMany(Filters.in("_id", ids)).getDeletedCount();
+    }
+}
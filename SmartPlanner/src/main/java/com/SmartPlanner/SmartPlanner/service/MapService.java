@@ -1,5 +1,6 @@
 package com.SmartPlanner.SmartPlanner.service;
 
+import com.SmartPlanner.SmartPlanner.config.UpstreamRateLimiter;
 import com.SmartPlanner.SmartPlanner.dto.Coordinates;
 import com.SmartPlanner.SmartPlanner.dto.DirectionsResponse;
 import com.SmartPlanner.SmartPlanner.dto.DistanceResponse;
@@ -31,14 +32,18 @@ public class MapService {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     private final TripRepository tripRepository;
+    private final UpstreamRateLimiter upstreamRateLimiter;
+    private final GazetteerService gazetteerService;
 
     // Free APIs URLs
     private static final String NOMINATIM_URL = "https://nominatim.openstreetmap.org";
     private static final String OSRM_URL = "http://router.project-osrm.org";
     private static final String OVERPASS_URL = "https://overpass-api.de/api/interpreter";
 
-    // Rate limiting for Nominatim (1 request per second)
-    private long lastNominatimRequest = 0;
+    // Rate limit keys (http.client.upstreams.<name>)
+    private static final String NOMINATIM = "nominatim";
+    private static final String OSRM = "osrm";
+    private static final String OVERPASS = "overpass";
 
     // User-Agent required by Nominatim
     private HttpHeaders createNominatimHeaders() {
@@ -48,25 +53,20 @@ public class MapService {
         return headers;
     }
 
-    // Rate limiting method
-    private synchronized void rateLimitNominatim() {
-        long currentTime = System.currentTimeMillis();
-        long timeSinceLastRequest = currentTime - lastNominatimRequest;
-
-        if (timeSinceLastRequest < 1000) { // 1 second
-            try {
-                Thread.sleep(1000 - timeSinceLastRequest);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-        lastNominatimRequest = System.currentTimeMillis();
-    }
-
     // Geocoding: Address to coordinates
-    @Cacheable(value = "geocoding", key = "#address")
+    @Cacheable(value = "geocoding", sync = true, key = "#address")
     public GeocodingResponse geocodeAddress(String address) {
-        rateLimitNominatim();
+        GazetteerService.Place known = gazetteerService.lookup(address).orElse(null);
+        if (known != null) {
+            GeocodingResponse result = new GeocodingResponse();
+            result.setLatitude(known.getLatitude());
+            result.setLongitude(known.getLongitude());
+            result.setDisplayName(known.getCountry() != null ? known.getName() + ", " + known.getCountry() : known.getName());
+            result.setType("gazetteer");
+            return result;
+        }
+
+        upstreamRateLimiter.acquire(NOMINATIM);
 
         try {
             String url = NOMINATIM_URL + "/search?q=" + address + "&format=json&limit=1";
@@ -86,6 +86,8 @@ public class MapService {
                 result.setType(firstResult.get("type").asText());
                 result.setOsmId(firstResult.get("osm_id").asText());
 
+                gazetteerService.remember(address, new GazetteerService.Place(
+                        result.getLatitude(), result.getLongitude(), result.getDisplayName(), null));
                 return result;
             }
         } catch (Exception e) {
@@ -95,9 +97,9 @@ public class MapService {
     }
 
     // Reverse Geocoding: Coordinates to address
-    @Cacheable(value = "reverseGeocoding", key = "#lat + '-' + #lon")
+    @Cacheable(value = "reverseGeocoding", sync = true, key = "#lat + '-' + #lon")
     public GeocodingResponse reverseGeocode(double lat, double lon) {
-        rateLimitNominatim();
+        upstreamRateLimiter.acquire(NOMINATIM);
 
         try {
             String url = String.format("%s/reverse?lat=%f&lon=%f&format=json&zoom=18",
@@ -126,9 +128,11 @@ public class MapService {
     }
 
     // Get directions between two points using OSRM
-    @Cacheable(value = "directions", key = "#originLat + '-' + #originLon + '-' + #destLat + '-' + #destLon + '-' + #mode")
+    @Cacheable(value = "directions", sync = true, key = "#originLat + '-' + #originLon + '-' + #destLat + '-' + #destLon + '-' + #mode")
     public DirectionsResponse getDirections(double originLat, double originLon,
                                             double destLat, double destLon, String mode) {
+        upstreamRateLimiter.acquire(OSRM);
+
         try {
             String profile = mode.equals("walking") ? "foot" : "driving";
             String url = String.format("%s/route/v1/%s/%f,%f;%f,%f?overview=full&steps=true&geometries=geojson",
@@ -189,6 +193,7 @@ public class MapService {
         if (coordinates == null || coordinates.size() < 2) {
             throw new IllegalArgumentException("At least 2 coordinates are required");
         }
+        upstreamRateLimiter.acquire(OSRM);
 
         try {
             StringBuilder coordinatesStr = new StringBuilder();
@@ -244,8 +249,10 @@ public class MapService {
     }
 
     // Get nearby places using Overpass API
-    @Cacheable(value = "nearbyPlaces", key = "#lat + '-' + #lon + '-' + #radius + '-' + #type")
+    @Cacheable(value = "nearbyPlaces", sync = true, key = "#lat + '-' + #lon + '-' + #radiusMeters + '-' + #type")
     public NearbyPlacesResponse getNearbyPlaces(double lat, double lon, int radiusMeters, String type) {
+        upstreamRateLimiter.acquire(OVERPASS);
+
         try {
             String overpassQuery = buildOverpassQuery(lat, lon, radiusMeters, type);
             String url = OVERPASS_URL + "?data=" + overpassQuery;
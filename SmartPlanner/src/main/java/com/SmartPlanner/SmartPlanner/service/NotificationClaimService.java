@@ -0,0 +1,126 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.TripNotification;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Claims a notification before its email goes out: an upsert on (tripId, type), which is unique,
+ * inserts the notification only if none exists yet. The caller that inserted it owns the send;
+ * everyone else - a retry, a second node, an overlapping manual run - finds it there and skips.
+ * No read comes first, so there is no gap between check and write for two senders to slip into.
+ *
+ * A sender that dies between the claim and the send leaves the notification claimed with
+ * emailSent=false; that email is not retried (at most once).
+ *
+ * Without the unique tripId_type index the upserts are not exclusive, so batch senders call
+ * requireUniqueIndex() first and refuse to run while it is missing.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationClaimService {
+
+    static final String UNIQUE_INDEX = "tripId_type";
+
+    private final MongoTemplate mongoTemplate;
+
+    // Once seen, the index is assumed to stay
+    private volatile boolean uniqueIndexReady = false;
+
+    public void requireUniqueIndex() {
+        if (uniqueIndexReady) {
+            return;
+        }
+        boolean ready = mongoTemplate.indexOps(TripNotification.class).getIndexInfo().stream()
+                .anyMatch(index -> index.isUnique() && UNIQUE_INDEX.equals(index.getName()));
+        if (!ready) {
+            throw new IllegalStateException("Unique index " + UNIQUE_INDEX
+                    + " on trip_notifications is missing; notification claims would not be exclusive");
+        }
+        uniqueIndexReady = true;
+    }
+
+    // True if this call created the notification
+    public boolean claim(TripNotification notification) {
+        try {
+            UpdateResult result = mongoTemplate.upsert(byTripAndType(notification), onInsert(notification), TripNotification.class);
+            return result.getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            // Lost an insert race on the unique index
+            return false;
+        }
+    }
+
+    // Positions in the list of the notifications this call created, in one bulkWrite
+    public Set<Integer> claimAll(List<TripNotification> notifications) {
+        Set<Integer> claimed = new HashSet<>();
+        if (notifications.isEmpty()) {
+            return claimed;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TripNotification.class);
+        for (TripNotification notification : notifications) {
+            bulk.upsert(byTripAndType(notification), onInsert(notification));
+        }
+
+        BulkWriteResult result;
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            // Unordered: the other upserts went through; duplicates are claims lost to a concurrent sender
+            log.debug("{} notification claims lost to concurrent senders", e.getErrors().size());
+            result = e.getResult();
+        }
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            claimed.add(upsert.getIndex());
+        }
+        return claimed;
+    }
+
+    // After the emails of claimed notifications went out
+    public void markSent(List<TripNotification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TripNotification.class);
+        for (TripNotification notification : notifications) {
+            notification.setEmailSent(true);
+            notification.setSentAt(now);
+            bulk.updateOne(byTripAndType(notification), new Update().set("emailSent", true).set("sentAt", now));
+        }
+        bulk.execute();
+    }
+
+    private static Query byTripAndType(TripNotification notification) {
+        return Query.query(Criteria.where("tripId").is(notification.getTripId()).and("type").is(notification.getType()));
+    }
+
+    // tripId and type come from the query
+    private static Update onInsert(TripNotification notification) {
+        return new Update()
+                .setOnInsert("userId", notification.getUserId())
+                .setOnInsert("userEmail", notification.getUserEmail())
+                .setOnInsert("title", notification.getTitle())
+                .setOnInsert("message", notification.getMessage())
+                .setOnInsert("isRead", false)
+                .setOnInsert("emailSent", false)
+                .setOnInsert("createdAt", notification.getCreatedAt());
+    }
+}
@@ -0,0 +1,194 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.Coordinates;
+import com.SmartPlanner.SmartPlanner.dto.OpenMeteoResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Single entry point for Open-Meteo forecast calls.
+ *
+ * Coordinates are snapped to a grid (weather.forecast.grid-degrees, 0.01° ~ 1.1 km) so nearby
+ * requests share one cached response in the "forecasts" cache. The key also carries the requested
+ * variables, so callers asking for different data never see each other's responses. Concurrent
+ * misses for the same key are coalesced into one upstream call by the cache.
+ *
+ * Weather, alerts and packing suggestions all read the same forecast bundle (the union of their
+ * variables), so one city costs one upstream call per hour whichever endpoints are used.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OpenMeteoClient {
+
+    public static final String FORECAST_CACHE = "forecasts";
+
+    public static final String BUNDLE_VARIABLES =
+            "current=temperature_2m,relative_humidity_2m,wind_speed_10m,weather_code" +
+                    "&hourly=temperature_2m,relative_humidity_2m,wind_speed_10m" +
+                    "&daily=temperature_2m_max,temperature_2m_min,weather_code,precipitation_sum,wind_speed_10m_max,relative_humidity_2m_max" +
+                    "&timezone=auto";
+
+    private static final String FORECAST_API_URL =
+            "https://api.open-meteo.com/v1/forecast?latitude={lat}&longitude={lon}&";
+
+    private final RestTemplate restTemplate;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${weather.forecast.grid-degrees:0.01}")
+    private double gridDegrees = 0.01;
+
+    @Value("${weather.forecast.batch-size:50}")
+    private int batchSize = 50;
+
+    /**
+     * Current conditions, hourly and daily forecast for the grid cell containing (lat, lon).
+     */
+    public OpenMeteoResponse getForecastBundle(double lat, double lon) {
+        return getForecast(lat, lon, BUNDLE_VARIABLES);
+    }
+
+    /**
+     * @param variables Open-Meteo query parameters without coordinates,
+     *                  e.g. "current=temperature_2m&timezone=auto"
+     */
+    public OpenMeteoResponse getForecast(double lat, double lon, String variables) {
+        double gridLat = snap(lat);
+        double gridLon = snap(lon);
+        String key = key(gridLat, gridLon, variables);
+
+        Cache cache = cacheManager.getCache(FORECAST_CACHE);
+        if (cache == null) {
+            return fetch(gridLat, gridLon, variables);
+        }
+
+        try {
+            return cache.get(key, () -> fetch(gridLat, gridLon, variables));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Forecast bundles for many points, aligned with the input (null where a point could not be
+     * fetched). Cached cells are served from the cache; the remaining distinct cells are requested
+     * with Open-Meteo's comma-separated multi-location form, weather.forecast.batch-size per call.
+     */
+    public List<OpenMeteoResponse> getForecastBundles(List<Coordinates> points) {
+        return forecastBundles(points, true);
+    }
+
+    /**
+     * Like getForecastBundles, but every cell is requested upstream and its cache entry replaced:
+     * for callers that record the result as current (background weather refresh), where a cached
+     * response could be up to an hour old.
+     */
+    public List<OpenMeteoResponse> refreshForecastBundles(List<Coordinates> points) {
+        return forecastBundles(points, false);
+    }
+
+    private List<OpenMeteoResponse> forecastBundles(List<Coordinates> points, boolean readCache) {
+        Cache cache = cacheManager.getCache(FORECAST_CACHE);
+        Map<String, OpenMeteoResponse> byKey = new HashMap<>();
+        Map<String, double[]> missing = new LinkedHashMap<>();
+        List<String> keys = new ArrayList<>(points.size());
+
+        for (Coordinates point : points) {
+            double gridLat = snap(point.getLatitude());
+            double gridLon = snap(point.getLongitude());
+            String key = key(gridLat, gridLon, BUNDLE_VARIABLES);
+            keys.add(key);
+
+            if (byKey.containsKey(key) || missing.containsKey(key)) {
+                continue;
+            }
+            OpenMeteoResponse cached = cache != null && readCache ? cache.get(key, OpenMeteoResponse.class) : null;
+            if (cached != null) {
+                byKey.put(key, cached);
+            } else {
+                missing.put(key, new double[]{gridLat, gridLon});
+            }
+        }
+
+        List<String> missingKeys = new ArrayList<>(missing.keySet());
+        int size = Math.max(1, batchSize);
+        for (int from = 0; from < missingKeys.size(); from += size) {
+            List<String> chunk = missingKeys.subList(from, Math.min(from + size, missingKeys.size()));
+            try {
+                List<OpenMeteoResponse> responses = fetchBatch(chunk.stream().map(missing::get).toList());
+                for (int i = 0; i < chunk.size() && i < responses.size(); i++) {
+                    byKey.put(chunk.get(i), responses.get(i));
+                    if (cache != null) {
+                        cache.put(chunk.get(i), responses.get(i));
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Open-Meteo batch of {} locations failed: {}", chunk.size(), e.getMessage());
+            }
+        }
+
+        return keys.stream().map(byKey::get).toList();
+    }
+
+    double snap(double coordinate) {
+        if (gridDegrees <= 0) {
+            return coordinate;
+        }
+        return BigDecimal.valueOf(Math.round(coordinate / gridDegrees))
+                .multiply(BigDecimal.valueOf(gridDegrees))
+                .setScale(4, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+
+    private static String key(double gridLat, double gridLon, String variables) {
+        return String.format(Locale.ROOT, "%.4f,%.4f|%s", gridLat, gridLon, variables);
+    }
+
+    // One location returns a single object, several return an array in request order
+    private List<OpenMeteoResponse> fetchBatch(List<double[]> cells) throws Exception {
+        String latitudes = cells.stream().map(cell -> String.valueOf(cell[0])).collect(Collectors.joining(","));
+        String longitudes = cells.stream().map(cell -> String.valueOf(cell[1])).collect(Collectors.joining(","));
+        log.info("Fetching Open-Meteo forecast for {} grid cells", cells.size());
+
+        JsonNode body = restTemplate.getForObject(FORECAST_API_URL + BUNDLE_VARIABLES, JsonNode.class, latitudes, longitudes);
+        if (body == null) {
+            return List.of();
+        }
+
+        List<OpenMeteoResponse> responses = new ArrayList<>();
+        if (body.isArray()) {
+            for (JsonNode location : body) {
+                responses.add(objectMapper.treeToValue(location, OpenMeteoResponse.class));
+            }
+        } else {
+            responses.add(objectMapper.treeToValue(body, OpenMeteoResponse.class));
+        }
+        return responses;
+    }
+
+    private OpenMeteoResponse fetch(double lat, double lon, String variables) {
+        log.info("Fetching Open-Meteo forecast for grid cell ({}, {})", lat, lon);
+        return restTemplate.getForObject(FORECAST_API_URL + variables, OpenMeteoResponse.class, lat, lon);
+    }
+}
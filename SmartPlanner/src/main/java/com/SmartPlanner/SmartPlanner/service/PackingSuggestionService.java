@@ -6,7 +6,6 @@ import com.SmartPlanner.SmartPlanner.model.City;
 import com.SmartPlanner.SmartPlanner.repository.CityRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,7 +15,7 @@ import java.util.List;
 public class PackingSuggestionService {
 
     private final CityRepository cityRepository;
-    private final RestTemplate restTemplate;
+    private final OpenMeteoClient openMeteoClient;
 
     public PackingSuggestionsResponse getPackingSuggestionsByCityId(String cityId) {
         City city = cityRepository.findById(cityId)
@@ -27,14 +26,7 @@ public class PackingSuggestionService {
 
     public PackingSuggestionsResponse getPackingSuggestionsByCoordinates(double lat, double lon,
                                                                          String cityName, String country) {
-        String url = String.format(
-                "https://api.open-meteo.com/v1/forecast?latitude=%f&longitude=%f" +
-                        "&daily=temperature_2m_max,temperature_2m_min,weather_code,precipitation_sum,wind_speed_10m_max,relative_humidity_2m_max" +
-                        "&timezone=auto",
-                lat, lon
-        );
-
-        OpenMeteoResponse weather = restTemplate.getForObject(url, OpenMeteoResponse.class);
+        OpenMeteoResponse weather = openMeteoClient.getForecastBundle(lat, lon);
 
         if (weather == null || weather.getDaily() == null) {
             throw new RuntimeException("Failed to fetch weather forecast");
@@ -0,0 +1,168 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Compressed prefix tree (radix tree) from string keys to values; a key may hold several values.
+ * Edges carry whole key fragments and children are kept sorted by first character, so a lookup
+ * costs one binary search per edge instead of one node per character.
+ *
+ * Not thread-safe; SearchIndexService guards it with its lock.
+ */
+final class RadixTree<V> {
+
+    private final Node<V> root = new Node<>("");
+    private int size;
+
+    void put(String key, V value) {
+        Node<V> node = root;
+        String rest = key;
+        while (!rest.isEmpty()) {
+            int index = node.indexOf(rest.charAt(0));
+            if (index < 0) {
+                Node<V> leaf = new Node<>(rest);
+                node.children.add(-index - 1, leaf);
+                node = leaf;
+                break;
+            }
+
+            Node<V> child = node.children.get(index);
+            int common = commonPrefix(child.label, rest);
+            if (common < child.label.length()) {
+                // Split the edge: the shared part becomes a new node above the child
+                Node<V> split = new Node<>(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children.add(child);
+                node.children.set(index, split);
+                child = split;
+            }
+            node = child;
+            rest = rest.substring(common);
+        }
+        node.values.add(value);
+        size++;
+    }
+
+    boolean remove(String key, V value) {
+        List<Node<V>> path = new ArrayList<>();
+        Node<V> node = root;
+        String rest = key;
+        path.add(node);
+        while (!rest.isEmpty()) {
+            int index = node.indexOf(rest.charAt(0));
+            if (index < 0 || !rest.startsWith(node.children.get(index).label)) {
+                return false;
+            }
+            node = node.children.get(index);
+            rest = rest.substring(node.label.length());
+            path.add(node);
+        }
+        if (!node.values.remove(value)) {
+            return false;
+        }
+        size--;
+
+        // Drop empty leaves and merge single-child chains left behind
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node<V> current = path.get(i);
+            Node<V> parent = path.get(i - 1);
+            if (current.values.isEmpty() && current.children.isEmpty()) {
+                parent.children.remove(current);
+            } else if (current.values.isEmpty() && current.children.size() == 1) {
+                Node<V> only = current.children.get(0);
+                only.label = current.label + only.label;
+                parent.children.set(parent.children.indexOf(current), only);
+            } else {
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Values under keys starting with prefix, stopping after max accepted values. Order is
+     * breadth-first by edges below the prefix, which is not key length (one edge may carry many
+     * characters): callers needing a ranking collect everything up to max and sort it.
+     */
+    List<V> withPrefix(String prefix, int max, Predicate<V> accept) {
+        List<V> found = new ArrayList<>();
+        Node<V> node = root;
+        String rest = prefix;
+        while (!rest.isEmpty()) {
+            int index = node.indexOf(rest.charAt(0));
+            if (index < 0) {
+                return found;
+            }
+            Node<V> child = node.children.get(index);
+            if (child.label.startsWith(rest)) {
+                node = child;
+                break;
+            }
+            if (!rest.startsWith(child.label)) {
+                return found;
+            }
+            node = child;
+            rest = rest.substring(child.label.length());
+        }
+
+        ArrayDeque<Node<V>> queue = new ArrayDeque<>();
+        queue.add(node);
+        while (!queue.isEmpty()) {
+            Node<V> current = queue.poll();
+            for (V value : current.values) {
+                if (accept.test(value)) {
+                    found.add(value);
+                    if (found.size() >= max) {
+                        return found;
+                    }
+                }
+            }
+            queue.addAll(current.children);
+        }
+        return found;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node<V> {
+        private String label;
+        private final List<Node<V>> children = new ArrayList<>(2);
+        private final List<V> values = new ArrayList<>(1);
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        // Binary search on first characters; (-(insertion point) - 1) when absent
+        private int indexOf(char first) {
+            int low = 0;
+            int high = children.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children.get(mid).label.charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
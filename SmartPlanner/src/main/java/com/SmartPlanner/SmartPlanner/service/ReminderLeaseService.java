@@ -0,0 +1,191 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.JobLease;
+import com.SmartPlanner.SmartPlanner.model.Trip;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Shares the daily reminder run between all running nodes through leases in job_leases:
+ *
+ * - The run is split into one partition per trip shard (Trip.SHARDS); every node upserts the
+ *   same partition documents for the day, so whichever node starts first creates them
+ * - Nodes claim partitions one at a time with findAndModify and run them; a node that finishes
+ *   one claims the next, so the run spreads over however many nodes are up
+ * - After each chunk the partition's checkpoint is saved and its lease extended. A node that
+ *   dies stops extending; once the lease expires another node claims the partition and resumes
+ *   after the checkpoint
+ * - A node that finds its lease taken over stops, so a partition never has two writers for long
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReminderLeaseService {
+
+    static final String JOB = "trip-reminders";
+
+    private final MongoTemplate mongoTemplate;
+    private final TripReminderService tripReminderService;
+    private final TripShardService tripShardService;
+
+    @Value("${reminders.lease.node-id:}")
+    private String nodeId = "";
+
+    @Value("${reminders.lease.ttl-ms:600000}")
+    private long leaseTtlMs = 600000;
+
+    @Value("${reminders.lease.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @PostConstruct
+    void init() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        log.info("Reminder lease node id: {}", nodeId);
+    }
+
+    // Start of the day's run on this node: create the partitions if needed and work through them
+    public TripReminderService.RunSummary runDaily(LocalDate runDate) {
+        // Trips written by a node without the shard callback (rolling deploy) would be in no partition
+        tripShardService.backfillActive();
+        createPartitions(runDate);
+        return claimAndRun(runDate, runDate);
+    }
+
+    // Partitions of the runs in [from, to] that are unclaimed or whose lease expired (a node died mid-way)
+    public TripReminderService.RunSummary claimAndRun(LocalDate from, LocalDate to) {
+        // Before claiming: a refusal here must not use up the partitions' attempts
+        tripReminderService.requireExclusiveClaims();
+        TripReminderService.RunSummary total = TripReminderService.RunSummary.EMPTY;
+        int partitions = 0;
+        JobLease lease;
+        while ((lease = claim(from, to)) != null) {
+            try {
+                total = total.plus(run(lease));
+                partitions++;
+            } catch (Exception e) {
+                log.error("Reminder partition {} failed on attempt {}: {}", lease.getPartition(), lease.getAttempts(), e.getMessage());
+                release(lease);
+                break;
+            }
+        }
+        if (partitions > 0) {
+            log.info("Node {} ran {} reminder partitions for {} to {}: {}", nodeId, partitions, from, to, total);
+        }
+        return total;
+    }
+
+    private void createPartitions(LocalDate runDate) {
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, JobLease.class);
+        for (int partition = 0; partition < Trip.SHARDS; partition++) {
+            bulk.upsert(Query.query(Criteria.where("_id").is(leaseId(runDate, partition))),
+                    new Update()
+                            .setOnInsert("job", JOB)
+                            .setOnInsert("runDate", runDate)
+                            .setOnInsert("partition", partition)
+                            .setOnInsert("status", JobLease.LeaseStatus.PENDING)
+                            .setOnInsert("attempts", 0)
+                            .setOnInsert("createdAt", now));
+        }
+        bulk.execute();
+    }
+
+    // Oldest run first, so a run left unfinished before midnight is done before today's
+    JobLease claim(LocalDate from, LocalDate to) {
+        LocalDateTime now = LocalDateTime.now();
+        Query claimable = Query.query(Criteria.where("job").is(JOB)
+                        .and("runDate").gte(from).lte(to)
+                        .and("status").ne(JobLease.LeaseStatus.DONE)
+                        .and("attempts").lt(maxAttempts)
+                        .orOperator(Criteria.where("owner").is(null), Criteria.where("leaseUntil").lt(now)))
+                .with(Sort.by("runDate", "partition"));
+        Update update = new Update()
+                .set("owner", nodeId)
+                .set("leaseUntil", now.plus(Duration.ofMillis(leaseTtlMs)))
+                .set("status", JobLease.LeaseStatus.RUNNING)
+                .inc("attempts", 1)
+                .set("updatedAt", now);
+        return mongoTemplate.findAndModify(claimable, update, FindAndModifyOptions.options().returnNew(true), JobLease.class);
+    }
+
+    private TripReminderService.RunSummary run(JobLease lease) {
+        TripReminderService.Phase from = lease.getPhase() != null
+                ? TripReminderService.Phase.valueOf(lease.getPhase())
+                : TripReminderService.Phase.REMINDERS;
+        if (lease.getCheckpoint() != null) {
+            log.info("Resuming reminder partition {} at {} after trip {}", lease.getPartition(), from, lease.getCheckpoint());
+        }
+
+        boolean[] lost = {false};
+        TripReminderService.RunSummary summary = tripReminderService.runShard(lease.getRunDate(), lease.getPartition(),
+                from, lease.getCheckpoint(), (phase, lastTripId, chunk) -> {
+                    lost[0] = !checkpoint(lease, phase, lastTripId, chunk);
+                    return !lost[0];
+                });
+
+        if (lost[0] || !complete(lease)) {
+            log.warn("Lease on reminder partition {} was taken over; stopping here", lease.getPartition());
+        }
+        return summary;
+    }
+
+    // Saves the resume point and extends the lease, as long as this node still holds it
+    private boolean checkpoint(JobLease lease, TripReminderService.Phase phase, String lastTripId,
+                               TripReminderService.RunSummary chunk) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("phase", phase.name())
+                .set("checkpoint", lastTripId)
+                .set("leaseUntil", now.plus(Duration.ofMillis(leaseTtlMs)))
+                .set("updatedAt", now)
+                .inc("processed", chunk.trips())
+                .inc("notificationsSent", chunk.notificationsSent())
+                .inc("tripsStarted", chunk.tripsStarted())
+                .inc("tripsCompleted", chunk.tripsCompleted());
+        return mongoTemplate.updateFirst(owned(lease), update, JobLease.class).getMatchedCount() > 0;
+    }
+
+    private boolean complete(JobLease lease) {
+        Update update = new Update()
+                .set("status", JobLease.LeaseStatus.DONE)
+                .set("leaseUntil", null)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(owned(lease), update, JobLease.class).getMatchedCount() > 0;
+    }
+
+    // Hands a failed partition back right away instead of waiting for the lease to expire
+    private void release(JobLease lease) {
+        Update update = new Update()
+                .set("owner", null)
+                .set("leaseUntil", null)
+                .set("status", JobLease.LeaseStatus.PENDING)
+                .set("updatedAt", LocalDateTime.now());
+        mongoTemplate.updateFirst(owned(lease), update, JobLease.class);
+    }
+
+    private Query owned(JobLease lease) {
+        return Query.query(Criteria.where("_id").is(lease.getId()).and("owner").is(nodeId));
+    }
+
+    static String leaseId(LocalDate runDate, int partition) {
+        return JOB + ":" + runDate + ":" + partition;
+    }
+}
@@ -0,0 +1,540 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.model.Country;
+import com.SmartPlanner.SmartPlanner.repository.CategoryRepository;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import com.SmartPlanner.SmartPlanner.repository.CountryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index over the names and descriptions of active countries, cities and
+ * activities, behind /api/v1/search.
+ *
+ * - Text is normalised like the gazetteer (NFKD, accents stripped, lower case), so "Zurich"
+ *   finds "Zürich"
+ * - The term dictionary is sorted: a query term matches its exact term, every term it is a prefix
+ *   of (up to search.index.max-expansions), and - from 4 characters - terms within edit distance
+ *   1 (2 from 8 characters), found through a BK-tree rather than a scan of the dictionary
+ * - Score per query term: best (match quality x field weight x idf) over the terms it matched,
+ *   name matches weighing 3x description ones. The sum is scaled by the share of query terms
+ *   matched, boosted when the name equals or starts with the whole query, and by type
+ *   (country > city > activity)
+ *
+ * Typeahead (suggest) uses a separate radix tree keyed by the normalised name and by each later
+ * word of it, so "bea" completes "Clifton Beach"; completions of the whole name rank first.
+ *
+ * Loaded from Mongo on first search and kept current by the admin write paths, like the catalog
+ * snapshot. Writes on other nodes arrive through refresh(): this node publishes its own changes
+ * as a bump of the "search" catalog version and rebuilds - off the lock, then swapped in - when
+ * the stored version moved past the one its index was built from. Only ids and scores live here;
+ * SearchService loads the documents for one page.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchIndexService {
+
+    public static final String TYPE_COUNTRY = "COUNTRY";
+    public static final String TYPE_CITY = "CITY";
+    public static final String TYPE_ACTIVITY = "ACTIVITY";
+
+    static final String VERSION = "search";
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final double PREFIX_QUALITY = 0.7;
+    private static final double FUZZY_QUALITY = 0.45;
+
+    private final CountryRepository countryRepository;
+    private final CityRepository cityRepository;
+    private final CategoryRepository categoryRepository;
+    private final CatalogVersionService catalogVersionService;
+
+    @Value("${search.index.max-expansions:200}")
+    private int maxExpansions = 200;
+
+    @Value("${search.suggest.max-candidates:5000}")
+    private int maxSuggestCandidates = 5000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; null until the first search
+    private Index index;
+    // Catalog version the index was built from, -1 to rebuild on the next refresh
+    private long builtVersion = -1;
+
+    // Local changes applied, and how many of them refresh() has published
+    private final AtomicLong localChanges = new AtomicLong();
+    private long publishedChanges;
+
+    // ==================== SEARCH ====================
+
+    /**
+     * Matches for the query, best first.
+     *
+     * @param types  restrict to these types (COUNTRY, CITY, ACTIVITY); null or empty for all
+     * @param offset first hit to return
+     * @param limit  hits to return
+     */
+    public Hits search(String query, Collection<String> types, int offset, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new Hits(0, List.of());
+        }
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            Map<Doc, double[]> scores = new HashMap<>();
+            for (int i = 0; i < terms.size(); i++) {
+                collect(index, terms.get(i), i, terms.size(), scores);
+            }
+
+            String normalizedQuery = String.join(" ", terms);
+            List<Hit> hits = new ArrayList<>();
+            for (Map.Entry<Doc, double[]> entry : scores.entrySet()) {
+                Doc doc = entry.getKey();
+                if (types != null && !types.isEmpty() && !types.contains(doc.type())) {
+                    continue;
+                }
+                hits.add(new Hit(doc.type(), doc.id(), doc.label(), score(doc, entry.getValue(), normalizedQuery)));
+            }
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::label));
+
+            int from = Math.min(Math.max(0, offset), hits.size());
+            int to = Math.min(from + Math.max(0, limit), hits.size());
+            return new Hits(hits.size(), new ArrayList<>(hits.subList(from, to)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents whose name, or a word in it, starts with the prefix: whole-name completions
+     * first, then by type (country > city > activity) and shorter names. Every completion of the
+     * prefix is ranked, up to search.suggest.max-candidates (only a one- or two-letter prefix
+     * reaches it). No fuzzy matching and no Mongo access - this serves every keystroke.
+     *
+     * @param types restrict to these types; null or empty for all
+     */
+    public List<Suggestion> suggest(String prefix, Collection<String> types, int limit) {
+        String normalizedPrefix = String.join(" ", tokenize(prefix));
+        if (normalizedPrefix.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        ensureLoaded();
+
+        List<Completion> candidates;
+        lock.readLock().lock();
+        try {
+            // All of them, not the first few: tree order would let word completions crowd out names
+            candidates = index.completions.withPrefix(normalizedPrefix, maxSuggestCandidates,
+                    completion -> types == null || types.isEmpty() || types.contains(completion.doc().type()));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<Doc, Completion> best = new HashMap<>();
+        for (Completion candidate : candidates) {
+            best.merge(candidate.doc(), candidate, (a, b) -> a.wholeName() ? a : b);
+        }
+        return best.values().stream()
+                .sorted(Comparator.comparing((Completion c) -> !c.wholeName())
+                        .thenComparingInt(c -> typeRank(c.doc().type()))
+                        .thenComparingInt(c -> c.doc().normalizedName().length())
+                        .thenComparing(c -> c.doc().label()))
+                .limit(limit)
+                .map(c -> new Suggestion(c.doc().type(), c.doc().id(), c.doc().label()))
+                .toList();
+    }
+
+    private static int typeRank(String type) {
+        return switch (type) {
+            case TYPE_COUNTRY -> 0;
+            case TYPE_CITY -> 1;
+            default -> 2;
+        };
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index == null ? 0 : index.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // scores[i] = best score of query term i for the doc
+    private void collect(Index index, String term, int position, int termCount, Map<Doc, double[]> scores) {
+        int expansions = 0;
+        for (Map.Entry<String, Map<Doc, Float>> entry : index.postings.tailMap(term, true).entrySet()) {
+            String candidate = entry.getKey();
+            if (!candidate.startsWith(term) || expansions++ >= maxExpansions) {
+                break;
+            }
+            double quality = candidate.length() == term.length()
+                    ? 1.0
+                    : PREFIX_QUALITY * term.length() / candidate.length();
+            add(index, entry.getValue(), quality, position, termCount, scores);
+        }
+
+        int maxEdits = term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+        if (maxEdits == 0) {
+            return;
+        }
+        index.terms.search(term, maxEdits, (candidate, distance) -> {
+            // Prefix matches are scored above; the tree also keeps terms no document holds anymore
+            Map<Doc, Float> posting = index.postings.get(candidate);
+            if (posting != null && !candidate.startsWith(term)) {
+                add(index, posting, FUZZY_QUALITY / distance, position, termCount, scores);
+            }
+        });
+    }
+
+    private static void add(Index index, Map<Doc, Float> posting, double quality, int position, int termCount,
+                            Map<Doc, double[]> scores) {
+        double idf = Math.log(1 + (double) index.docs.size() / posting.size());
+        for (Map.Entry<Doc, Float> match : posting.entrySet()) {
+            double[] termScores = scores.computeIfAbsent(match.getKey(), doc -> new double[termCount]);
+            termScores[position] = Math.max(termScores[position], quality * match.getValue() * idf);
+        }
+    }
+
+    private static double score(Doc doc, double[] termScores, String normalizedQuery) {
+        double sum = 0;
+        int matched = 0;
+        for (double termScore : termScores) {
+            sum += termScore;
+            if (termScore > 0) {
+                matched++;
+            }
+        }
+        double score = sum * matched / termScores.length;
+
+        if (doc.normalizedName().equals(normalizedQuery)) {
+            score *= 2;
+        } else if (doc.normalizedName().startsWith(normalizedQuery)) {
+            score *= 1.5;
+        }
+        return score * switch (doc.type()) {
+            case TYPE_COUNTRY -> 1.2;
+            case TYPE_CITY -> 1.1;
+            default -> 1.0;
+        };
+    }
+
+    // Levenshtein distance, or max + 1 as soon as it must exceed max
+    static int editDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : GazetteerService.normalize(text).split(" ")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // ==================== UPDATES ====================
+
+    public void countryChanged(Country country) {
+        update(index -> index.putCountry(country));
+    }
+
+    public void countryRemoved(String countryId) {
+        update(index -> index.remove(TYPE_COUNTRY, countryId));
+    }
+
+    public void cityChanged(City city) {
+        update(index -> index.putCity(city));
+    }
+
+    public void citiesChanged(Collection<City> cities) {
+        update(index -> cities.forEach(index::putCity));
+    }
+
+    public void cityRemoved(String cityId) {
+        update(index -> index.remove(TYPE_CITY, cityId));
+    }
+
+    public void activityChanged(Category activity) {
+        update(index -> index.putActivity(activity));
+    }
+
+    public void activityRemoved(String activityId) {
+        update(index -> index.remove(TYPE_ACTIVITY, activityId));
+    }
+
+    // Changes before the first search are ignored: the initial load reads current data
+    private void update(Consumer<Index> change) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                change.accept(index);
+                localChanges.incrementAndGet();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Publishes this node's changes since the last call as one version bump, then rebuilds the
+     * index when the stored version is not the one it was built from (another node wrote, or a
+     * rebuild raced with a local change). Run by CatalogRefreshScheduler; a no-op until the first
+     * search loaded the index.
+     */
+    public void refresh() {
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long changes = localChanges.get();
+        if (changes != publishedChanges) {
+            long version = catalogVersionService.bump(VERSION);
+            publishedChanges = changes;
+            lock.writeLock().lock();
+            try {
+                // Only our own bump since the build: the index already holds the change
+                if (version == builtVersion + 1) {
+                    builtVersion = version;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        long version = catalogVersionService.current(VERSION);
+        lock.readLock().lock();
+        try {
+            if (version == builtVersion) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Build off the lock: searches keep using the current index meanwhile
+        long before = localChanges.get();
+        Index rebuilt = build();
+        lock.writeLock().lock();
+        try {
+            index = rebuilt;
+            // A local change applied to the old index during the build may be missing: build again
+            builtVersion = localChanges.get() == before ? version : -1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index rebuilt at catalog version {}: {} documents", version, rebuilt.docs.size());
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (index != null) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                long start = System.currentTimeMillis();
+                // Read the version first: a write landing during the load moves it past builtVersion
+                builtVersion = catalogVersionService.current(VERSION);
+                index = build();
+                log.info("Search index loaded: {} documents, {} terms, {} completions in {} ms",
+                        index.docs.size(), index.postings.size(), index.completions.size(),
+                        System.currentTimeMillis() - start);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Index build() {
+        Index built = new Index();
+        countryRepository.findAll().forEach(built::putCountry);
+        cityRepository.findAll().forEach(built::putCity);
+        categoryRepository.findAll().forEach(built::putActivity);
+        return built;
+    }
+
+    // Documents, postings and completions; a rebuild swaps in a new one
+    private static final class Index {
+        private final Map<String, Doc> docs = new HashMap<>();
+        private final TreeMap<String, Map<Doc, Float>> postings = new TreeMap<>();
+        private final BkTree terms = new BkTree();
+        private final RadixTree<Completion> completions = new RadixTree<>();
+
+        void putCountry(Country country) {
+            put(TYPE_COUNTRY, country.getId(), Boolean.TRUE.equals(country.getIsActive()),
+                    country.getName(), country.getDescription());
+        }
+
+        void putCity(City city) {
+            put(TYPE_CITY, city.getId(), Boolean.TRUE.equals(city.getIsActive()), city.getName(), city.getDescription());
+        }
+
+        void putActivity(Category activity) {
+            put(TYPE_ACTIVITY, activity.getId(), Boolean.TRUE.equals(activity.getIsActive()),
+                    activity.getName(), activity.getDescription());
+        }
+
+        void put(String type, String id, boolean active, String name, String description) {
+            remove(type, id);
+            if (!active || name == null) {
+                return;
+            }
+
+            Map<String, Float> weights = new HashMap<>();
+            for (String term : tokenize(description)) {
+                weights.put(term, DESCRIPTION_WEIGHT);
+            }
+            for (String term : tokenize(name)) {
+                weights.put(term, NAME_WEIGHT);
+            }
+
+            Doc doc = new Doc(type, id, name, String.join(" ", tokenize(name)), Set.copyOf(weights.keySet()));
+            docs.put(key(type, id), doc);
+            forEachCompletionKey(doc, (key, wholeName) -> completions.put(key, new Completion(doc, wholeName)));
+            weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> {
+                terms.add(t);
+                return new HashMap<>();
+            }).put(doc, weight));
+        }
+
+        void remove(String type, String id) {
+            Doc doc = docs.remove(key(type, id));
+            if (doc == null) {
+                return;
+            }
+            forEachCompletionKey(doc, (key, wholeName) -> completions.remove(key, new Completion(doc, wholeName)));
+            for (String term : doc.terms()) {
+                Map<Doc, Float> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(doc);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+
+    // The normalised name, then its suffix from each later word
+    private static void forEachCompletionKey(Doc doc, BiConsumer<String, Boolean> action) {
+        String name = doc.normalizedName();
+        if (name.isEmpty()) {
+            return;
+        }
+        action.accept(name, true);
+        for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+            action.accept(name.substring(i + 1), false);
+        }
+    }
+
+    private static String key(String type, String id) {
+        return type + ":" + id;
+    }
+
+    // Identity equality: a re-indexed document is a new Doc
+    private static final class Doc {
+        private final String type;
+        private final String id;
+        private final String label;
+        private final String normalizedName;
+        private final Set<String> terms;
+
+        private Doc(String type, String id, String label, String normalizedName, Set<String> terms) {
+            this.type = type;
+            this.id = id;
+            this.label = label;
+            this.normalizedName = normalizedName;
+            this.terms = terms;
+        }
+
+        String type() {
+            return type;
+        }
+
+        String id() {
+            return id;
+        }
+
+        String label() {
+            return label;
+        }
+
+        String normalizedName() {
+            return normalizedName;
+        }
+
+        Set<String> terms() {
+            return terms;
+        }
+    }
+
+    private record Completion(Doc doc, boolean wholeName) {
+    }
+
+    public record Suggestion(String type, String id, String label) {
+    }
+
+    public record Hit(String type, String id, String label, double score) {
+    }
+
+    public record Hits(int total, List<Hit> hits) {
+    }
+}
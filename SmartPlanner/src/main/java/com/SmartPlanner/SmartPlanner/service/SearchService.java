@@ -1,6 +1,8 @@
 package com.SmartPlanner.SmartPlanner.service;
 
+import com.SmartPlanner.SmartPlanner.dto.ActivityPageResponse;
 import com.SmartPlanner.SmartPlanner.dto.SearchResponse;
+import com.SmartPlanner.SmartPlanner.dto.SuggestResponse;
 import com.SmartPlanner.SmartPlanner.model.Category;
 import com.SmartPlanner.SmartPlanner.model.City;
 import com.SmartPlanner.SmartPlanner.model.Country;
@@ -9,10 +11,20 @@ import com.SmartPlanner.SmartPlanner.repository.CityRepository;
 import com.SmartPlanner.SmartPlanner.repository.CountryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -22,106 +34,246 @@ public class SearchService {
     private final CountryRepository countryRepository;
     private final CityRepository cityRepository;
     private final CategoryRepository categoryRepository;
-    private final WeatherService weatherService;
+    private final WeatherFreshnessService weatherFreshnessService;
+    private final SearchIndexService searchIndexService;
 
-    public SearchResponse search(String query) {
-        log.info("Searching for: {}", query);
+    @Value("${search.max-page-size:50}")
+    private int maxPageSize = 50;
 
-        List<SearchResponse.SearchResult> results = new ArrayList<>();
+    @Value("${search.suggest.max-limit:20}")
+    private int maxSuggestions = 20;
 
-        List<Country> countries = countryRepository.findByNameContainingIgnoreCaseAndIsActiveTrue(query);
-        for (Country country : countries) {
-            results.add(SearchResponse.SearchResult.builder()
-                    .type("COUNTRY")
-                    .id(country.getId())
-                    .name(country.getName())
-                    .description(country.getDescription())
-                    .imageUrl(country.getImageUrl())
-                    .build());
-        }
+    public enum View {
+        // Every field, cities with their active activities embedded
+        FULL,
+        // Fields needed for a result list only (projected in Mongo), cities with an activity count;
+        // activities are paged through getCityActivities
+        SUMMARY;
 
-        List<City> cities = cityRepository.findByNameContainingIgnoreCaseAndIsActiveTrue(query);
-        for (City city : cities) {
-            List<Category> activities = categoryRepository.findByCityIdAndIsActiveTrue(city.getId());
-            List<SearchResponse.ActivityInfo> activityList = new ArrayList<>();
-
-            for (Category activity : activities) {
-                activityList.add(SearchResponse.ActivityInfo.builder()
-                        .id(activity.getId())
-                        .name(activity.getName())
-                        .description(activity.getDescription())
-                        .pricePerHour(activity.getPricePerHour())
-                        .pricePerDay(activity.getPricePerDay())
-                        .imageUrl(activity.getImageUrl())
-                        .latitude(activity.getLatitude())
-                        .longitude(activity.getLongitude())
-                        .build());
+        public static View parse(String view) {
+            if (view == null || view.isBlank()) {
+                return FULL;
             }
+            try {
+                return valueOf(view.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown search view: " + view + " (expected full or summary)");
+            }
+        }
+    }
 
-            results.add(SearchResponse.SearchResult.builder()
-                    .type("CITY")
-                    .id(city.getId())
-                    .name(city.getName())
-                    .description(city.getDescription())
-                    .imageUrl(city.getImageUrl())
-                    .countryId(city.getCountryId())
-                    .countryName(city.getCountryName())
-                    .latitude(city.getLatitude())
-                    .longitude(city.getLongitude())
-                    .weather(city.getWeather())
-                    .activities(activityList)
-                    .build());
+    /**
+     * Ranked, paginated search over countries, cities and activities (SearchIndexService). Only
+     * the requested page is loaded from Mongo, in one query per type plus one for the activities
+     * (FULL) or activity counts (SUMMARY) of the cities on the page.
+     */
+    public SearchResponse search(String query, List<String> types, int page, int size, View view) {
+        log.info("Searching for: {}", query);
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("page must be >= 0 and size >= 1");
         }
+        int pageSize = Math.min(size, maxPageSize);
+
+        SearchIndexService.Hits hits = searchIndexService.search(query, normalizeTypes(types), page * pageSize, pageSize);
+        List<SearchResponse.SearchResult> results = load(hits.hits(), view == View.SUMMARY);
 
         return SearchResponse.builder()
                 .query(query)
-                .totalResults(results.size())
+                .totalResults(hits.total())
+                .page(page)
+                .size(pageSize)
+                .hasMore((long) (page + 1) * pageSize < hits.total())
                 .results(results)
                 .build();
     }
 
-    public SearchResponse searchCities(String query) {
+    /**
+     * Typeahead completions (ids and labels only) from the in-memory prefix index; nothing is
+     * loaded from Mongo, so the UI can call this on every keystroke and fetch full results with
+     * search() once the user submits or picks a suggestion.
+     */
+    public SuggestResponse suggest(String query, List<String> types, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be >= 1");
+        }
+        List<SuggestResponse.Suggestion> suggestions = searchIndexService
+                .suggest(query, normalizeTypes(types), Math.min(limit, maxSuggestions)).stream()
+                .map(suggestion -> SuggestResponse.Suggestion.builder()
+                        .type(suggestion.type())
+                        .id(suggestion.id())
+                        .label(suggestion.label())
+                        .build())
+                .toList();
+
+        return SuggestResponse.builder()
+                .query(query)
+                .suggestions(suggestions)
+                .build();
+    }
+
+    public SearchResponse searchCities(String query, View view) {
         log.info("Searching cities for: {}", query);
+        return search(query, List.of(SearchIndexService.TYPE_CITY), 0, maxPageSize, view);
+    }
+
+    /**
+     * One page of a city's active activities, by name; the lazy counterpart of the activity
+     * counts in the summary view.
+     */
+    public ActivityPageResponse getCityActivities(String cityId, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("page must be >= 0 and size >= 1");
+        }
+        if (!cityRepository.existsById(cityId)) {
+            throw new RuntimeException("City not found with id: " + cityId);
+        }
+        int pageSize = Math.min(size, maxPageSize);
+
+        Page<Category> activities = categoryRepository.findByCityIdAndIsActiveTrue(cityId,
+                PageRequest.of(page, pageSize, Sort.by("name", "_id")));
+        return ActivityPageResponse.builder()
+                .cityId(cityId)
+                .page(page)
+                .size(pageSize)
+                .totalActivities(activities.getTotalElements())
+                .hasMore(activities.hasNext())
+                .activities(activities.map(SearchService::toActivityInfo).getContent())
+                .build();
+    }
+
+    private List<SearchResponse.SearchResult> load(List<SearchIndexService.Hit> hits, boolean summary) {
+        Map<String, List<String>> idsByType = new HashMap<>();
+        for (SearchIndexService.Hit hit : hits) {
+            idsByType.computeIfAbsent(hit.type(), type -> new ArrayList<>()).add(hit.id());
+        }
+
+        Map<String, Country> countries = new HashMap<>();
+        List<String> countryIds = idsByType.get(SearchIndexService.TYPE_COUNTRY);
+        if (countryIds != null) {
+            (summary ? countryRepository.findSummariesByIdIn(countryIds) : countryRepository.findAllById(countryIds))
+                    .forEach(country -> countries.put(country.getId(), country));
+        }
+        Map<String, Category> activities = new HashMap<>();
+        List<String> activityIds = idsByType.get(SearchIndexService.TYPE_ACTIVITY);
+        if (activityIds != null) {
+            (summary ? categoryRepository.findSummariesByIdIn(activityIds) : categoryRepository.findAllById(activityIds))
+                    .forEach(activity -> activities.put(activity.getId(), activity));
+        }
+
+        // Cities on the page, plus the cities of activities on the page (for their names)
+        Set<String> cityIds = new LinkedHashSet<>(idsByType.getOrDefault(SearchIndexService.TYPE_CITY, List.of()));
+        activities.values().forEach(activity -> cityIds.add(activity.getCityId()));
+        Map<String, City> cities = new HashMap<>();
+        if (!cityIds.isEmpty()) {
+            (summary ? cityRepository.findSummariesByIdIn(cityIds) : cityRepository.findAllById(cityIds))
+                    .forEach(city -> cities.put(city.getId(), city));
+        }
+
+        List<String> resultCityIds = idsByType.getOrDefault(SearchIndexService.TYPE_CITY, List.of());
+        Map<String, List<SearchResponse.ActivityInfo>> cityActivities = new HashMap<>();
+        Map<String, Integer> activityCounts = new HashMap<>();
+        if (!resultCityIds.isEmpty() && summary) {
+            for (CategoryRepository.CityActivityCount count : categoryRepository.countActiveByCityIdIn(resultCityIds)) {
+                activityCounts.put(count.id(), (int) count.count());
+            }
+        } else if (!resultCityIds.isEmpty()) {
+            for (Category activity : categoryRepository.findByCityIdInAndIsActiveTrue(resultCityIds)) {
+                cityActivities.computeIfAbsent(activity.getCityId(), id -> new ArrayList<>()).add(toActivityInfo(activity));
+            }
+            cityActivities.forEach((cityId, list) -> activityCounts.put(cityId, list.size()));
+        }
 
         List<SearchResponse.SearchResult> results = new ArrayList<>();
-        List<City> cities = cityRepository.findByNameContainingIgnoreCaseAndIsActiveTrue(query);
-
-        for (City city : cities) {
-            List<Category> activities = categoryRepository.findByCityIdAndIsActiveTrue(city.getId());
-            List<SearchResponse.ActivityInfo> activityList = new ArrayList<>();
-
-            for (Category activity : activities) {
-                activityList.add(SearchResponse.ActivityInfo.builder()
-                        .id(activity.getId())
-                        .name(activity.getName())
-                        .description(activity.getDescription())
-                        .pricePerHour(activity.getPricePerHour())
-                        .pricePerDay(activity.getPricePerDay())
-                        .imageUrl(activity.getImageUrl())
-                        .latitude(activity.getLatitude())
-                        .longitude(activity.getLongitude())
-                        .build());
+        for (SearchIndexService.Hit hit : hits) {
+            switch (hit.type()) {
+                case SearchIndexService.TYPE_COUNTRY -> {
+                    Country country = countries.get(hit.id());
+                    if (country != null) {
+                        results.add(SearchResponse.SearchResult.builder()
+                                .type("COUNTRY")
+                                .id(country.getId())
+                                .name(country.getName())
+                                .description(country.getDescription())
+                                .imageUrl(country.getImageUrl())
+                                .score(hit.score())
+                                .build());
+                    }
+                }
+                case SearchIndexService.TYPE_CITY -> {
+                    City city = cities.get(hit.id());
+                    if (city != null) {
+                        if (!summary) {
+                            // Weather is not part of the summary view
+                            weatherFreshnessService.recordDemand(city.getId());
+                        }
+                        results.add(SearchResponse.SearchResult.builder()
+                                .type("CITY")
+                                .id(city.getId())
+                                .name(city.getName())
+                                .description(city.getDescription())
+                                .imageUrl(city.getImageUrl())
+                                .countryId(city.getCountryId())
+                                .countryName(city.getCountryName())
+                                .latitude(city.getLatitude())
+                                .longitude(city.getLongitude())
+                                .weather(city.getWeather())
+                                .activities(summary ? null : cityActivities.getOrDefault(city.getId(), new ArrayList<>()))
+                                .activityCount(activityCounts.getOrDefault(city.getId(), 0))
+                                .score(hit.score())
+                                .build());
+                    }
+                }
+                default -> {
+                    Category activity = activities.get(hit.id());
+                    if (activity != null) {
+                        City city = cities.get(activity.getCityId());
+                        results.add(SearchResponse.SearchResult.builder()
+                                .type("ACTIVITY")
+                                .id(activity.getId())
+                                .name(activity.getName())
+                                .description(activity.getDescription())
+                                .imageUrl(activity.getImageUrl())
+                                .cityId(activity.getCityId())
+                                .cityName(city != null ? city.getName() : null)
+                                .countryId(city != null ? city.getCountryId() : null)
+                                .countryName(city != null ? city.getCountryName() : null)
+                                .latitude(activity.getLatitude())
+                                .longitude(activity.getLongitude())
+                                .score(hit.score())
+                                .build());
+                    }
+                }
             }
+        }
+        return results;
+    }
 
-            results.add(SearchResponse.SearchResult.builder()
-                    .type("CITY")
-                    .id(city.getId())
-                    .name(city.getName())
-                    .description(city.getDescription())
-                    .imageUrl(city.getImageUrl())
-                    .countryId(city.getCountryId())
-                    .countryName(city.getCountryName())
-                    .latitude(city.getLatitude())
-                    .longitude(city.getLongitude())
-                    .weather(city.getWeather())
-                    .activities(activityList)
-                    .build());
+    private static Set<String> normalizeTypes(List<String> types) {
+        if (types == null) {
+            return null;
+        }
+        Set<String> normalized = new HashSet<>();
+        for (String type : types) {
+            String upper = type.trim().toUpperCase(Locale.ROOT);
+            if (!upper.equals(SearchIndexService.TYPE_COUNTRY) && !upper.equals(SearchIndexService.TYPE_CITY)
+                    && !upper.equals(SearchIndexService.TYPE_ACTIVITY)) {
+                throw new IllegalArgumentException("Unknown search type: " + type);
+            }
+            normalized.add(upper);
         }
+        return normalized;
+    }
 
-        return SearchResponse.builder()
-                .query(query)
-                .totalResults(results.size())
-                .results(results)
+    private static SearchResponse.ActivityInfo toActivityInfo(Category activity) {
+        return SearchResponse.ActivityInfo.builder()
+                .id(activity.getId())
+                .name(activity.getName())
+                .description(activity.getDescription())
+                .pricePerHour(activity.getPricePerHour())
+                .pricePerDay(activity.getPricePerDay())
+                .imageUrl(activity.getImageUrl())
+                .latitude(activity.getLatitude())
+                .longitude(activity.getLongitude())
                 .build();
     }
 
@@ -129,25 +281,12 @@ public class SearchService {
         City city = cityRepository.findByNameIgnoreCase(cityName)
                 .orElseThrow(() -> new RuntimeException("City not found: " + cityName));
 
-        City.CityWeather freshWeather = weatherService.fetchCityWeather(
-                city.getLatitude(),
-                city.getLongitude()
-        );
+        // Stored weather within the freshness bound; upstream only when stale and budget allows
+        City.CityWeather weather = weatherFreshnessService.currentWeather(city);
 
-        List<Category> activities = categoryRepository.findByCityIdAndIsActiveTrue(city.getId());
         List<SearchResponse.ActivityInfo> activityList = new ArrayList<>();
-
-        for (Category activity : activities) {
-            activityList.add(SearchResponse.ActivityInfo.builder()
-                    .id(activity.getId())
-                    .name(activity.getName())
-                    .description(activity.getDescription())
-                    .pricePerHour(activity.getPricePerHour())
-                    .pricePerDay(activity.getPricePerDay())
-                    .imageUrl(activity.getImageUrl())
-                    .latitude(activity.getLatitude())
-                    .longitude(activity.getLongitude())
-                    .build());
+        for (Category activity : categoryRepository.findByCityIdAndIsActiveTrue(city.getId())) {
+            activityList.add(toActivityInfo(activity));
         }
 
         return SearchResponse.SearchResult.builder()
@@ -160,8 +299,9 @@ public class SearchService {
                 .countryName(city.getCountryName())
                 .latitude(city.getLatitude())
                 .longitude(city.getLongitude())
-                .weather(freshWeather != null ? freshWeather : city.getWeather())
+                .weather(weather)
                 .activities(activityList)
+                .activityCount(activityList.size())
                 .build();
     }
 }
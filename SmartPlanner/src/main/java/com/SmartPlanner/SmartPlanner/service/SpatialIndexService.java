@@ -0,0 +1,519 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.Coordinates;
+import com.SmartPlanner.SmartPlanner.dto.NearbyCatalogResponse;
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.model.Country;
+import com.SmartPlanner.SmartPlanner.repository.CategoryRepository;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import com.SmartPlanner.SmartPlanner.repository.CountryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process spatial index over active cities and activities, for map viewport (bbox) and
+ * k-nearest queries that are too frequent to send to Mongo.
+ *
+ * Points are bucketed into a fixed lat/lon grid (maps.spatial-index.cell-degrees, 0.05° ~ 5.5 km)
+ * and stored sorted by row-major cell number in primitive arrays, so a bounding box is one binary
+ * search plus a contiguous scan per grid row. k-nearest grows a box around the point until it
+ * holds k points within the box's inscribed radius.
+ *
+ * Points of a country that is switched off are left out, as in the catalog.
+ *
+ * Loaded from Mongo on first use and kept current by the admin write paths (CityService,
+ * CategoryService, CountryService). A change marks the arrays stale and the next query rebuilds
+ * them (a sort of n cell numbers) - fine for admin-rate writes, not for write-heavy data.
+ * Writes on other nodes arrive through refresh(), like the search index: this node publishes its
+ * own changes as a bump of the "spatial" catalog version and reloads - off the lock - when the
+ * stored version moved past the one it loaded, then tells its reload listeners (vector tiles).
+ *
+ * Memory per 100k points (64-bit JVM, compressed oops): grid arrays 24 bytes/point (int cell,
+ * two doubles, entry reference) = 2.4 MB; Entry records with their id/name/cityId strings
+ * ~230 bytes/point = ~23 MB; the "type:id" map ~120 bytes/point = ~12 MB. About 38 MB in total;
+ * a rebuild briefly holds a second copy of the 2.4 MB of arrays.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpatialIndexService {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+    private static final double METERS_PER_DEGREE = 111_195;
+
+    static final String VERSION = "spatial";
+
+    private final CountryRepository countryRepository;
+    private final CityRepository cityRepository;
+    private final CategoryRepository categoryRepository;
+    private final CatalogVersionService catalogVersionService;
+
+    @Value("${maps.spatial-index.cell-degrees:0.05}")
+    private double cellDegrees = 0.05;
+
+    @Value("${maps.spatial-index.max-results:500}")
+    private int maxResults = 500;
+
+    // "city:<id>" / "activity:<id>" -> point; the source of truth the grid is built from
+    private final Map<String, Entry> entries = new HashMap<>();
+    // Countries switched off, and the country of every city, to leave out their points
+    private final Set<String> inactiveCountries = new HashSet<>();
+    private final Map<String, String> cityCountry = new HashMap<>();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private boolean loaded = false;
+    private volatile Grid grid;
+    // Catalog version the entries were loaded at, -1 to reload on the next refresh
+    private long builtVersion = -1;
+
+    // Local changes applied, and how many of them refresh() has published
+    private final AtomicLong localChanges = new AtomicLong();
+    private long publishedChanges;
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Points inside the box, nearest to its centre first, at most limit (capped by max-results).
+     */
+    public NearbyCatalogResponse within(NearbyCatalogResponse.BoundingBox box, List<String> types, int limit) {
+        if (box.getSouth() > box.getNorth() || box.getWest() > box.getEast()) {
+            throw new IllegalArgumentException("Bounding box must have south <= north and west <= east");
+        }
+        double centerLat = (box.getNorth() + box.getSouth()) / 2;
+        double centerLon = (box.getEast() + box.getWest()) / 2;
+        int size = Math.max(1, Math.min(limit, maxResults));
+
+        List<NearbyCatalogResponse.Item> items = currentGrid().query(box.getSouth(), box.getNorth(),
+                box.getWest(), box.getEast(), types, centerLat, centerLon);
+        items.sort(Comparator.comparingDouble(NearbyCatalogResponse.Item::getDistanceMeters));
+
+        return response(centerLat, centerLon, box, items, size);
+    }
+
+    /**
+     * The k points nearest to (lat, lon).
+     */
+    public NearbyCatalogResponse nearest(double lat, double lon, List<String> types, int k) {
+        int size = Math.max(1, Math.min(k, maxResults));
+        Grid current = currentGrid();
+
+        double radius = cellDegrees * 2;
+        List<NearbyCatalogResponse.Item> items;
+        while (true) {
+            // Widen longitude by the box's most poleward latitude so the inscribed circle really is inside
+            double edgeLat = Math.min(89.99, Math.abs(lat) + radius);
+            double lonRadius = Math.min(180, radius / Math.cos(Math.toRadians(edgeLat)));
+            items = current.query(Math.max(-90, lat - radius), Math.min(90, lat + radius),
+                    lonRadius >= 180 ? -180 : lon - lonRadius, lonRadius >= 180 ? 180 : lon + lonRadius,
+                    types, lat, lon);
+
+            // Anything within the inscribed radius is guaranteed to have been seen
+            double guaranteed = radius * METERS_PER_DEGREE;
+            long close = items.stream().filter(item -> item.getDistanceMeters() <= guaranteed).count();
+            if (close >= size || radius >= 180) {
+                break;
+            }
+            radius *= 2;
+        }
+        items.sort(Comparator.comparingDouble(NearbyCatalogResponse.Item::getDistanceMeters));
+
+        return response(lat, lon, null, items, size);
+    }
+
+    /**
+     * Every point inside the box, unordered and uncapped; for callers that bound the box themselves
+     * (one map tile).
+     */
+    public List<NearbyCatalogResponse.Item> allWithin(double south, double north, double west, double east) {
+        return currentGrid().query(south, north, west, east, null, (north + south) / 2, (east + west) / 2);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Called with the old and the new position of every point an update adds, moves, renames or
+     * removes, so position-keyed caches (vector tiles) can evict just what changed. Only changes
+     * after the index has loaded are reported; nothing can be cached from it before that.
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public interface ChangeListener {
+        void pointChanged(double latitude, double longitude);
+    }
+
+    /**
+     * Called after refresh() reloaded the index for writes made on other nodes, which report no
+     * positions: anything cached from the index has to go.
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    // ==================== UPDATES ====================
+
+    public synchronized void cityChanged(City city) {
+        if (loaded) {
+            putCity(city);
+            grid = null;
+        }
+    }
+
+    public synchronized void citiesChanged(Collection<City> cities) {
+        if (loaded && !cities.isEmpty()) {
+            cities.forEach(this::putCity);
+            grid = null;
+        }
+    }
+
+    public synchronized void cityRemoved(String cityId) {
+        if (loaded) {
+            cityCountry.remove(cityId);
+        }
+        if (loaded && removed(entries.remove(key(GeoSearchService.TYPE_CITY, cityId)))) {
+            localChanges.incrementAndGet();
+            grid = null;
+        }
+    }
+
+    /**
+     * A country switched on or off, with its cities and their activities, whose points it shows or hides.
+     */
+    public synchronized void countryChanged(Country country, Collection<City> cities, Collection<Category> activities) {
+        if (!loaded) {
+            return;
+        }
+        if (Boolean.TRUE.equals(country.getIsActive())) {
+            inactiveCountries.remove(country.getId());
+        } else {
+            inactiveCountries.add(country.getId());
+        }
+        cities.forEach(this::putCity);
+        activities.forEach(this::putActivity);
+        grid = null;
+    }
+
+    public synchronized void activityChanged(Category activity) {
+        if (loaded) {
+            putActivity(activity);
+            grid = null;
+        }
+    }
+
+    public synchronized void activitiesChanged(Collection<Category> activities) {
+        if (loaded && !activities.isEmpty()) {
+            activities.forEach(this::putActivity);
+            grid = null;
+        }
+    }
+
+    public synchronized void activityRemoved(String activityId) {
+        if (loaded && removed(entries.remove(key(GeoSearchService.TYPE_ACTIVITY, activityId)))) {
+            localChanges.incrementAndGet();
+            grid = null;
+        }
+    }
+
+    /**
+     * Publishes this node's changes and reloads when another node wrote since the last load.
+     * Runs on the catalog refresh schedule.
+     */
+    public void refresh() {
+        synchronized (this) {
+            if (!loaded) {
+                return;
+            }
+        }
+
+        long changes = localChanges.get();
+        if (changes != publishedChanges) {
+            long version = catalogVersionService.bump(VERSION);
+            publishedChanges = changes;
+            synchronized (this) {
+                // Only our own bump since the load: the index already holds the change
+                if (version == builtVersion + 1) {
+                    builtVersion = version;
+                }
+            }
+        }
+
+        long version = catalogVersionService.current(VERSION);
+        synchronized (this) {
+            if (version == builtVersion) {
+                return;
+            }
+        }
+
+        // Load off the lock: queries keep using the current grid meanwhile
+        long before = localChanges.get();
+        Loaded reloaded = load();
+        Grid rebuilt = Grid.build(reloaded.entries().values(), Math.max(0.01, cellDegrees));
+        synchronized (this) {
+            apply(reloaded);
+            grid = rebuilt;
+            // A local change applied to the old entries during the load may be missing: load again
+            builtVersion = localChanges.get() == before ? version : -1;
+        }
+        reloadListeners.forEach(Runnable::run);
+        log.info("Spatial index reloaded at catalog version {}: {} points", version, reloaded.entries().size());
+    }
+
+    // ==================== BUILDING ====================
+
+    private Grid currentGrid() {
+        Grid current = grid;
+        return current != null ? current : rebuild();
+    }
+
+    private synchronized Grid rebuild() {
+        if (grid != null) {
+            return grid;
+        }
+        if (!loaded) {
+            long start = System.currentTimeMillis();
+            // Read the version first: a write landing during the load moves it past builtVersion
+            builtVersion = catalogVersionService.current(VERSION);
+            apply(load());
+            loaded = true;
+            log.info("Spatial index loaded: {} points in {} ms", entries.size(), System.currentTimeMillis() - start);
+        }
+        // Cell numbers must fit an int: 0.01° gives 18001 x 36001 cells
+        grid = Grid.build(entries.values(), Math.max(0.01, cellDegrees));
+        return grid;
+    }
+
+    private Loaded load() {
+        Set<String> inactive = new HashSet<>();
+        for (Country country : countryRepository.findAll()) {
+            if (!Boolean.TRUE.equals(country.getIsActive())) {
+                inactive.add(country.getId());
+            }
+        }
+        Map<String, String> countries = new HashMap<>();
+        Map<String, Entry> points = new HashMap<>();
+        for (City city : cityRepository.findAll()) {
+            if (city.getCountryId() != null) {
+                countries.put(city.getId(), city.getCountryId());
+            }
+            Entry entry = cityEntry(city, inactive);
+            if (entry != null) {
+                points.put(key(GeoSearchService.TYPE_CITY, city.getId()), entry);
+            }
+        }
+        for (Category activity : categoryRepository.findAll()) {
+            Entry entry = activityEntry(activity, inactive, countries);
+            if (entry != null) {
+                points.put(key(GeoSearchService.TYPE_ACTIVITY, activity.getId()), entry);
+            }
+        }
+        return new Loaded(points, inactive, countries);
+    }
+
+    private void apply(Loaded source) {
+        entries.clear();
+        entries.putAll(source.entries());
+        inactiveCountries.clear();
+        inactiveCountries.addAll(source.inactiveCountries());
+        cityCountry.clear();
+        cityCountry.putAll(source.cityCountry());
+    }
+
+    private void putCity(City city) {
+        if (city.getCountryId() != null) {
+            cityCountry.put(city.getId(), city.getCountryId());
+        }
+        put(key(GeoSearchService.TYPE_CITY, city.getId()), cityEntry(city, inactiveCountries));
+    }
+
+    private void putActivity(Category activity) {
+        put(key(GeoSearchService.TYPE_ACTIVITY, activity.getId()), activityEntry(activity, inactiveCountries, cityCountry));
+    }
+
+    private static Entry cityEntry(City city, Set<String> inactiveCountries) {
+        if (!Boolean.TRUE.equals(city.getIsActive()) || city.getLatitude() == null || city.getLongitude() == null
+                || inactiveCountries.contains(city.getCountryId())) {
+            return null;
+        }
+        return new Entry(city.getId(), GeoSearchService.TYPE_CITY, city.getName(), city.getId(),
+                city.getLatitude(), city.getLongitude());
+    }
+
+    private static Entry activityEntry(Category activity, Set<String> inactiveCountries, Map<String, String> cityCountry) {
+        if (!Boolean.TRUE.equals(activity.getIsActive()) || activity.getLatitude() == null || activity.getLongitude() == null
+                || inactiveCountries.contains(cityCountry.get(activity.getCityId()))) {
+            return null;
+        }
+        return new Entry(activity.getId(), GeoSearchService.TYPE_ACTIVITY, activity.getName(),
+                activity.getCityId(), activity.getLatitude(), activity.getLongitude());
+    }
+
+    private void put(String key, Entry entry) {
+        Entry previous = entry != null ? entries.put(key, entry) : entries.remove(key);
+        if (!loaded || Objects.equals(previous, entry)) {
+            return;
+        }
+        localChanges.incrementAndGet();
+        removed(previous);
+        if (entry != null) {
+            listeners.forEach(listener -> listener.pointChanged(entry.latitude(), entry.longitude()));
+        }
+    }
+
+    private boolean removed(Entry previous) {
+        if (previous == null) {
+            return false;
+        }
+        listeners.forEach(listener -> listener.pointChanged(previous.latitude(), previous.longitude()));
+        return true;
+    }
+
+    private static String key(String type, String id) {
+        return type + ":" + id;
+    }
+
+    private static NearbyCatalogResponse response(double lat, double lon, NearbyCatalogResponse.BoundingBox box,
+                                                  List<NearbyCatalogResponse.Item> items, int size) {
+        return NearbyCatalogResponse.builder()
+                .center(new Coordinates(lat, lon))
+                .boundingBox(box)
+                .page(0)
+                .size(size)
+                .hasMore(items.size() > size)
+                .items(new ArrayList<>(items.subList(0, Math.min(size, items.size()))))
+                .build();
+    }
+
+    static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private record Entry(String id, String type, String name, String cityId, double latitude, double longitude) {
+    }
+
+    private record Loaded(Map<String, Entry> entries, Set<String> inactiveCountries, Map<String, String> cityCountry) {
+    }
+
+    // Immutable snapshot: points sorted by grid cell, parallel primitive arrays
+    private static final class Grid {
+
+        private final double cellDegrees;
+        private final int columns;
+        private final int[] cells;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final Entry[] entries;
+
+        private Grid(double cellDegrees, int columns, int[] cells, double[] latitudes, double[] longitudes, Entry[] entries) {
+            this.cellDegrees = cellDegrees;
+            this.columns = columns;
+            this.cells = cells;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.entries = entries;
+        }
+
+        private static Grid build(Collection<Entry> source, double cellDegrees) {
+            int columns = (int) Math.ceil(360 / cellDegrees) + 1;
+            Entry[] unsorted = source.toArray(new Entry[0]);
+
+            // cell in the high bits, position in the low bits: one primitive sort orders everything
+            long[] order = new long[unsorted.length];
+            for (int i = 0; i < unsorted.length; i++) {
+                int cell = row(unsorted[i].latitude(), cellDegrees) * columns + column(unsorted[i].longitude(), cellDegrees);
+                order[i] = ((long) cell << 32) | i;
+            }
+            Arrays.sort(order);
+
+            int[] cells = new int[order.length];
+            double[] latitudes = new double[order.length];
+            double[] longitudes = new double[order.length];
+            Entry[] entries = new Entry[order.length];
+            for (int i = 0; i < order.length; i++) {
+                Entry entry = unsorted[(int) order[i]];
+                cells[i] = (int) (order[i] >>> 32);
+                latitudes[i] = entry.latitude();
+                longitudes[i] = entry.longitude();
+                entries[i] = entry;
+            }
+            return new Grid(cellDegrees, columns, cells, latitudes, longitudes, entries);
+        }
+
+        private List<NearbyCatalogResponse.Item> query(double south, double north, double west, double east,
+                                                       List<String> types, double fromLat, double fromLon) {
+            List<NearbyCatalogResponse.Item> items = new ArrayList<>();
+            int firstColumn = column(west, cellDegrees);
+            int lastColumn = column(east, cellDegrees);
+
+            for (int row = row(south, cellDegrees); row <= row(north, cellDegrees); row++) {
+                int last = row * columns + lastColumn;
+                for (int i = lowerBound(row * columns + firstColumn); i < cells.length && cells[i] <= last; i++) {
+                    double lat = latitudes[i];
+                    double lon = longitudes[i];
+                    if (lat < south || lat > north || lon < west || lon > east) {
+                        continue;
+                    }
+                    Entry entry = entries[i];
+                    if (types != null && !types.isEmpty() && !types.contains(entry.type())) {
+                        continue;
+                    }
+                    items.add(NearbyCatalogResponse.Item.builder()
+                            .id(entry.id())
+                            .type(entry.type())
+                            .name(entry.name())
+                            .cityId(entry.cityId())
+                            .latitude(lat)
+                            .longitude(lon)
+                            .distanceMeters(Math.round(distanceMeters(fromLat, fromLon, lat, lon) * 10) / 10.0)
+                            .build());
+                }
+            }
+            return items;
+        }
+
+        private int lowerBound(int cell) {
+            int low = 0;
+            int high = cells.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cells[mid] < cell) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static int row(double latitude, double cellDegrees) {
+            return (int) Math.floor((Math.max(-90, Math.min(90, latitude)) + 90) / cellDegrees);
+        }
+
+        private static int column(double longitude, double cellDegrees) {
+            return (int) Math.floor((Math.max(-180, Math.min(180, longitude)) + 180) / cellDegrees);
+        }
+    }
+}
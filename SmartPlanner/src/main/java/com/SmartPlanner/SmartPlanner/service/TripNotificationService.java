@@ -15,7 +15,6 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 @Service
@@ -26,6 +25,7 @@ public class TripNotificationService {
     private final TripRepository tripRepository;
     private final TripNotificationRepository notificationRepository;
     private final EmailService emailService;
+    private final NotificationClaimService notificationClaimService;
 
     // Get countdown for a specific trip
     public TripCountdownResponse getTripCountdown(String tripId) {
@@ -45,18 +45,10 @@ public class TripNotificationService {
                 return List.of();
             }
 
-            // Saare trips lo aur manually filter karo
-            log.info("Fetching all trips from repository...");
-            List<Trip> allTrips = tripRepository.findAll();
-            log.info("Found {} total trips", allTrips.size());
-
-            // Filter by user email and PLANNED status (with null safety)
-            List<Trip> userPlannedTrips = allTrips.stream()
-                    .filter(trip -> userEmail.equals(trip.getUserEmail()))
-                    .filter(trip -> trip.getStatus() != null && trip.getStatus() == Trip.TripStatus.PLANNED)
-                    .filter(trip -> trip.getStartDate() != null)
-                    .filter(trip -> !trip.getStartDate().isBefore(LocalDate.now()))
-                    .collect(Collectors.toList());
+            // Filtered and sorted by Mongo on the (userEmail, status, startDate) index; soonest first
+            List<Trip> userPlannedTrips = tripRepository
+                    .findByUserEmailAndStatusAndStartDateGreaterThanEqualOrderByStartDateAsc(
+                            userEmail, Trip.TripStatus.PLANNED, LocalDate.now());
 
             log.info("Found {} upcoming planned trips for user", userPlannedTrips.size());
 
@@ -70,7 +62,6 @@ public class TripNotificationService {
                         }
                     })
                     .filter(response -> response != null)
-                    .sorted(Comparator.comparingLong(a -> a.getCountdown().getTotalSeconds()))
                     .collect(Collectors.toList());
 
             log.info("Returning {} countdown responses", result.size());
@@ -164,11 +155,11 @@ public class TripNotificationService {
         trip.setUpdatedAt(LocalDateTime.now());
         Trip updatedTrip = tripRepository.save(trip);
 
-        // Create notification
-        createStatusChangeNotification(trip, newStatus);
-
-        // Send email
-        sendStatusChangeEmail(trip, newStatus);
+        // Create notification; the email goes out only with the first one of its type for the trip
+        TripNotification notification = createStatusChangeNotification(trip, newStatus);
+        if (notification != null && sendStatusChangeEmail(trip, newStatus)) {
+            notificationClaimService.markSent(List.of(notification));
+        }
 
         return updatedTrip;
     }
@@ -178,8 +169,8 @@ public class TripNotificationService {
         return updateTripStatus(tripId, Trip.TripStatus.CANCELLED, userEmail);
     }
 
-    // Create notification for status change
-    private void createStatusChangeNotification(Trip trip, Trip.TripStatus newStatus) {
+    // Create notification for status change; null if the trip already has one of this type
+    private TripNotification createStatusChangeNotification(Trip trip, Trip.TripStatus newStatus) {
         NotificationType type;
         String title;
         String message;
@@ -201,29 +192,29 @@ public class TripNotificationService {
                 message = "Your trip to " + trip.getCityName() + " has been cancelled.";
                 break;
             default:
-                return;
+                return null;
         }
 
         TripNotification notification = new TripNotification(
                 trip.getId(), trip.getUserId(), trip.getUserEmail(),
                 type, title, message
         );
-        notificationRepository.save(notification);
+        return notificationClaimService.claim(notification) ? notification : null;
     }
 
-    // Send email for status change
-    private void sendStatusChangeEmail(Trip trip, Trip.TripStatus newStatus) {
+    // Send email for status change; false if the status has no email
+    private boolean sendStatusChangeEmail(Trip trip, Trip.TripStatus newStatus) {
         switch (newStatus) {
             case COMPLETED:
                 emailService.sendTripCompleted(trip.getUserEmail(), trip.getCityName(),
                         trip.getCountry(), trip.getStartDate(), trip.getEndDate());
-                break;
+                return true;
             case CANCELLED:
                 emailService.sendTripCancelled(trip.getUserEmail(), trip.getCityName(),
                         trip.getCountry());
-                break;
+                return true;
             default:
-                break;
+                return false;
         }
     }
 
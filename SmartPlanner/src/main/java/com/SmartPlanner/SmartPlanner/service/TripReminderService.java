@@ -0,0 +1,300 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.Trip;
+import com.SmartPlanner.SmartPlanner.model.TripNotification;
+import com.SmartPlanner.SmartPlanner.model.TripNotification.NotificationType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * The daily trip reminder pipeline, set-based:
+ *
+ * - Only PLANNED trips starting within [today, today + 10] are read, and ONGOING trips whose
+ *   endDate has passed (status_shard_startDate / status_shard_endDate indexes), streamed off the
+ *   cursor with the fields the mails need
+ * - Trips are handled in chunks of reminders.chunk-size: the chunk's notifications are claimed
+ *   in one bulkWrite (NotificationClaimService), only the claimed ones are emailed, and the status
+ *   transitions (PLANNED -> ONGOING, ONGOING -> COMPLETED) are applied in one bulkWrite
+ *
+ * Memory stays bounded by the chunk size whatever the number of trips. A run can also cover a
+ * single shard of the trips (see Trip.shardOf) and resume after a checkpoint: ReminderLeaseService
+ * spreads the shards of the daily run across nodes that way.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TripReminderService {
+
+    static final int REMINDER_DAYS = 10;
+
+    private static final String[] MAIL_FIELDS = {
+            "userId", "userEmail", "cityName", "country", "startDate", "endDate", "status"};
+
+    private final MongoTemplate mongoTemplate;
+    private final NotificationClaimService notificationClaimService;
+    private final EmailService emailService;
+
+    @Value("${reminders.chunk-size:500}")
+    private int chunkSize = 500;
+
+    // The whole run on this node, all shards
+    public RunSummary runDailyReminders(LocalDate today) {
+        return runShard(today, null, Phase.REMINDERS, null, Progress.NONE);
+    }
+
+    // Throws while the unique index that makes notification claims exclusive is missing
+    public void requireExclusiveClaims() {
+        notificationClaimService.requireUniqueIndex();
+    }
+
+    /**
+     * Runs one shard (null for all trips), starting at the given phase after the trip id in
+     * afterTripId. Progress is reported after every chunk; returning false from it stops the run.
+     */
+    public RunSummary runShard(LocalDate today, Integer shard, Phase from, String afterTripId, Progress progress) {
+        requireExclusiveClaims();
+        RunSummary total = RunSummary.EMPTY;
+        String after = afterTripId;
+
+        if (from == Phase.REMINDERS) {
+            Query upcoming = new Query(inShard(Criteria.where("status").is(Trip.TripStatus.PLANNED)
+                    .and("startDate").gte(today).lte(today.plusDays(REMINDER_DAYS)), shard, after));
+            Totals reminders = forEachChunk(upcoming, shard != null, Phase.REMINDERS, progress,
+                    chunk -> sendReminders(chunk, today));
+            total = total.plus(reminders.summary);
+            if (reminders.stopped) {
+                return total;
+            }
+            after = null;
+        }
+
+        Query ended = new Query(inShard(Criteria.where("status").is(Trip.TripStatus.ONGOING)
+                .and("endDate").lt(today), shard, after));
+        Totals completion = forEachChunk(ended, shard != null, Phase.COMPLETION, progress,
+                this::checkAndCompleteTrips);
+        return total.plus(completion.summary);
+    }
+
+    private static Criteria inShard(Criteria criteria, Integer shard, String afterTripId) {
+        if (afterTripId != null) {
+            criteria.and("_id").gt(afterTripId);
+        }
+        return shard == null ? criteria : criteria.and("shard").is(shard);
+    }
+
+    // A single shard is read in _id order so a checkpoint can resume it
+    private Totals forEachChunk(Query query, boolean resumable, Phase phase, Progress progress,
+                                Function<List<Trip>, RunSummary> action) {
+        query.fields().include(MAIL_FIELDS);
+        query.cursorBatchSize(chunkSize);
+        if (resumable) {
+            query.with(Sort.by("_id"));
+        }
+
+        RunSummary total = RunSummary.EMPTY;
+        try (Stream<Trip> trips = mongoTemplate.stream(query, Trip.class)) {
+            Iterator<Trip> iterator = trips.iterator();
+            List<Trip> chunk = new ArrayList<>(chunkSize);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                    RunSummary done = action.apply(chunk);
+                    total = total.plus(done);
+                    if (!progress.chunkDone(phase, chunk.get(chunk.size() - 1).getId(), done)) {
+                        return new Totals(total, true);
+                    }
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+        return new Totals(total, false);
+    }
+
+    // Countdown reminders (10 days to 1 day) and "starts today", which also moves the trip to ONGOING
+    private RunSummary sendReminders(List<Trip> chunk, LocalDate today) {
+        if (chunk.isEmpty()) {
+            return RunSummary.EMPTY;
+        }
+        List<Pending> pending = new ArrayList<>();
+        List<Trip> starting = new ArrayList<>();
+
+        for (Trip trip : chunk) {
+            long daysRemaining = ChronoUnit.DAYS.between(today, trip.getStartDate());
+            if (daysRemaining == 0) {
+                starting.add(trip);
+                pending.add(sendTripStartsTodayReminder(trip));
+            } else {
+                NotificationType type = getNotificationTypeForDay(daysRemaining);
+                if (type != null) {
+                    pending.add(sendReminder(trip, type, daysRemaining));
+                }
+            }
+        }
+
+        int sent = claimAndSend(pending);
+        transition(starting, Trip.TripStatus.PLANNED, Trip.TripStatus.ONGOING);
+        log.info("Reminder chunk: {} trips, {} sent, {} started today", chunk.size(), sent, starting.size());
+        return new RunSummary(chunk.size(), sent, starting.size(), 0);
+    }
+
+    private RunSummary checkAndCompleteTrips(List<Trip> chunk) {
+        if (chunk.isEmpty()) {
+            return RunSummary.EMPTY;
+        }
+        List<Pending> pending = new ArrayList<>();
+        for (Trip trip : chunk) {
+            pending.add(new Pending(
+                    notification(trip, NotificationType.TRIP_COMPLETED, "Trip Completed!",
+                            "Your trip to " + trip.getCityName() + " has been completed. Welcome back!"),
+                    () -> emailService.sendTripCompleted(trip.getUserEmail(), trip.getCityName(),
+                            trip.getCountry(), trip.getStartDate(), trip.getEndDate())));
+        }
+
+        int sent = claimAndSend(pending);
+        transition(chunk, Trip.TripStatus.ONGOING, Trip.TripStatus.COMPLETED);
+        log.info("Auto-completed {} trips after their end date", chunk.size());
+        return new RunSummary(chunk.size(), sent, 0, chunk.size());
+    }
+
+    private Pending sendReminder(Trip trip, NotificationType type, long daysRemaining) {
+        // Generate title and message based on days remaining
+        String title = daysRemaining + " Days Until Your Trip!";
+        String message = "Your trip to " + trip.getCityName() + " is in " + daysRemaining + " days.";
+
+        // Special messages for specific days
+        if (daysRemaining == 10) {
+            title = "10 Days Until Your Trip!";
+            message = "Your trip to " + trip.getCityName() + " is in 10 days. Start preparing!";
+        } else if (daysRemaining == 7) {
+            title = "One Week Until Your Trip!";
+            message = "Your trip to " + trip.getCityName() + " is in one week. Time to prepare!";
+        } else if (daysRemaining == 3) {
+            title = "3 Days Until Your Trip!";
+            message = "Your trip to " + trip.getCityName() + " is in 3 days. Final preparations!";
+        } else if (daysRemaining == 1) {
+            title = "Tomorrow is the Day!";
+            message = "Your trip to " + trip.getCityName() + " starts tomorrow!";
+        }
+
+        return new Pending(notification(trip, type, title, message),
+                () -> emailService.sendDailyCountdownReminder(trip.getUserEmail(), trip.getCityName(),
+                        trip.getCountry(), trip.getStartDate(), daysRemaining));
+    }
+
+    private Pending sendTripStartsTodayReminder(Trip trip) {
+        return new Pending(
+                notification(trip, NotificationType.TRIP_START_TODAY, "Your Trip Starts Today!",
+                        "Your trip to " + trip.getCityName() + " starts today! Have a great journey!"),
+                () -> emailService.sendTripStartsToday(trip.getUserEmail(), trip.getCityName(),
+                        trip.getCountry(), trip.getStartDate()));
+    }
+
+    private static TripNotification notification(Trip trip, NotificationType type, String title, String message) {
+        return new TripNotification(trip.getId(), trip.getUserId(), trip.getUserEmail(), type, title, message);
+    }
+
+    // Claims the chunk's notifications in one bulkWrite and sends only the ones this run claimed.
+    // Trips without an email get none; they still take part in the status transitions
+    private int claimAndSend(List<Pending> all) {
+        List<Pending> pending = all.stream()
+                .filter(item -> item.notification().getUserEmail() != null)
+                .toList();
+        List<TripNotification> notifications = pending.stream().map(Pending::notification).toList();
+        Set<Integer> claimed = notificationClaimService.claimAll(notifications);
+
+        List<TripNotification> sent = new ArrayList<>(claimed.size());
+        for (int i = 0; i < pending.size(); i++) {
+            TripNotification notification = notifications.get(i);
+            if (!claimed.contains(i)) {
+                log.debug("Notification {} already claimed for trip {}", notification.getType(), notification.getTripId());
+                continue;
+            }
+            pending.get(i).email().run();
+            sent.add(notification);
+        }
+        notificationClaimService.markSent(sent);
+        return sent.size();
+    }
+
+    // Guarded by the expected current status, so a trip changed meanwhile (e.g. cancelled) is left alone
+    private void transition(List<Trip> trips, Trip.TripStatus from, Trip.TripStatus to) {
+        if (trips.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Trip.class);
+        for (Trip trip : trips) {
+            bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(trip.getId()).and("status").is(from)),
+                    new Update().set("status", to).set("updatedAt", now));
+        }
+        bulk.execute();
+    }
+
+    // Get notification type based on days remaining
+    static NotificationType getNotificationTypeForDay(long daysRemaining) {
+        return switch ((int) daysRemaining) {
+            case 10 -> NotificationType.REMINDER_10_DAYS;
+            case 9 -> NotificationType.REMINDER_9_DAYS;
+            case 8 -> NotificationType.REMINDER_8_DAYS;
+            case 7 -> NotificationType.REMINDER_7_DAYS;
+            case 6 -> NotificationType.REMINDER_6_DAYS;
+            case 5 -> NotificationType.REMINDER_5_DAYS;
+            case 4 -> NotificationType.REMINDER_4_DAYS;
+            case 3 -> NotificationType.REMINDER_3_DAYS;
+            case 2 -> NotificationType.REMINDER_2_DAYS;
+            case 1 -> NotificationType.REMINDER_1_DAY;
+            default -> null;
+        };
+    }
+
+    // A notification to claim and the email that goes with it
+    private record Pending(TripNotification notification, Runnable email) {
+    }
+
+    private record Totals(RunSummary summary, boolean stopped) {
+    }
+
+    // Reminders first (which also starts today's trips), then completion of ended trips
+    public enum Phase {
+        REMINDERS,
+        COMPLETION
+    }
+
+    @FunctionalInterface
+    public interface Progress {
+
+        Progress NONE = (phase, lastTripId, chunk) -> true;
+
+        // Called after each chunk is written; false stops the run
+        boolean chunkDone(Phase phase, String lastTripId, RunSummary chunk);
+    }
+
+    public record RunSummary(int trips, int notificationsSent, int tripsStarted, int tripsCompleted) {
+
+        public static final RunSummary EMPTY = new RunSummary(0, 0, 0, 0);
+
+        public RunSummary plus(RunSummary other) {
+            return new RunSummary(trips + other.trips, notificationsSent + other.notificationsSent,
+                    tripsStarted + other.tripsStarted, tripsCompleted + other.tripsCompleted);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.SmartPlanner.SmartPlanner.service;
 
+import com.SmartPlanner.SmartPlanner.dto.CursorPage;
 import com.SmartPlanner.SmartPlanner.dto.TripRequest;
 import com.SmartPlanner.SmartPlanner.model.Category;
 import com.SmartPlanner.SmartPlanner.model.City;
@@ -9,8 +10,11 @@ import com.SmartPlanner.SmartPlanner.repository.CityRepository;
 import com.SmartPlanner.SmartPlanner.repository.TripRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -24,6 +28,7 @@ public class TripService {
     private final TripRepository tripRepository;
     private final CityRepository cityRepository;
     private final CategoryRepository categoryRepository;
+    private final CursorPageService cursorPageService;
 
     public Trip createTrip(TripRequest request, String userId, String userEmail) {
         log.info("Creating trip for user {} to city {}", userEmail, request.getCityId());
@@ -112,6 +117,14 @@ public class TripService {
         return tripRepository.findAll();
     }
 
+    public CursorPage<Trip> getTripsPage(String after, Integer limit) {
+        return cursorPageService.page(Trip.class, new Query(), Trip::getId, after, limit);
+    }
+
+    public void streamTrips(String after, OutputStream out) throws IOException {
+        cursorPageService.stream(Trip.class, new Query(), after, out);
+    }
+
     public Trip updateTripStatus(String tripId, Trip.TripStatus status) {
         Trip trip = getTripById(tripId);
         trip.setStatus(status);
@@ -0,0 +1,73 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.Trip;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Sets the reminder shard (Trip.shardOf) on trips written before trips had one. New and updated
+ * trips get it on save (TripShardConfig); this covers the rest, so every shard of the reminder
+ * run holds its share of the trips.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TripShardService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    // Every trip without a shard: the one-off startup migration
+    public long backfill() {
+        return backfill(Query.query(Criteria.where("shard").exists(false)));
+    }
+
+    // Trips the reminder job reads, on the status_shard_* indexes: cheap once the migration ran
+    public long backfillActive() {
+        return backfill(Query.query(Criteria.where("status").in(Trip.TripStatus.PLANNED, Trip.TripStatus.ONGOING)
+                .and("shard").is(null)));
+    }
+
+    private long backfill(Query missing) {
+        missing.fields().include("_id");
+        missing.cursorBatchSize(CHUNK_SIZE);
+
+        long updated = 0;
+        try (Stream<Trip> trips = mongoTemplate.stream(missing, Trip.class)) {
+            Iterator<Trip> iterator = trips.iterator();
+            List<String> ids = new ArrayList<>(CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                ids.add(iterator.next().getId());
+                if (ids.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    updated += setShards(ids);
+                    ids = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+        }
+        if (updated > 0) {
+            log.info("Backfilled the reminder shard on {} trips", updated);
+        }
+        return updated;
+    }
+
+    private int setShards(List<String> ids) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Trip.class);
+        for (String id : ids) {
+            bulk.updateOne(Query.query(Criteria.where("_id").is(id).and("shard").is(null)),
+                    new Update().set("shard", Trip.shardOf(id)));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+}
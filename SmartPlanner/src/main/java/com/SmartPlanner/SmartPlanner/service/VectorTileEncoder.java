@@ -0,0 +1,147 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal Mapbox Vector Tile (spec 2.1) writer for point features: the protobuf messages Tile,
+ * Layer, Feature and Value encoded by hand, since points are all we serve and a protobuf
+ * dependency would be larger than this class.
+ *
+ * Coordinates are tile-local in [0, EXTENT), (0, 0) at the north-west corner; values slightly
+ * outside are allowed for the buffer around the tile. Property values may be String, Integer,
+ * Long, Double or Boolean.
+ */
+public final class VectorTileEncoder {
+
+    public static final int EXTENT = 4096;
+
+    private static final int VERSION = 2;
+    private static final int GEOMETRY_POINT = 1;
+    private static final int COMMAND_MOVE_TO_ONE = (1 << 3) | 1;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_BYTES = 2;
+
+    private final Map<String, Layer> layers = new LinkedHashMap<>();
+
+    public void addPoint(String layerName, Map<String, Object> properties, int x, int y) {
+        Layer layer = layers.computeIfAbsent(layerName, name -> new Layer());
+
+        int[] tags = new int[properties.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            tags[i++] = layer.keys.computeIfAbsent(property.getKey(), key -> layer.keys.size());
+            tags[i++] = layer.values.computeIfAbsent(property.getValue(), value -> layer.values.size());
+        }
+        layer.features.add(new Feature(tags, x, y));
+    }
+
+    public boolean isEmpty() {
+        return layers.isEmpty();
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream tile = new ByteArrayOutputStream();
+        for (Map.Entry<String, Layer> layer : layers.entrySet()) {
+            writeBytes(tile, 3, encodeLayer(layer.getKey(), layer.getValue()));
+        }
+        return tile.toByteArray();
+    }
+
+    private static byte[] encodeLayer(String name, Layer layer) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarintField(out, 15, VERSION);
+        writeBytes(out, 1, name.getBytes(StandardCharsets.UTF_8));
+
+        for (Feature feature : layer.features) {
+            ByteArrayOutputStream tags = new ByteArrayOutputStream();
+            for (int tag : feature.tags()) {
+                writeVarint(tags, tag);
+            }
+            ByteArrayOutputStream geometry = new ByteArrayOutputStream();
+            writeVarint(geometry, COMMAND_MOVE_TO_ONE);
+            writeVarint(geometry, zigZag(feature.x()));
+            writeVarint(geometry, zigZag(feature.y()));
+
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            writeBytes(encoded, 2, tags.toByteArray());
+            writeVarintField(encoded, 3, GEOMETRY_POINT);
+            writeBytes(encoded, 4, geometry.toByteArray());
+            writeBytes(out, 2, encoded.toByteArray());
+        }
+
+        // keys and values are numbered in insertion order, which LinkedHashMap preserves
+        for (String key : layer.keys.keySet()) {
+            writeBytes(out, 3, key.getBytes(StandardCharsets.UTF_8));
+        }
+        for (Object value : layer.values.keySet()) {
+            writeBytes(out, 4, encodeValue(value));
+        }
+        writeVarintField(out, 5, EXTENT);
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeValue(Object value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (value instanceof Boolean bool) {
+            writeVarintField(out, 7, bool ? 1 : 0);
+        } else if (value instanceof Integer || value instanceof Long) {
+            long number = ((Number) value).longValue();
+            writeTag(out, 6, WIRE_VARINT);
+            writeVarint(out, (number << 1) ^ (number >> 63));
+        } else if (value instanceof Double number) {
+            writeTag(out, 3, WIRE_FIXED64);
+            long bits = Double.doubleToLongBits(number);
+            for (int i = 0; i < 8; i++) {
+                out.write((int) (bits >>> (8 * i)) & 0xFF);
+            }
+        } else {
+            writeBytes(out, 1, String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static long zigZag(int n) {
+        return ((n << 1) ^ (n >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static void writeTag(ByteArrayOutputStream out, int field, int wireType) {
+        writeVarint(out, ((long) field << 3) | wireType);
+    }
+
+    private static void writeVarintField(ByteArrayOutputStream out, int field, long value) {
+        writeTag(out, field, WIRE_VARINT);
+        writeVarint(out, value);
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, int field, byte[] bytes) {
+        writeTag(out, field, WIRE_BYTES);
+        writeVarint(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    // value is treated as unsigned
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            out.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+
+    private static final class Layer {
+        private final Map<String, Integer> keys = new LinkedHashMap<>();
+        private final Map<Object, Integer> values = new LinkedHashMap<>();
+        private final List<Feature> features = new ArrayList<>();
+    }
+
+    private record Feature(int[] tags, int x, int y) {
+    }
+}
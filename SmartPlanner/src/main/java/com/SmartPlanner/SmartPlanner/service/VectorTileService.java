@@ -0,0 +1,211 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.NearbyCatalogResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mapbox Vector Tiles of active cities ("cities" layer) and activities ("activities" layer),
+ * generated from the in-memory SpatialIndexService.
+ *
+ * Tiles include points within maps.tiles.buffer extent units of their edges so symbols are not
+ * clipped. Below maps.clustering.max-zoom activities sharing a grid cell (maps.clustering.cell-pixels,
+ * the same grid as the city map) become one feature with cluster=true and point_count. The grid is
+ * global: a tile reads every cell its buffer touches in full, so a cluster straddling two tiles has
+ * the same count and position in both.
+ *
+ * Encoded tiles are cached in "vectorTiles" by "z/x/y". When the index reports a point added,
+ * moved or removed, the tiles containing its old and new position (including neighbours whose
+ * buffer, or a cell their buffer touches, reaches it) are evicted at every zoom - at most four
+ * tiles per zoom level. When the index reloads for writes made on other nodes, the whole cache
+ * is cleared.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VectorTileService {
+
+    public static final String CACHE_NAME = "vectorTiles";
+    public static final String CONTENT_TYPE = "application/vnd.mapbox-vector-tile";
+    public static final String LAYER_CITIES = "cities";
+    public static final String LAYER_ACTIVITIES = "activities";
+
+    private final SpatialIndexService spatialIndexService;
+    private final CacheManager cacheManager;
+
+    @Value("${maps.tiles.max-zoom:20}")
+    private int maxZoom = 20;
+
+    @Value("${maps.tiles.buffer:64}")
+    private int buffer = 64;
+
+    @Value("${maps.clustering.cell-pixels:64}")
+    private int cellPixels = 64;
+
+    @Value("${maps.clustering.max-zoom:16}")
+    private int clusterMaxZoom = 16;
+
+    @PostConstruct
+    public void init() {
+        spatialIndexService.addChangeListener(this::pointChanged);
+        spatialIndexService.addReloadListener(this::clear);
+    }
+
+    /**
+     * The encoded tile, or an empty array when it has no features.
+     */
+    @Cacheable(value = CACHE_NAME, sync = true, key = "#z + '/' + #x + '/' + #y")
+    public byte[] getTile(int z, int x, int y) {
+        if (z < 0 || z > maxZoom) {
+            throw new IllegalArgumentException("Tile zoom must be between 0 and " + maxZoom);
+        }
+        int tiles = 1 << z;
+        if (x < 0 || x >= tiles || y < 0 || y >= tiles) {
+            throw new IllegalArgumentException("Tile x and y must be between 0 and " + (tiles - 1) + " at zoom " + z);
+        }
+
+        // Read out to whole cells when clustering; points beyond the buffer only count towards clusters
+        double margin = (double) reach(z) / VectorTileEncoder.EXTENT;
+        double west = longitude((x - margin) / tiles);
+        double east = longitude((x + 1 + margin) / tiles);
+        double north = latitude((y - margin) / tiles);
+        double south = latitude((y + 1 + margin) / tiles);
+
+        VectorTileEncoder encoder = new VectorTileEncoder();
+        int cell = cellSize();
+        Map<Long, List<int[]>> clusters = new TreeMap<>();
+        List<NearbyCatalogResponse.Item> clustered = new ArrayList<>();
+
+        for (NearbyCatalogResponse.Item item : spatialIndexService.allWithin(south, north, west, east)) {
+            int px = (int) Math.round((CityMapService.mercatorX(item.getLongitude()) * tiles - x) * VectorTileEncoder.EXTENT);
+            int py = (int) Math.round((CityMapService.mercatorY(item.getLatitude()) * tiles - y) * VectorTileEncoder.EXTENT);
+
+            if (GeoSearchService.TYPE_CITY.equals(item.getType())) {
+                if (inBuffer(px, py)) {
+                    encoder.addPoint(LAYER_CITIES, properties(item), px, py);
+                }
+            } else if (z >= clusterMaxZoom) {
+                encoder.addPoint(LAYER_ACTIVITIES, properties(item), px, py);
+            } else {
+                long key = ((long) Math.floorDiv(px, cell) << 32) | (Math.floorDiv(py, cell) & 0xFFFFFFFFL);
+                clusters.computeIfAbsent(key, k -> new ArrayList<>()).add(new int[]{px, py, clustered.size()});
+                clustered.add(item);
+            }
+        }
+
+        for (List<int[]> members : clusters.values()) {
+            if (members.size() == 1) {
+                int[] member = members.get(0);
+                if (inBuffer(member[0], member[1])) {
+                    encoder.addPoint(LAYER_ACTIVITIES, properties(clustered.get(member[2])), member[0], member[1]);
+                }
+                continue;
+            }
+            long sumX = 0;
+            long sumY = 0;
+            for (int[] member : members) {
+                sumX += member[0];
+                sumY += member[1];
+            }
+            int cx = (int) Math.floorDiv(sumX, members.size());
+            int cy = (int) Math.floorDiv(sumY, members.size());
+            if (inBuffer(cx, cy)) {
+                Map<String, Object> properties = new LinkedHashMap<>();
+                properties.put("cluster", true);
+                properties.put("point_count", members.size());
+                encoder.addPoint(LAYER_ACTIVITIES, properties, cx, cy);
+            }
+        }
+
+        return encoder.isEmpty() ? new byte[0] : encoder.encode();
+    }
+
+    // Cells of the city-map grid, in extent units (256 screen pixels = one tile = EXTENT). A power
+    // of two no larger than a tile, so tile edges are cell edges and the grid is the same in every tile
+    private int cellSize() {
+        return Integer.highestOneBit(Math.max(8, Math.min(256, cellPixels))) * (VectorTileEncoder.EXTENT / 256);
+    }
+
+    // How far past its edges a tile at zoom z reads points, in extent units
+    private int reach(int z) {
+        if (z >= clusterMaxZoom) {
+            return buffer;
+        }
+        int cell = cellSize();
+        return Math.max(0, (buffer + cell - 1) / cell) * cell;
+    }
+
+    private boolean inBuffer(int px, int py) {
+        return px >= -buffer && px <= VectorTileEncoder.EXTENT + buffer
+                && py >= -buffer && py <= VectorTileEncoder.EXTENT + buffer;
+    }
+
+    private static Map<String, Object> properties(NearbyCatalogResponse.Item item) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("id", item.getId());
+        if (item.getName() != null) {
+            properties.put("name", item.getName());
+        }
+        if (item.getCityId() != null) {
+            properties.put("cityId", item.getCityId());
+        }
+        return properties;
+    }
+
+    // ==================== INVALIDATION ====================
+
+    void pointChanged(double latitude, double longitude) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        double mx = CityMapService.mercatorX(longitude);
+        double my = CityMapService.mercatorY(latitude);
+
+        for (int z = 0; z <= maxZoom; z++) {
+            int tiles = 1 << z;
+            double margin = (double) reach(z) / VectorTileEncoder.EXTENT;
+            int minX = clamp((int) Math.floor(mx * tiles - margin), tiles);
+            int maxX = clamp((int) Math.floor(mx * tiles + margin), tiles);
+            int minY = clamp((int) Math.floor(my * tiles - margin), tiles);
+            int maxY = clamp((int) Math.floor(my * tiles + margin), tiles);
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    cache.evict(z + "/" + x + "/" + y);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private static int clamp(int tile, int tiles) {
+        return Math.max(0, Math.min(tiles - 1, tile));
+    }
+
+    // Inverse Web Mercator from normalised [0, 1] coordinates
+    private static double longitude(double mercatorX) {
+        return Math.max(-180, Math.min(180, mercatorX * 360 - 180));
+    }
+
+    private static double latitude(double mercatorY) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * mercatorY))));
+    }
+}
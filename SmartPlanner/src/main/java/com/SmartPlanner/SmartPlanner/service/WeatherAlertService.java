@@ -6,7 +6,6 @@ import com.SmartPlanner.SmartPlanner.model.City;
 import com.SmartPlanner.SmartPlanner.repository.CityRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -18,7 +17,7 @@ import java.util.List;
 public class WeatherAlertService {
 
     private final CityRepository cityRepository;
-    private final RestTemplate restTemplate;
+    private final OpenMeteoClient openMeteoClient;
 
     public WeatherAlertsResponse getAlertsByCityId(String cityId) {
         City city = cityRepository.findById(cityId)
@@ -27,12 +26,7 @@ public class WeatherAlertService {
     }
 
     public WeatherAlertsResponse getAlertsByCoordinates(double lat, double lon, String cityName) {
-        String url = String.format(
-                "https://api.open-meteo.com/v1/forecast?latitude=%f&longitude=%f&current=temperature_2m,relative_humidity_2m,wind_speed_10m,weather_code&daily=temperature_2m_max,temperature_2m_min,weather_code,wind_speed_10m_max&timezone=auto",
-                lat, lon
-        );
-
-        OpenMeteoResponse weather = restTemplate.getForObject(url, OpenMeteoResponse.class);
+        OpenMeteoResponse weather = openMeteoClient.getForecastBundle(lat, lon);
 
         if (weather == null || weather.getCurrent() == null) {
             throw new RuntimeException("Failed to fetch weather data from OpenMeteo API");
@@ -0,0 +1,236 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.Coordinates;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.model.Trip;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps City.weather fresh in the background so read paths can serve the stored value.
+ *
+ * - Each pass orders candidates by when they fall due: weatherUpdatedAt + target-age, or
+ *   + hot-target-age for cities with demand (recent search hits, upcoming trips)
+ * - Due cities are refreshed stalest-first in Open-Meteo batches, one bulk write per pass;
+ *   these bypass the forecast cache, so weatherUpdatedAt is when the weather was fetched
+ * - All upstream calls made here, including read-path fallbacks, share budget-per-minute
+ * - Read paths get the stored weather while it is younger than max-age; older weather is
+ *   fetched inline only while budget remains, otherwise the stored value is served
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WeatherFreshnessService {
+
+    private final CityRepository cityRepository;
+    private final WeatherService weatherService;
+    private final WeatherRefreshService weatherRefreshService;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${weather.freshness.target-age:PT1H}")
+    private Duration targetAge = Duration.ofHours(1);
+
+    @Value("${weather.freshness.hot-target-age:PT20M}")
+    private Duration hotTargetAge = Duration.ofMinutes(20);
+
+    @Value("${weather.freshness.max-age:PT3H}")
+    private Duration maxAge = Duration.ofHours(3);
+
+    @Value("${weather.freshness.demand-window:PT24H}")
+    private Duration demandWindow = Duration.ofHours(24);
+
+    @Value("${weather.freshness.trip-horizon-days:14}")
+    private int tripHorizonDays = 14;
+
+    @Value("${weather.freshness.budget-per-minute:30}")
+    private int budgetPerMinute = 30;
+
+    @Value("${weather.forecast.batch-size:50}")
+    private int batchSize = 50;
+
+    // cityId -> last time someone looked at it
+    private final Map<String, LocalDateTime> demand = new ConcurrentHashMap<>();
+    // Start times (System.nanoTime) of upstream calls in the last minute
+    private final Deque<Long> upstreamCalls = new ArrayDeque<>();
+
+    public void recordDemand(String cityId) {
+        if (cityId != null) {
+            demand.put(cityId, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Weather to show for a city on a read path. Fresh stored weather is returned as-is;
+     * stale weather is fetched inline if the upstream budget allows.
+     */
+    public City.CityWeather currentWeather(City city) {
+        recordDemand(city.getId());
+
+        if (isFresh(city, maxAge) || city.getLatitude() == null || city.getLongitude() == null) {
+            return city.getWeather();
+        }
+        if (!tryAcquireUpstream()) {
+            log.debug("Upstream budget exhausted, serving stored weather for {}", city.getName());
+            return city.getWeather();
+        }
+
+        City.CityWeather fresh = weatherService.fetchCityWeather(city.getLatitude(), city.getLongitude());
+        return fresh != null ? fresh : city.getWeather();
+    }
+
+    /**
+     * One refresh pass. Returns the number of cities whose weather was updated.
+     */
+    public int refreshDueCities() {
+        if (weatherRefreshService.isRunning()) {
+            log.debug("Bulk weather refresh running, skipping freshness pass");
+            return 0;
+        }
+
+        int capacity = availableUpstream() * Math.max(1, batchSize);
+        if (capacity == 0) {
+            return 0;
+        }
+
+        Set<String> hot = hotCityIds();
+        List<City> due = dueCities(hot, capacity);
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<City> refreshed = new ArrayList<>();
+        int size = Math.max(1, batchSize);
+        for (int from = 0; from < due.size(); from += size) {
+            if (!tryAcquireUpstream()) {
+                break;
+            }
+            List<City> batch = due.subList(from, Math.min(from + size, due.size()));
+            List<City.CityWeather> weather = weatherService.refreshCityWeather(batch.stream()
+                    .map(city -> new Coordinates(city.getLatitude(), city.getLongitude()))
+                    .toList());
+
+            for (int i = 0; i < batch.size() && i < weather.size(); i++) {
+                if (weather.get(i) != null) {
+                    batch.get(i).setWeather(weather.get(i));
+                    batch.get(i).setWeatherUpdatedAt(LocalDateTime.now());
+                    refreshed.add(batch.get(i));
+                }
+            }
+        }
+
+        weatherRefreshService.saveWeather(refreshed);
+        log.info("Weather freshness pass: {} of {} due cities refreshed ({} with demand)",
+                refreshed.size(), due.size(), hot.size());
+        return refreshed.size();
+    }
+
+    // Due cities ordered by how overdue they are, at most `limit`
+    List<City> dueCities(Set<String> hot, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, City> candidates = new LinkedHashMap<>();
+
+        // Nothing fresher than hot-target-age can be due, so the stalest of the rest are enough
+        Query stalest = new Query(Criteria.where("isActive").is(true)
+                .orOperator(
+                        Criteria.where("weather").is(null),
+                        Criteria.where("weatherUpdatedAt").is(null),
+                        Criteria.where("weatherUpdatedAt").lt(now.minus(hotTargetAge))))
+                .with(Sort.by(Sort.Direction.ASC, "weatherUpdatedAt"))
+                .limit(limit);
+        for (City city : mongoTemplate.find(stalest, City.class)) {
+            candidates.put(city.getId(), city);
+        }
+        if (!hot.isEmpty()) {
+            for (City city : cityRepository.findAllById(hot)) {
+                if (Boolean.TRUE.equals(city.getIsActive())) {
+                    candidates.putIfAbsent(city.getId(), city);
+                }
+            }
+        }
+
+        PriorityQueue<City> queue = new PriorityQueue<>(Comparator.comparing((City city) -> dueAt(city, hot)));
+        for (City city : candidates.values()) {
+            if (city.getLatitude() != null && city.getLongitude() != null && !dueAt(city, hot).isAfter(now)) {
+                queue.add(city);
+            }
+        }
+
+        List<City> due = new ArrayList<>();
+        while (!queue.isEmpty() && due.size() < limit) {
+            due.add(queue.poll());
+        }
+        return due;
+    }
+
+    // Recent search hits plus cities of trips starting soon (distinct cityIds, not the trips)
+    Set<String> hotCityIds() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(demandWindow);
+        demand.values().removeIf(seen -> seen.isBefore(cutoff));
+        Set<String> hot = new HashSet<>(demand.keySet());
+
+        LocalDate today = LocalDate.now();
+        Query upcoming = new Query(Criteria.where("status").is(Trip.TripStatus.PLANNED)
+                .and("startDate").gte(today).lte(today.plusDays(tripHorizonDays)));
+        for (String cityId : mongoTemplate.findDistinct(upcoming, "cityId", Trip.class, String.class)) {
+            if (cityId != null) {
+                hot.add(cityId);
+            }
+        }
+        return hot;
+    }
+
+    private LocalDateTime dueAt(City city, Set<String> hot) {
+        if (city.getWeather() == null || city.getWeatherUpdatedAt() == null) {
+            return LocalDateTime.MIN;
+        }
+        return city.getWeatherUpdatedAt().plus(hot.contains(city.getId()) ? hotTargetAge : targetAge);
+    }
+
+    private boolean isFresh(City city, Duration bound) {
+        return city.getWeather() != null && city.getWeatherUpdatedAt() != null
+                && city.getWeatherUpdatedAt().isAfter(LocalDateTime.now().minus(bound));
+    }
+
+    private synchronized int availableUpstream() {
+        evictOldCalls();
+        return Math.max(0, budgetPerMinute - upstreamCalls.size());
+    }
+
+    private synchronized boolean tryAcquireUpstream() {
+        evictOldCalls();
+        if (upstreamCalls.size() >= budgetPerMinute) {
+            return false;
+        }
+        upstreamCalls.addLast(System.nanoTime());
+        return true;
+    }
+
+    private void evictOldCalls() {
+        long windowStart = System.nanoTime() - Duration.ofMinutes(1).toNanos();
+        while (!upstreamCalls.isEmpty() && upstreamCalls.peekFirst() < windowStart) {
+            upstreamCalls.pollFirst();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.Coordinates;
+import com.SmartPlanner.SmartPlanner.dto.WeatherRefreshJobResponse;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.model.WeatherRefreshJob;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Background job behind POST /api/v1/admin/cities/refresh-all-weather.
+ *
+ * Cities are streamed from Mongo (id, name and coordinates only) in batches of
+ * weather.forecast.batch-size, one multi-location Open-Meteo call each, run on a bounded worker
+ * pool (weather.refresh.concurrency). The calls bypass the forecast cache, since the result is
+ * stamped with the current time. Each batch is written back with one unordered bulkWrite of
+ * $set on weather/weatherUpdatedAt, so memory stays at a few batches however many cities there are.
+ *
+ * Jobs live in weather_refresh_jobs, so any node can report on a job and only one runs across
+ * all nodes; starting a job while one is running returns the running job. The node running it
+ * saves its progress after every batch and extends its lease; a running job whose lease expired
+ * (its node died) is reported as failed and no longer blocks a new one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WeatherRefreshService {
+
+    // Failures kept on the job document; the failed count covers all of them
+    private static final int MAX_FAILURES = 200;
+
+    private final WeatherService weatherService;
+    private final MongoTemplate mongoTemplate;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    @Value("${weather.refresh.concurrency:8}")
+    private int concurrency = 8;
+
+    @Value("${weather.forecast.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${weather.refresh.lease-ttl-ms:600000}")
+    private long leaseTtlMs = 600000;
+
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(daemonThreads("weather-refresh-job"));
+    private volatile Job running;
+
+    public synchronized WeatherRefreshJobResponse startRefreshAll() {
+        if (running != null) {
+            return running.toResponse();
+        }
+
+        expireAbandoned();
+        Optional<WeatherRefreshJobResponse> elsewhere = runningElsewhere();
+        if (elsewhere.isPresent()) {
+            return elsewhere.get();
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), Math.max(1, concurrency));
+        try {
+            mongoTemplate.insert(job.toDocument());
+        } catch (DuplicateKeyException e) {
+            // Another node started one since runningElsewhere()
+            return runningElsewhere().orElseThrow(() -> e);
+        }
+        running = job;
+
+        coordinator.execute(() -> run(job));
+        log.info("Started weather refresh job {} (concurrency {})", job.id, job.concurrency);
+        return job.toResponse();
+    }
+
+    public Optional<WeatherRefreshJobResponse> getJob(String jobId) {
+        Job local = running;
+        if (local != null && local.id.equals(jobId)) {
+            return Optional.of(local.toResponse());
+        }
+        return Optional.ofNullable(mongoTemplate.findById(jobId, WeatherRefreshJob.class))
+                .map(WeatherRefreshService::toResponse);
+    }
+
+    // On any node
+    public boolean isRunning() {
+        return running != null || mongoTemplate.exists(liveJobs(), WeatherRefreshJob.class);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    private void run(Job job) {
+        ExecutorService workers = Executors.newFixedThreadPool(job.concurrency, daemonThreads("weather-refresh"));
+        // Batches read ahead of the workers; bounds what the stream has pulled into memory
+        Semaphore inFlight = new Semaphore(job.concurrency * 2);
+        AtomicReference<Throwable> writeError = new AtomicReference<>();
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        try {
+            job.total.set((int) mongoTemplate.count(new Query(), City.class));
+            job.save();
+
+            Query query = new Query();
+            query.fields().include("name", "latitude", "longitude");
+            int size = Math.max(1, batchSize);
+            try (Stream<City> cities = mongoTemplate.stream(query, City.class)) {
+                Iterator<City> iterator = cities.iterator();
+                while (iterator.hasNext() && writeError.get() == null) {
+                    List<City> batch = new ArrayList<>(size);
+                    while (batch.size() < size && iterator.hasNext()) {
+                        batch.add(iterator.next());
+                    }
+                    inFlight.acquire();
+                    batches.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            saveWeather(refresh(job, batch));
+                            job.save();
+                        } catch (RuntimeException e) {
+                            writeError.compareAndSet(null, e);
+                            throw e;
+                        } finally {
+                            inFlight.release();
+                        }
+                    }, workers));
+                }
+            }
+            CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+
+            job.finish(WeatherRefreshJob.JobStatus.COMPLETED, null);
+            log.info("Weather refresh job {} done: {} updated, {} failed of {}",
+                    job.id, job.updated.get(), job.failed.get(), job.total.get());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Weather refresh job {} failed: {}", job.id, cause.getMessage());
+            job.finish(WeatherRefreshJob.JobStatus.FAILED, cause.getMessage());
+        } finally {
+            workers.shutdownNow();
+            running = null;
+        }
+    }
+
+    // One batched upstream call per batch; returns the cities that got fresh weather applied
+    private List<City> refresh(Job job, List<City> batch) {
+        List<City> located = new ArrayList<>();
+        for (City city : batch) {
+            if (city.getLatitude() == null || city.getLongitude() == null) {
+                job.fail(city, "Missing coordinates");
+                job.processed.incrementAndGet();
+            } else {
+                located.add(city);
+            }
+        }
+
+        List<City> refreshed = new ArrayList<>();
+        try {
+            List<City.CityWeather> weather = weatherService.refreshCityWeather(located.stream()
+                    .map(city -> new Coordinates(city.getLatitude(), city.getLongitude()))
+                    .toList());
+
+            for (int i = 0; i < located.size(); i++) {
+                City city = located.get(i);
+                City.CityWeather cityWeather = i < weather.size() ? weather.get(i) : null;
+                if (cityWeather == null) {
+                    job.fail(city, "No weather data returned");
+                } else {
+                    city.setWeather(cityWeather);
+                    city.setWeatherUpdatedAt(LocalDateTime.now());
+                    job.updated.incrementAndGet();
+                    refreshed.add(city);
+                }
+            }
+        } catch (Exception e) {
+            located.forEach(city -> job.fail(city, e.getMessage()));
+        } finally {
+            job.processed.addAndGet(located.size());
+        }
+        return refreshed;
+    }
+
+    /**
+     * Writes weather/weatherUpdatedAt of the given cities in one unordered bulkWrite
+     * and patches the weather in the catalog snapshot once.
+     */
+    public void saveWeather(List<City> cities) {
+        if (cities.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, City.class);
+        for (City city : cities) {
+            bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(city.getId())),
+                    new Update()
+                            .set("weather", city.getWeather())
+                            .set("weatherUpdatedAt", city.getWeatherUpdatedAt()));
+        }
+        bulk.execute();
+        catalogSnapshotService.weatherChanged(cities);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void expireAbandoned() {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("status").is(WeatherRefreshJob.JobStatus.RUNNING)
+                        .and("leaseUntil").lt(LocalDateTime.now())),
+                new Update()
+                        .set("status", WeatherRefreshJob.JobStatus.FAILED)
+                        .set("finishedAt", LocalDateTime.now())
+                        .set("error", "Abandoned: the node running it stopped"),
+                WeatherRefreshJob.class);
+    }
+
+    private Optional<WeatherRefreshJobResponse> runningElsewhere() {
+        return Optional.ofNullable(mongoTemplate.findOne(liveJobs(), WeatherRefreshJob.class))
+                .map(WeatherRefreshService::toResponse);
+    }
+
+    private static Query liveJobs() {
+        return Query.query(Criteria.where("status").is(WeatherRefreshJob.JobStatus.RUNNING)
+                .and("leaseUntil").gt(LocalDateTime.now()));
+    }
+
+    private static WeatherRefreshJobResponse toResponse(WeatherRefreshJob job) {
+        boolean abandoned = job.getStatus() == WeatherRefreshJob.JobStatus.RUNNING
+                && (job.getLeaseUntil() == null || job.getLeaseUntil().isBefore(LocalDateTime.now()));
+        return WeatherRefreshJobResponse.builder()
+                .jobId(job.getId())
+                .status(abandoned ? WeatherRefreshJob.JobStatus.FAILED.name() : job.getStatus().name())
+                .concurrency(job.getConcurrency())
+                .totalCities(job.getTotalCities())
+                .processed(job.getProcessed())
+                .updated(job.getUpdated())
+                .failed(job.getFailed())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .error(abandoned ? "Abandoned: the node running it stopped" : job.getError())
+                .failures(job.getFailures())
+                .build();
+    }
+
+    // Progress of the job running on this node; saved to its document after every batch
+    private class Job {
+        private final String id;
+        private final int concurrency;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger updated = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final ConcurrentLinkedQueue<WeatherRefreshJobResponse.CityFailure> failures = new ConcurrentLinkedQueue<>();
+        private volatile WeatherRefreshJob.JobStatus status = WeatherRefreshJob.JobStatus.RUNNING;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        private Job(String id, int concurrency) {
+            this.id = id;
+            this.concurrency = concurrency;
+        }
+
+        private void fail(City city, String reason) {
+            if (failed.incrementAndGet() <= MAX_FAILURES) {
+                failures.add(new WeatherRefreshJobResponse.CityFailure(city.getId(), city.getName(), reason));
+            }
+        }
+
+        private void finish(WeatherRefreshJob.JobStatus status, String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+            try {
+                save();
+            } catch (Exception e) {
+                log.error("Could not save weather refresh job {}: {}", id, e.getMessage());
+            }
+        }
+
+        // Serialized so a slower batch never overwrites newer progress; also extends the lease
+        private synchronized void save() {
+            mongoTemplate.save(toDocument());
+        }
+
+        private WeatherRefreshJob toDocument() {
+            LocalDateTime now = LocalDateTime.now();
+            return new WeatherRefreshJob(id, status, owner, concurrency,
+                    total.get(), processed.get(), updated.get(), failed.get(), new ArrayList<>(failures),
+                    startedAt, finishedAt, now.plus(Duration.ofMillis(leaseTtlMs)), error, startedAt);
+        }
+
+        private WeatherRefreshJobResponse toResponse() {
+            return WeatherRefreshJobResponse.builder()
+                    .jobId(id)
+                    .status(status.name())
+                    .concurrency(concurrency)
+                    .totalCities(total.get())
+                    .processed(processed.get())
+                    .updated(updated.get())
+                    .failed(failed.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .failures(new ArrayList<>(failures))
+                    .build();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.SmartPlanner.SmartPlanner.service;
 
+import com.SmartPlanner.SmartPlanner.dto.Coordinates;
 import com.SmartPlanner.SmartPlanner.dto.OpenMeteoResponse;
 import com.SmartPlanner.SmartPlanner.dto.WeatherResponse;
 import com.SmartPlanner.SmartPlanner.model.City;
@@ -7,7 +8,6 @@ import com.SmartPlanner.SmartPlanner.repository.CityRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,13 +18,7 @@ import java.util.List;
 public class WeatherService {
 
     private final CityRepository cityRepository;
-    private final RestTemplate restTemplate;
-
-    private static final String WEATHER_API_URL =
-            "https://api.open-meteo.com/v1/forecast?latitude={lat}&longitude={lon}" +
-                    "&current=temperature_2m,wind_speed_10m,relative_humidity_2m,weather_code" +
-                    "&hourly=temperature_2m,relative_humidity_2m,wind_speed_10m" +
-                    "&timezone=auto";
+    private final OpenMeteoClient openMeteoClient;
 
     public WeatherResponse getWeatherByCityId(String cityId) {
         City city = cityRepository.findById(cityId)
@@ -52,11 +46,7 @@ public class WeatherService {
         try {
             log.info("Fetching weather for {} ({}, {})", cityName, lat, lon);
 
-            OpenMeteoResponse apiResponse = restTemplate.getForObject(
-                    WEATHER_API_URL,
-                    OpenMeteoResponse.class,
-                    lat, lon
-            );
+            OpenMeteoResponse apiResponse = openMeteoClient.getForecastBundle(lat, lon);
 
             if (apiResponse == null || apiResponse.getCurrent() == null) {
                 throw new RuntimeException("Failed to fetch weather data");
@@ -111,32 +101,13 @@ public class WeatherService {
         try {
             log.info("Fetching weather for coordinates ({}, {})", lat, lon);
 
-            OpenMeteoResponse apiResponse = restTemplate.getForObject(
-                    WEATHER_API_URL,
-                    OpenMeteoResponse.class,
-                    lat, lon
-            );
+            OpenMeteoResponse apiResponse = openMeteoClient.getForecastBundle(lat, lon);
 
             if (apiResponse == null || apiResponse.getCurrent() == null) {
                 throw new RuntimeException("Failed to fetch weather data");
             }
 
-            Integer humidity = apiResponse.getCurrent().getRelativeHumidity2m();
-            if (humidity == null && apiResponse.getHourly() != null &&
-                    apiResponse.getHourly().getRelativeHumidity2m() != null &&
-                    !apiResponse.getHourly().getRelativeHumidity2m().isEmpty()) {
-                humidity = apiResponse.getHourly().getRelativeHumidity2m().get(0);
-            }
-
-            String weatherDescription = getWeatherDescription(apiResponse.getCurrent().getWeatherCode());
-
-            return new City.CityWeather(
-                    apiResponse.getCurrent().getTemperature2m(),
-                    apiResponse.getCurrent().getWindSpeed10m(),
-                    humidity,
-                    String.valueOf(apiResponse.getCurrent().getWeatherCode()),
-                    weatherDescription
-            );
+            return toCityWeather(apiResponse);
 
         } catch (Exception e) {
             log.error("Error fetching weather: {}", e.getMessage());
@@ -144,6 +115,57 @@ public class WeatherService {
         }
     }
 
+    /**
+     * Batched variant of fetchCityWeather: one upstream call per weather.forecast.batch-size points.
+     * The result is aligned with the input, with null where weather could not be fetched.
+     */
+    public List<City.CityWeather> fetchCityWeather(List<Coordinates> points) {
+        if (points.isEmpty()) {
+            return List.of();
+        }
+        log.info("Fetching weather for {} locations", points.size());
+        return toCityWeather(openMeteoClient.getForecastBundles(points));
+    }
+
+    /**
+     * Batched fetch that skips the forecast cache, for callers stamping the result with the
+     * current time (weatherUpdatedAt).
+     */
+    public List<City.CityWeather> refreshCityWeather(List<Coordinates> points) {
+        if (points.isEmpty()) {
+            return List.of();
+        }
+        log.info("Refreshing weather for {} locations", points.size());
+        return toCityWeather(openMeteoClient.refreshForecastBundles(points));
+    }
+
+    private List<City.CityWeather> toCityWeather(List<OpenMeteoResponse> responses) {
+        List<City.CityWeather> weather = new ArrayList<>(responses.size());
+        for (OpenMeteoResponse response : responses) {
+            weather.add(response != null && response.getCurrent() != null ? toCityWeather(response) : null);
+        }
+        return weather;
+    }
+
+    private City.CityWeather toCityWeather(OpenMeteoResponse apiResponse) {
+        Integer humidity = apiResponse.getCurrent().getRelativeHumidity2m();
+        if (humidity == null && apiResponse.getHourly() != null &&
+                apiResponse.getHourly().getRelativeHumidity2m() != null &&
+                !apiResponse.getHourly().getRelativeHumidity2m().isEmpty()) {
+            humidity = apiResponse.getHourly().getRelativeHumidity2m().get(0);
+        }
+
+        String weatherDescription = getWeatherDescription(apiResponse.getCurrent().getWeatherCode());
+
+        return new City.CityWeather(
+                apiResponse.getCurrent().getTemperature2m(),
+                apiResponse.getCurrent().getWindSpeed10m(),
+                humidity,
+                String.valueOf(apiResponse.getCurrent().getWeatherCode()),
+                weatherDescription
+        );
+    }
+
     private String getWeatherDescription(Integer code) {
         if (code == null) return "Unknown";
 
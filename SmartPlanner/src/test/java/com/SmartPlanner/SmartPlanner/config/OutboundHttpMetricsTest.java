@@ -0,0 +1,97 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import com.SmartPlanner.SmartPlanner.dto.HttpHostStatsResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for OutboundHttpMetrics
+ */
+class OutboundHttpMetricsTest {
+
+    private HttpClientProperties properties() {
+        HttpClientProperties properties = new HttpClientProperties();
+        HttpClientProperties.Upstream overpass = new HttpClientProperties.Upstream();
+        overpass.setHost("overpass-api.de");
+        overpass.setReadTimeout(Duration.ofSeconds(25));
+        overpass.setMaxConnections(4);
+        properties.getUpstreams().put("overpass", overpass);
+        return properties;
+    }
+
+    private HttpHostStatsResponse statsFor(OutboundHttpMetrics metrics, String host) {
+        return metrics.getStats().stream()
+                .filter(stats -> stats.getHost().equals(host))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    @DisplayName("requests, 5xx responses and timeouts are counted per host")
+    void testPerHostCounters() throws Exception {
+        OutboundHttpMetrics metrics = new OutboundHttpMetrics(properties(), null);
+        ClientHttpRequestExecution ok = (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        ClientHttpRequestExecution serverError = (request, body) ->
+                new MockClientHttpResponse(new byte[0], HttpStatus.SERVICE_UNAVAILABLE);
+        ClientHttpRequestExecution timeout = (request, body) -> {
+            throw new SocketTimeoutException("Read timed out");
+        };
+
+        MockClientHttpRequest overpass = new MockClientHttpRequest(HttpMethod.GET, URI.create("https://overpass-api.de/api/interpreter"));
+        MockClientHttpRequest openMeteo = new MockClientHttpRequest(HttpMethod.GET, URI.create("https://api.open-meteo.com/v1/forecast"));
+
+        metrics.intercept(overpass, new byte[0], ok);
+        metrics.intercept(overpass, new byte[0], serverError);
+        assertThrows(IOException.class, () -> metrics.intercept(overpass, new byte[0], timeout));
+        metrics.intercept(openMeteo, new byte[0], ok);
+
+        HttpHostStatsResponse overpassStats = statsFor(metrics, "overpass-api.de");
+        assertEquals(3, overpassStats.getRequestCount());
+        assertEquals(2, overpassStats.getErrorCount());
+        assertEquals(1, overpassStats.getTimeoutCount());
+        assertEquals(25_000, overpassStats.getReadTimeoutMs());
+        assertEquals(4, overpassStats.getMaxConnections());
+
+        HttpHostStatsResponse openMeteoStats = statsFor(metrics, "api.open-meteo.com");
+        assertEquals(1, openMeteoStats.getRequestCount());
+        assertEquals(0, openMeteoStats.getErrorCount());
+        assertEquals(10_000, openMeteoStats.getReadTimeoutMs());
+    }
+
+    @Test
+    @DisplayName("latency percentiles are reported in milliseconds")
+    void testLatency() throws Exception {
+        OutboundHttpMetrics metrics = new OutboundHttpMetrics(properties(), null);
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://router.project-osrm.org/route"));
+
+        for (int i = 0; i < 3; i++) {
+            metrics.intercept(request, new byte[0], (req, body) -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+            });
+        }
+
+        List<HttpHostStatsResponse> stats = metrics.getStats();
+        assertEquals(1, stats.size());
+        assertTrue(stats.get(0).getP50LatencyMs() >= 20);
+        assertTrue(stats.get(0).getMaxLatencyMs() >= stats.get(0).getP95LatencyMs());
+        assertTrue(stats.get(0).getAvgLatencyMs() >= 20);
+    }
+}
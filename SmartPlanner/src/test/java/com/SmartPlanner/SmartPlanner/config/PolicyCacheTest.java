@@ -0,0 +1,207 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import com.SmartPlanner.SmartPlanner.dto.CacheStatsResponse;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for PolicyCache
+ */
+class PolicyCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+
+    private PolicyCache cache(CacheProperties.Policy policy) {
+        return new PolicyCache("test", policy, value -> value.toString().length(), Runnable::run, ticker);
+    }
+
+    private CacheProperties.Policy policy(Long maxEntries, Long maxWeightBytes, Duration ttl, Duration refresh) {
+        CacheProperties.Policy policy = new CacheProperties.Policy();
+        policy.setMaxEntries(maxEntries);
+        policy.setMaxWeightBytes(maxWeightBytes);
+        policy.setTtl(ttl);
+        policy.setRefreshAfterWrite(refresh);
+        return policy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void cleanUp(PolicyCache cache) {
+        ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache()).cleanUp();
+    }
+
+    @Test
+    @DisplayName("max-entries bounds the cache and counts evictions")
+    void testMaxEntries() {
+        PolicyCache cache = cache(policy(10L, null, Duration.ofHours(1), null));
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+        cleanUp(cache);
+
+        CacheStatsResponse stats = cache.getStats();
+        assertTrue(stats.getSize() <= 10);
+        assertTrue(stats.getEvictionCount() >= 90);
+    }
+
+    @Test
+    @DisplayName("max-weight-bytes bounds the total estimated size")
+    void testMaxWeightBytes() {
+        PolicyCache cache = cache(policy(null, 100L, Duration.ofHours(1), null));
+
+        for (int i = 0; i < 50; i++) {
+            cache.put("key" + i, "0123456789");
+        }
+        cleanUp(cache);
+
+        assertTrue(cache.getStats().getWeightBytes() <= 100);
+        assertEquals(100L, cache.getStats().getMaxWeightBytes());
+    }
+
+    @Test
+    @DisplayName("entries expire after ttl")
+    void testTtl() {
+        PolicyCache cache = cache(policy(100L, null, Duration.ofMinutes(5), null));
+        cache.put("a", "1");
+
+        nanos.addAndGet(Duration.ofMinutes(4).toNanos());
+        assertNotNull(cache.get("a"));
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    @DisplayName("aligned expiry ends at the next wall-clock boundary, never later than ttl")
+    void testAlignedExpiry() {
+        CacheProperties.Policy policy = policy(100L, null, Duration.ofHours(1), null);
+        policy.setAlignedExpiry(true);
+        PolicyCache cache = cache(policy);
+
+        long untilBoundary = Duration.ofHours(1).toNanos()
+                - Math.floorMod(System.currentTimeMillis() * 1_000_000L, Duration.ofHours(1).toNanos());
+        nanos.addAndGet(untilBoundary - Duration.ofSeconds(30).toNanos());
+        cache.put("a", "1");
+        assertNotNull(cache.get("a"));
+
+        // Written 30s before the boundary, so gone one minute later rather than an hour later
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertNull(cache.get("a"));
+
+        cache.put("b", "2");
+        nanos.addAndGet(Duration.ofMinutes(58).toNanos());
+        assertNotNull(cache.get("b"));
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    @DisplayName("refresh-after-write serves the stale value once and reloads it")
+    void testRefreshAfterWrite() {
+        PolicyCache cache = cache(policy(100L, null, Duration.ofHours(1), Duration.ofMinutes(10)));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.get("a", () -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", cache.get("a", () -> "v" + loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+        // Stale value returned, reload runs on the (direct) refresh executor
+        assertEquals("v1", cache.get("a", () -> "v" + loads.incrementAndGet()));
+        assertEquals("v2", cache.get("a", () -> "v" + loads.incrementAndGet()));
+        assertEquals(1, cache.getStats().getRefreshCount());
+    }
+
+    @Test
+    @DisplayName("null results are not cached")
+    void testNullNotCached() {
+        PolicyCache cache = cache(policy(100L, null, Duration.ofHours(1), null));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.get("a", () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        cache.put("b", null);
+
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(0, cache.getStats().getSize());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("concurrent misses for one key share a single load")
+    void testSingleFlight() throws Exception {
+        PolicyCache cache = cache(policy(100L, null, Duration.ofHours(1), null));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.get("hot", () -> {
+                    loads.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "value";
+                })));
+            }
+
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("stats report hits and misses")
+    void testStats() {
+        PolicyCache cache = cache(policy(100L, null, Duration.ofHours(1), null));
+        cache.put("a", "1");
+
+        cache.get("a");
+        cache.get("a");
+        cache.get("missing");
+
+        CacheStatsResponse stats = cache.getStats();
+        assertEquals("test", stats.getName());
+        assertEquals(2, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals("PT1H", stats.getTtl());
+    }
+
+    @Test
+    @DisplayName("a load through get(key, loader) counts as one miss")
+    void testLoadCountsOneMiss() {
+        PolicyCache cache = cache(policy(100L, null, Duration.ofHours(1), null));
+
+        assertEquals("1", cache.get("a", () -> "1"));
+        assertEquals("1", cache.get("a", () -> "2"));
+
+        CacheStatsResponse stats = cache.getStats();
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getHitCount());
+    }
+}
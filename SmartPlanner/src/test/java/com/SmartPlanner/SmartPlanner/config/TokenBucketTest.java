@@ -0,0 +1,90 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for TokenBucket
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    @DisplayName("Burst is served immediately, then callers are queued one interval apart")
+    void testBurstThenQueue() {
+        TokenBucket bucket = new TokenBucket(1, 2, 5, clock::get);
+
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(SECOND, bucket.reserve());
+        assertEquals(2 * SECOND, bucket.reserve());
+        assertEquals(2, bucket.queued());
+    }
+
+    @Test
+    @DisplayName("Full queue rejects immediately")
+    void testRejectWhenQueueFull() {
+        TokenBucket bucket = new TokenBucket(1, 1, 2, clock::get);
+
+        assertEquals(0, bucket.reserve());
+        assertTrue(bucket.reserve() > 0);
+        assertTrue(bucket.reserve() > 0);
+        assertEquals(-1, bucket.reserve());
+        assertFalse(bucket.acquire());
+    }
+
+    @Test
+    @DisplayName("Tokens refill over time up to the burst size")
+    void testRefill() {
+        TokenBucket bucket = new TokenBucket(2, 2, 0, clock::get);
+
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(-1, bucket.reserve());
+
+        clock.addAndGet(SECOND / 2);
+        assertEquals(0, bucket.reserve());
+        assertEquals(-1, bucket.reserve());
+
+        clock.addAndGet(10 * SECOND);
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(-1, bucket.reserve());
+    }
+
+    @Test
+    @DisplayName("Queued callers drain as time passes")
+    void testQueueDrains() {
+        TokenBucket bucket = new TokenBucket(1, 1, 1, clock::get);
+
+        assertEquals(0, bucket.reserve());
+        assertEquals(SECOND, bucket.reserve());
+        assertEquals(-1, bucket.reserve());
+
+        clock.addAndGet(SECOND);
+        assertEquals(0, bucket.queued());
+        assertEquals(SECOND, bucket.reserve());
+    }
+
+    @Test
+    @DisplayName("An interrupted wait gives its reserved token back")
+    void testInterruptedAcquireRefunds() {
+        TokenBucket bucket = new TokenBucket(1, 1, 1, clock::get);
+        assertEquals(0, bucket.reserve());
+
+        Thread.currentThread().interrupt();
+        assertFalse(bucket.acquire());
+        assertTrue(Thread.interrupted());
+
+        assertEquals(0, bucket.queued());
+        assertEquals(SECOND, bucket.reserve());
+    }
+}
@@ -0,0 +1,117 @@
+package com.SmartPlanner.SmartPlanner.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for UpstreamExecutor
+ */
+class UpstreamExecutorTest {
+
+    private UpstreamExecutor executor;
+
+    private UpstreamExecutor executor(String mode, int poolSize, int queueCapacity) {
+        executor = new UpstreamExecutor();
+        ReflectionTestUtils.setField(executor, "mode", mode);
+        ReflectionTestUtils.setField(executor, "mapsPoolSize", poolSize);
+        ReflectionTestUtils.setField(executor, "weatherPoolSize", poolSize);
+        ReflectionTestUtils.setField(executor, "queueCapacity", queueCapacity);
+        executor.init();
+        return executor;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Sync mode - runs on the caller thread")
+    void testSyncMode() {
+        UpstreamExecutor sync = executor("sync", 1, 1);
+        Thread caller = Thread.currentThread();
+
+        CompletableFuture<Thread> future = sync.submit(UpstreamExecutor.MAPS, Thread::currentThread);
+
+        assertTrue(future.isDone());
+        assertSame(caller, future.join());
+    }
+
+    @Test
+    @DisplayName("Async mode - runs on the lane's pool")
+    void testAsyncMode() throws Exception {
+        UpstreamExecutor async = executor("async", 2, 10);
+
+        String thread = async.submit(UpstreamExecutor.WEATHER, () -> Thread.currentThread().getName())
+                .get(5, TimeUnit.SECONDS);
+
+        assertTrue(thread.startsWith("upstream-weather-"));
+        assertEquals("async", async.getMode());
+    }
+
+    @Test
+    @DisplayName("Async mode - call failures complete the future exceptionally")
+    void testAsyncModeFailure() {
+        UpstreamExecutor async = executor("async", 1, 1);
+
+        CompletableFuture<Object> future = async.submit(UpstreamExecutor.MAPS, () -> {
+            throw new RuntimeException("Nominatim down");
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals("Nominatim down", e.getCause().getMessage());
+    }
+
+    @Test
+    @DisplayName("Async mode - full lane rejects with 503 and leaves other lanes alone")
+    void testSaturatedLane() throws Exception {
+        UpstreamExecutor async = executor("async", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        async.submit(UpstreamExecutor.MAPS, () -> {
+            started.countDown();
+            await(release);
+            return "slow";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        async.submit(UpstreamExecutor.MAPS, () -> "queued");
+
+        CompletableFuture<String> rejected = async.submit(UpstreamExecutor.MAPS, () -> "rejected");
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((ResponseStatusException) e.getCause()).getStatusCode());
+
+        assertEquals("weather", async.submit(UpstreamExecutor.WEATHER, () -> "weather").get(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Virtual mode - falls back to pools on runtimes without virtual threads")
+    void testVirtualMode() throws Exception {
+        UpstreamExecutor virtual = executor("virtual", 1, 1);
+
+        assertTrue(Runtime.version().feature() >= 21 ? "virtual".equals(virtual.getMode()) : "async".equals(virtual.getMode()));
+        assertEquals("ok", virtual.submit(UpstreamExecutor.MAPS, () -> "ok").get(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.SmartPlanner.SmartPlanner.controller;
 
 import com.SmartPlanner.SmartPlanner.dto.CityRequest;
+import com.SmartPlanner.SmartPlanner.dto.CursorPage;
+import com.SmartPlanner.SmartPlanner.dto.WeatherRefreshJobResponse;
 import com.SmartPlanner.SmartPlanner.model.City;
 import com.SmartPlanner.SmartPlanner.security.JwtUtil;
 import com.SmartPlanner.SmartPlanner.service.CityService;
+import com.SmartPlanner.SmartPlanner.service.CursorPageService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,13 +18,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -99,6 +106,50 @@ class CityControllerTest {
         verify(cityService).getAllCities();
     }
 
+    @Test
+    @DisplayName("GET /api/v1/cities?limit=1&after=city100 - Keyset page of cities")
+    void testGetCitiesPage() throws Exception {
+        CursorPage<City> page = CursorPage.<City>builder()
+                .items(List.of(testCity))
+                .limit(1)
+                .hasMore(true)
+                .nextCursor("city123")
+                .build();
+        when(cityService.getCitiesPage("city100", 1)).thenReturn(page);
+
+        mockMvc.perform(get("/api/v1/cities")
+                        .param("after", "city100")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value("city123"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("city123"));
+
+        verify(cityService, never()).getAllCities();
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/cities as NDJSON - Streams one city per line")
+    void testStreamCities() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"id\":\"city123\"}\n{\"id\":\"city456\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(cityService).streamCities(isNull(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/cities")
+                        .accept(CursorPageService.NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CursorPageService.NDJSON))
+                .andExpect(content().string("{\"id\":\"city123\"}\n{\"id\":\"city456\"}\n"));
+
+        verify(cityService, never()).getAllCities();
+    }
+
     @Test
     @DisplayName("GET /api/v1/cities/{id} - Get city by ID - Success")
     void testGetCityById_Success() throws Exception {
@@ -277,18 +328,53 @@ class CityControllerTest {
     }
 
     @Test
-    @DisplayName("POST /api/v1/admin/cities/refresh-all-weather - Refresh all weather")
+    @DisplayName("POST /api/v1/admin/cities/refresh-all-weather - Start refresh job")
     void testRefreshAllWeather() throws Exception {
-        List<City> cities = Arrays.asList(testCity);
-        when(cityService.refreshAllWeather()).thenReturn(cities);
+        WeatherRefreshJobResponse job = WeatherRefreshJobResponse.builder()
+                .jobId("job123")
+                .status("RUNNING")
+                .build();
+        when(cityService.refreshAllWeather()).thenReturn(job);
 
         mockMvc.perform(post("/api/v1/admin/cities/refresh-all-weather"))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value("city123"));
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job123"))
+                .andExpect(jsonPath("$.status").value("RUNNING"));
 
         verify(cityService).refreshAllWeather();
     }
 
+    @Test
+    @DisplayName("GET /api/v1/admin/cities/refresh-all-weather/{jobId} - Job progress")
+    void testGetWeatherRefreshJob() throws Exception {
+        WeatherRefreshJobResponse job = WeatherRefreshJobResponse.builder()
+                .jobId("job123")
+                .status("COMPLETED")
+                .totalCities(2)
+                .processed(2)
+                .updated(1)
+                .failed(1)
+                .failures(List.of(new WeatherRefreshJobResponse.CityFailure("city456", "Lahore", "No weather data returned")))
+                .build();
+        when(cityService.getWeatherRefreshJob("job123")).thenReturn(job);
+
+        mockMvc.perform(get("/api/v1/admin/cities/refresh-all-weather/job123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(2))
+                .andExpect(jsonPath("$.failures[0].cityName").value("Lahore"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/admin/cities/refresh-all-weather/{jobId} - Unknown job")
+    void testGetWeatherRefreshJob_NotFound() throws Exception {
+        when(cityService.getWeatherRefreshJob("invalid"))
+                .thenThrow(new RuntimeException("Weather refresh job not found with id: invalid"));
+
+        mockMvc.perform(get("/api/v1/admin/cities/refresh-all-weather/invalid"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Weather refresh job not found with id: invalid"));
+    }
+
     @Test
     @DisplayName("POST /api/v1/admin/countries/{countryId}/cities/seed - Seed cities - Success")
     void testSeedCities_Success() throws Exception {
@@ -5,6 +5,7 @@ import com.SmartPlanner.SmartPlanner.dto.FullCountryRequest;
 import com.SmartPlanner.SmartPlanner.dto.FullCountryResponse;
 import com.SmartPlanner.SmartPlanner.model.Country;
 import com.SmartPlanner.SmartPlanner.security.JwtUtil;
+import com.SmartPlanner.SmartPlanner.service.CatalogSnapshotService;
 import com.SmartPlanner.SmartPlanner.service.CountryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -124,16 +125,45 @@ class CountryControllerTest {
     @Test
     @DisplayName("GET /api/v1/countries/full - Get all countries with cities and activities")
     void testGetAllCountriesWithCitiesAndActivities() throws Exception {
-        List<FullCountryResponse> responses = Arrays.asList(fullCountryResponse);
-        when(countryService.getAllCountriesWithCitiesAndActivities()).thenReturn(responses);
+        byte[] json = objectMapper.writeValueAsBytes(Arrays.asList(fullCountryResponse));
+        when(countryService.getFullCatalog()).thenReturn(new CatalogSnapshotService.Snapshot(
+                Arrays.asList(fullCountryResponse), json, "\"v1\"", LocalDateTime.now()));
 
         mockMvc.perform(get("/api/v1/countries/full"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v1\""))
                 .andExpect(jsonPath("$[0].id").value("country123"))
                 .andExpect(jsonPath("$[0].name").value("United Arab Emirates"))
                 .andExpect(jsonPath("$[0].cities[0].name").value("Dubai"));
 
-        verify(countryService).getAllCountriesWithCitiesAndActivities();
+        verify(countryService).getFullCatalog();
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/countries/full - Matching If-None-Match returns 304")
+    void testGetAllCountriesWithCitiesAndActivities_NotModified() throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(Arrays.asList(fullCountryResponse));
+        when(countryService.getFullCatalog()).thenReturn(new CatalogSnapshotService.Snapshot(
+                Arrays.asList(fullCountryResponse), json, "\"v1\"", LocalDateTime.now()));
+
+        mockMvc.perform(get("/api/v1/countries/full").header("If-None-Match", "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/countries/full - ETag lists, * and weak ETags in If-None-Match return 304")
+    void testGetAllCountriesWithCitiesAndActivities_NotModifiedHeaderForms() throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(Arrays.asList(fullCountryResponse));
+        when(countryService.getFullCatalog()).thenReturn(new CatalogSnapshotService.Snapshot(
+                Arrays.asList(fullCountryResponse), json, "\"v1\"", LocalDateTime.now()));
+
+        for (String ifNoneMatch : List.of("\"v0\", \"v1\"", "*", "W/\"v1\"")) {
+            mockMvc.perform(get("/api/v1/countries/full").header("If-None-Match", ifNoneMatch))
+                    .andExpect(status().isNotModified());
+        }
+        mockMvc.perform(get("/api/v1/countries/full").header("If-None-Match", "\"v0\""))
+                .andExpect(status().isOk());
     }
 
     @Test
@@ -1,6 +1,8 @@
 package com.SmartPlanner.SmartPlanner.controller;
 
+import com.SmartPlanner.SmartPlanner.dto.ActivityPageResponse;
 import com.SmartPlanner.SmartPlanner.dto.SearchResponse;
+import com.SmartPlanner.SmartPlanner.dto.SuggestResponse;
 import com.SmartPlanner.SmartPlanner.model.City;
 import com.SmartPlanner.SmartPlanner.security.JwtUtil;
 import com.SmartPlanner.SmartPlanner.service.SearchService;
@@ -17,6 +19,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -97,7 +100,7 @@ class SearchControllerTest {
     @Test
     @DisplayName("GET /api/v1/search?q=dubai - Search all - Success")
     void testSearch_Success() throws Exception {
-        when(searchService.search("dubai")).thenReturn(searchResponse);
+        when(searchService.search("dubai", null, 0, 20, SearchService.View.FULL)).thenReturn(searchResponse);
 
         mockMvc.perform(get("/api/v1/search")
                         .param("q", "dubai"))
@@ -107,7 +110,7 @@ class SearchControllerTest {
                 .andExpect(jsonPath("$.results[0].type").value("COUNTRY"))
                 .andExpect(jsonPath("$.results[1].type").value("CITY"));
 
-        verify(searchService).search("dubai");
+        verify(searchService).search("dubai", null, 0, 20, SearchService.View.FULL);
     }
 
     @Test
@@ -118,7 +121,7 @@ class SearchControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Search query is required"));
 
-        verify(searchService, never()).search(any());
+        verify(searchService, never()).search(any(), any(), anyInt(), anyInt(), any());
     }
 
     @Test
@@ -129,7 +132,7 @@ class SearchControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Search query is required"));
 
-        verify(searchService, never()).search(any());
+        verify(searchService, never()).search(any(), any(), anyInt(), anyInt(), any());
     }
 
     @Test
@@ -141,7 +144,7 @@ class SearchControllerTest {
                 .results(Collections.emptyList())
                 .build();
 
-        when(searchService.search("xyz")).thenReturn(emptyResponse);
+        when(searchService.search("xyz", null, 0, 20, SearchService.View.FULL)).thenReturn(emptyResponse);
 
         mockMvc.perform(get("/api/v1/search")
                         .param("q", "xyz"))
@@ -150,7 +153,103 @@ class SearchControllerTest {
                 .andExpect(jsonPath("$.totalResults").value(0))
                 .andExpect(jsonPath("$.results").isEmpty());
 
-        verify(searchService).search("xyz");
+        verify(searchService).search("xyz", null, 0, 20, SearchService.View.FULL);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/search?q=beach&types=ACTIVITY&page=1&size=5 - Search with type filter and paging")
+    void testSearch_TypesAndPaging() throws Exception {
+        SearchResponse pagedResponse = SearchResponse.builder()
+                .query("beach")
+                .totalResults(12)
+                .page(1)
+                .size(5)
+                .hasMore(true)
+                .results(Collections.emptyList())
+                .build();
+
+        when(searchService.search("beach", List.of("ACTIVITY"), 1, 5, SearchService.View.FULL)).thenReturn(pagedResponse);
+
+        mockMvc.perform(get("/api/v1/search")
+                        .param("q", "beach")
+                        .param("types", "ACTIVITY")
+                        .param("page", "1")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalResults").value(12))
+                .andExpect(jsonPath("$.page").value(1))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/search?q=dubai&view=summary - Summary view with activity counts")
+    void testSearch_SummaryView() throws Exception {
+        SearchResponse summaryResponse = SearchResponse.builder()
+                .query("dubai")
+                .totalResults(1)
+                .results(List.of(SearchResponse.SearchResult.builder()
+                        .type("CITY")
+                        .id("city123")
+                        .name("Dubai")
+                        .activityCount(42)
+                        .build()))
+                .build();
+
+        when(searchService.search("dubai", null, 0, 20, SearchService.View.SUMMARY)).thenReturn(summaryResponse);
+
+        mockMvc.perform(get("/api/v1/search")
+                        .param("q", "dubai")
+                        .param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].activityCount").value(42))
+                .andExpect(jsonPath("$.results[0].activities").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/search?q=dubai&view=tiny - Unknown view")
+    void testSearch_UnknownView() throws Exception {
+        mockMvc.perform(get("/api/v1/search")
+                        .param("q", "dubai")
+                        .param("view", "tiny"))
+                .andExpect(status().isBadRequest());
+
+        verify(searchService, never()).search(any(), any(), anyInt(), anyInt(), any());
+    }
+
+    // ==================== CITY ACTIVITIES ====================
+
+    @Test
+    @DisplayName("GET /api/v1/search/cities/city123/activities - Paged activities of a city")
+    void testGetCityActivities_Success() throws Exception {
+        ActivityPageResponse page = ActivityPageResponse.builder()
+                .cityId("city123")
+                .page(1)
+                .size(10)
+                .totalActivities(25)
+                .hasMore(true)
+                .activities(List.of(SearchResponse.ActivityInfo.builder().id("act123").name("Desert Safari").build()))
+                .build();
+
+        when(searchService.getCityActivities("city123", 1, 10)).thenReturn(page);
+
+        mockMvc.perform(get("/api/v1/search/cities/city123/activities")
+                        .param("page", "1")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalActivities").value(25))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.activities[0].name").value("Desert Safari"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/search/cities/unknown/activities - City not found")
+    void testGetCityActivities_NotFound() throws Exception {
+        when(searchService.getCityActivities("unknown", 0, 20))
+                .thenThrow(new RuntimeException("City not found with id: unknown"));
+
+        mockMvc.perform(get("/api/v1/search/cities/unknown/activities"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("City not found with id: unknown"));
     }
 
     // ==================== SEARCH CITIES ONLY ====================
@@ -164,7 +263,7 @@ class SearchControllerTest {
                 .results(Arrays.asList(cityResult))
                 .build();
 
-        when(searchService.searchCities("dubai")).thenReturn(cityOnlyResponse);
+        when(searchService.searchCities("dubai", SearchService.View.FULL)).thenReturn(cityOnlyResponse);
 
         mockMvc.perform(get("/api/v1/search/cities")
                         .param("q", "dubai"))
@@ -174,7 +273,7 @@ class SearchControllerTest {
                 .andExpect(jsonPath("$.results[0].type").value("CITY"))
                 .andExpect(jsonPath("$.results[0].name").value("Dubai"));
 
-        verify(searchService).searchCities("dubai");
+        verify(searchService).searchCities("dubai", SearchService.View.FULL);
     }
 
     @Test
@@ -185,7 +284,7 @@ class SearchControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Search query is required"));
 
-        verify(searchService, never()).searchCities(any());
+        verify(searchService, never()).searchCities(any(), any());
     }
 
     @Test
@@ -197,14 +296,41 @@ class SearchControllerTest {
                 .results(Collections.emptyList())
                 .build();
 
-        when(searchService.searchCities("xyz")).thenReturn(emptyResponse);
+        when(searchService.searchCities("xyz", SearchService.View.FULL)).thenReturn(emptyResponse);
 
         mockMvc.perform(get("/api/v1/search/cities")
                         .param("q", "xyz"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.totalResults").value(0));
 
-        verify(searchService).searchCities("xyz");
+        verify(searchService).searchCities("xyz", SearchService.View.FULL);
+    }
+
+    // ==================== SUGGEST ====================
+
+    @Test
+    @DisplayName("GET /api/v1/search/suggest?q=dub - Typeahead suggestions")
+    void testSuggest_Success() throws Exception {
+        SuggestResponse response = SuggestResponse.builder()
+                .query("dub")
+                .suggestions(List.of(SuggestResponse.Suggestion.builder()
+                        .type("CITY")
+                        .id("city123")
+                        .label("Dubai")
+                        .build()))
+                .build();
+
+        when(searchService.suggest("dub", null, 5)).thenReturn(response);
+
+        mockMvc.perform(get("/api/v1/search/suggest")
+                        .param("q", " dub")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.suggestions.length()").value(1))
+                .andExpect(jsonPath("$.suggestions[0].id").value("city123"))
+                .andExpect(jsonPath("$.suggestions[0].label").value("Dubai"));
+
+        verify(searchService).suggest("dub", null, 5);
     }
 
     // ==================== GET CITY WITH WEATHER ====================
@@ -1,5 +1,6 @@
 package com.SmartPlanner.SmartPlanner.controller;
 
+import com.SmartPlanner.SmartPlanner.config.UpstreamExecutor;
 import com.SmartPlanner.SmartPlanner.dto.PackingSuggestionsResponse;
 import com.SmartPlanner.SmartPlanner.dto.WeatherAlertsResponse;
 import com.SmartPlanner.SmartPlanner.dto.WeatherResponse;
@@ -15,15 +16,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -38,6 +44,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
                 SecurityFilterAutoConfiguration.class
         }
 )
+@Import(UpstreamExecutor.class)
 class WeatherControllerTest {
 
     @Autowired
@@ -144,7 +151,7 @@ class WeatherControllerTest {
         when(weatherService.getWeatherByCityId(anyString()))
                 .thenReturn(weatherResponse);
 
-        mockMvc.perform(get("/api/weather/city/1174872")
+        performAsync(get("/api/weather/city/1174872")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -159,7 +166,7 @@ class WeatherControllerTest {
         when(weatherService.getWeatherByCityName(anyString()))
                 .thenReturn(weatherResponse);
 
-        mockMvc.perform(get("/api/weather/city/name/Karachi")
+        performAsync(get("/api/weather/city/name/Karachi")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -173,7 +180,7 @@ class WeatherControllerTest {
         when(weatherService.getWeatherByCoordinates(anyDouble(), anyDouble(), anyString()))
                 .thenReturn(weatherResponse);
 
-        mockMvc.perform(get("/api/weather/coordinates")
+        performAsync(get("/api/weather/coordinates")
                         .param("lat", "24.8607")
                         .param("lon", "67.0011")
                         .param("cityName", "Karachi")
@@ -203,7 +210,7 @@ class WeatherControllerTest {
         when(weatherService.getWeatherByCoordinates(anyDouble(), anyDouble(), eq("Unknown")))
                 .thenReturn(unknownCityResponse);
 
-        mockMvc.perform(get("/api/weather/coordinates")
+        performAsync(get("/api/weather/coordinates")
                         .param("lat", "24.8607")
                         .param("lon", "67.0011")
                         .accept(MediaType.APPLICATION_JSON))
@@ -218,7 +225,7 @@ class WeatherControllerTest {
         when(weatherAlertService.getAlertsByCityId(anyString()))
                 .thenReturn(alertsResponse);
 
-        mockMvc.perform(get("/api/weather/alerts/city/1174872")
+        performAsync(get("/api/weather/alerts/city/1174872")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -232,7 +239,7 @@ class WeatherControllerTest {
         when(weatherAlertService.getAlertsByCoordinates(anyDouble(), anyDouble(), anyString()))
                 .thenReturn(alertsResponse);
 
-        mockMvc.perform(get("/api/weather/alerts/coordinates")
+        performAsync(get("/api/weather/alerts/coordinates")
                         .param("lat", "24.8607")
                         .param("lon", "67.0011")
                         .param("cityName", "Karachi")
@@ -249,7 +256,7 @@ class WeatherControllerTest {
         when(packingSuggestionService.getPackingSuggestionsByCityId(anyString()))
                 .thenReturn(packingResponse);
 
-        mockMvc.perform(get("/api/weather/packing/city/1174872")
+        performAsync(get("/api/weather/packing/city/1174872")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -266,7 +273,7 @@ class WeatherControllerTest {
                 anyDouble(), anyDouble(), anyString(), anyString()))
                 .thenReturn(packingResponse);
 
-        mockMvc.perform(get("/api/weather/packing/coordinates")
+        performAsync(get("/api/weather/packing/coordinates")
                         .param("lat", "24.8607")
                         .param("lon", "67.0011")
                         .param("cityName", "Karachi")
@@ -285,7 +292,7 @@ class WeatherControllerTest {
                 anyDouble(), anyDouble(), anyString(), eq("")))
                 .thenReturn(packingResponse);
 
-        mockMvc.perform(get("/api/weather/packing/coordinates")
+        performAsync(get("/api/weather/packing/coordinates")
                         .param("lat", "24.8607")
                         .param("lon", "67.0011")
                         .param("cityName", "Karachi")
@@ -313,4 +320,12 @@ class WeatherControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
+
+    // Weather endpoints complete asynchronously, the response is written on the async dispatch
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }
\ No newline at end of file
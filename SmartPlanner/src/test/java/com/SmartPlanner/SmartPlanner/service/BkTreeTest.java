@@ -0,0 +1,39 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for BkTree
+ */
+class BkTreeTest {
+
+    private static Map<String, Integer> within(BkTree tree, String term, int maxEdits) {
+        Map<String, Integer> found = new TreeMap<>();
+        tree.search(term, maxEdits, found::put);
+        return found;
+    }
+
+    @Test
+    @DisplayName("Finds exactly the terms within the edit limit, each once")
+    void testSearch() {
+        BkTree tree = new BkTree();
+        for (String term : new String[] {"karachi", "karachy", "lahore", "lahor", "zurich", "zurick", "karachi"}) {
+            tree.add(term);
+        }
+
+        assertEquals(6, tree.size());
+        assertEquals(Map.of("karachi", 0, "karachy", 1), within(tree, "karachi", 1));
+        assertEquals(Map.of("karachi", 1, "karachy", 1), within(tree, "karach", 1));
+        assertEquals(Map.of("lahore", 1, "lahor", 1), within(tree, "lahora", 1));
+        assertEquals(Map.of("lahore", 2, "lahor", 1), within(tree, "laho", 2));
+        assertEquals(Map.of("zurich", 1, "zurick", 2), within(tree, "zurih", 2));
+        assertTrue(within(tree, "quetta", 2).isEmpty());
+        assertTrue(within(new BkTree(), "quetta", 2).isEmpty());
+    }
+}
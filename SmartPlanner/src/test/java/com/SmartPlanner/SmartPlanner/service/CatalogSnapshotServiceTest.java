@@ -0,0 +1,304 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.FullCountryResponse;
+import com.SmartPlanner.SmartPlanner.model.CatalogSnapshot;
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.model.Country;
+import com.SmartPlanner.SmartPlanner.repository.CategoryRepository;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import com.SmartPlanner.SmartPlanner.repository.CountryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Service Test for CatalogSnapshotService
+ * Counts repository round trips to make sure the full catalog read path does not fan out per country/city,
+ * and that admin writes patch the snapshot without going back to Mongo
+ */
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotServiceTest {
+
+    @Mock
+    private CountryRepository countryRepository;
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private CatalogSnapshotService catalogSnapshotService;
+
+    private List<Country> countries;
+    private List<City> cities;
+    private List<Category> activities;
+
+    @BeforeEach
+    void setUp() {
+        countries = new ArrayList<>();
+        cities = new ArrayList<>();
+        activities = new ArrayList<>();
+
+        for (int c = 0; c < 5; c++) {
+            Country country = new Country();
+            country.setId("country" + c);
+            country.setName("Country " + c);
+            country.setCode("C" + c);
+            countries.add(country);
+
+            for (int i = 0; i < 4; i++) {
+                City city = new City();
+                city.setId("city" + c + "-" + i);
+                city.setCountryId(country.getId());
+                city.setName("City " + c + "-" + i);
+                city.setLatitude(10.0 + c);
+                city.setLongitude(20.0 + i);
+                cities.add(city);
+
+                for (int a = 0; a < 3; a++) {
+                    activities.add(new Category("act" + c + "-" + i + "-" + a, "Activity " + a, "desc",
+                            city.getId(), new BigDecimal("10.00"), new BigDecimal("50.00"),
+                            "/images/a.jpg", 10.0, 20.0, null, true));
+                }
+            }
+        }
+    }
+
+    private void stubFullCatalog() {
+        when(countryRepository.findByIsActiveTrue()).thenReturn(countries);
+        when(cityRepository.findByCountryIdInAndIsActiveTrue(anyCollection())).thenReturn(cities);
+        when(categoryRepository.findByCityIdInAndIsActiveTrue(anyCollection())).thenReturn(activities);
+    }
+
+    @Test
+    @DisplayName("getSnapshot - one query per level, no per-entity fan-out")
+    void testGetSnapshot_BatchedQueries() {
+        stubFullCatalog();
+
+        List<FullCountryResponse> result = catalogSnapshotService.getSnapshot().countries();
+
+        assertEquals(5, result.size());
+        for (int c = 0; c < 5; c++) {
+            FullCountryResponse country = result.get(c);
+            assertEquals("country" + c, country.getId());
+            assertEquals(4, country.getCities().size());
+            assertEquals("city" + c + "-0", country.getCities().get(0).getId());
+            country.getCities().forEach(city -> assertEquals(3, city.getActivities().size()));
+        }
+
+        verify(countryRepository, times(1)).findByIsActiveTrue();
+        verify(cityRepository, times(1)).findByCountryIdInAndIsActiveTrue(anyCollection());
+        verify(categoryRepository, times(1)).findByCityIdInAndIsActiveTrue(anyCollection());
+        verify(cityRepository, never()).findByCountryIdAndIsActiveTrue(anyString());
+        verify(categoryRepository, never()).findByCityIdAndIsActiveTrue(anyString());
+        verifyNoMoreInteractions(countryRepository, cityRepository, categoryRepository);
+    }
+
+    @Test
+    @DisplayName("getSnapshot - repeated reads are served without touching Mongo")
+    void testGetSnapshot_ServedFromMemory() throws Exception {
+        stubFullCatalog();
+
+        CatalogSnapshotService.Snapshot first = catalogSnapshotService.getSnapshot();
+        CatalogSnapshotService.Snapshot second = catalogSnapshotService.getSnapshot();
+
+        assertSame(first, second);
+        assertArrayEquals(objectMapper.writeValueAsBytes(first.countries()), first.json());
+        assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("\""));
+        verify(countryRepository, times(1)).findByIsActiveTrue();
+    }
+
+    @Test
+    @DisplayName("getSnapshot - countries without cities keep an empty list")
+    void testGetSnapshot_NoCities() {
+        when(countryRepository.findByIsActiveTrue()).thenReturn(Arrays.asList(countries.get(0)));
+        when(cityRepository.findByCountryIdInAndIsActiveTrue(anyCollection())).thenReturn(List.of());
+
+        List<FullCountryResponse> result = catalogSnapshotService.getSnapshot().countries();
+
+        assertEquals(1, result.size());
+        assertTrue(result.get(0).getCities().isEmpty());
+        verify(categoryRepository, never()).findByCityIdInAndIsActiveTrue(anyCollection());
+    }
+
+    @Test
+    @DisplayName("activityChanged - patches the city in place and changes the ETag")
+    void testActivityChanged_UpdatesSnapshot() throws Exception {
+        stubFullCatalog();
+        CatalogSnapshotService.Snapshot before = catalogSnapshotService.getSnapshot();
+
+        Category added = new Category("new-act", "Kayaking", "Paddle", "city2-1",
+                new BigDecimal("20.00"), new BigDecimal("80.00"), null, null, null, null, true);
+        catalogSnapshotService.activityChanged(added);
+
+        CatalogSnapshotService.Snapshot after = catalogSnapshotService.getSnapshot();
+        FullCountryResponse.CityWithActivities city = after.countries().get(2).getCities().get(1);
+
+        assertNotEquals(before.etag(), after.etag());
+        assertEquals(4, city.getActivities().size());
+        assertEquals("Kayaking", city.getActivities().get(3).getName());
+        assertEquals(3, before.countries().get(2).getCities().get(1).getActivities().size());
+        assertArrayEquals(objectMapper.writeValueAsBytes(after.countries()), after.json());
+        verifyNoMoreInteractions(categoryRepository);
+    }
+
+    @Test
+    @DisplayName("activityChanged - deactivated activity is dropped from the snapshot")
+    void testActivityChanged_Deactivated() {
+        stubFullCatalog();
+        catalogSnapshotService.getSnapshot();
+
+        Category toggled = activities.get(0);
+        toggled.setIsActive(false);
+        catalogSnapshotService.activityChanged(toggled);
+
+        assertEquals(2, catalogSnapshotService.getSnapshot().countries().get(0)
+                .getCities().get(0).getActivities().size());
+    }
+
+    @Test
+    @DisplayName("cityChanged - moving a city between countries keeps its activities")
+    void testCityChanged_MovedCountry() {
+        stubFullCatalog();
+        catalogSnapshotService.getSnapshot();
+
+        City moved = cities.get(0);
+        moved.setCountryId("country4");
+        catalogSnapshotService.cityChanged(moved);
+
+        List<FullCountryResponse> result = catalogSnapshotService.getSnapshot().countries();
+        assertEquals(3, result.get(0).getCities().size());
+        assertEquals(5, result.get(4).getCities().size());
+        assertEquals(3, result.get(4).getCities().get(4).getActivities().size());
+        verify(categoryRepository, never()).findByCityIdAndIsActiveTrue(anyString());
+    }
+
+    @Test
+    @DisplayName("weatherChanged - a projected city only replaces the weather of its entry")
+    void testWeatherChanged_KeepsOtherFields() {
+        stubFullCatalog();
+        catalogSnapshotService.getSnapshot();
+
+        City projected = new City();
+        projected.setId("city1-2");
+        projected.setWeather(new City.CityWeather(25.0, 3.0, 40, "0", "Clear sky"));
+        catalogSnapshotService.weatherChanged(List.of(projected));
+
+        FullCountryResponse.CityWithActivities city = catalogSnapshotService.findCountry("country1").orElseThrow()
+                .getCities().get(2);
+        assertEquals("Clear sky", city.getWeather().getDescription());
+        assertEquals("City 1-2", city.getName());
+        assertEquals(3, city.getActivities().size());
+    }
+
+    @Test
+    @DisplayName("countryChanged - deactivated country is removed, cityRemoved on it is a no-op")
+    void testCountryChanged_Deactivated() {
+        stubFullCatalog();
+        catalogSnapshotService.getSnapshot();
+
+        Country country = countries.get(3);
+        country.setIsActive(false);
+        catalogSnapshotService.countryChanged(country);
+        catalogSnapshotService.cityRemoved("city3-0");
+
+        List<FullCountryResponse> result = catalogSnapshotService.getSnapshot().countries();
+        assertEquals(4, result.size());
+        assertTrue(result.stream().noneMatch(c -> c.getId().equals("country3")));
+        assertTrue(catalogSnapshotService.findCountry("country3").isEmpty());
+    }
+
+    @Test
+    @DisplayName("refresh - reloads when another node moved the version, not for this node's own writes")
+    void testRefresh_ReloadsOnRemoteChange() {
+        stubFullCatalog();
+        catalogSnapshotService.getSnapshot();
+
+        catalogSnapshotService.activityChanged(activities.get(0));
+        when(catalogVersionService.bump(CatalogSnapshotService.VERSION)).thenReturn(1L);
+        when(catalogVersionService.current(CatalogSnapshotService.VERSION)).thenReturn(1L);
+        catalogSnapshotService.refresh();
+        catalogSnapshotService.refresh();
+
+        verify(catalogVersionService, times(1)).bump(CatalogSnapshotService.VERSION);
+        verify(countryRepository, times(1)).findByIsActiveTrue();
+
+        countries.get(1).setName("Renamed elsewhere");
+        when(catalogVersionService.current(CatalogSnapshotService.VERSION)).thenReturn(2L);
+        catalogSnapshotService.refresh();
+
+        verify(countryRepository, times(2)).findByIsActiveTrue();
+        assertEquals("Renamed elsewhere", catalogSnapshotService.getSnapshot().countries().get(1).getName());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("persist - written by refresh rather than by the write, and read back only at its version")
+    void testPersist_OutsideWrites() throws Exception {
+        ReflectionTestUtils.setField(catalogSnapshotService, "persist", true);
+        CatalogSnapshot stale = new CatalogSnapshot(CatalogSnapshot.FULL_CATALOG_ID,
+                objectMapper.writeValueAsString(List.of()), "\"old\"", 3L, null);
+        when(mongoTemplate.findById(CatalogSnapshot.FULL_CATALOG_ID, CatalogSnapshot.class)).thenReturn(stale);
+        when(catalogVersionService.current(CatalogSnapshotService.VERSION)).thenReturn(4L);
+        stubFullCatalog();
+
+        assertEquals(5, catalogSnapshotService.getSnapshot().countries().size());
+        catalogSnapshotService.activityChanged(activities.get(0));
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(CatalogSnapshot.class));
+
+        when(catalogVersionService.bump(CatalogSnapshotService.VERSION)).thenReturn(5L);
+        when(catalogVersionService.current(CatalogSnapshotService.VERSION)).thenReturn(5L);
+        catalogSnapshotService.refresh();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).upsert(any(Query.class), update.capture(), eq(CatalogSnapshot.class));
+        assertEquals(5L, update.getValue().getUpdateObject().get("$set", org.bson.Document.class).get("version"));
+
+        catalogSnapshotService.refresh();
+        verify(mongoTemplate, times(1)).upsert(any(Query.class), any(Update.class), eq(CatalogSnapshot.class));
+    }
+
+    @Test
+    @DisplayName("writes before the first read do not touch Mongo")
+    void testWritesBeforeLoad_AreIgnored() {
+        catalogSnapshotService.activityChanged(activities.get(0));
+        catalogSnapshotService.countryRemoved("country0");
+
+        verifyNoInteractions(countryRepository, cityRepository, categoryRepository, mongoTemplate);
+    }
+}
@@ -0,0 +1,170 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.config.CacheProperties;
+import com.SmartPlanner.SmartPlanner.config.PolicyCache;
+import com.SmartPlanner.SmartPlanner.dto.MapCityResponse;
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.repository.CategoryRepository;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for CityMapService
+ */
+@ExtendWith(MockitoExtension.class)
+class CityMapServiceTest {
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @InjectMocks
+    private CityMapService cityMapService;
+
+    private final List<Category> activities = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        City karachi = new City();
+        karachi.setId("karachi");
+        karachi.setName("Karachi");
+        karachi.setLatitude(24.8607);
+        karachi.setLongitude(67.0011);
+
+        // 2000 activities spread over roughly 20 x 20 km around the city centre
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            activities.add(activity("a" + i, 24.77 + random.nextDouble() * 0.18, 66.91 + random.nextDouble() * 0.18));
+        }
+        activities.add(activity("no-coords", null, null));
+
+        lenient().when(cityRepository.findById("karachi")).thenReturn(Optional.of(karachi));
+        lenient().when(categoryRepository.findByCityIdAndIsActiveTrue("karachi")).thenReturn(activities);
+    }
+
+    private Category activity(String id, Double lat, Double lon) {
+        Category activity = new Category();
+        activity.setId(id);
+        activity.setName(id);
+        activity.setCityId("karachi");
+        activity.setLatitude(lat);
+        activity.setLongitude(lon);
+        activity.setIsActive(true);
+        return activity;
+    }
+
+    private int counted(MapCityResponse response) {
+        return response.getMarkers().stream().mapToInt(MapCityResponse.MapMarker::getCount).sum();
+    }
+
+    @Test
+    @DisplayName("Whole city - fit zoom, bounding box around all activities, tens of clusters")
+    void testWholeCityClustered() {
+        MapCityResponse response = cityMapService.getCityMap("karachi", null, null, null);
+
+        assertEquals("Karachi", response.getCityName());
+        assertEquals(24.8607, response.getCenter().getLatitude());
+        assertTrue(response.getBoundingBox().getSouth() < 24.77 && response.getBoundingBox().getNorth() > 24.95);
+        assertTrue(response.getBoundingBox().getWest() < 66.91 && response.getBoundingBox().getEast() > 67.09);
+        assertTrue(response.getZoom() >= 11 && response.getZoom() <= 13);
+        assertNull(response.getTile());
+
+        assertEquals(2000, response.getTotalActivities());
+        assertEquals(2000, counted(response));
+        assertTrue(response.getMarkers().size() <= 150, "got " + response.getMarkers().size() + " markers");
+        assertTrue(response.getMarkers().stream().allMatch(marker -> "cluster".equals(marker.getType())));
+    }
+
+    @Test
+    @DisplayName("From the max clustering zoom up every activity is its own marker")
+    void testNoClusteringAtHighZoom() {
+        MapCityResponse response = cityMapService.getCityMap("karachi", 16, null, null);
+
+        assertEquals(2000, response.getMarkers().size());
+        MapCityResponse.MapMarker marker = response.getMarkers().get(0);
+        assertEquals("activity", marker.getType());
+        assertEquals(1, marker.getCount());
+        assertEquals(marker.getId(), marker.getCategoryId());
+    }
+
+    @Test
+    @DisplayName("Tiles partition the city: their markers add up to the whole-city view")
+    void testTilesPartitionTheCity() {
+        int zoom = 13;
+        MapCityResponse whole = cityMapService.getCityMap("karachi", zoom, null, null);
+
+        int tiles = 1 << zoom;
+        int minX = (int) (CityMapService.mercatorX(66.91) * tiles);
+        int maxX = (int) (CityMapService.mercatorX(67.09) * tiles);
+        int minY = (int) (CityMapService.mercatorY(24.95) * tiles);
+        int maxY = (int) (CityMapService.mercatorY(24.77) * tiles);
+
+        int markers = 0;
+        int activityCount = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                MapCityResponse tile = cityMapService.getCityMap("karachi", zoom, x, y);
+                assertEquals(zoom + "/" + x + "/" + y, tile.getTile());
+                markers += tile.getMarkers().size();
+                activityCount += counted(tile);
+            }
+        }
+
+        assertEquals(whole.getMarkers().size(), markers);
+        assertEquals(2000, activityCount);
+    }
+
+    @Test
+    @DisplayName("Invalid zoom/tile arguments and unknown cities are rejected")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> cityMapService.getCityMap("karachi", 23, null, null));
+        assertThrows(IllegalArgumentException.class, () -> cityMapService.getCityMap("karachi", 5, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> cityMapService.getCityMap("karachi", null, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> cityMapService.getCityMap("karachi", 2, 4, 0));
+
+        when(cityRepository.findById("missing")).thenReturn(Optional.empty());
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> cityMapService.getCityMap("missing", null, null, null));
+        assertEquals("City not found with id: missing", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("A city change evicts only that city's cached maps")
+    void testCityChangedEvictsCity() {
+        PolicyCache cache = new PolicyCache(CityMapService.CACHE_NAME, new CacheProperties.Policy(), value -> 1, Runnable::run);
+        when(cacheManager.getCache(CityMapService.CACHE_NAME)).thenReturn(cache);
+        cache.put("karachi:null:null:null", "a");
+        cache.put("karachi:12:2900:1750", "b");
+        cache.put("lahore:null:null:null", "c");
+
+        cityMapService.activityChanged(activity("x", 24.8, 67.0));
+
+        assertNull(cache.get("karachi:null:null:null"));
+        assertNull(cache.get("karachi:12:2900:1750"));
+        assertNotNull(cache.get("lahore:null:null:null"));
+
+        cityMapService.cityChanged("lahore");
+        assertNull(cache.get("lahore:null:null:null"));
+    }
+}
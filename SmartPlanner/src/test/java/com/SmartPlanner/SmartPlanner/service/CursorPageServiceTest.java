@@ -0,0 +1,108 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.CursorPage;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for CursorPageService
+ */
+@ExtendWith(MockitoExtension.class)
+class CursorPageServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private CursorPageService cursorPageService;
+
+    @BeforeEach
+    void setUp() {
+        cursorPageService = new CursorPageService(mongoTemplate, new ObjectMapper());
+    }
+
+    private static List<City> cities(int from, int count) {
+        List<City> cities = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            City city = new City();
+            city.setId("city" + i);
+            city.setName("City " + i);
+            cities.add(city);
+        }
+        return cities;
+    }
+
+    @Test
+    @DisplayName("Page asks for limit + 1 after the cursor, sorted by _id")
+    void testPageAfterCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(City.class))).thenReturn(cities(11, 3));
+
+        CursorPage<City> page = cursorPageService.page(City.class, new Query(), City::getId, "city10", 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals("city12", page.getNextCursor());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(City.class));
+        assertEquals(3, query.getValue().getLimit());
+        assertEquals("city10", query.getValue().getQueryObject().get("_id", Document.class).get("$gt"));
+        assertEquals(1, query.getValue().getSortObject().get("_id"));
+    }
+
+    @Test
+    @DisplayName("Last page has no cursor; limits are defaulted and capped; filter is kept")
+    void testLastPageAndLimits() {
+        when(mongoTemplate.find(any(Query.class), eq(City.class))).thenReturn(cities(0, 1));
+        Query active = Query.query(Criteria.where("isActive").is(true));
+
+        CursorPage<City> page = cursorPageService.page(City.class, active, City::getId, null, 1000);
+
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        assertEquals(200, page.getLimit());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(City.class));
+        assertEquals(true, query.getValue().getQueryObject().get("isActive"));
+        assertFalse(active.getQueryObject().containsKey("_id"), "caller's query is not modified");
+
+        assertEquals(50, cursorPageService.page(City.class, new Query(), City::getId, null, null).getLimit());
+        assertThrows(IllegalArgumentException.class,
+                () -> cursorPageService.page(City.class, new Query(), City::getId, null, 0));
+    }
+
+    @Test
+    @DisplayName("Stream writes one JSON document per line")
+    void testStream() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(City.class))).thenReturn(Stream.of(cities(0, 3).toArray(City[]::new)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        cursorPageService.stream(City.class, new Query(), null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("\"id\":\"city0\""));
+        assertTrue(lines[2].contains("\"name\":\"City 2\""));
+    }
+}
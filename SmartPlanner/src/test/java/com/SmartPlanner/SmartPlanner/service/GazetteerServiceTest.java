@@ -0,0 +1,167 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for GazetteerService
+ */
+@ExtendWith(MockitoExtension.class)
+class GazetteerServiceTest {
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @TempDir
+    Path tempDir;
+
+    private GazetteerService gazetteerService;
+
+    @BeforeEach
+    void setUp() {
+        gazetteerService = newService();
+    }
+
+    private GazetteerService newService() {
+        GazetteerService service = new GazetteerService(cityRepository);
+        ReflectionTestUtils.setField(service, "path", tempDir.resolve("gazetteer.idx").toString());
+        service.init();
+        return service;
+    }
+
+    private City city(String name, String country, double lat, double lon) {
+        City city = new City();
+        city.setName(name);
+        city.setCountryName(country);
+        city.setLatitude(lat);
+        city.setLongitude(lon);
+        return city;
+    }
+
+    @Test
+    @DisplayName("Normalize - case, accents and punctuation are ignored")
+    void testNormalize() {
+        assertEquals("sao paulo", GazetteerService.normalize("  São-Paulo "));
+        assertEquals("zurich switzerland", GazetteerService.normalize("Zürich, Switzerland"));
+        assertEquals("karachi", GazetteerService.normalize("KARACHI"));
+    }
+
+    @Test
+    @DisplayName("Remembered names are found before any rebuild")
+    void testRememberAndLookup() {
+        gazetteerService.remember("Lahore", new GazetteerService.Place(31.5204, 74.3587, "Lahore", "Pakistan"));
+
+        GazetteerService.Place place = gazetteerService.lookup("lahore").orElseThrow();
+        assertEquals(31.5204, place.getLatitude());
+        assertEquals("Pakistan", place.getCountry());
+        assertTrue(gazetteerService.lookup("Multan").isEmpty());
+        assertEquals(1, gazetteerService.pending());
+    }
+
+    @Test
+    @DisplayName("Rebuild - cities and learned names are persisted and reloaded from disk")
+    void testRebuildPersists() throws Exception {
+        when(cityRepository.findAll()).thenReturn(List.of(
+                city("Karachi", "Pakistan", 24.8607, 67.0011),
+                city("São Paulo", "Brazil", -23.5505, -46.6333)));
+        gazetteerService.remember("Clifton Beach, Karachi", new GazetteerService.Place(24.79, 66.96, "Clifton Beach", null));
+
+        int count = gazetteerService.rebuild(true);
+
+        // name and "name, country" per city, plus the learned name
+        assertEquals(5, count);
+        assertEquals(0, gazetteerService.pending());
+        assertTrue(Files.exists(tempDir.resolve("gazetteer.idx")));
+
+        GazetteerService reloaded = newService();
+        assertEquals(5, reloaded.size());
+        assertEquals(-23.5505, reloaded.lookup("sao paulo").orElseThrow().getLatitude());
+        assertEquals("Karachi", reloaded.lookup("Karachi, Pakistan").orElseThrow().getName());
+        assertNull(reloaded.lookup("clifton beach karachi").orElseThrow().getCountry());
+        assertTrue(reloaded.lookup("Lahore").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Rebuild keeps previously indexed names")
+    void testRebuildMerges() throws Exception {
+        gazetteerService.remember("Lahore", new GazetteerService.Place(31.5204, 74.3587, "Lahore", "Pakistan"));
+        gazetteerService.rebuild(false);
+
+        gazetteerService.remember("Quetta", new GazetteerService.Place(30.1798, 66.975, "Quetta", "Pakistan"));
+        assertEquals(2, gazetteerService.rebuild(false));
+
+        assertTrue(gazetteerService.lookup("LAHORE").isPresent());
+        assertTrue(gazetteerService.lookup("quetta").isPresent());
+        verify(cityRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Rebuild - a name of far-apart cities is left out and not learned")
+    void testAmbiguousName() throws Exception {
+        gazetteerService.remember("Paris", new GazetteerService.Place(48.8566, 2.3522, "Paris", "France"));
+        when(cityRepository.findAll()).thenReturn(List.of(
+                city("Paris", "France", 48.8566, 2.3522),
+                city("Paris", "United States", 33.6609, -95.5555)));
+
+        assertEquals(2, gazetteerService.rebuild(true));
+
+        assertTrue(gazetteerService.lookup("Paris").isEmpty());
+        assertEquals(33.6609, gazetteerService.lookup("Paris, United States").orElseThrow().getLatitude());
+        assertEquals("France", gazetteerService.lookup("paris france").orElseThrow().getCountry());
+
+        gazetteerService.remember("Paris", new GazetteerService.Place(48.8566, 2.3522, "Paris", "France"));
+        assertEquals(0, gazetteerService.pending());
+    }
+
+    @Test
+    @DisplayName("Rebuild drops learned names older than the TTL and deleted cities")
+    void testRebuildExpires() throws Exception {
+        when(cityRepository.findAll()).thenReturn(List.of(city("Karachi", "Pakistan", 24.8607, 67.0011)));
+        gazetteerService.remember("Lahore", new GazetteerService.Place(31.5204, 74.3587, "Lahore", "Pakistan"));
+        assertEquals(3, gazetteerService.rebuild(true));
+
+        ReflectionTestUtils.setField(gazetteerService, "learnedTtl", Duration.ZERO);
+        Thread.sleep(5);
+        when(cityRepository.findAll()).thenReturn(List.of());
+
+        assertEquals(0, gazetteerService.rebuild(true));
+        assertTrue(gazetteerService.lookup("Lahore").isEmpty());
+        assertTrue(gazetteerService.lookup("Karachi").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Remember stops at the pending limit")
+    void testMaxPending() {
+        ReflectionTestUtils.setField(gazetteerService, "maxPending", 1);
+        gazetteerService.remember("Lahore", new GazetteerService.Place(31.5204, 74.3587, "Lahore", "Pakistan"));
+        gazetteerService.remember("Quetta", new GazetteerService.Place(30.1798, 66.975, "Quetta", "Pakistan"));
+
+        assertEquals(1, gazetteerService.pending());
+        assertTrue(gazetteerService.lookup("Quetta").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Disabled gazetteer never answers")
+    void testDisabled() {
+        ReflectionTestUtils.setField(gazetteerService, "enabled", false);
+        gazetteerService.remember("Lahore", new GazetteerService.Place(31.5204, 74.3587, "Lahore", "Pakistan"));
+
+        assertTrue(gazetteerService.lookup("Lahore").isEmpty());
+    }
+}
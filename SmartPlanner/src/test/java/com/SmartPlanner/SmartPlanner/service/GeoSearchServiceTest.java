@@ -0,0 +1,135 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.NearbyCatalogResponse;
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for GeoSearchService
+ */
+@ExtendWith(MockitoExtension.class)
+class GeoSearchServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private GeoSearchService geoSearchService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(mongoTemplate.getCollectionName(Category.class)).thenReturn("categories");
+        lenient().when(mongoTemplate.getCollectionName(City.class)).thenReturn("cities");
+    }
+
+    private Document doc(String name, double distance) {
+        return new Document("_id", new ObjectId())
+                .append("name", name)
+                .append("cityId", "city1")
+                .append("latitude", 24.8)
+                .append("longitude", 67.0)
+                .append("distanceMeters", distance);
+    }
+
+    private void stub(String collection, Document... documents) {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(collection), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(documents), new Document()));
+    }
+
+    @Test
+    @DisplayName("Activities and cities are merged nearest first")
+    void testMergesByDistance() {
+        stub("categories", doc("Clifton Beach", 120.0), doc("Boating", 900.0));
+        stub("cities", doc("Karachi", 450.0));
+
+        NearbyCatalogResponse response = geoSearchService.findNearby(24.86, 67.0, 5000, null, null, 0, 20);
+
+        assertEquals(List.of("Clifton Beach", "Karachi", "Boating"),
+                response.getItems().stream().map(NearbyCatalogResponse.Item::getName).toList());
+        assertEquals("activity", response.getItems().get(0).getType());
+        assertEquals("city", response.getItems().get(1).getType());
+        assertEquals(response.getItems().get(1).getId(), response.getItems().get(1).getCityId());
+        assertFalse(response.isHasMore());
+    }
+
+    @Test
+    @DisplayName("Pagination - second page and hasMore")
+    void testPagination() {
+        stub("categories", doc("A", 1), doc("B", 2), doc("C", 3), doc("D", 4), doc("E", 5));
+
+        NearbyCatalogResponse response = geoSearchService.findNearby(
+                24.86, 67.0, 5000, null, List.of("activity"), 1, 2);
+
+        assertEquals(List.of("C", "D"), response.getItems().stream().map(NearbyCatalogResponse.Item::getName).toList());
+        assertTrue(response.isHasMore());
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), eq("cities"), eq(Document.class));
+    }
+
+    @Test
+    @DisplayName("Bounding box only - distances from the box centre, geoWithin in the query")
+    void testBoundingBox() {
+        stub("cities", doc("Karachi", 10));
+        NearbyCatalogResponse.BoundingBox box = new NearbyCatalogResponse.BoundingBox(25.0, 24.0, 68.0, 66.0);
+
+        NearbyCatalogResponse response = geoSearchService.findNearby(null, null, null, box, List.of("city"), 0, 10);
+
+        assertEquals(24.5, response.getCenter().getLatitude());
+        assertEquals(67.0, response.getCenter().getLongitude());
+        assertNull(response.getRadiusMeters());
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq("cities"), eq(Document.class));
+        String pipeline = aggregation.getValue().toString();
+        assertTrue(pipeline.contains("$geoNear"));
+        assertTrue(pipeline.contains("$geoWithin"));
+    }
+
+    @Test
+    @DisplayName("Radius is capped")
+    void testRadiusCapped() {
+        stub("cities");
+
+        NearbyCatalogResponse response = geoSearchService.findNearby(24.86, 67.0, 10_000_000, null, List.of("city"), 0, 10);
+
+        assertEquals(100000, response.getRadiusMeters());
+    }
+
+    @Test
+    @DisplayName("Missing centre and bounding box is rejected")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> geoSearchService.findNearby(null, null, 1000, null, null, 0, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> geoSearchService.findNearby(24.0, 67.0, 1000,
+                        new NearbyCatalogResponse.BoundingBox(24.0, 25.0, 68.0, 66.0), null, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Pages past max-results are rejected, including ones whose offset overflows an int")
+    void testDeepPageRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> geoSearchService.findNearby(24.86, 67.0, 1000, null, null, 10, 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> geoSearchService.findNearby(24.86, 67.0, 1000, null, null, Integer.MAX_VALUE, 100));
+        verifyNoInteractions(mongoTemplate);
+    }
+}
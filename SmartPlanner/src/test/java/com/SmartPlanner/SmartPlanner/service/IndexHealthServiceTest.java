@@ -0,0 +1,121 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.IndexHealthResponse;
+import com.SmartPlanner.SmartPlanner.model.Trip;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for IndexHealthService
+ */
+@ExtendWith(MockitoExtension.class)
+class IndexHealthServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private IndexHealthService indexHealthService;
+
+    private static Document explain(Document winningPlan) {
+        return new Document("queryPlanner", new Document("winningPlan", winningPlan));
+    }
+
+    private static Document indexScan(String indexName) {
+        return new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", "IXSCAN").append("indexName", indexName));
+    }
+
+    @Test
+    @DisplayName("UNKNOWN until verified, UP when every hot query uses an index")
+    void testUp() {
+        assertEquals(IndexHealthService.UNKNOWN, indexHealthService.getHealth().getStatus());
+        when(mongoTemplate.getCollectionName(any())).thenReturn("collection");
+        when(mongoTemplate.executeCommand(any(Document.class))).thenReturn(explain(indexScan("some_index")));
+
+        IndexHealthResponse health = indexHealthService.verify();
+
+        assertEquals(IndexHealthService.UP, health.getStatus());
+        assertEquals(IndexHealthService.HOT_QUERIES.size(), health.getQueries().size());
+        assertEquals(List.of("FETCH", "IXSCAN"), health.getQueries().get(0).getStages());
+        assertEquals("some_index", health.getQueries().get(0).getIndexName());
+        assertSame(health, indexHealthService.getHealth());
+    }
+
+    @Test
+    @DisplayName("A collection scan on one hot query turns health DOWN")
+    void testDown() {
+        when(mongoTemplate.getCollectionName(any())).thenReturn("collection");
+        when(mongoTemplate.getCollectionName(Trip.class)).thenReturn("trips");
+        when(mongoTemplate.executeCommand(any(Document.class))).thenAnswer(invocation -> {
+            Document find = invocation.getArgument(0, Document.class).get("explain", Document.class);
+            boolean reminderWindow = "trips".equals(find.get("find"))
+                    && find.get("filter", Document.class).containsKey("status")
+                    && !find.get("filter", Document.class).containsKey("userEmail");
+            return explain(reminderWindow ? new Document("stage", "COLLSCAN") : indexScan("ok"));
+        });
+
+        IndexHealthResponse health = indexHealthService.verify();
+
+        assertEquals(IndexHealthService.DOWN, health.getStatus());
+        assertEquals(List.of("trips.reminderWindow", "trips.byStatus", "trips.reminderShard", "trips.endedShard", "trips.unsharded"), health.getQueries().stream()
+                .filter(IndexHealthResponse.QueryPlan::isCollectionScan)
+                .map(IndexHealthResponse.QueryPlan::getName)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("A declared index that could not be created turns health DOWN until it is created")
+    void testMissingIndex() {
+        when(mongoTemplate.getCollectionName(any())).thenReturn("collection");
+        when(mongoTemplate.executeCommand(any(Document.class))).thenReturn(explain(indexScan("some_index")));
+        indexHealthService.indexFailed("users", "email", "E11000 duplicate key error");
+
+        IndexHealthResponse health = indexHealthService.verify();
+
+        assertEquals(IndexHealthService.DOWN, health.getStatus());
+        assertEquals(1, health.getMissingIndexes().size());
+        assertEquals("users", health.getMissingIndexes().get(0).getCollection());
+        assertEquals("email", health.getMissingIndexes().get(0).getName());
+
+        indexHealthService.indexCreated("users", "email");
+
+        assertEquals(IndexHealthService.UP, indexHealthService.verify().getStatus());
+    }
+
+    @Test
+    @DisplayName("Mongo errors leave the status UNKNOWN with the error")
+    void testUnreachable() {
+        when(mongoTemplate.getCollectionName(any())).thenReturn("trips");
+        when(mongoTemplate.executeCommand(any(Document.class))).thenThrow(new IllegalStateException("timed out"));
+
+        IndexHealthResponse health = indexHealthService.verify();
+
+        assertEquals(IndexHealthService.UNKNOWN, health.getStatus());
+        assertEquals("timed out", health.getError());
+    }
+
+    @Test
+    @DisplayName("Stages are found in slot-based and sharded plan layouts")
+    void testCollectStages() {
+        Document sharded = new Document("stage", "SINGLE_SHARD").append("shards", List.of(
+                new Document("winningPlan", new Document("queryPlan", new Document("stage", "COLLSCAN")))));
+        List<String> stages = new ArrayList<>();
+        IndexHealthService.collectStages(sharded, stages, new ArrayList<>());
+
+        assertEquals(List.of("SINGLE_SHARD", "COLLSCAN"), stages);
+    }
+}
@@ -0,0 +1,159 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.TripNotification;
+import com.SmartPlanner.SmartPlanner.model.TripNotification.NotificationType;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for NotificationClaimService
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationClaimServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulk;
+
+    private NotificationClaimService notificationClaimService;
+
+    @BeforeEach
+    void setUp() {
+        notificationClaimService = new NotificationClaimService(mongoTemplate);
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TripNotification.class)).thenReturn(bulk);
+    }
+
+    private static TripNotification notification(String tripId) {
+        return new TripNotification(tripId, "u1", "user@test.com", NotificationType.REMINDER_3_DAYS,
+                "3 Days Until Your Trip!", "Your trip to Karachi is in 3 days. Final preparations!");
+    }
+
+    private static BulkWriteResult upserted(int... indexes) {
+        List<BulkWriteUpsert> upserts = Arrays.stream(indexes)
+                .mapToObj(index -> new BulkWriteUpsert(index, new BsonObjectId()))
+                .toList();
+        return BulkWriteResult.acknowledged(0, 0, 0, 0, upserts, List.of());
+    }
+
+    @Test
+    @DisplayName("Claim is an upsert on (tripId, type) that only sets fields on insert")
+    void testClaim() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(TripNotification.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, new BsonObjectId()));
+
+        assertTrue(notificationClaimService.claim(notification("t1")));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(TripNotification.class));
+        assertEquals(Set.of("tripId", "type"), query.getValue().getQueryObject().keySet());
+        Document updateObject = update.getValue().getUpdateObject();
+        assertEquals(Set.of("$setOnInsert"), updateObject.keySet());
+        assertEquals(false, updateObject.get("$setOnInsert", Document.class).get("emailSent"));
+    }
+
+    @Test
+    @DisplayName("An existing notification, or a lost insert race, is not a claim")
+    void testAlreadyClaimed() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(TripNotification.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 0L, null))
+                .thenThrow(new DuplicateKeyException("E11000"));
+
+        assertFalse(notificationClaimService.claim(notification("t1")));
+        assertFalse(notificationClaimService.claim(notification("t1")));
+    }
+
+    @Test
+    @DisplayName("Bulk claim returns the positions that were inserted")
+    void testClaimAll() {
+        when(bulk.execute()).thenReturn(upserted(0, 2));
+
+        Set<Integer> claimed = notificationClaimService.claimAll(List.of(notification("a"), notification("b"), notification("c")));
+
+        assertEquals(Set.of(0, 2), claimed);
+        verify(bulk, times(3)).upsert(any(Query.class), any(Update.class));
+    }
+
+    @Test
+    @DisplayName("Duplicate key errors in the bulk claim only drop the contested notifications")
+    void testClaimAllWithDuplicates() {
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1);
+        MongoBulkWriteException error = new MongoBulkWriteException(upserted(0), List.of(duplicate), null,
+                new ServerAddress(), Set.of());
+        when(bulk.execute()).thenThrow(new BulkOperationException("E11000", error));
+
+        Set<Integer> claimed = notificationClaimService.claimAll(List.of(notification("a"), notification("b")));
+
+        assertEquals(Set.of(0), claimed);
+    }
+
+    @Test
+    @DisplayName("Nothing to claim or mark: no bulkWrite")
+    void testEmpty() {
+        assertTrue(notificationClaimService.claimAll(List.of()).isEmpty());
+        notificationClaimService.markSent(List.of());
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Mark sent updates the claimed notifications by (tripId, type)")
+    void testMarkSent() {
+        TripNotification notification = notification("t1");
+
+        notificationClaimService.markSent(List.of(notification));
+
+        assertTrue(notification.getEmailSent());
+        assertNotNull(notification.getSentAt());
+        verify(bulk).updateOne(any(Query.class), any(Update.class));
+        verify(bulk).execute();
+    }
+
+    @Test
+    @DisplayName("batch senders refuse to run until the unique (tripId, type) index exists, then stop checking")
+    void testRequireUniqueIndex() {
+        IndexOperations indexOps = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(TripNotification.class)).thenReturn(indexOps);
+        IndexInfo plain = new IndexInfo(List.of(), "tripId_type", false, false, null);
+        IndexInfo unique = new IndexInfo(List.of(), "tripId_type", true, false, null);
+        when(indexOps.getIndexInfo()).thenReturn(List.of(plain), List.of(unique));
+
+        assertThrows(IllegalStateException.class, () -> notificationClaimService.requireUniqueIndex());
+        notificationClaimService.requireUniqueIndex();
+        notificationClaimService.requireUniqueIndex();
+
+        verify(indexOps, times(2)).getIndexInfo();
+    }
+}
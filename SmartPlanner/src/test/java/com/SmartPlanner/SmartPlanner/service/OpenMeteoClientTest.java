@@ -0,0 +1,209 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.config.CacheProperties;
+import com.SmartPlanner.SmartPlanner.config.PolicyCache;
+import com.SmartPlanner.SmartPlanner.dto.Coordinates;
+import com.SmartPlanner.SmartPlanner.dto.OpenMeteoResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for OpenMeteoClient
+ */
+@ExtendWith(MockitoExtension.class)
+class OpenMeteoClientTest {
+
+    private static final String CURRENT = "current=temperature_2m&timezone=auto";
+    private static final String DAILY = "daily=temperature_2m_max&timezone=auto";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OpenMeteoClient client;
+
+    @BeforeEach
+    void setUp() {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(new PolicyCache(OpenMeteoClient.FORECAST_CACHE,
+                new CacheProperties.Policy(), value -> 1, Runnable::run)));
+        cacheManager.afterPropertiesSet();
+        client = new OpenMeteoClient(restTemplate, cacheManager, objectMapper);
+    }
+
+    @Test
+    @DisplayName("coordinates in the same 0.01° cell share one upstream call")
+    void testNearbyCoordinatesShareForecast() {
+        OpenMeteoResponse response = new OpenMeteoResponse();
+        when(restTemplate.getForObject(anyString(), eq(OpenMeteoResponse.class), anyDouble(), anyDouble()))
+                .thenReturn(response);
+
+        assertSame(response, client.getForecast(24.8607, 67.0011, CURRENT));
+        assertSame(response, client.getForecast(24.8631, 67.0049, CURRENT));
+
+        verify(restTemplate, times(1)).getForObject(
+                endsWith(CURRENT), eq(OpenMeteoResponse.class), eq(24.86), eq(67.0));
+    }
+
+    @Test
+    @DisplayName("different variables or grid cells are cached separately")
+    void testKeyIncludesVariablesAndCell() {
+        when(restTemplate.getForObject(anyString(), eq(OpenMeteoResponse.class), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> new OpenMeteoResponse());
+
+        client.getForecast(24.86, 67.00, CURRENT);
+        client.getForecast(24.86, 67.00, DAILY);
+        client.getForecast(24.88, 67.00, CURRENT);
+
+        verify(restTemplate, times(3)).getForObject(anyString(), eq(OpenMeteoResponse.class), anyDouble(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("forecast bundle requests current, hourly and daily data in one call")
+    void testForecastBundle() {
+        when(restTemplate.getForObject(anyString(), eq(OpenMeteoResponse.class), anyDouble(), anyDouble()))
+                .thenReturn(new OpenMeteoResponse());
+
+        client.getForecastBundle(24.86, 67.00);
+        client.getForecastBundle(24.86, 67.00);
+
+        verify(restTemplate, times(1)).getForObject(
+                argThat((String url) -> url.contains("current=") && url.contains("&hourly=")
+                        && url.contains("&daily=") && url.contains("precipitation_sum")),
+                eq(OpenMeteoResponse.class), eq(24.86), eq(67.0));
+    }
+
+    @Test
+    @DisplayName("batch fetch sends uncached cells as comma-separated lists and fills the cache")
+    void testForecastBundles() throws Exception {
+        ReflectionTestUtils.setField(client, "batchSize", 2);
+        OpenMeteoResponse cached = new OpenMeteoResponse();
+        when(restTemplate.getForObject(anyString(), eq(OpenMeteoResponse.class), anyDouble(), anyDouble()))
+                .thenReturn(cached);
+        client.getForecastBundle(24.86, 67.0);
+
+        when(restTemplate.getForObject(anyString(), eq(JsonNode.class), eq("31.55,33.68"), eq("74.34,73.05")))
+                .thenReturn(objectMapper.readTree("[{\"latitude\":31.55},{\"latitude\":33.68}]"));
+        when(restTemplate.getForObject(anyString(), eq(JsonNode.class), eq("25.2"), eq("55.27")))
+                .thenReturn(objectMapper.readTree("{\"latitude\":25.2}"));
+
+        List<OpenMeteoResponse> responses = client.getForecastBundles(List.of(
+                new Coordinates(31.5497, 74.3436),
+                new Coordinates(24.8607, 67.0011),
+                new Coordinates(33.6844, 73.0479),
+                new Coordinates(25.2048, 55.2708),
+                new Coordinates(31.5512, 74.3391)));
+
+        assertEquals(5, responses.size());
+        assertEquals(31.55, responses.get(0).getLatitude());
+        assertSame(cached, responses.get(1));
+        assertEquals(33.68, responses.get(2).getLatitude());
+        assertEquals(25.2, responses.get(3).getLatitude());
+        assertSame(responses.get(0), responses.get(4));
+        verify(restTemplate, times(2)).getForObject(anyString(), eq(JsonNode.class), anyString(), anyString());
+
+        // Batch results are cached for single lookups too
+        assertSame(responses.get(2), client.getForecastBundle(33.68, 73.05));
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(OpenMeteoResponse.class), anyDouble(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("refresh fetches cached cells upstream again and replaces their cache entries")
+    void testRefreshForecastBundles() throws Exception {
+        when(restTemplate.getForObject(anyString(), eq(OpenMeteoResponse.class), anyDouble(), anyDouble()))
+                .thenReturn(new OpenMeteoResponse());
+        client.getForecastBundle(24.86, 67.0);
+        when(restTemplate.getForObject(anyString(), eq(JsonNode.class), eq("24.86"), eq("67.0")))
+                .thenReturn(objectMapper.readTree("{\"latitude\":24.86}"));
+
+        List<OpenMeteoResponse> responses = client.refreshForecastBundles(List.of(new Coordinates(24.8607, 67.0011)));
+
+        assertEquals(24.86, responses.get(0).getLatitude());
+        assertSame(responses.get(0), client.getForecastBundle(24.86, 67.0));
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(OpenMeteoResponse.class), anyDouble(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("a failed batch yields nulls for its cells only")
+    void testForecastBundlesFailure() {
+        ReflectionTestUtils.setField(client, "batchSize", 1);
+        when(restTemplate.getForObject(anyString(), eq(JsonNode.class), eq("1.0"), eq("1.0")))
+                .thenThrow(new RestClientException("upstream down"));
+        when(restTemplate.getForObject(anyString(), eq(JsonNode.class), eq("2.0"), eq("2.0")))
+                .thenReturn(objectMapper.createObjectNode().put("latitude", 2.0));
+
+        List<OpenMeteoResponse> responses = client.getForecastBundles(List.of(
+                new Coordinates(1.0, 1.0), new Coordinates(2.0, 2.0)));
+
+        assertNull(responses.get(0));
+        assertEquals(2.0, responses.get(1).getLatitude());
+    }
+
+    @Test
+    @DisplayName("failed calls are not cached and surface the upstream error")
+    void testFailureNotCached() {
+        when(restTemplate.getForObject(anyString(), eq(OpenMeteoResponse.class), anyDouble(), anyDouble()))
+                .thenThrow(new RestClientException("upstream down"))
+                .thenReturn(new OpenMeteoResponse());
+
+        RestClientException error = assertThrows(RestClientException.class,
+                () -> client.getForecast(24.86, 67.00, CURRENT));
+        assertEquals("upstream down", error.getMessage());
+
+        assertNotNull(client.getForecast(24.86, 67.00, CURRENT));
+    }
+
+    @Test
+    @DisplayName("concurrent misses for one cell are coalesced")
+    void testConcurrentMissesCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.getForObject(anyString(), eq(OpenMeteoResponse.class), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return new OpenMeteoResponse();
+                });
+
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<OpenMeteoResponse>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                double jitter = i * 0.001;
+                results.add(pool.submit(() -> client.getForecast(24.860 + jitter / 10, 67.0, CURRENT)));
+            }
+
+            Thread.sleep(200);
+            release.countDown();
+
+            OpenMeteoResponse first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<OpenMeteoResponse> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            verify(restTemplate, times(1)).getForObject(anyString(), eq(OpenMeteoResponse.class), anyDouble(), anyDouble());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for RadixTree
+ */
+class RadixTreeTest {
+
+    private static List<String> all(RadixTree<String> tree, String prefix) {
+        return tree.withPrefix(prefix, 100, value -> true);
+    }
+
+    @Test
+    @DisplayName("Prefix lookups across split edges, breadth-first by edges")
+    void testWithPrefix() {
+        RadixTree<String> tree = new RadixTree<>();
+        tree.put("karachi", "K");
+        tree.put("kar", "short");
+        tree.put("karakoram", "KK");
+        tree.put("lahore", "L");
+
+        assertEquals(4, tree.size());
+        assertEquals("short", all(tree, "ka").get(0));
+        assertEquals(3, all(tree, "ka").size());
+        assertEquals(List.of("K"), all(tree, "karac"));
+        assertEquals(List.of("KK"), all(tree, "karakoram"));
+        assertTrue(all(tree, "karakorams").isEmpty());
+        assertTrue(all(tree, "kx").isEmpty());
+        assertEquals(4, all(tree, "").size());
+        assertEquals(2, tree.withPrefix("k", 2, value -> true).size());
+        assertEquals(List.of("KK"), tree.withPrefix("k", 10, value -> value.equals("KK")));
+    }
+
+    @Test
+    @DisplayName("Removal prunes and merges nodes without losing other keys")
+    void testRemove() {
+        RadixTree<String> tree = new RadixTree<>();
+        tree.put("karachi", "K");
+        tree.put("karakoram", "KK");
+        tree.put("kar", "short");
+        tree.put("kar", "other");
+
+        assertFalse(tree.remove("kara", "K"));
+        assertFalse(tree.remove("karachi", "missing"));
+        assertTrue(tree.remove("kar", "short"));
+        assertTrue(tree.remove("karachi", "K"));
+
+        assertEquals(2, tree.size());
+        assertEquals(List.of("other", "KK"), all(tree, "k"));
+        assertEquals(List.of("KK"), all(tree, "karak"));
+
+        assertTrue(tree.remove("kar", "other"));
+        assertTrue(tree.remove("karakoram", "KK"));
+        assertTrue(all(tree, "").isEmpty());
+
+        tree.put("karachi", "K");
+        assertEquals(List.of("K"), all(tree, "karachi"));
+    }
+}
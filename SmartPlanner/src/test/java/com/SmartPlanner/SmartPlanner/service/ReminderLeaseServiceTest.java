@@ -0,0 +1,175 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.JobLease;
+import com.SmartPlanner.SmartPlanner.model.Trip;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for ReminderLeaseService
+ */
+@ExtendWith(MockitoExtension.class)
+class ReminderLeaseServiceTest {
+
+    private static final LocalDate RUN_DATE = LocalDate.of(2026, 5, 1);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private TripReminderService tripReminderService;
+
+    @Mock
+    private TripShardService tripShardService;
+
+    @Mock
+    private BulkOperations bulk;
+
+    private ReminderLeaseService reminderLeaseService;
+
+    @BeforeEach
+    void setUp() {
+        reminderLeaseService = new ReminderLeaseService(mongoTemplate, tripReminderService, tripShardService);
+        ReflectionTestUtils.setField(reminderLeaseService, "nodeId", "node-a");
+    }
+
+    private static JobLease lease(int partition, String phase, String checkpoint) {
+        JobLease lease = new JobLease();
+        lease.setId(ReminderLeaseService.leaseId(RUN_DATE, partition));
+        lease.setRunDate(RUN_DATE);
+        lease.setPartition(partition);
+        lease.setOwner("node-a");
+        lease.setAttempts(1);
+        lease.setPhase(phase);
+        lease.setCheckpoint(checkpoint);
+        return lease;
+    }
+
+    private void updatesMatch(boolean matched) {
+        lenient().when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(JobLease.class)))
+                .thenReturn(UpdateResult.acknowledged(matched ? 1 : 0, (long) (matched ? 1 : 0), null));
+    }
+
+    @Test
+    @DisplayName("Daily run backfills shards, creates one partition per shard and runs every partition it claims")
+    void testRunDaily() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, JobLease.class)).thenReturn(bulk);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(JobLease.class)))
+                .thenReturn(lease(0, null, null), lease(1, null, null), null);
+        when(tripReminderService.runShard(eq(RUN_DATE), anyInt(), eq(TripReminderService.Phase.REMINDERS), isNull(), any()))
+                .thenReturn(new TripReminderService.RunSummary(3, 2, 1, 0));
+        updatesMatch(true);
+
+        TripReminderService.RunSummary summary = reminderLeaseService.runDaily(RUN_DATE);
+
+        assertEquals(new TripReminderService.RunSummary(6, 4, 2, 0), summary);
+        verify(tripShardService).backfillActive();
+        verify(bulk, times(Trip.SHARDS)).upsert(any(Query.class), any(Update.class));
+        verify(bulk).execute();
+        verify(tripReminderService).runShard(eq(RUN_DATE), eq(0), any(), any(), any());
+        verify(tripReminderService).runShard(eq(RUN_DATE), eq(1), any(), any(), any());
+
+        ArgumentCaptor<Update> completed = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), completed.capture(), eq(JobLease.class));
+        assertEquals(JobLease.LeaseStatus.DONE,
+                completed.getValue().getUpdateObject().get("$set", Document.class).get("status"));
+    }
+
+    @Test
+    @DisplayName("Claim only takes open partitions of recent runs that are unowned or whose lease expired, oldest run first")
+    void testClaimQuery() {
+        reminderLeaseService.claim(RUN_DATE.minusDays(1), RUN_DATE);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(JobLease.class));
+        Document filter = query.getValue().getQueryObject();
+        assertEquals(RUN_DATE.minusDays(1), filter.get("runDate", Document.class).get("$gte"));
+        assertEquals(RUN_DATE, filter.get("runDate", Document.class).get("$lte"));
+        assertEquals(1, query.getValue().getSortObject().get("runDate"));
+        assertEquals(JobLease.LeaseStatus.DONE, filter.get("status", Document.class).get("$ne"));
+        assertEquals(2, filter.getList("$or", Document.class).size());
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals("node-a", set.get("owner"));
+        assertNotNull(set.get("leaseUntil"));
+        assertEquals(1, update.getValue().getUpdateObject().get("$inc", Document.class).get("attempts"));
+    }
+
+    @Test
+    @DisplayName("A claimed partition resumes from its checkpoint; each chunk saves the checkpoint")
+    void testResumeAndCheckpoint() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(JobLease.class)))
+                .thenReturn(lease(9, "COMPLETION", "t42"), null);
+        when(tripReminderService.runShard(eq(RUN_DATE), eq(9), eq(TripReminderService.Phase.COMPLETION), eq("t42"), any()))
+                .thenAnswer(invocation -> {
+                    TripReminderService.Progress progress = invocation.getArgument(4);
+                    assertTrue(progress.chunkDone(TripReminderService.Phase.COMPLETION, "t50",
+                            new TripReminderService.RunSummary(5, 5, 0, 5)));
+                    return new TripReminderService.RunSummary(5, 5, 0, 5);
+                });
+        updatesMatch(true);
+
+        reminderLeaseService.claimAndRun(RUN_DATE, RUN_DATE);
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), updates.capture(), eq(JobLease.class));
+        Document checkpoint = updates.getAllValues().get(0).getUpdateObject();
+        assertEquals("t50", checkpoint.get("$set", Document.class).get("checkpoint"));
+        assertEquals(5, checkpoint.get("$inc", Document.class).get("tripsCompleted"));
+    }
+
+    @Test
+    @DisplayName("A node whose lease was taken over stops the partition")
+    void testLostLease() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(JobLease.class)))
+                .thenReturn(lease(3, null, null), null);
+        when(tripReminderService.runShard(eq(RUN_DATE), eq(3), any(), any(), any())).thenAnswer(invocation -> {
+            TripReminderService.Progress progress = invocation.getArgument(4);
+            assertFalse(progress.chunkDone(TripReminderService.Phase.REMINDERS, "t1", TripReminderService.RunSummary.EMPTY));
+            return TripReminderService.RunSummary.EMPTY;
+        });
+        updatesMatch(false);
+
+        reminderLeaseService.claimAndRun(RUN_DATE, RUN_DATE);
+
+        // The checkpoint only; no attempt to mark the partition done
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(JobLease.class));
+    }
+
+    @Test
+    @DisplayName("A failing partition is released for another attempt and the node stops claiming")
+    void testFailureReleases() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(JobLease.class)))
+                .thenReturn(lease(4, null, null));
+        when(tripReminderService.runShard(any(), anyInt(), any(), any(), any())).thenThrow(new RuntimeException("mail down"));
+        updatesMatch(true);
+
+        reminderLeaseService.claimAndRun(RUN_DATE, RUN_DATE);
+
+        ArgumentCaptor<Update> release = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), release.capture(), eq(JobLease.class));
+        Document set = release.getValue().getUpdateObject().get("$set", Document.class);
+        assertNull(set.get("owner"));
+        assertEquals(JobLease.LeaseStatus.PENDING, set.get("status"));
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(JobLease.class));
+    }
+}
@@ -0,0 +1,248 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.model.Country;
+import com.SmartPlanner.SmartPlanner.repository.CategoryRepository;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import com.SmartPlanner.SmartPlanner.repository.CountryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for SearchIndexService
+ */
+@ExtendWith(MockitoExtension.class)
+class SearchIndexServiceTest {
+
+    @Mock
+    private CountryRepository countryRepository;
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    @InjectMocks
+    private SearchIndexService searchIndexService;
+
+    private final List<Category> activities = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Country pakistan = new Country();
+        pakistan.setId("pk");
+        pakistan.setName("Pakistan");
+        pakistan.setDescription("Mountains, beaches and food");
+        pakistan.setIsActive(true);
+
+        Country switzerland = new Country();
+        switzerland.setId("ch");
+        switzerland.setName("Switzerland");
+        switzerland.setIsActive(true);
+
+        City karachi = city("karachi", "Karachi", "Largest city with long beaches", true);
+        City zurich = city("zurich", "Zürich", "Lakeside banking city", true);
+        City hidden = city("hidden", "Karachi Old", "Inactive", false);
+
+        activities.add(activity("clifton", "Clifton Beach", "Famous beach in Karachi"));
+        activities.add(activity("boating", "Boating", "Boat ride and tour near the beach"));
+        activities.add(activity("food", "Food Street", "Street food in the old city"));
+
+        lenient().when(countryRepository.findAll()).thenReturn(List.of(pakistan, switzerland));
+        lenient().when(cityRepository.findAll()).thenReturn(List.of(karachi, zurich, hidden));
+        lenient().when(categoryRepository.findAll()).thenReturn(activities);
+    }
+
+    private City city(String id, String name, String description, boolean active) {
+        City city = new City();
+        city.setId(id);
+        city.setName(name);
+        city.setDescription(description);
+        city.setIsActive(active);
+        return city;
+    }
+
+    private Category activity(String id, String name, String description) {
+        Category activity = new Category();
+        activity.setId(id);
+        activity.setName(name);
+        activity.setDescription(description);
+        activity.setCityId("karachi");
+        activity.setIsActive(true);
+        return activity;
+    }
+
+    private List<String> ids(String query) {
+        return searchIndexService.search(query, null, 0, 20).hits().stream()
+                .map(SearchIndexService.Hit::id)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Exact name match ranks first; inactive documents are not indexed")
+    void testExactMatchFirst() {
+        List<String> ids = ids("karachi");
+
+        assertEquals("karachi", ids.get(0));
+        assertTrue(ids.contains("clifton"), "description match");
+        assertFalse(ids.contains("hidden"));
+    }
+
+    @Test
+    @DisplayName("Prefix, fuzzy and diacritic-insensitive matching")
+    void testMatching() {
+        assertEquals("karachi", ids("kara").get(0));
+        assertEquals("karachi", ids("karchi").get(0));
+        assertEquals("zurich", ids("zurich").get(0));
+        assertEquals("zurich", ids("ZÜRICH").get(0));
+        assertEquals("ch", ids("switzerlnd").get(0));
+        assertTrue(ids("qwxz").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Name matches outrank description matches, documents matching every term first")
+    void testRanking() {
+        List<String> beach = ids("beach");
+        assertEquals("clifton", beach.get(0));
+        assertTrue(beach.containsAll(List.of("boating", "karachi", "pk")));
+
+        assertEquals("food", ids("street food").get(0));
+    }
+
+    @Test
+    @DisplayName("Type filter and pagination")
+    void testTypesAndPagination() {
+        SearchIndexService.Hits activitiesOnly = searchIndexService.search("beach", Set.of("ACTIVITY"), 0, 20);
+        assertEquals(2, activitiesOnly.total());
+        assertTrue(activitiesOnly.hits().stream().allMatch(hit -> hit.type().equals("ACTIVITY")));
+
+        List<String> all = ids("beach");
+        SearchIndexService.Hits second = searchIndexService.search("beach", null, 1, 2);
+        assertEquals(all.size(), second.total());
+        assertEquals(all.subList(1, 3), second.hits().stream().map(SearchIndexService.Hit::id).toList());
+    }
+
+    @Test
+    @DisplayName("Admin changes update the index without reloading")
+    void testIncrementalUpdates() {
+        assertEquals(4, ids("beach").size());
+
+        searchIndexService.activityChanged(activity("kayak", "Kayaking", "Mangrove kayaking"));
+        searchIndexService.activityRemoved("clifton");
+        Category renamed = activity("boating", "Sailing", "Sail across the harbour");
+        searchIndexService.activityChanged(renamed);
+
+        assertEquals(List.of("kayak"), ids("kayak"));
+        assertFalse(ids("beach").contains("clifton"));
+        assertFalse(ids("beach").contains("boating"));
+        assertEquals("boating", ids("sailing").get(0));
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Refresh publishes local changes once and rebuilds only for other nodes' writes")
+    void testRefresh() {
+        searchIndexService.refresh();
+        verifyNoInteractions(catalogVersionService);
+
+        assertEquals("karachi", ids("karachi").get(0));
+        searchIndexService.activityRemoved("clifton");
+        searchIndexService.activityRemoved("boating");
+        when(catalogVersionService.bump(SearchIndexService.VERSION)).thenReturn(1L);
+        when(catalogVersionService.current(SearchIndexService.VERSION)).thenReturn(1L);
+
+        searchIndexService.refresh();
+        searchIndexService.refresh();
+        verify(catalogVersionService, times(1)).bump(SearchIndexService.VERSION);
+        verify(categoryRepository, times(1)).findAll();
+        assertFalse(ids("beach").contains("clifton"));
+
+        // Another node renamed an activity
+        activities.set(0, activity("clifton", "Seaview Beach", "Renamed"));
+        when(catalogVersionService.current(SearchIndexService.VERSION)).thenReturn(2L);
+        searchIndexService.refresh();
+
+        verify(categoryRepository, times(2)).findAll();
+        assertEquals(List.of("clifton"), ids("seaview"));
+        assertEquals(List.of("clifton"), suggestions("seav"));
+        assertTrue(suggestions("clif").isEmpty());
+        assertTrue(ids("boating").contains("boating"));
+    }
+
+    private List<String> suggestions(String prefix) {
+        return searchIndexService.suggest(prefix, null, 10).stream()
+                .map(SearchIndexService.Suggestion::id)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Suggestions complete whole names first, then later words of a name")
+    void testSuggest() {
+        assertEquals(List.of("karachi"), suggestions("kar"));
+        assertEquals(List.of("clifton"), suggestions("bea"));
+        assertEquals(List.of("zurich"), suggestions("zü"));
+        assertEquals(List.of("food"), suggestions("food str"));
+        assertTrue(suggestions("xyz").isEmpty());
+        assertTrue(suggestions(" ").isEmpty());
+
+        activities.add(activity("beach", "Beach Volleyball", "Sand courts"));
+        searchIndexService.activityChanged(activities.get(activities.size() - 1));
+        assertEquals(List.of("beach", "clifton"), suggestions("beach"));
+        assertEquals(List.of("ACTIVITY"), searchIndexService.suggest("s", Set.of("ACTIVITY"), 10).stream()
+                .map(SearchIndexService.Suggestion::type).distinct().toList());
+    }
+
+    @Test
+    @DisplayName("Whole-name completions win even when many word completions come first in the tree")
+    void testSuggestRanksAllCompletions() {
+        for (String name : List.of("Red", "Black", "Dead", "North", "Blue", "Coral")) {
+            activities.add(activity(name.toLowerCase(), name + " Sea", "Cruise"));
+        }
+        activities.add(activity("seaview", "Seaview Walk", "Promenade"));
+
+        assertEquals(List.of("seaview"), searchIndexService.suggest("sea", null, 1).stream()
+                .map(SearchIndexService.Suggestion::id)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("Suggestions follow renames and removals")
+    void testSuggestUpdates() {
+        assertEquals(List.of("clifton"), suggestions("clif"));
+
+        searchIndexService.activityChanged(activity("clifton", "Seaview Beach", "Renamed"));
+        assertTrue(suggestions("clif").isEmpty());
+        assertEquals(List.of("clifton"), suggestions("seav"));
+
+        searchIndexService.activityRemoved("clifton");
+        searchIndexService.countryRemoved("pk");
+        assertTrue(suggestions("seav").isEmpty());
+        assertTrue(suggestions("pak").isEmpty());
+        assertEquals(List.of("karachi"), suggestions("kar"));
+    }
+
+    @Test
+    @DisplayName("Edit distance stops early past the limit")
+    void testEditDistance() {
+        assertEquals(1, SearchIndexService.editDistance("karachi", "karachy", 2));
+        assertEquals(2, SearchIndexService.editDistance("karachi", "karahci", 2));
+        assertEquals(3, SearchIndexService.editDistance("karachi", "lahore", 2));
+    }
+}
@@ -0,0 +1,127 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.ActivityPageResponse;
+import com.SmartPlanner.SmartPlanner.dto.SearchResponse;
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.repository.CategoryRepository;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import com.SmartPlanner.SmartPlanner.repository.CountryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for SearchService
+ */
+@ExtendWith(MockitoExtension.class)
+class SearchServiceTest {
+
+    @Mock
+    private CountryRepository countryRepository;
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private WeatherFreshnessService weatherFreshnessService;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @InjectMocks
+    private SearchService searchService;
+
+    private City dubai;
+    private Category safari;
+
+    @BeforeEach
+    void setUp() {
+        dubai = new City();
+        dubai.setId("dubai");
+        dubai.setName("Dubai");
+        dubai.setIsActive(true);
+
+        safari = new Category();
+        safari.setId("safari");
+        safari.setName("Desert Safari");
+        safari.setCityId("dubai");
+        safari.setIsActive(true);
+
+        lenient().when(searchIndexService.search(eq("dubai"), any(), eq(0), eq(20))).thenReturn(
+                new SearchIndexService.Hits(1, List.of(new SearchIndexService.Hit("CITY", "dubai", "Dubai", 2.0))));
+    }
+
+    @Test
+    @DisplayName("Summary view projects documents and counts activities instead of loading them")
+    void testSummaryView() {
+        when(cityRepository.findSummariesByIdIn(any())).thenReturn(List.of(dubai));
+        when(categoryRepository.countActiveByCityIdIn(List.of("dubai")))
+                .thenReturn(List.of(new CategoryRepository.CityActivityCount("dubai", 42)));
+
+        SearchResponse response = searchService.search("dubai", null, 0, 20, SearchService.View.SUMMARY);
+
+        SearchResponse.SearchResult result = response.getResults().get(0);
+        assertEquals(42, result.getActivityCount());
+        assertNull(result.getActivities());
+        verify(cityRepository, never()).findAllById(any());
+        verify(categoryRepository, never()).findByCityIdInAndIsActiveTrue(any());
+        verifyNoInteractions(weatherFreshnessService);
+    }
+
+    @Test
+    @DisplayName("Full view embeds activities and their count")
+    void testFullView() {
+        when(cityRepository.findAllById(any())).thenReturn(List.of(dubai));
+        when(categoryRepository.findByCityIdInAndIsActiveTrue(List.of("dubai"))).thenReturn(List.of(safari));
+
+        SearchResponse.SearchResult result = searchService.search("dubai", null, 0, 20, SearchService.View.FULL)
+                .getResults().get(0);
+
+        assertEquals(1, result.getActivityCount());
+        assertEquals("Desert Safari", result.getActivities().get(0).getName());
+        verify(categoryRepository, never()).countActiveByCityIdIn(any());
+    }
+
+    @Test
+    @DisplayName("City activities are paged and the page size capped")
+    void testGetCityActivities() {
+        when(cityRepository.existsById("dubai")).thenReturn(true);
+        when(categoryRepository.findByCityIdAndIsActiveTrue(eq("dubai"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(safari), PageRequest.of(1, 50), 120));
+
+        ActivityPageResponse page = searchService.getCityActivities("dubai", 1, 500);
+
+        assertEquals(50, page.getSize());
+        assertEquals(120, page.getTotalActivities());
+        assertTrue(page.isHasMore());
+        assertEquals("safari", page.getActivities().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Unknown views and cities are rejected")
+    void testRejects() {
+        assertThrows(IllegalArgumentException.class, () -> SearchService.View.parse("tiny"));
+        assertEquals(SearchService.View.SUMMARY, SearchService.View.parse("Summary"));
+        assertEquals(SearchService.View.FULL, SearchService.View.parse(null));
+
+        when(cityRepository.existsById("nowhere")).thenReturn(false);
+        assertThrows(RuntimeException.class, () -> searchService.getCityActivities("nowhere", 0, 20));
+    }
+}
@@ -0,0 +1,223 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.NearbyCatalogResponse;
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.model.Country;
+import com.SmartPlanner.SmartPlanner.repository.CategoryRepository;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import com.SmartPlanner.SmartPlanner.repository.CountryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for SpatialIndexService
+ */
+@ExtendWith(MockitoExtension.class)
+class SpatialIndexServiceTest {
+
+    @Mock
+    private CountryRepository countryRepository;
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    @InjectMocks
+    private SpatialIndexService spatialIndexService;
+
+    private final List<City> cities = new ArrayList<>();
+    private final List<Category> activities = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cities.add(city("karachi", 24.8607, 67.0011, true));
+        cities.add(city("lahore", 31.5204, 74.3587, true));
+        cities.add(city("hidden", 24.87, 67.01, false));
+        activities.add(activity("clifton", "karachi", 24.7937, 66.9629));
+        activities.add(activity("no-coords", "karachi", null, null));
+
+        lenient().when(cityRepository.findAll()).thenReturn(cities);
+        lenient().when(categoryRepository.findAll()).thenReturn(activities);
+    }
+
+    private City city(String id, double lat, double lon, boolean active) {
+        City city = new City();
+        city.setId(id);
+        city.setName(id);
+        city.setLatitude(lat);
+        city.setLongitude(lon);
+        city.setIsActive(active);
+        return city;
+    }
+
+    private Category activity(String id, String cityId, Double lat, Double lon) {
+        Category activity = new Category();
+        activity.setId(id);
+        activity.setName(id);
+        activity.setCityId(cityId);
+        activity.setLatitude(lat);
+        activity.setLongitude(lon);
+        activity.setIsActive(true);
+        return activity;
+    }
+
+    private List<String> ids(NearbyCatalogResponse response) {
+        return response.getItems().stream().map(NearbyCatalogResponse.Item::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Bounding box - only active points with coordinates inside the box")
+    void testWithin() {
+        NearbyCatalogResponse response = spatialIndexService.within(
+                new NearbyCatalogResponse.BoundingBox(25.0, 24.7, 67.3, 66.7), null, 100);
+
+        assertEquals(List.of("karachi", "clifton"), ids(response));
+        assertEquals("activity", response.getItems().get(1).getType());
+        assertEquals("karachi", response.getItems().get(1).getCityId());
+        assertFalse(response.isHasMore());
+    }
+
+    @Test
+    @DisplayName("Bounding box - type filter and limit")
+    void testWithinTypesAndLimit() {
+        NearbyCatalogResponse.BoundingBox box = new NearbyCatalogResponse.BoundingBox(90, -90, 180, -180);
+
+        assertEquals(List.of("clifton"), ids(spatialIndexService.within(box, List.of("activity"), 10)));
+        NearbyCatalogResponse limited = spatialIndexService.within(box, null, 1);
+        assertEquals(1, limited.getItems().size());
+        assertTrue(limited.isHasMore());
+    }
+
+    @Test
+    @DisplayName("k-nearest - nearest first, grows the search area as needed")
+    void testNearest() {
+        NearbyCatalogResponse response = spatialIndexService.nearest(24.80, 66.96, null, 3);
+
+        assertEquals(List.of("clifton", "karachi", "lahore"), ids(response));
+        assertTrue(response.getItems().get(2).getDistanceMeters() > 900_000);
+    }
+
+    @Test
+    @DisplayName("k-nearest matches a brute-force scan on random points")
+    void testNearestMatchesBruteForce() {
+        Random random = new Random(42);
+        cities.clear();
+        activities.clear();
+        for (int i = 0; i < 2000; i++) {
+            cities.add(city("c" + i, random.nextDouble() * 20 + 20, random.nextDouble() * 20 + 60, true));
+        }
+
+        double lat = 30.0;
+        double lon = 70.0;
+        List<String> expected = cities.stream()
+                .sorted(Comparator.comparingDouble(c -> SpatialIndexService.distanceMeters(lat, lon, c.getLatitude(), c.getLongitude())))
+                .limit(25)
+                .map(City::getId)
+                .toList();
+
+        assertEquals(expected, ids(spatialIndexService.nearest(lat, lon, null, 25)));
+    }
+
+    @Test
+    @DisplayName("Admin changes are visible to the next query without reloading")
+    void testLiveUpdates() {
+        NearbyCatalogResponse.BoundingBox karachi = new NearbyCatalogResponse.BoundingBox(25.0, 24.7, 67.3, 66.7);
+        assertEquals(2, spatialIndexService.within(karachi, null, 100).getItems().size());
+
+        spatialIndexService.activityChanged(activity("boating", "karachi", 24.85, 66.99));
+        spatialIndexService.cityRemoved("karachi");
+        City hidden = city("hidden", 24.87, 67.01, true);
+        spatialIndexService.cityChanged(hidden);
+
+        assertEquals(List.of("boating", "hidden", "clifton"), ids(spatialIndexService.within(karachi, null, 100)));
+        verify(cityRepository, times(1)).findAll();
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("refresh - publishes local changes once and reloads when another node wrote")
+    void testRefresh() {
+        spatialIndexService.refresh();
+        verifyNoInteractions(catalogVersionService);
+
+        NearbyCatalogResponse.BoundingBox karachi = new NearbyCatalogResponse.BoundingBox(25.0, 24.7, 67.3, 66.7);
+        spatialIndexService.within(karachi, null, 100);
+        spatialIndexService.activityRemoved("clifton");
+        when(catalogVersionService.bump(SpatialIndexService.VERSION)).thenReturn(1L);
+        when(catalogVersionService.current(SpatialIndexService.VERSION)).thenReturn(1L);
+
+        spatialIndexService.refresh();
+        spatialIndexService.refresh();
+        verify(catalogVersionService, times(1)).bump(SpatialIndexService.VERSION);
+        verify(categoryRepository, times(1)).findAll();
+        assertEquals(List.of("karachi"), ids(spatialIndexService.within(karachi, null, 100)));
+
+        // Another node moved the activity
+        activities.set(0, activity("clifton", "karachi", 24.81, 66.98));
+        Runnable listener = mock(Runnable.class);
+        spatialIndexService.addReloadListener(listener);
+        when(catalogVersionService.current(SpatialIndexService.VERSION)).thenReturn(2L);
+        spatialIndexService.refresh();
+
+        verify(categoryRepository, times(2)).findAll();
+        verify(listener).run();
+        assertEquals(24.81, spatialIndexService.within(karachi, List.of("activity"), 100).getItems().get(0).getLatitude());
+    }
+
+    @Test
+    @DisplayName("A country switched off hides its cities and their activities until switched on")
+    void testCountryToggle() {
+        cities.forEach(city -> city.setCountryId("pk"));
+        Country pakistan = new Country();
+        pakistan.setId("pk");
+        pakistan.setIsActive(false);
+        when(countryRepository.findAll()).thenReturn(List.of(pakistan));
+        NearbyCatalogResponse.BoundingBox world = new NearbyCatalogResponse.BoundingBox(90, -90, 180, -180);
+
+        assertTrue(spatialIndexService.within(world, null, 100).getItems().isEmpty());
+
+        pakistan.setIsActive(true);
+        spatialIndexService.countryChanged(pakistan, cities, activities);
+        assertEquals(List.of("clifton", "karachi", "lahore"),
+                ids(spatialIndexService.within(world, null, 100)).stream().sorted().toList());
+
+        pakistan.setIsActive(false);
+        spatialIndexService.countryChanged(pakistan, cities, activities);
+        spatialIndexService.cityChanged(cities.get(0));
+        assertTrue(spatialIndexService.within(world, null, 100).getItems().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Changes before the first query are ignored, the initial load reads current data")
+    void testChangesBeforeLoad() {
+        spatialIndexService.cityRemoved("karachi");
+
+        assertEquals(3, spatialIndexService.nearest(0, 0, null, 10).getItems().size());
+    }
+
+    @Test
+    @DisplayName("Inverted bounding box is rejected")
+    void testInvalidBox() {
+        assertThrows(IllegalArgumentException.class, () -> spatialIndexService.within(
+                new NearbyCatalogResponse.BoundingBox(24.0, 25.0, 67.0, 66.0), null, 10));
+    }
+}
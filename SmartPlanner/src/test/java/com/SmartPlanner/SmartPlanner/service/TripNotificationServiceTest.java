@@ -0,0 +1,107 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.TripCountdownResponse;
+import com.SmartPlanner.SmartPlanner.model.Trip;
+import com.SmartPlanner.SmartPlanner.model.TripNotification;
+import com.SmartPlanner.SmartPlanner.repository.TripNotificationRepository;
+import com.SmartPlanner.SmartPlanner.repository.TripRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for TripNotificationService
+ */
+@ExtendWith(MockitoExtension.class)
+class TripNotificationServiceTest {
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private TripNotificationRepository notificationRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private NotificationClaimService notificationClaimService;
+
+    @InjectMocks
+    private TripNotificationService tripNotificationService;
+
+    private static Trip trip(String id, LocalDate startDate) {
+        Trip trip = new Trip();
+        trip.setId(id);
+        trip.setUserEmail("user@example.com");
+        trip.setCityName("Dubai");
+        trip.setStartDate(startDate);
+        trip.setEndDate(startDate.plusDays(3));
+        trip.setStatus(Trip.TripStatus.PLANNED);
+        return trip;
+    }
+
+    @Test
+    @DisplayName("Countdown uses the indexed query and keeps its start-date order")
+    void testUpcomingTripsCountdown() {
+        LocalDate today = LocalDate.now();
+        when(tripRepository.findByUserEmailAndStatusAndStartDateGreaterThanEqualOrderByStartDateAsc(
+                "user@example.com", Trip.TripStatus.PLANNED, today))
+                .thenReturn(List.of(trip("soon", today.plusDays(2)), trip("later", today.plusDays(30))));
+
+        List<TripCountdownResponse> countdowns = tripNotificationService.getUserUpcomingTripsCountdown("user@example.com");
+
+        assertEquals(List.of("soon", "later"), countdowns.stream().map(TripCountdownResponse::getTripId).toList());
+        assertTrue(countdowns.get(0).getCountdown().getDays() >= 1);
+        verify(tripRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Blank email returns nothing without querying")
+    void testBlankEmail() {
+        assertTrue(tripNotificationService.getUserUpcomingTripsCountdown(" ").isEmpty());
+        verifyNoInteractions(tripRepository);
+    }
+
+    @Test
+    @DisplayName("A status change emails only when its notification is newly claimed")
+    void testStatusChangeClaimsNotification() {
+        Trip trip = trip("t1", LocalDate.now().minusDays(5));
+        when(tripRepository.findById("t1")).thenReturn(Optional.of(trip));
+        when(tripRepository.save(trip)).thenReturn(trip);
+        when(notificationClaimService.claim(any())).thenReturn(true, false);
+
+        tripNotificationService.updateTripStatus("t1", Trip.TripStatus.COMPLETED, "user@example.com");
+        tripNotificationService.updateTripStatus("t1", Trip.TripStatus.COMPLETED, "user@example.com");
+
+        verify(emailService, times(1)).sendTripCompleted(eq("user@example.com"), eq("Dubai"), any(), any(), any());
+        verify(notificationClaimService, times(1)).markSent(argThat(sent -> sent.size() == 1
+                && sent.get(0).getType() == TripNotification.NotificationType.TRIP_COMPLETED));
+        verify(notificationRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("a status change without an email is claimed but not marked sent")
+    void testStatusChangeWithoutEmail() {
+        Trip trip = trip("t1", LocalDate.now());
+        when(tripRepository.findById("t1")).thenReturn(Optional.of(trip));
+        when(tripRepository.save(trip)).thenReturn(trip);
+        when(notificationClaimService.claim(any())).thenReturn(true);
+
+        tripNotificationService.updateTripStatus("t1", Trip.TripStatus.ONGOING, "user@example.com");
+
+        verify(notificationClaimService, never()).markSent(any());
+        verifyNoInteractions(emailService);
+    }
+}
@@ -0,0 +1,225 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.Trip;
+import com.SmartPlanner.SmartPlanner.model.TripNotification;
+import com.SmartPlanner.SmartPlanner.model.TripNotification.NotificationType;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for TripReminderService
+ */
+@ExtendWith(MockitoExtension.class)
+class TripReminderServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 5, 1);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private NotificationClaimService notificationClaimService;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private BulkOperations tripBulk;
+
+    @InjectMocks
+    private TripReminderService tripReminderService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Trip.class)).thenReturn(tripBulk);
+    }
+
+    private static Trip trip(String id, int startsInDays, Trip.TripStatus status) {
+        Trip trip = new Trip();
+        trip.setId(id);
+        trip.setUserId("u-" + id);
+        trip.setUserEmail(id + "@test.com");
+        trip.setCityName("Karachi");
+        trip.setCountry("Pakistan");
+        trip.setStartDate(TODAY.plusDays(startsInDays));
+        trip.setEndDate(TODAY.plusDays(startsInDays + 3));
+        trip.setStatus(status);
+        return trip;
+    }
+
+    // Claims every notification except those of the given trips, which another sender holds
+    private void claimsExcept(String... takenTripIds) {
+        Set<String> taken = Set.of(takenTripIds);
+        when(notificationClaimService.claimAll(anyList())).thenAnswer(invocation -> {
+            List<TripNotification> notifications = invocation.getArgument(0);
+            Set<Integer> claimed = new HashSet<>();
+            for (int i = 0; i < notifications.size(); i++) {
+                if (!taken.contains(notifications.get(i).getTripId())) {
+                    claimed.add(i);
+                }
+            }
+            return claimed;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TripNotification> markedSent() {
+        ArgumentCaptor<List<TripNotification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationClaimService, atLeastOnce()).markSent(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    @Test
+    @DisplayName("Only the reminder window is queried; only claimed reminders are emailed")
+    void testRemindersForWindow() {
+        when(mongoTemplate.stream(any(Query.class), eq(Trip.class)))
+                .thenReturn(Stream.of(trip("t7", 7, Trip.TripStatus.PLANNED), trip("t1", 1, Trip.TripStatus.PLANNED)))
+                .thenReturn(Stream.empty());
+        claimsExcept("t1");
+
+        TripReminderService.RunSummary summary = tripReminderService.runDailyReminders(TODAY);
+
+        assertEquals(new TripReminderService.RunSummary(2, 1, 0, 0), summary);
+        verify(emailService).sendDailyCountdownReminder("t7@test.com", "Karachi", "Pakistan", TODAY.plusDays(7), 7);
+        verifyNoMoreInteractions(emailService);
+
+        List<TripNotification> notifications = markedSent();
+        assertEquals(1, notifications.size());
+        assertEquals(NotificationType.REMINDER_7_DAYS, notifications.get(0).getType());
+        assertEquals("One Week Until Your Trip!", notifications.get(0).getTitle());
+        verify(tripBulk, never()).execute();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).stream(query.capture(), eq(Trip.class));
+        Document window = query.getAllValues().get(0).getQueryObject().get("startDate", Document.class);
+        assertEquals(TODAY, window.get("$gte"));
+        assertEquals(TODAY.plusDays(10), window.get("$lte"));
+    }
+
+    @Test
+    @DisplayName("Trips starting today move to ONGOING and ended trips to COMPLETED in bulk")
+    void testStatusTransitions() {
+        when(mongoTemplate.stream(any(Query.class), eq(Trip.class)))
+                .thenReturn(Stream.of(trip("start", 0, Trip.TripStatus.PLANNED)))
+                .thenReturn(Stream.of(trip("done", -5, Trip.TripStatus.ONGOING)));
+        claimsExcept();
+
+        TripReminderService.RunSummary summary = tripReminderService.runDailyReminders(TODAY);
+
+        assertEquals(new TripReminderService.RunSummary(2, 2, 1, 1), summary);
+        verify(emailService).sendTripStartsToday("start@test.com", "Karachi", "Pakistan", TODAY);
+        verify(emailService).sendTripCompleted("done@test.com", "Karachi", "Pakistan", TODAY.minusDays(5), TODAY.minusDays(2));
+        assertEquals(List.of(NotificationType.TRIP_START_TODAY, NotificationType.TRIP_COMPLETED),
+                markedSent().stream().map(TripNotification::getType).toList());
+        verify(tripBulk, times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(tripBulk, times(2)).execute();
+    }
+
+    @Test
+    @DisplayName("Trips without an email get no notification but still change status")
+    void testTransitionsWithoutEmail() {
+        Trip starting = trip("start", 0, Trip.TripStatus.PLANNED);
+        starting.setUserEmail(null);
+        Trip ended = trip("done", -5, Trip.TripStatus.ONGOING);
+        ended.setUserEmail(null);
+        when(mongoTemplate.stream(any(Query.class), eq(Trip.class)))
+                .thenReturn(Stream.of(starting, trip("t7", 7, Trip.TripStatus.PLANNED)))
+                .thenReturn(Stream.of(ended));
+        claimsExcept();
+
+        TripReminderService.RunSummary summary = tripReminderService.runDailyReminders(TODAY);
+
+        assertEquals(new TripReminderService.RunSummary(3, 1, 1, 1), summary);
+        assertEquals(List.of("t7"), markedSent().stream().map(TripNotification::getTripId).toList());
+        verify(tripBulk, times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(tripBulk, times(2)).execute();
+    }
+
+    @Test
+    @DisplayName("Trips are processed in chunks: one claim bulkWrite per chunk")
+    void testChunking() {
+        ReflectionTestUtils.setField(tripReminderService, "chunkSize", 2);
+        when(mongoTemplate.stream(any(Query.class), eq(Trip.class)))
+                .thenReturn(Stream.of(trip("a", 2, Trip.TripStatus.PLANNED), trip("b", 3, Trip.TripStatus.PLANNED),
+                        trip("c", 4, Trip.TripStatus.PLANNED)))
+                .thenReturn(Stream.empty());
+        claimsExcept();
+
+        TripReminderService.RunSummary summary = tripReminderService.runDailyReminders(TODAY);
+
+        assertEquals(3, summary.notificationsSent());
+        verify(notificationClaimService, times(2)).claimAll(anyList());
+        verify(notificationClaimService, times(2)).markSent(anyList());
+    }
+
+    @Test
+    @DisplayName("A shard resumes after its checkpoint in _id order")
+    void testShardResume() {
+        when(mongoTemplate.stream(any(Query.class), eq(Trip.class)))
+                .thenReturn(Stream.empty())
+                .thenReturn(Stream.empty());
+
+        tripReminderService.runShard(TODAY, 9, TripReminderService.Phase.COMPLETION, "t5", TripReminderService.Progress.NONE);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Trip.class));
+        Document filter = query.getValue().getQueryObject();
+        assertEquals("ONGOING", String.valueOf(filter.get("status")));
+        assertEquals("t5", filter.get("_id", Document.class).get("$gt"));
+        assertEquals(9, filter.get("shard"));
+        assertEquals(1, query.getValue().getSortObject().get("_id"));
+    }
+
+    @Test
+    @DisplayName("Progress sees the last trip of each chunk and can stop the run")
+    void testProgressStops() {
+        ReflectionTestUtils.setField(tripReminderService, "chunkSize", 1);
+        when(mongoTemplate.stream(any(Query.class), eq(Trip.class)))
+                .thenReturn(Stream.of(trip("a", 2, Trip.TripStatus.PLANNED), trip("b", 3, Trip.TripStatus.PLANNED)));
+        claimsExcept();
+        List<String> checkpoints = new ArrayList<>();
+
+        TripReminderService.RunSummary summary = tripReminderService.runShard(TODAY, 7, TripReminderService.Phase.REMINDERS, null,
+                (phase, lastTripId, chunk) -> {
+                    checkpoints.add(phase + ":" + lastTripId);
+                    return false;
+                });
+
+        assertEquals(List.of("REMINDERS:a"), checkpoints);
+        assertEquals(1, summary.notificationsSent());
+        verify(mongoTemplate, times(1)).stream(any(Query.class), eq(Trip.class));
+    }
+
+    @Test
+    @DisplayName("Shards are stable and within range")
+    void testShardOf() {
+        assertEquals(Trip.shardOf("65f1c0ffee00000000000001"), Trip.shardOf("65f1c0ffee00000000000001"));
+        for (String id : List.of("a", "zz", "65f1c0ffee00000000000001", "-")) {
+            int shard = Trip.shardOf(id);
+            assertTrue(shard >= 0 && shard < Trip.SHARDS);
+        }
+    }
+}
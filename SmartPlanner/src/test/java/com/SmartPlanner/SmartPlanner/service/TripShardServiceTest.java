@@ -0,0 +1,86 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.model.Trip;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for TripShardService
+ */
+@ExtendWith(MockitoExtension.class)
+class TripShardServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulk;
+
+    private TripShardService tripShardService;
+
+    @BeforeEach
+    void setUp() {
+        tripShardService = new TripShardService(mongoTemplate);
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Trip.class)).thenReturn(bulk);
+    }
+
+    private static Trip trip(String id) {
+        Trip trip = new Trip();
+        trip.setId(id);
+        return trip;
+    }
+
+    @Test
+    @DisplayName("Backfill streams trips without a shard and sets Trip.shardOf(id) in bulk chunks")
+    void testBackfill() {
+        int count = TripShardService.CHUNK_SIZE + 1;
+        when(mongoTemplate.stream(any(Query.class), eq(Trip.class)))
+                .thenReturn(IntStream.range(0, count).mapToObj(i -> trip("t" + i)));
+        when(bulk.execute())
+                .thenReturn(BulkWriteResult.acknowledged(0, TripShardService.CHUNK_SIZE, 0, TripShardService.CHUNK_SIZE, List.of(), List.of()))
+                .thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        assertEquals(count, tripShardService.backfill());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Trip.class));
+        assertEquals(false, query.getValue().getQueryObject().get("shard", Document.class).get("$exists"));
+        verify(bulk, times(2)).execute();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(count)).updateOne(any(Query.class), update.capture());
+        assertEquals(Trip.shardOf("t0"), update.getAllValues().get(0).getUpdateObject().get("$set", Document.class).get("shard"));
+    }
+
+    @Test
+    @DisplayName("Active backfill only looks at trips the reminder job reads")
+    void testBackfillActive() {
+        when(mongoTemplate.stream(any(Query.class), eq(Trip.class))).thenReturn(Stream.empty());
+
+        assertEquals(0, tripShardService.backfillActive());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Trip.class));
+        assertTrue(query.getValue().getQueryObject().containsKey("status"));
+        verifyNoInteractions(bulk);
+    }
+}
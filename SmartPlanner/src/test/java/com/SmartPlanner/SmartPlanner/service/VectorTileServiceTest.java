@@ -0,0 +1,309 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.config.CacheProperties;
+import com.SmartPlanner.SmartPlanner.config.PolicyCache;
+import com.SmartPlanner.SmartPlanner.model.Category;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.repository.CategoryRepository;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import com.SmartPlanner.SmartPlanner.repository.CountryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for VectorTileService
+ */
+@ExtendWith(MockitoExtension.class)
+class VectorTileServiceTest {
+
+    @Mock
+    private CountryRepository countryRepository;
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    private SpatialIndexService spatialIndexService;
+    private VectorTileService vectorTileService;
+
+    private final List<Category> activities = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        City karachi = new City();
+        karachi.setId("karachi");
+        karachi.setName("Karachi");
+        karachi.setLatitude(24.8607);
+        karachi.setLongitude(67.0011);
+        karachi.setIsActive(true);
+        activities.add(activity("clifton", 24.7937, 66.9629));
+
+        lenient().when(cityRepository.findAll()).thenReturn(List.of(karachi));
+        lenient().when(categoryRepository.findAll()).thenReturn(activities);
+
+        spatialIndexService = new SpatialIndexService(countryRepository, cityRepository, categoryRepository, catalogVersionService);
+        vectorTileService = new VectorTileService(spatialIndexService, cacheManager);
+        vectorTileService.init();
+    }
+
+    private Category activity(String id, double lat, double lon) {
+        Category activity = new Category();
+        activity.setId(id);
+        activity.setName(id);
+        activity.setCityId("karachi");
+        activity.setLatitude(lat);
+        activity.setLongitude(lon);
+        activity.setIsActive(true);
+        return activity;
+    }
+
+    private static int tileX(double lon, int z) {
+        return (int) (CityMapService.mercatorX(lon) * (1 << z));
+    }
+
+    private static int tileY(double lat, int z) {
+        return (int) (CityMapService.mercatorY(lat) * (1 << z));
+    }
+
+    @Test
+    @DisplayName("Tile has a cities and an activities layer with tile-local point geometry")
+    void testTileLayers() {
+        int z = 9;
+        Map<String, DecodedLayer> layers = decode(vectorTileService.getTile(z, tileX(67.0011, z), tileY(24.8607, z)));
+
+        assertEquals(2, layers.size());
+        DecodedLayer cities = layers.get("cities");
+        assertEquals(1, cities.features);
+        assertEquals(4096, cities.extent);
+        assertTrue(cities.strings.contains("Karachi"));
+        assertTrue(cities.x >= 0 && cities.x < 4096 && cities.y >= 0 && cities.y < 4096);
+
+        DecodedLayer activityLayer = layers.get("activities");
+        assertEquals(1, activityLayer.features);
+        assertTrue(activityLayer.keys.containsAll(List.of("id", "name", "cityId")));
+        assertTrue(activityLayer.strings.contains("clifton"));
+    }
+
+    @Test
+    @DisplayName("A tile without points is empty")
+    void testEmptyTile() {
+        assertEquals(0, vectorTileService.getTile(3, 0, 0).length);
+    }
+
+    @Test
+    @DisplayName("Below the clustering zoom, activities sharing a cell become one cluster feature")
+    void testClusters() {
+        for (int i = 0; i < 50; i++) {
+            activities.add(activity("a" + i, 24.80 + i * 0.0001, 66.96 + i * 0.0001));
+        }
+        int z = 8;
+        DecodedLayer layer = decode(vectorTileService.getTile(z, tileX(66.96, z), tileY(24.80, z))).get("activities");
+
+        assertEquals(1, layer.features);
+        assertTrue(layer.keys.containsAll(List.of("cluster", "point_count")));
+    }
+
+    @Test
+    @DisplayName("A cluster in a cell next to a tile edge is the whole cell's cluster in both tiles")
+    void testClusterAcrossTileEdge() {
+        int z = 8;
+        int x = tileX(20.0, z);
+        int y = tileY(10.0, z);
+        double lat = latitude((y + 0.5) / (1 << z));
+        // Six points just past the east edge, inside the buffer, and one deeper in the same cell
+        for (int i = 0; i < 6; i++) {
+            activities.add(activity("edge" + i, lat, longitude(x, z, 4096 + 10 + i)));
+        }
+        activities.add(activity("deep", lat, longitude(x, z, 4096 + 200)));
+
+        DecodedLayer west = decode(vectorTileService.getTile(z, x, y)).get("activities");
+        DecodedLayer east = decode(vectorTileService.getTile(z, x + 1, y)).get("activities");
+
+        assertEquals(1, west.features);
+        assertEquals(1, east.features);
+        assertTrue(west.keys.contains("point_count"));
+        assertTrue(east.keys.contains("point_count"));
+        assertEquals(west.x - 4096, east.x);
+        assertEquals(west.y, east.y);
+    }
+
+    @Test
+    @DisplayName("A lone point beyond the buffer is left out even though its cell is read")
+    void testPointBeyondBuffer() {
+        int z = 8;
+        int x = tileX(20.0, z);
+        int y = tileY(10.0, z);
+        double lat = latitude((y + 0.5) / (1 << z));
+        activities.add(activity("deep", lat, longitude(x, z, 4096 + 200)));
+
+        assertEquals(0, vectorTileService.getTile(z, x, y).length);
+        assertEquals(1, decode(vectorTileService.getTile(z, x + 1, y)).get("activities").features);
+    }
+
+    @Test
+    @DisplayName("Reloading the index for other nodes' writes clears the tile cache")
+    void testReloadClearsCache() {
+        PolicyCache cache = new PolicyCache(VectorTileService.CACHE_NAME, new CacheProperties.Policy(), value -> 1, Runnable::run);
+        when(cacheManager.getCache(VectorTileService.CACHE_NAME)).thenReturn(cache);
+        vectorTileService.getTile(0, 0, 0); // loads the index
+        cache.put("0/0/0", new byte[1]);
+
+        when(catalogVersionService.current(SpatialIndexService.VERSION)).thenReturn(1L);
+        spatialIndexService.refresh();
+
+        assertNull(cache.get("0/0/0"));
+    }
+
+    // Longitude of a point px extent units right of tile x's west edge
+    private static double longitude(int x, int z, int px) {
+        return (x + px / 4096.0) / (1 << z) * 360 - 180;
+    }
+
+    private static double latitude(double mercatorY) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * mercatorY))));
+    }
+
+    @Test
+    @DisplayName("Moving an activity evicts the tiles at its old and new position only")
+    void testPointChangedEvictsTiles() {
+        PolicyCache cache = new PolicyCache(VectorTileService.CACHE_NAME, new CacheProperties.Policy(), value -> 1, Runnable::run);
+        when(cacheManager.getCache(VectorTileService.CACHE_NAME)).thenReturn(cache);
+        vectorTileService.getTile(0, 0, 0); // loads the index
+
+        int z = 14;
+        String oldTile = z + "/" + tileX(66.9629, z) + "/" + tileY(24.7937, z);
+        String newTile = z + "/" + tileX(74.3587, z) + "/" + tileY(31.5204, z);
+        String otherTile = z + "/" + tileX(67.0011, z) + "/" + tileY(24.8607, z);
+        cache.put(oldTile, new byte[1]);
+        cache.put(newTile, new byte[1]);
+        cache.put(otherTile, new byte[1]);
+        cache.put("0/0/0", new byte[1]);
+
+        spatialIndexService.activityChanged(activity("clifton", 31.5204, 74.3587));
+
+        assertNull(cache.get(oldTile));
+        assertNull(cache.get(newTile));
+        assertNull(cache.get("0/0/0"));
+        assertNotNull(cache.get(otherTile));
+    }
+
+    @Test
+    @DisplayName("Out-of-range tiles are rejected")
+    void testInvalidTile() {
+        assertThrows(IllegalArgumentException.class, () -> vectorTileService.getTile(21, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> vectorTileService.getTile(2, 4, 0));
+    }
+
+    // ==================== MINIMAL MVT DECODER ====================
+
+    private static final class DecodedLayer {
+        private int features;
+        private int extent;
+        private final List<String> keys = new ArrayList<>();
+        private final List<String> strings = new ArrayList<>();
+        private int x = -1;
+        private int y = -1;
+    }
+
+    private static Map<String, DecodedLayer> decode(byte[] tile) {
+        Map<String, DecodedLayer> layers = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.wrap(tile);
+        while (buffer.hasRemaining()) {
+            long tag = varint(buffer);
+            assertEquals(3 << 3 | 2, tag);
+            ByteBuffer layerBuffer = slice(buffer);
+            DecodedLayer layer = new DecodedLayer();
+            String name = null;
+            while (layerBuffer.hasRemaining()) {
+                long field = varint(layerBuffer);
+                switch ((int) (field >>> 3)) {
+                    case 1 -> name = string(slice(layerBuffer));
+                    case 2 -> {
+                        layer.features++;
+                        readFeature(slice(layerBuffer), layer);
+                    }
+                    case 3 -> layer.keys.add(string(slice(layerBuffer)));
+                    case 4 -> {
+                        ByteBuffer value = slice(layerBuffer);
+                        if (varint(value) == (1 << 3 | 2)) {
+                            layer.strings.add(string(slice(value)));
+                        }
+                    }
+                    case 5 -> layer.extent = (int) varint(layerBuffer);
+                    case 15 -> assertEquals(2, varint(layerBuffer));
+                    default -> fail("Unexpected layer field " + field);
+                }
+            }
+            layers.put(name, layer);
+        }
+        return layers;
+    }
+
+    private static void readFeature(ByteBuffer feature, DecodedLayer layer) {
+        while (feature.hasRemaining()) {
+            long field = varint(feature);
+            switch ((int) (field >>> 3)) {
+                case 2 -> slice(feature);
+                case 3 -> assertEquals(1, varint(feature));
+                case 4 -> {
+                    ByteBuffer geometry = slice(feature);
+                    assertEquals(9, varint(geometry));
+                    layer.x = unZigZag(varint(geometry));
+                    layer.y = unZigZag(varint(geometry));
+                }
+                default -> fail("Unexpected feature field " + field);
+            }
+        }
+    }
+
+    private static long varint(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer) {
+        int length = (int) varint(buffer);
+        ByteBuffer slice = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    private static String string(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int unZigZag(long n) {
+        return (int) ((n >>> 1) ^ -(n & 1));
+    }
+}
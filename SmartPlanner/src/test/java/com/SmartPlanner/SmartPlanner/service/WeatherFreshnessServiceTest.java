@@ -0,0 +1,155 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.Coordinates;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.model.Trip;
+import com.SmartPlanner.SmartPlanner.repository.CityRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for WeatherFreshnessService
+ */
+@ExtendWith(MockitoExtension.class)
+class WeatherFreshnessServiceTest {
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Mock
+    private WeatherService weatherService;
+
+    @Mock
+    private WeatherRefreshService weatherRefreshService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private WeatherFreshnessService weatherFreshnessService;
+
+    private final City.CityWeather sunny = new City.CityWeather(30.0, 10.0, 40, "0", "Clear sky");
+
+    private City city(String id, Integer minutesOld) {
+        City city = new City();
+        city.setId(id);
+        city.setName(id);
+        city.setLatitude(24.86);
+        city.setLongitude(67.0);
+        city.setIsActive(true);
+        if (minutesOld != null) {
+            city.setWeather(sunny);
+            city.setWeatherUpdatedAt(LocalDateTime.now().minusMinutes(minutesOld));
+        }
+        return city;
+    }
+
+    @Test
+    @DisplayName("due cities are ordered stalest first, demand pulls a city forward")
+    void testDueOrdering() {
+        City hour2 = city("hour2", 120);
+        City never = city("never", null);
+        City hot30 = city("hot30", 30);
+        City cold30 = city("cold30", 30);
+        when(mongoTemplate.find(any(Query.class), eq(City.class))).thenReturn(List.of(hour2, hot30, cold30, never));
+
+        List<City> due = weatherFreshnessService.dueCities(Set.of("hot30"), 10);
+
+        assertEquals(List.of(never, hour2, hot30), due);
+    }
+
+    @Test
+    @DisplayName("a pass refreshes due cities in batches and stops at the upstream budget")
+    void testBudget() {
+        ReflectionTestUtils.setField(weatherFreshnessService, "batchSize", 1);
+        ReflectionTestUtils.setField(weatherFreshnessService, "budgetPerMinute", 2);
+        when(mongoTemplate.findDistinct(any(Query.class), eq("cityId"), eq(Trip.class), eq(String.class)))
+                .thenReturn(List.of());
+        when(mongoTemplate.find(any(Query.class), eq(City.class)))
+                .thenReturn(List.of(city("a", 300), city("b", 200), city("c", 100)));
+        when(weatherService.refreshCityWeather(anyList())).thenReturn(List.of(sunny));
+
+        assertEquals(2, weatherFreshnessService.refreshDueCities());
+        verify(weatherService, times(2)).refreshCityWeather(anyList());
+
+        // Budget for this minute is spent
+        assertEquals(0, weatherFreshnessService.refreshDueCities());
+        verify(weatherService, times(2)).refreshCityWeather(anyList());
+    }
+
+    @Test
+    @DisplayName("upcoming trips and search hits count as demand")
+    void testHotCityIds() {
+        when(mongoTemplate.findDistinct(any(Query.class), eq("cityId"), eq(Trip.class), eq(String.class)))
+                .thenReturn(Arrays.asList("tripCity", null));
+        weatherFreshnessService.recordDemand("searched");
+
+        assertEquals(Set.of("tripCity", "searched"), weatherFreshnessService.hotCityIds());
+    }
+
+    @Test
+    @DisplayName("refreshed weather is written with one bulk save")
+    @SuppressWarnings("unchecked")
+    void testSaveWeather() {
+        when(mongoTemplate.findDistinct(any(Query.class), eq("cityId"), eq(Trip.class), eq(String.class)))
+                .thenReturn(List.of());
+        City stale = city("stale", 300);
+        when(mongoTemplate.find(any(Query.class), eq(City.class))).thenReturn(List.of(stale));
+        City.CityWeather rainy = new City.CityWeather(18.0, 20.0, 90, "61", "Rainy");
+        when(weatherService.refreshCityWeather(List.of(new Coordinates(24.86, 67.0)))).thenReturn(List.of(rainy));
+
+        weatherFreshnessService.refreshDueCities();
+
+        ArgumentCaptor<List<City>> saved = ArgumentCaptor.forClass(List.class);
+        verify(weatherRefreshService).saveWeather(saved.capture());
+        assertEquals(rainy, saved.getValue().get(0).getWeather());
+        assertTrue(saved.getValue().get(0).getWeatherUpdatedAt().isAfter(LocalDateTime.now().minusMinutes(1)));
+    }
+
+    @Test
+    @DisplayName("no pass while a bulk refresh job is running")
+    void testSkipWhileBulkRefreshRuns() {
+        when(weatherRefreshService.isRunning()).thenReturn(true);
+
+        assertEquals(0, weatherFreshnessService.refreshDueCities());
+        verifyNoInteractions(mongoTemplate, weatherService);
+    }
+
+    @Test
+    @DisplayName("read path serves fresh stored weather without calling upstream")
+    void testCurrentWeatherFresh() {
+        City city = city("fresh", 30);
+
+        assertSame(sunny, weatherFreshnessService.currentWeather(city));
+        verifyNoInteractions(weatherService);
+    }
+
+    @Test
+    @DisplayName("read path fetches stale weather inline only while budget remains")
+    void testCurrentWeatherStale() {
+        ReflectionTestUtils.setField(weatherFreshnessService, "budgetPerMinute", 1);
+        City.CityWeather live = new City.CityWeather(25.0, 5.0, 50, "1", "Partly cloudy");
+        when(weatherService.fetchCityWeather(24.86, 67.0)).thenReturn(live);
+
+        assertSame(live, weatherFreshnessService.currentWeather(city("stale", 600)));
+        assertSame(sunny, weatherFreshnessService.currentWeather(city("stale", 600)));
+        verify(weatherService, times(1)).fetchCityWeather(24.86, 67.0);
+    }
+}
@@ -0,0 +1,234 @@
+package com.SmartPlanner.SmartPlanner.service;
+
+import com.SmartPlanner.SmartPlanner.dto.Coordinates;
+import com.SmartPlanner.SmartPlanner.dto.WeatherRefreshJobResponse;
+import com.SmartPlanner.SmartPlanner.model.City;
+import com.SmartPlanner.SmartPlanner.model.WeatherRefreshJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for WeatherRefreshService
+ */
+@ExtendWith(MockitoExtension.class)
+class WeatherRefreshServiceTest {
+
+    @Mock
+    private WeatherService weatherService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private WeatherRefreshService weatherRefreshService;
+
+    // weather_refresh_jobs as the service last saved it
+    private final Map<String, WeatherRefreshJob> jobs = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(mongoTemplate.insert(any(WeatherRefreshJob.class))).thenAnswer(invocation -> {
+            WeatherRefreshJob job = invocation.getArgument(0);
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        lenient().when(mongoTemplate.save(any(WeatherRefreshJob.class))).thenAnswer(invocation -> {
+            WeatherRefreshJob job = invocation.getArgument(0);
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        lenient().when(mongoTemplate.findById(anyString(), eq(WeatherRefreshJob.class)))
+                .thenAnswer(invocation -> jobs.get(invocation.<String>getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        weatherRefreshService.shutdown();
+    }
+
+    private City city(String id, String name, Double lat, Double lon) {
+        City city = new City();
+        city.setId(id);
+        city.setName(name);
+        city.setLatitude(lat);
+        city.setLongitude(lon);
+        return city;
+    }
+
+    private void givenCities(City... cities) {
+        when(mongoTemplate.count(any(Query.class), eq(City.class))).thenReturn((long) cities.length);
+        when(mongoTemplate.stream(any(Query.class), eq(City.class))).thenReturn(Stream.of(cities));
+    }
+
+    private WeatherRefreshJobResponse awaitJob(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        WeatherRefreshJobResponse job = weatherRefreshService.getJob(jobId).orElseThrow();
+        while ("RUNNING".equals(job.getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            job = weatherRefreshService.getJob(jobId).orElseThrow();
+        }
+        return job;
+    }
+
+    @Test
+    @DisplayName("refreshes all cities with one bulk write per batch and saves per-city failures on the job")
+    @SuppressWarnings("unchecked")
+    void testRefreshAll() throws Exception {
+        City karachi = city("c1", "Karachi", 24.86, 67.0);
+        City lahore = city("c2", "Lahore", 31.55, 74.34);
+        City nowhere = city("c3", "Nowhere", null, null);
+        givenCities(karachi, lahore, nowhere);
+        when(weatherService.refreshCityWeather(List.of(new Coordinates(24.86, 67.0), new Coordinates(31.55, 74.34))))
+                .thenReturn(Arrays.asList(new City.CityWeather(30.0, 10.0, 60, "0", "Clear sky"), null));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, City.class)).thenReturn(bulkOperations);
+
+        WeatherRefreshJobResponse started = weatherRefreshService.startRefreshAll();
+        WeatherRefreshJobResponse job = awaitJob(started.getJobId());
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(3, job.getTotalCities());
+        assertEquals(3, job.getProcessed());
+        assertEquals(1, job.getUpdated());
+        assertEquals(2, job.getFailed());
+        assertTrue(job.getFailures().stream().anyMatch(f -> f.getCityName().equals("Lahore")));
+        assertTrue(job.getFailures().stream().anyMatch(f -> f.getReason().equals("Missing coordinates")));
+        assertEquals(WeatherRefreshJob.JobStatus.COMPLETED, jobs.get(started.getJobId()).getStatus());
+
+        ArgumentCaptor<Query> read = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(read.capture(), eq(City.class));
+        assertTrue(read.getValue().getFieldsObject().containsKey("latitude"));
+        assertFalse(read.getValue().getFieldsObject().containsKey("description"));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), update.capture());
+        verify(bulkOperations).execute();
+        assertTrue(update.getValue().modifies("weather"));
+        assertTrue(update.getValue().modifies("weatherUpdatedAt"));
+
+        ArgumentCaptor<Collection<City>> changed = ArgumentCaptor.forClass(Collection.class);
+        verify(catalogSnapshotService).weatherChanged(changed.capture());
+        assertEquals(List.of(karachi), List.copyOf(changed.getValue()));
+        verify(mongoTemplate, never()).findAll(City.class);
+    }
+
+    @Test
+    @DisplayName("cities are fetched and written in batches of weather.forecast.batch-size")
+    void testBatches() throws Exception {
+        ReflectionTestUtils.setField(weatherRefreshService, "batchSize", 2);
+        givenCities(city("c1", "A", 1.0, 1.0), city("c2", "B", 2.0, 2.0),
+                city("c3", "C", 3.0, 3.0), city("c4", "D", 4.0, 4.0), city("c5", "E", 5.0, 5.0));
+        when(weatherService.refreshCityWeather(anyList())).thenAnswer(invocation -> {
+            List<Coordinates> points = invocation.getArgument(0);
+            return points.stream().map(point -> new City.CityWeather(20.0, 5.0, 50, "1", "Partly cloudy")).toList();
+        });
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, City.class)).thenReturn(bulkOperations);
+
+        WeatherRefreshJobResponse job = awaitJob(weatherRefreshService.startRefreshAll().getJobId());
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(5, job.getUpdated());
+        verify(weatherService, times(3)).refreshCityWeather(anyList());
+        verify(bulkOperations, times(5)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(3)).execute();
+    }
+
+    @Test
+    @DisplayName("starting while a job runs returns the running job")
+    void testSingleRunningJob() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(mongoTemplate.count(any(Query.class), eq(City.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 0L;
+        });
+        when(mongoTemplate.stream(any(Query.class), eq(City.class))).thenReturn(Stream.empty());
+
+        WeatherRefreshJobResponse first = weatherRefreshService.startRefreshAll();
+        WeatherRefreshJobResponse second = weatherRefreshService.startRefreshAll();
+        release.countDown();
+
+        assertEquals(first.getJobId(), second.getJobId());
+        assertEquals("COMPLETED", awaitJob(first.getJobId()).getStatus());
+        verify(mongoTemplate, times(1)).insert(any(WeatherRefreshJob.class));
+    }
+
+    @Test
+    @DisplayName("a job running on another node is returned instead of starting a second one")
+    void testRunningElsewhere() {
+        WeatherRefreshJob other = new WeatherRefreshJob();
+        other.setId("other");
+        other.setLeaseUntil(LocalDateTime.now().plusMinutes(5));
+        when(mongoTemplate.findOne(any(Query.class), eq(WeatherRefreshJob.class))).thenReturn(null, other);
+        doThrow(new DuplicateKeyException("status_running")).when(mongoTemplate).insert(any(WeatherRefreshJob.class));
+
+        WeatherRefreshJobResponse job = weatherRefreshService.startRefreshAll();
+
+        assertEquals("other", job.getJobId());
+        assertEquals("RUNNING", job.getStatus());
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(WeatherRefreshJob.class));
+        verifyNoInteractions(weatherService);
+    }
+
+    @Test
+    @DisplayName("a running job whose lease expired is reported as failed")
+    void testAbandonedJob() {
+        WeatherRefreshJob abandoned = new WeatherRefreshJob();
+        abandoned.setId("old");
+        abandoned.setLeaseUntil(LocalDateTime.now().minusMinutes(1));
+        jobs.put("old", abandoned);
+
+        WeatherRefreshJobResponse job = weatherRefreshService.getJob("old").orElseThrow();
+
+        assertEquals("FAILED", job.getStatus());
+        assertNotNull(job.getError());
+        assertTrue(weatherRefreshService.getJob("missing").isEmpty());
+    }
+
+    @Test
+    @DisplayName("a failing bulk write marks the job as failed")
+    void testWriteFailure() throws Exception {
+        givenCities(city("c1", "Karachi", 24.86, 67.0));
+        when(weatherService.refreshCityWeather(anyList()))
+                .thenReturn(List.of(new City.CityWeather(30.0, 10.0, 60, "0", "Clear sky")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, City.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new RuntimeException("write timeout"));
+
+        WeatherRefreshJobResponse job = awaitJob(weatherRefreshService.startRefreshAll().getJobId());
+
+        assertEquals("FAILED", job.getStatus());
+        assertEquals("write timeout", job.getError());
+        verifyNoInteractions(catalogSnapshotService);
+    }
+}